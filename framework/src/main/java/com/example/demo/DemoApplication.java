@@ -3,6 +3,7 @@ package com.example.demo;
 import com.example.demo.controller.UserController;
 import com.example.demo.config.AppConfig;
 import com.example.demo.model.User;
+import com.example.minidiframework.config.ConfigurationProperties;
 import com.example.minidiframework.context.ApplicationContext;
 
 import java.util.List;
@@ -18,17 +19,22 @@ public class DemoApplication {
         
         // Initialize the application context
         System.out.println("Initializing ApplicationContext...");
-        ApplicationContext context = new ApplicationContext("com.example.demo");
+        ApplicationContext context = new ApplicationContext(ConfigurationProperties.fromCommandLine(args), "com.example.demo");
         System.out.println("ApplicationContext initialized successfully!");
         System.out.println();
         
         // Get the beans
-        UserController userController = context.getBean(UserController.class);
         AppConfig appConfig = context.getBean(AppConfig.class);
         
         // Show configuration
         appConfig.printConfiguration();
         System.out.println();
+
+        if (!context.containsBean("userController")) {
+            System.out.println("User management is disabled (feature.user.management=false)");
+            return;
+        }
+        UserController userController = context.getBean(UserController.class);
         
         // Demonstrate the framework functionality
         demonstrateFramework(userController);
@@ -3,6 +3,7 @@ package com.example.demo;
 import com.example.demo.config.AppConfig;
 import com.example.demo.controller.UserController;
 import com.example.demo.web.UserRestController;
+import com.example.minidiframework.config.ConfigurationProperties;
 import com.example.minidiframework.context.ApplicationContext;
 import com.example.minidiframework.web.HttpRequest;
 import com.example.minidiframework.web.HttpResponse;
@@ -18,7 +19,7 @@ public class EnhancedDemoApplication {
         
         // Initialize the application context
         System.out.println("📦 Initializing ApplicationContext...");
-        ApplicationContext context = new ApplicationContext("com.example.demo");
+        ApplicationContext context = new ApplicationContext(ConfigurationProperties.fromCommandLine(args), "com.example.demo");
         System.out.println("✅ ApplicationContext initialized successfully!");
         System.out.println();
         
@@ -38,11 +39,18 @@ public class EnhancedDemoApplication {
         System.out.println("⚙️ === Configuration Properties Demo ===");
         AppConfig appConfig = context.getBean(AppConfig.class);
         appConfig.printConfiguration();
+        System.out.println("server.port comes from: "
+            + context.getConfigurationProperties().getPropertySource("server.port"));
         System.out.println();
     }
     
     private static void demonstrateDependencyInjectionAndAOP(ApplicationContext context) {
         System.out.println("🔧 === Dependency Injection & AOP Demo ===");
+        if (!context.containsBean("userController")) {
+            System.out.println("User management is disabled (feature.user.management=false)");
+            System.out.println();
+            return;
+        }
         System.out.println("Note: AOP logging will be shown during method calls");
         System.out.println();
         
@@ -3,12 +3,14 @@ package com.example.demo.aspect;
 import com.example.minidiframework.annotation.After;
 import com.example.minidiframework.annotation.Aspect;
 import com.example.minidiframework.annotation.Before;
+import com.example.minidiframework.annotation.ConditionalOnProperty;
 
 import java.lang.reflect.Method;
 
 /**
  * Logging aspect for demonstration of AOP functionality.
  */
+@ConditionalOnProperty("feature.logging.enabled")
 @Aspect(order = 1)
 public class LoggingAspect {
 
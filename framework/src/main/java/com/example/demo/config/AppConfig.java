@@ -1,10 +1,13 @@
 package com.example.demo.config;
 
+import com.example.minidiframework.annotation.Autowired;
 import com.example.minidiframework.annotation.Component;
 import com.example.minidiframework.annotation.Value;
 
+import java.util.List;
+
 /**
- * Configuration class demonstrating @Value annotation usage.
+ * Configuration class demonstrating @Value injection, with the database settings bound by @ConfigurationProperties.
  */
 @Component
 public class AppConfig {
@@ -24,11 +27,14 @@ public class AppConfig {
     @Value("feature.user.management")
     private boolean userManagementEnabled;
     
-    @Value("db.host")
-    private String databaseHost;
-    
-    @Value("db.port")
-    private int databasePort;
+    @Autowired
+    private DatabaseProperties database;
+
+    @Value("server.url")
+    private String serverUrl;
+
+    @Value("app.admins")
+    private List<String> admins;
 
     public String getAppName() {
         return appName;
@@ -50,12 +56,16 @@ public class AppConfig {
         return userManagementEnabled;
     }
 
-    public String getDatabaseHost() {
-        return databaseHost;
+    public DatabaseProperties getDatabase() {
+        return database;
+    }
+
+    public String getServerUrl() {
+        return serverUrl;
     }
 
-    public int getDatabasePort() {
-        return databasePort;
+    public List<String> getAdmins() {
+        return admins;
     }
     
     public void printConfiguration() {
@@ -65,8 +75,9 @@ public class AppConfig {
         System.out.println("Debug Mode: " + debugMode);
         System.out.println("Server Port: " + serverPort);
         System.out.println("User Management: " + userManagementEnabled);
-        System.out.println("Database Host: " + databaseHost);
-        System.out.println("Database Port: " + databasePort);
+        System.out.println("Database: " + database);
+        System.out.println("Server URL: " + serverUrl);
+        System.out.println("Admins: " + admins);
         System.out.println("==================================");
     }
 }
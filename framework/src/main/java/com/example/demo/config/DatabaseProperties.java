@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+import com.example.minidiframework.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Database settings bound from the db.* properties.
+ */
+@ConfigurationProperties("db")
+public record DatabaseProperties(String host, int port, String name, String username, String password,
+                                 Duration timeout, Pool pool) {
+
+    public DatabaseProperties {
+        if (port < 1 || port > 65535) {
+            throw new IllegalArgumentException("port must be between 1 and 65535, was " + port);
+        }
+        if (timeout == null) {
+            timeout = Duration.ofSeconds(5);
+        }
+    }
+
+    /**
+     * Connection pool settings bound from the db.pool.* properties.
+     */
+    public record Pool(int maxSize, Duration idleTimeout) {
+    }
+
+    @Override
+    public String toString() {
+        return "DatabaseProperties[" + username + "@" + host + ":" + port + "/" + name + ", timeout=" + timeout
+            + ", pool=" + pool + "]";
+    }
+}
@@ -3,6 +3,7 @@ package com.example.demo.controller;
 import com.example.demo.model.User;
 import com.example.demo.service.UserService;
 import com.example.minidiframework.annotation.Autowired;
+import com.example.minidiframework.annotation.ConditionalOnProperty;
 import com.example.minidiframework.annotation.Component;
 
 import java.util.List;
@@ -11,6 +12,7 @@ import java.util.Optional;
 /**
  * Controller for handling User-related requests.
  */
+@ConditionalOnProperty("feature.user.management")
 @Component
 public class UserController {
     
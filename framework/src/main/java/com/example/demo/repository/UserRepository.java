@@ -1,6 +1,7 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.User;
+import com.example.minidiframework.annotation.ConditionalOnProperty;
 import com.example.minidiframework.annotation.Repository;
 
 import java.util.ArrayList;
@@ -10,6 +11,7 @@ import java.util.Optional;
 /**
  * Repository for managing User entities.
  */
+@ConditionalOnProperty("feature.user.management")
 @Repository
 public class UserRepository {
     private final List<User> users = new ArrayList<>();
@@ -3,6 +3,7 @@ package com.example.demo.service;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 import com.example.minidiframework.annotation.Autowired;
+import com.example.minidiframework.annotation.ConditionalOnProperty;
 import com.example.minidiframework.annotation.Service;
 
 import java.util.List;
@@ -11,6 +12,7 @@ import java.util.Optional;
 /**
  * Service for managing User business logic.
  */
+@ConditionalOnProperty("feature.user.management")
 @Service
 public class UserService {
     
@@ -3,6 +3,7 @@ package com.example.demo.web;
 import com.example.demo.model.User;
 import com.example.demo.service.UserService;
 import com.example.minidiframework.annotation.Autowired;
+import com.example.minidiframework.annotation.ConditionalOnProperty;
 import com.example.minidiframework.web.annotation.RequestMapping;
 import com.example.minidiframework.web.annotation.RestController;
 import com.example.minidiframework.web.HttpRequest;
@@ -14,6 +15,7 @@ import java.util.Optional;
 /**
  * REST controller for User operations.
  */
+@ConditionalOnProperty("feature.user.management")
 @RestController("/api/users")
 public class UserRestController {
     
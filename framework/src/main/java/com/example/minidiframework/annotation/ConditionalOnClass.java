@@ -0,0 +1,20 @@
+package com.example.minidiframework.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Registers a component only if all the given classes are on the classpath. The classes are named
+ * rather than referenced, so the component class stays readable when they are missing, and they
+ * are looked up as resources without being loaded.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalOnClass {
+    /**
+     * The binary names of the required classes.
+     */
+    String[] value();
+}
@@ -0,0 +1,21 @@
+package com.example.minidiframework.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Registers a component only if no other component of the scan is assignable to any of the given
+ * types, which makes it a default that an application replaces by declaring its own bean.
+ * Components that are switched off by their own conditions do not count, and neither do other
+ * components that are conditional on a missing bean.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalOnMissingBean {
+    /**
+     * The bean types to look for. If empty, the annotated class itself.
+     */
+    Class<?>[] value() default {};
+}
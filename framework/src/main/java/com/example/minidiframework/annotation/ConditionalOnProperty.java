@@ -0,0 +1,29 @@
+package com.example.minidiframework.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Registers a component only if a configuration property has the expected value.
+ * The condition is read from the class file, so a component that is switched off is never loaded.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalOnProperty {
+    /**
+     * The property name.
+     */
+    String value();
+
+    /**
+     * The expected value, compared ignoring case. If empty, any value except "false" matches.
+     */
+    String havingValue() default "";
+
+    /**
+     * Whether the component is registered if the property is not set.
+     */
+    boolean matchIfMissing() default false;
+}
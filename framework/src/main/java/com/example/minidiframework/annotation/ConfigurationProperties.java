@@ -0,0 +1,22 @@
+package com.example.minidiframework.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record or class as a component that is bound to the configuration properties below a prefix.
+ * A record receives its components through its canonical constructor, a class needs a no-arg
+ * constructor and receives its fields. Nested records and classes, lists and maps are bound from
+ * the keys below the property of the same name; {@code maxPoolSize} is also read from {@code max-pool-size}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Component
+public @interface ConfigurationProperties {
+    /**
+     * The prefix of the bound properties, for example "db" for db.host and db.port.
+     */
+    String value();
+}
@@ -0,0 +1,19 @@
+package com.example.minidiframework.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a component to be created on first use instead of at startup.
+ * With the context-wide lazy-init mode enabled, @Lazy(false) keeps a component eager.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Lazy {
+    /**
+     * Whether the component is created lazily.
+     */
+    boolean value() default true;
+}
@@ -0,0 +1,16 @@
+package com.example.minidiframework.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a no-argument method of a pooled bean that clears the state a request left in it.
+ * It is called when the request ends, before the instance returns to the pool. Instances of
+ * a pooled bean without such a method are not recycled, so no state leaks into the next request.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ResetOnRelease {
+}
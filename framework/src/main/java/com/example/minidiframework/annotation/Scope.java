@@ -0,0 +1,37 @@
+package com.example.minidiframework.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the scope of a component, which decides how many instances of it exist.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Scope {
+    /** One shared instance per context. */
+    String SINGLETON = "singleton";
+    /** A new instance for every lookup and injection point. */
+    String PROTOTYPE = "prototype";
+    /** One instance per thread. */
+    String THREAD = "thread";
+    /** One instance per request handled by the WebServer. */
+    String REQUEST = "request";
+    /**
+     * One instance per request, recycled through a pool when the request ends.
+     * Only beans with a @ResetOnRelease method are recycled.
+     */
+    String POOLED = "pooled";
+
+    /**
+     * The scope name.
+     */
+    String value() default SINGLETON;
+
+    /**
+     * The maximum number of idle instances a pooled scope keeps. 0 uses the minidi.scope.pool.size property.
+     */
+    int poolSize() default 0;
+}
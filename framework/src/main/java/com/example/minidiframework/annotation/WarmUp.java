@@ -0,0 +1,19 @@
+package com.example.minidiframework.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a no-argument method that exercises a hot code path of the bean. It is called
+ * repeatedly before the context is ready, so the JIT has compiled the path before traffic arrives.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WarmUp {
+    /**
+     * How many times the method is called.
+     */
+    int iterations() default 10_000;
+}
@@ -0,0 +1,57 @@
+package com.example.minidiframework.aop;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * The advice of one proxied method, resolved once when the proxy is created: its @Before and
+ * @After interceptors in aspect order. A proxy runs the chain around the target method, so an
+ * advised call costs the advice calls and nothing more; methods without advice are not proxied.
+ */
+public final class AdviceChain {
+    private final Method method;
+    private final MethodInterceptor[] before;
+    private final MethodInterceptor[] after;
+
+    AdviceChain(Method method, List<MethodInterceptor> before, List<MethodInterceptor> after) {
+        this.method = method;
+        this.before = before.toArray(new MethodInterceptor[0]);
+        this.after = after.toArray(new MethodInterceptor[0]);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Run the @Before advice.
+     */
+    public void before(Object target, Object[] args) {
+        invokeAll(before, target, args);
+    }
+
+    /**
+     * Run the @After advice; it also runs when the method threw.
+     */
+    public void after(Object target, Object[] args) {
+        invokeAll(after, target, args);
+    }
+
+    private void invokeAll(MethodInterceptor[] interceptors, Object target, Object[] args) {
+        for (MethodInterceptor interceptor : interceptors) {
+            try {
+                interceptor.invoke(target, method, args);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException("Advice failed for method " + method.getDeclaringClass().getName()
+                    + "." + method.getName(), e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AdviceChain[" + method.getName() + ", " + before.length + " before, " + after.length + " after]";
+    }
+}
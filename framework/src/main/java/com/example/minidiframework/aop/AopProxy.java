@@ -0,0 +1,7 @@
+package com.example.minidiframework.aop;
+
+/**
+ * Implemented by the subclasses {@link AopProxyFactory} generates for advised bean classes.
+ */
+public interface AopProxy {
+}
@@ -0,0 +1,326 @@
+package com.example.minidiframework.aop;
+
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies the advice of the aspects of a context to its beans. The advised methods of a bean class
+ * and their advice chains are resolved once, when the first bean of the class is created; a class
+ * without advised methods is not proxied at all.
+ *
+ * <p>A class that can be subclassed gets a generated subclass that overrides only the advised methods,
+ * and the context creates the subclass instead of the class: the bean keeps its type, its fields and
+ * its lifecycle methods, and unadvised methods are called without any indirection. A final class is
+ * wrapped in a JDK dynamic proxy for its interfaces instead; such a bean can only be injected by
+ * interface. Final and private methods cannot be advised.
+ */
+public final class AopProxyFactory {
+    private static final String CHAINS_FIELD = "minidi$chains";
+    private static final AtomicInteger PROXY_COUNTER = new AtomicInteger();
+
+    /**
+     * The generated subclasses of each class, by the advised methods they override.
+     */
+    private static final ClassValue<Map<List<String>, Class<?>>> SUBCLASSES = new ClassValue<>() {
+        @Override
+        protected Map<List<String>, Class<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final AspectProcessor aspectProcessor;
+    private final Map<Class<?>, AdvisedClass> advisedClasses = new ConcurrentHashMap<>();
+
+    public AopProxyFactory(AspectProcessor aspectProcessor) {
+        this.aspectProcessor = aspectProcessor;
+    }
+
+    /**
+     * Get the constructor to create a bean with: the matching constructor of the generated
+     * subclass if the class is advised, else the constructor itself.
+     */
+    public Constructor<?> getConstructor(Constructor<?> constructor) {
+        AdvisedClass advisedClass = getAdvisedClass(constructor.getDeclaringClass());
+        if (advisedClass == null || advisedClass.subclass == null) {
+            return constructor;
+        }
+        try {
+            return advisedClass.subclass.getConstructor(constructor.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("Cannot advise " + constructor.getDeclaringClass().getName()
+                + ", its constructor is private");
+        }
+    }
+
+    /**
+     * Attach the advice chains to a new bean, or wrap it in a JDK proxy. Beans of classes without
+     * advice are returned as they are.
+     */
+    public Object advise(Object bean) {
+        AdvisedClass advisedClass = getAdvisedClass(getTargetClass(bean.getClass()));
+        if (advisedClass == null) {
+            return bean;
+        }
+        if (advisedClass.subclass == null) {
+            return Proxy.newProxyInstance(advisedClass.interfaces[0].getClassLoader(), advisedClass.interfaces,
+                new AdviceInvocationHandler(bean, advisedClass.chainsByMethod));
+        }
+        try {
+            advisedClass.chainsField.set(bean, advisedClass.chains);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot advise " + bean.getClass().getSuperclass().getName(), e);
+        }
+        return bean;
+    }
+
+    /**
+     * Get the bean behind a JDK proxy created by a factory, or the bean itself.
+     */
+    public static Object getTarget(Object bean) {
+        if (bean != null && Proxy.isProxyClass(bean.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(bean);
+            if (handler instanceof AdviceInvocationHandler) {
+                return ((AdviceInvocationHandler) handler).target;
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Get the advised class of a generated subclass, or the class itself.
+     */
+    public static Class<?> getTargetClass(Class<?> type) {
+        return AopProxy.class.isAssignableFrom(type) ? type.getSuperclass() : type;
+    }
+
+    private AdvisedClass getAdvisedClass(Class<?> beanClass) {
+        AdvisedClass advisedClass = advisedClasses.computeIfAbsent(beanClass, this::createAdvisedClass);
+        return advisedClass != AdvisedClass.NONE ? advisedClass : null;
+    }
+
+    /**
+     * Resolve the advice chain of every method a proxy of the class can override.
+     */
+    private AdvisedClass createAdvisedClass(Class<?> beanClass) {
+        if (!aspectProcessor.hasAdvice() || beanClass.isInterface()) {
+            return AdvisedClass.NONE;
+        }
+        List<AdviceChain> chains = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if (!seen.add(method.getName() + Arrays.toString(method.getParameterTypes()))
+                    || Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers) || Modifier.isFinal(modifiers)
+                    || method.isSynthetic() || !isVisible(method, beanClass)) {
+                    continue;
+                }
+                AdviceChain chain = aspectProcessor.getAdviceChain(method);
+                if (chain != null) {
+                    chains.add(chain);
+                }
+            }
+        }
+        if (chains.isEmpty()) {
+            return AdvisedClass.NONE;
+        }
+        if (!Modifier.isFinal(beanClass.getModifiers())) {
+            return AdvisedClass.forSubclass(getSubclass(beanClass, chains), chains);
+        }
+        return AdvisedClass.forInterfaces(beanClass, chains);
+    }
+
+    private static boolean isVisible(Method method, Class<?> beanClass) {
+        int modifiers = method.getModifiers();
+        return Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)
+            || method.getDeclaringClass().getPackageName().equals(beanClass.getPackageName());
+    }
+
+    /**
+     * Get the subclass overriding the advised methods, generating it the first time.
+     */
+    private static Class<?> getSubclass(Class<?> beanClass, List<AdviceChain> chains) {
+        List<String> signatures = new ArrayList<>();
+        for (AdviceChain chain : chains) {
+            signatures.add(chain.getMethod().toString());
+        }
+        return SUBCLASSES.get(beanClass).computeIfAbsent(signatures, key -> generateSubclass(beanClass, chains));
+    }
+
+    /**
+     * Generate a subclass with the constructors of the class and an override of every advised method
+     * that runs the advice chain with the same index around the super call. The chains are set on each
+     * instance after its constructor ran; calls from the constructor are not advised.
+     */
+    private static Class<?> generateSubclass(Class<?> beanClass, List<AdviceChain> chains) {
+        ClassPool pool = new ClassPool(true);
+        pool.appendClassPath(new LoaderClassPath(beanClass.getClassLoader()));
+        try {
+            CtClass superclass = pool.get(beanClass.getName());
+            CtClass subclass = pool.makeClass(beanClass.getName() + "$$MinidiProxy$$" + PROXY_COUNTER.incrementAndGet(),
+                superclass);
+            subclass.addInterface(pool.get(AopProxy.class.getName()));
+            subclass.addField(CtField.make("public " + AdviceChain.class.getName() + "[] " + CHAINS_FIELD + ";",
+                subclass));
+            for (CtConstructor constructor : superclass.getDeclaredConstructors()) {
+                if (!javassist.Modifier.isPrivate(constructor.getModifiers())) {
+                    subclass.addConstructor(CtNewConstructor.make(constructor.getParameterTypes(),
+                        constructor.getExceptionTypes(), subclass));
+                }
+            }
+            for (int i = 0; i < chains.size(); i++) {
+                Method method = chains.get(i).getMethod();
+                CtClass[] parameterTypes = new CtClass[method.getParameterCount()];
+                for (int j = 0; j < parameterTypes.length; j++) {
+                    parameterTypes[j] = pool.get(method.getParameterTypes()[j].getTypeName());
+                }
+                CtMethod superMethod = pool.get(method.getDeclaringClass().getName())
+                    .getDeclaredMethod(method.getName(), parameterTypes);
+                String call = "super." + method.getName() + "($$);";
+                CtMethod override = CtNewMethod.make(superMethod.getModifiers() & ~javassist.Modifier.NATIVE,
+                    superMethod.getReturnType(), method.getName(), parameterTypes, superMethod.getExceptionTypes(),
+                    method.getReturnType() == void.class ? "{ " + call + " }" : "{ return " + call + " }", subclass);
+                subclass.addMethod(override);
+                String chain = CHAINS_FIELD + "[" + i + "]";
+                override.insertBefore("if (" + CHAINS_FIELD + " != null) " + chain + ".before(this, $args);");
+                override.insertAfter("if (" + CHAINS_FIELD + " != null) " + chain + ".after(this, $args);", true);
+            }
+            return subclass.toClass(beanClass);
+        } catch (NotFoundException | CannotCompileException e) {
+            throw new RuntimeException("Failed to generate proxy class for " + beanClass.getName(), e);
+        }
+    }
+
+    /**
+     * How the beans of an advised class are proxied: through a generated subclass, or through a
+     * JDK proxy for the interfaces of a final class.
+     */
+    private static final class AdvisedClass {
+        static final AdvisedClass NONE = new AdvisedClass(null, null, null, null, null);
+
+        final Class<?> subclass;
+        final Field chainsField;
+        final AdviceChain[] chains;
+        final Class<?>[] interfaces;
+        final Map<Method, AdviceChain> chainsByMethod;
+
+        private AdvisedClass(Class<?> subclass, Field chainsField, AdviceChain[] chains, Class<?>[] interfaces,
+                             Map<Method, AdviceChain> chainsByMethod) {
+            this.subclass = subclass;
+            this.chainsField = chainsField;
+            this.chains = chains;
+            this.interfaces = interfaces;
+            this.chainsByMethod = chainsByMethod;
+        }
+
+        static AdvisedClass forSubclass(Class<?> subclass, List<AdviceChain> chains) {
+            try {
+                return new AdvisedClass(subclass, subclass.getField(CHAINS_FIELD), chains.toArray(new AdviceChain[0]),
+                    null, null);
+            } catch (NoSuchFieldException e) {
+                throw new RuntimeException("Generated proxy class has no advice chains: " + subclass.getName(), e);
+            }
+        }
+
+        /**
+         * Key the chains by the interface methods a JDK proxy is called with.
+         */
+        static AdvisedClass forInterfaces(Class<?> beanClass, List<AdviceChain> chains) {
+            Set<Class<?>> interfaces = new LinkedHashSet<>();
+            for (Class<?> clazz = beanClass; clazz != null; clazz = clazz.getSuperclass()) {
+                collectInterfaces(clazz, interfaces);
+            }
+            if (interfaces.isEmpty()) {
+                throw new RuntimeException("Cannot advise final class " + beanClass.getName()
+                    + ", it implements no interfaces");
+            }
+            Map<Method, AdviceChain> chainsByMethod = new HashMap<>();
+            for (Class<?> type : interfaces) {
+                for (Method method : type.getMethods()) {
+                    for (AdviceChain chain : chains) {
+                        Method implementation = chain.getMethod();
+                        if (implementation.getName().equals(method.getName())
+                            && Arrays.equals(implementation.getParameterTypes(), method.getParameterTypes())) {
+                            method.setAccessible(true); // The interface may not be public
+                            chainsByMethod.put(method, chain);
+                        }
+                    }
+                }
+            }
+            return new AdvisedClass(null, null, chains.toArray(new AdviceChain[0]),
+                interfaces.toArray(new Class<?>[0]), chainsByMethod);
+        }
+
+        private static void collectInterfaces(Class<?> type, Set<Class<?>> interfaces) {
+            for (Class<?> implemented : type.getInterfaces()) {
+                if (interfaces.add(implemented)) {
+                    collectInterfaces(implemented, interfaces);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the advice chain of a method around the call to the target; other methods go straight to it.
+     */
+    private static final class AdviceInvocationHandler implements InvocationHandler {
+        private static final Object[] NO_ARGUMENTS = new Object[0];
+
+        final Object target;
+        private final Map<Method, AdviceChain> chains;
+
+        AdviceInvocationHandler(Object target, Map<Method, AdviceChain> chains) {
+            this.target = target;
+            this.chains = chains;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            AdviceChain chain = chains.get(method);
+            if (chain == null) {
+                return call(method, args);
+            }
+            Object[] arguments = args != null ? args : NO_ARGUMENTS;
+            chain.before(target, arguments);
+            try {
+                return call(method, args);
+            } finally {
+                chain.after(target, arguments);
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
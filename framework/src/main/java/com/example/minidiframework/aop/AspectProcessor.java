@@ -4,15 +4,28 @@ import com.example.minidiframework.annotation.After;
 import com.example.minidiframework.annotation.Aspect;
 import com.example.minidiframework.annotation.Before;
 import com.example.minidiframework.context.ApplicationContext;
+import com.example.minidiframework.startup.AspectProcessingEvent;
+import com.example.minidiframework.startup.StartupTimeline;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
- * Processes aspects and creates method interceptors.
+ * Processes aspects and creates method interceptors. The aspect beans are collected from the
+ * singletons the context created so far, so the context creates them before any other bean.
+ * Pointcuts are compiled and advice methods are bound to their aspect once, here.
  */
 public class AspectProcessor {
+    private static final MethodType ADVICE_TYPE =
+        MethodType.methodType(Object.class, Object.class, Method.class, Object[].class);
+
     private final ApplicationContext applicationContext;
     private final List<AspectInfo> aspects = new ArrayList<>();
 
@@ -22,14 +35,28 @@ public class AspectProcessor {
     }
 
     /**
-     * Process all aspect beans and create interceptors.
+     * Process all aspect beans and create interceptors. The time it takes is recorded in the
+     * context's startup timeline and in a Flight Recorder event.
      */
     private void processAspects() {
+        AspectProcessingEvent event = new AspectProcessingEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int aspectCount = 0;
         for (Object bean : applicationContext.getBeans().values()) {
             if (bean.getClass().isAnnotationPresent(Aspect.class)) {
                 processAspect(bean);
+                aspectCount++;
             }
         }
+        aspects.sort(Comparator.comparingInt(aspectInfo -> aspectInfo.order));
+        applicationContext.getStartupTimeline().recordPhase(StartupTimeline.ASPECTS, System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.aspectCount = aspectCount;
+            event.adviceCount = aspects.size();
+            event.commit();
+        }
     }
 
     /**
@@ -42,16 +69,23 @@ public class AspectProcessor {
         for (Method method : aspectBean.getClass().getDeclaredMethods()) {
             if (method.isAnnotationPresent(Before.class)) {
                 Before beforeAnnotation = method.getAnnotation(Before.class);
-                aspects.add(new AspectInfo(aspectBean, method, beforeAnnotation.value(), 
+                aspects.add(new AspectInfo(aspectBean, method, beforeAnnotation.value(),
                     AspectType.BEFORE, order));
             } else if (method.isAnnotationPresent(After.class)) {
                 After afterAnnotation = method.getAnnotation(After.class);
-                aspects.add(new AspectInfo(aspectBean, method, afterAnnotation.value(), 
+                aspects.add(new AspectInfo(aspectBean, method, afterAnnotation.value(),
                     AspectType.AFTER, order));
             }
         }
     }
 
+    /**
+     * Check if there is any advice.
+     */
+    public boolean hasAdvice() {
+        return !aspects.isEmpty();
+    }
+
     /**
      * Get interceptors for a specific method.
      */
@@ -59,51 +93,71 @@ public class AspectProcessor {
         List<MethodInterceptor> interceptors = new ArrayList<>();
         String methodSignature = method.getDeclaringClass().getName() + "." + method.getName();
 
+        // The aspects are sorted by order
         for (AspectInfo aspectInfo : aspects) {
-            if (matchesPointcut(methodSignature, aspectInfo.pointcut)) {
+            if (aspectInfo.matches(methodSignature)) {
                 interceptors.add(new AspectMethodInterceptor(aspectInfo));
             }
         }
-
-        // Sort by order
-        interceptors.sort((a, b) -> {
-            AspectMethodInterceptor ai = (AspectMethodInterceptor) a;
-            AspectMethodInterceptor bi = (AspectMethodInterceptor) b;
-            return Integer.compare(ai.aspectInfo.order, bi.aspectInfo.order);
-        });
-
         return interceptors;
     }
 
+    /**
+     * Get the advice chain of a method, or null if no pointcut matches it.
+     */
+    public AdviceChain getAdviceChain(Method method) {
+        List<MethodInterceptor> before = new ArrayList<>();
+        List<MethodInterceptor> after = new ArrayList<>();
+        for (MethodInterceptor interceptor : getInterceptors(method)) {
+            AspectType type = ((AspectMethodInterceptor) interceptor).aspectInfo.type;
+            (type == AspectType.BEFORE ? before : after).add(interceptor);
+        }
+        if (before.isEmpty() && after.isEmpty()) {
+            return null;
+        }
+        return new AdviceChain(method, before, after);
+    }
+
     /**
      * Simple pointcut matching (supports wildcards).
      */
-    private boolean matchesPointcut(String methodSignature, String pointcut) {
+    private static Pattern compilePointcut(String pointcut) {
         // Simple wildcard matching
         if (pointcut.contains("*")) {
-            String pattern = pointcut.replace("*", ".*");
-            return methodSignature.matches(pattern);
+            return Pattern.compile(pointcut.replace("*", ".*"));
         }
-        return methodSignature.equals(pointcut);
+        return Pattern.compile(pointcut, Pattern.LITERAL);
     }
 
     /**
      * Aspect information holder.
      */
     private static class AspectInfo {
-        final Object aspectBean;
-        final Method aspectMethod;
-        final String pointcut;
+        final MethodHandle advice;
+        final Pattern pointcut;
         final AspectType type;
         final int order;
 
         AspectInfo(Object aspectBean, Method aspectMethod, String pointcut, AspectType type, int order) {
-            this.aspectBean = aspectBean;
-            this.aspectMethod = aspectMethod;
-            this.pointcut = pointcut;
+            if (!Arrays.equals(aspectMethod.getParameterTypes(), ADVICE_TYPE.parameterArray())) {
+                throw new RuntimeException("Advice method must take (Object target, Method method, Object[] args): "
+                    + aspectMethod.getDeclaringClass().getName() + "." + aspectMethod.getName());
+            }
+            try {
+                aspectMethod.setAccessible(true);
+                this.advice = MethodHandles.lookup().unreflect(aspectMethod).bindTo(aspectBean).asType(ADVICE_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Cannot access advice method: "
+                    + aspectMethod.getDeclaringClass().getName() + "." + aspectMethod.getName(), e);
+            }
+            this.pointcut = compilePointcut(pointcut);
             this.type = type;
             this.order = order;
         }
+
+        boolean matches(String methodSignature) {
+            return pointcut.matcher(methodSignature).matches();
+        }
     }
 
     /**
@@ -125,8 +179,7 @@ public class AspectProcessor {
 
         @Override
         public Object invoke(Object target, Method method, Object[] args) throws Throwable {
-            aspectInfo.aspectMethod.setAccessible(true);
-            return aspectInfo.aspectMethod.invoke(aspectInfo.aspectBean, target, method, args);
+            return aspectInfo.advice.invokeExact(target, method, args);
         }
     }
 }
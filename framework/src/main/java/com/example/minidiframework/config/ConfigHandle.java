@@ -0,0 +1,53 @@
+package com.example.minidiframework.config;
+
+import java.lang.reflect.Type;
+import java.util.function.Supplier;
+
+/**
+ * A converted property value that follows reloads of the {@link ConfigurationProperties}.
+ * A reload converts the new value before it swaps it in, so {@link #get()} is a single volatile
+ * read that always returns a complete value. Inject one into an @Value field of type
+ * {@code ConfigHandle<T>}, or get one with {@link ConfigurationProperties#getHandle}.
+ *
+ * @param <T> the value type
+ */
+public final class ConfigHandle<T> implements Supplier<T> {
+    private final String expression;
+    private final Type type;
+    private volatile T value;
+
+    ConfigHandle(String expression, Type type, T value) {
+        this.expression = expression;
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * Get the current value.
+     */
+    @Override
+    public T get() {
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    void set(Object value) {
+        this.value = (T) value;
+    }
+
+    /**
+     * Get the property key or placeholder expression of the value.
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigHandle[" + expression + "=" + value + "]";
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.minidiframework.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Binds the properties below a prefix to a record or class annotated with
+ * {@link com.example.minidiframework.annotation.ConfigurationProperties}. The binder of each type is
+ * compiled once per JVM: a method handle for the canonical constructor of a record, or for the no-arg
+ * constructor and a setter per field of a class. Every problem found while binding is collected, so all
+ * of them are reported in one exception. Bound lists and maps are unmodifiable.
+ *
+ * <p>A binder reads the property keys once when it is created; create one per binding pass.
+ */
+public final class ConfigurationBinder {
+    private static final ClassValue<TypeBinder> BINDERS = new ClassValue<>() {
+        @Override
+        protected TypeBinder computeValue(Class<?> type) {
+            return new TypeBinder(type);
+        }
+    };
+    private static final Object MISSING = new Object();
+
+    private final ConfigurationProperties properties;
+    private final ConversionService conversionService;
+    private final NavigableSet<String> keys;
+
+    public ConfigurationBinder(ConfigurationProperties properties) {
+        this.properties = properties;
+        this.conversionService = properties.getConversionService();
+        this.keys = new TreeSet<>(properties.getPropertyKeys());
+    }
+
+    /**
+     * Get the prefix of a class annotated with @ConfigurationProperties, or null if it is not annotated.
+     */
+    public static String getPrefix(Class<?> type) {
+        com.example.minidiframework.annotation.ConfigurationProperties annotation =
+            type.getAnnotation(com.example.minidiframework.annotation.ConfigurationProperties.class);
+        return annotation != null ? annotation.value() : null;
+    }
+
+    /**
+     * Bind the properties below the prefix to a new instance of the type.
+     */
+    public <T> T bind(String prefix, Class<T> type) {
+        List<String> errors = new ArrayList<>();
+        Object bound = bind(prefix, type, errors);
+        if (!errors.isEmpty()) {
+            throw new RuntimeException(formatErrors("Failed to bind properties '" + prefix + "' to "
+                + type.getName(), errors));
+        }
+        return type.cast(bound);
+    }
+
+    /**
+     * Bind the properties below the prefix to a new instance of the type and add every problem to
+     * the errors instead of throwing. Returns null if the instance could not be created.
+     */
+    public Object bind(String prefix, Class<?> type, List<String> errors) {
+        Object bound = bindObject(prefix, type, errors);
+        return bound == MISSING ? null : bound;
+    }
+
+    /**
+     * Format errors as a message with one error per line.
+     */
+    public static String formatErrors(String message, List<String> errors) {
+        StringBuilder result = new StringBuilder(message).append(':');
+        for (String error : errors) {
+            result.append("\n  - ").append(error);
+        }
+        return result.toString();
+    }
+
+    private Object bindObject(String prefix, Class<?> type, List<String> errors) {
+        TypeBinder binder;
+        try {
+            binder = BINDERS.get(type);
+        } catch (RuntimeException e) {
+            errors.add(prefix + ": " + e.getMessage());
+            return null;
+        }
+
+        Object[] values = new Object[binder.properties.size()];
+        boolean complete = true;
+        for (int i = 0; i < values.length; i++) {
+            PropertyBinding property = binder.properties.get(i);
+            String key = resolveKey(prefix, property);
+            int errorCount = errors.size();
+            values[i] = bindValue(key, property.type, errors);
+            if (errors.size() > errorCount) {
+                complete = false;
+            } else if (values[i] == MISSING && property.rawType.isPrimitive() && binder.record) {
+                errors.add(key + ": required property is not set");
+                complete = false;
+            }
+        }
+        if (!complete) {
+            return null;
+        }
+
+        try {
+            if (binder.record) {
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] == MISSING) {
+                        values[i] = null;
+                    }
+                }
+                return binder.constructor.invoke(values);
+            }
+            Object instance = binder.constructor.invoke();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != MISSING) {
+                    binder.properties.get(i).setter.invoke(instance, values[i]);
+                }
+            }
+            return instance;
+        } catch (Throwable e) {
+            errors.add(prefix + ": " + (e.getMessage() != null ? e.getMessage() : e.toString()));
+            return null;
+        }
+    }
+
+    /**
+     * Use the key as the property is named, or its dashed form if only that one is set.
+     */
+    private String resolveKey(String prefix, PropertyBinding property) {
+        String key = prefix + "." + property.name;
+        if (property.dashedName.equals(property.name) || isSet(key)) {
+            return key;
+        }
+        String dashedKey = prefix + "." + property.dashedName;
+        return isSet(dashedKey) ? dashedKey : key;
+    }
+
+    private boolean isSet(String key) {
+        return keys.contains(key) || hasKeysBelow(key);
+    }
+
+    private boolean hasKeysBelow(String key) {
+        return startsWith(keys.ceiling(key + "."), key + ".") || startsWith(keys.ceiling(key + "["), key + "[");
+    }
+
+    private static boolean startsWith(String value, String prefix) {
+        return value != null && value.startsWith(prefix);
+    }
+
+    /**
+     * Bind the value of a key: converted from the property if the type can be converted, else a list, a
+     * map or a nested object from the keys below it. Returns MISSING if nothing is set.
+     */
+    private Object bindValue(String key, Type type, List<String> errors) {
+        Class<?> rawType = rawType(type);
+        if (keys.contains(key) && conversionService.canConvert(type)) {
+            try {
+                return conversionService.convert(properties.resolveValue(key), type);
+            } catch (RuntimeException e) {
+                errors.add(key + ": " + e.getMessage());
+                return null;
+            }
+        }
+        if (!hasKeysBelow(key)) {
+            return MISSING;
+        }
+        if (rawType == List.class || rawType == Set.class || rawType == Collection.class) {
+            return bindCollection(key, rawType, typeArgument(type, 0), errors);
+        }
+        if (rawType == Map.class) {
+            return bindMap(key, typeArgument(type, 1), errors);
+        }
+        if (conversionService.canConvert(type)) {
+            return MISSING; // Keys below a value that is not set
+        }
+        return bindObject(key, rawType, errors);
+    }
+
+    /**
+     * Bind the elements key[0], key[1], ... in order.
+     */
+    private Object bindCollection(String key, Class<?> collectionType, Type elementType, List<String> errors) {
+        List<Object> elements = new ArrayList<>();
+        for (int i = 0; ; i++) {
+            String elementKey = key + "[" + i + "]";
+            Object element = bindValue(elementKey, elementType, errors);
+            if (element == MISSING) {
+                break;
+            }
+            if (element != null) {
+                elements.add(element);
+            }
+        }
+        return collectionType == Set.class ? Collections.unmodifiableSet(new LinkedHashSet<>(elements))
+            : List.copyOf(elements);
+    }
+
+    /**
+     * Bind the entries below the key in key order. The map key is the next segment of the property key,
+     * or the rest of it for values that are converted from a single property.
+     */
+    private Object bindMap(String key, Type valueType, List<String> errors) {
+        boolean scalar = conversionService.canConvert(valueType);
+        Set<String> entryKeys = new LinkedHashSet<>();
+        for (String propertyKey : keys.subSet(key + ".", key + "/")) {
+            String rest = propertyKey.substring(key.length() + 1);
+            if (!scalar) {
+                int end = 0;
+                while (end < rest.length() && rest.charAt(end) != '.' && rest.charAt(end) != '[') {
+                    end++;
+                }
+                rest = rest.substring(0, end);
+            }
+            entryKeys.add(rest);
+        }
+        Map<String, Object> entries = new LinkedHashMap<>();
+        for (String entryKey : entryKeys) {
+            Object value = bindValue(key + "." + entryKey, valueType, errors);
+            if (value != null && value != MISSING) {
+                entries.put(entryKey, value);
+            }
+        }
+        return Collections.unmodifiableMap(entries);
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return type instanceof Class ? (Class<?>) type : Object.class;
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (!(type instanceof ParameterizedType)) {
+            return String.class;
+        }
+        Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+        Type argument = arguments[Math.min(index, arguments.length - 1)];
+        if (argument instanceof WildcardType) {
+            WildcardType wildcard = (WildcardType) argument;
+            return wildcard.getLowerBounds().length == 0 ? wildcard.getUpperBounds()[0] : Object.class;
+        }
+        return argument;
+    }
+
+    private static String dashed(String name) {
+        StringBuilder result = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    result.append('-');
+                }
+                result.append(Character.toLowerCase(c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * How the properties of a type are bound, compiled once per type.
+     */
+    private static final class TypeBinder {
+        final boolean record;
+        final MethodHandle constructor;
+        final List<PropertyBinding> properties = new ArrayList<>();
+
+        TypeBinder(Class<?> type) {
+            this.record = type.isRecord();
+            try {
+                if (record) {
+                    RecordComponent[] components = type.getRecordComponents();
+                    Class<?>[] parameterTypes = new Class<?>[components.length];
+                    for (int i = 0; i < components.length; i++) {
+                        parameterTypes[i] = components[i].getType();
+                        properties.add(new PropertyBinding(components[i].getName(), components[i].getGenericType(),
+                            components[i].getType(), null));
+                    }
+                    Constructor<?> canonical = type.getDeclaredConstructor(parameterTypes);
+                    canonical.setAccessible(true);
+                    this.constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                        .asType(MethodType.methodType(Object.class, parameterTypes))
+                        .asSpreader(Object[].class, parameterTypes.length);
+                } else {
+                    Constructor<?> noArgs = type.getDeclaredConstructor();
+                    noArgs.setAccessible(true);
+                    this.constructor = MethodHandles.lookup().unreflectConstructor(noArgs)
+                        .asType(MethodType.methodType(Object.class));
+                    for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                        for (Field field : clazz.getDeclaredFields()) {
+                            int modifiers = field.getModifiers();
+                            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                                continue;
+                            }
+                            field.setAccessible(true); // Also makes final fields writable by the setter
+                            properties.add(new PropertyBinding(field.getName(), field.getGenericType(), field.getType(),
+                                MethodHandles.lookup().unreflectSetter(field)
+                                    .asType(MethodType.methodType(void.class, Object.class, Object.class))));
+                        }
+                    }
+                }
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(type.getName() + " must be a record or have a no-arg constructor");
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new RuntimeException("Cannot bind properties to " + type.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A record component or field and the property name it is bound from.
+     */
+    private static final class PropertyBinding {
+        final String name;
+        final String dashedName;
+        final Type type;
+        final Class<?> rawType;
+        final MethodHandle setter;
+
+        PropertyBinding(String name, Type type, Class<?> rawType, MethodHandle setter) {
+            this.name = name;
+            this.dashedName = dashed(name);
+            this.type = type;
+            this.rawType = rawType;
+            this.setter = setter;
+        }
+    }
+}
@@ -1,63 +1,400 @@
 package com.example.minidiframework.config;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.Properties;
+import java.lang.reflect.Type;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
- * Manages configuration properties loaded from properties files.
+ * Manages configuration properties from an ordered chain of property sources, and the conversion
+ * service that turns them into the values of @Value fields. The sources are flattened into an
+ * immutable snapshot when the properties are created, so lookups do not lock. When the files change,
+ * {@link #reload()} builds a new snapshot and swaps it in atomically, together with the values of the
+ * {@link ConfigHandle}s; {@link #startWatching()} reloads on every change of a file.
  */
 public class ConfigurationProperties {
-    private final Properties properties = new Properties();
-    
+    public static final String DEFAULT_PROPERTIES_FILE = "application.properties";
+    public static final String ACTIVE_PROFILES = "minidi.profiles.active";
+
+    private final ConversionService conversionService = new ConversionService();
+    private final Map<List<Object>, ConfigHandle<?>> handles = new ConcurrentHashMap<>();
+    private final List<Consumer<Set<String>>> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile List<PropertySource> propertySources;
+    private volatile PropertySnapshot snapshot;
+    private volatile RuntimeException reloadFailure;
+    private WatchService watchService;
+
+    /**
+     * Use the default chain without command-line arguments.
+     */
     public ConfigurationProperties() {
-        loadDefaultProperties();
+        this(defaultSources(new String[0]));
     }
-    
+
+    /**
+     * Use the properties of a single file on the classpath.
+     */
     public ConfigurationProperties(String propertiesFile) {
-        loadProperties(propertiesFile);
+        this(List.of(PropertySource.fromResource(propertiesFile)));
     }
-    
+
     /**
-     * Load default application.properties if it exists.
+     * Use the given sources, the first source taking precedence over the ones after it.
      */
-    private void loadDefaultProperties() {
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream("application.properties")) {
-            if (input != null) {
-                properties.load(input);
-            }
-        } catch (IOException e) {
-            // Default properties file is optional
-        }
+    public ConfigurationProperties(List<PropertySource> propertySources) {
+        this.propertySources = List.copyOf(propertySources);
+        this.snapshot = new PropertySnapshot(this.propertySources);
     }
-    
+
+    /**
+     * Use the default chain, highest precedence first: the --key=value command-line arguments,
+     * the system properties, the environment variables, the files of the active profiles and
+     * application.properties.
+     */
+    public static ConfigurationProperties fromCommandLine(String... args) {
+        return new ConfigurationProperties(defaultSources(args));
+    }
+
     /**
-     * Load properties from a specific file.
+     * Build the default chain. The active profiles, a comma-separated list in minidi.profiles.active,
+     * are looked up in the other sources; application-{profile}.properties of a later profile takes
+     * precedence over an earlier one.
      */
-    private void loadProperties(String propertiesFile) {
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream(propertiesFile)) {
-            if (input != null) {
-                properties.load(input);
+    private static List<PropertySource> defaultSources(String[] args) {
+        List<PropertySource> sources = new ArrayList<>();
+        sources.add(PropertySource.fromCommandLine(args));
+        sources.add(PropertySource.fromSystemProperties());
+        sources.add(PropertySource.fromEnvironment());
+        PropertySource defaults = PropertySource.fromResource(DEFAULT_PROPERTIES_FILE);
+
+        String activeProfiles = defaults.getProperty(ACTIVE_PROFILES);
+        for (int i = sources.size() - 1; i >= 0; i--) {
+            String profiles = sources.get(i).getProperty(ACTIVE_PROFILES);
+            if (profiles != null) {
+                activeProfiles = profiles;
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load properties file: " + propertiesFile, e);
         }
+        if (activeProfiles != null) {
+            List<PropertySource> profileSources = new ArrayList<>();
+            for (String profile : activeProfiles.split(",")) {
+                if (!profile.isBlank()) {
+                    profileSources.add(0, PropertySource.fromResource("application-" + profile.trim() + ".properties"));
+                }
+            }
+            sources.addAll(profileSources);
+        }
+        sources.add(defaults);
+        return sources;
     }
-    
+
     /**
      * Get a property value.
      */
     public String getProperty(String key) {
-        return properties.getProperty(key);
+        return snapshot.get(key);
+    }
+
+    /**
+     * Get the name of the source a property value came from, or null if the property is not set.
+     */
+    public String getPropertySource(String key) {
+        return snapshot.getOrigin(key);
+    }
+
+    /**
+     * Get the property sources, highest precedence first.
+     */
+    public List<PropertySource> getPropertySources() {
+        return propertySources;
     }
     
     /**
      * Get a property value with a default value.
      */
     public String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        String value = snapshot.get(key);
+        return value != null ? value : defaultValue;
+    }
+    
+    /**
+     * Resolve the value of an @Value expression: a property key, or a text with ${key} and
+     * ${key:default} placeholders. Placeholders in property values are resolved as well.
+     * Returns null if the expression is a key that is not set.
+     */
+    public String resolveValue(String expression) {
+        return resolveValue(expression, snapshot);
+    }
+
+    private static String resolveValue(String expression, PropertySnapshot snapshot) {
+        if (expression.contains("${")) {
+            return resolvePlaceholders(expression, snapshot, new HashSet<>());
+        }
+        String value = snapshot.get(expression);
+        if (value == null) {
+            return null;
+        }
+        Set<String> resolving = new HashSet<>();
+        resolving.add(expression);
+        return resolvePlaceholders(value, snapshot, resolving);
+    }
+
+    /**
+     * Replace the ${key} and ${key:default} placeholders in a text. A default may contain placeholders itself.
+     */
+    public String resolvePlaceholders(String text) {
+        return resolvePlaceholders(text, snapshot, new HashSet<>());
+    }
+
+    private static String resolvePlaceholders(String text, PropertySnapshot snapshot, Set<String> resolving) {
+        int start = text.indexOf("${");
+        if (start < 0) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder();
+        int position = 0;
+        while (start >= 0) {
+            int end = findPlaceholderEnd(text, start + 2);
+            if (end < 0) {
+                break; // Unterminated, keep the rest as it is
+            }
+            result.append(text, position, start);
+            String placeholder = text.substring(start + 2, end);
+            int separator = findDefaultSeparator(placeholder);
+            String key = separator < 0 ? placeholder : placeholder.substring(0, separator);
+            String value = snapshot.get(key);
+            if (value != null) {
+                if (!resolving.add(key)) {
+                    throw new RuntimeException("Circular placeholder reference: " + key);
+                }
+                value = resolvePlaceholders(value, snapshot, resolving);
+                resolving.remove(key);
+            } else if (separator >= 0) {
+                value = resolvePlaceholders(placeholder.substring(separator + 1), snapshot, resolving);
+            } else {
+                throw new RuntimeException("Property not found: " + key);
+            }
+            result.append(value);
+            position = end + 1;
+            start = text.indexOf("${", position);
+        }
+        return result.append(text, position, text.length()).toString();
+    }
+
+    /**
+     * Find the '}' that closes a placeholder, skipping nested placeholders.
+     */
+    private static int findPlaceholderEnd(String text, int from) {
+        int depth = 0;
+        for (int i = from; i < text.length(); i++) {
+            if (text.startsWith("${", i)) {
+                depth++;
+                i++;
+            } else if (text.charAt(i) == '}') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        return -1;
+    }
+
+    private static int findDefaultSeparator(String placeholder) {
+        int depth = 0;
+        for (int i = 0; i < placeholder.length(); i++) {
+            if (placeholder.startsWith("${", i)) {
+                depth++;
+                i++;
+            } else if (placeholder.charAt(i) == '}') {
+                depth--;
+            } else if (placeholder.charAt(i) == ':' && depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the conversion service for @Value fields. Converters added to it before a context
+     * is created with these properties are used by that context.
+     */
+    public ConversionService getConversionService() {
+        return conversionService;
     }
     
+    /**
+     * Get a handle to the converted value of an @Value expression that follows reloads. There is one
+     * handle per expression and type; keep it rather than getting it again on a hot path.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ConfigHandle<T> getHandle(String expression, Class<T> type) {
+        return (ConfigHandle<T>) getHandle(expression, (Type) type);
+    }
+
+    /**
+     * Get a handle for a type that may be parameterized, such as {@code List<Integer>}.
+     */
+    public ConfigHandle<?> getHandle(String expression, Type type) {
+        List<Object> key = List.of(expression, type);
+        ConfigHandle<?> handle = handles.get(key);
+        if (handle != null) {
+            return handle;
+        }
+        synchronized (this) { // A reload must not miss a handle that is being created
+            return handles.computeIfAbsent(key, ignored -> new ConfigHandle<>(expression, type, convert(expression, type, snapshot)));
+        }
+    }
+
+    private Object convert(String expression, Type type, PropertySnapshot snapshot) {
+        String value = resolveValue(expression, snapshot);
+        if (value == null) {
+            throw new RuntimeException("Property not found: " + expression);
+        }
+        return conversionService.convert(value, type);
+    }
+
+    /**
+     * Read the file sources again and swap in a new snapshot if a value changed. The values of all
+     * handles are converted before the swap; if one of them fails, nothing is swapped and the error is
+     * thrown, so a reader never sees a half-applied change. The change listeners are called with the
+     * changed keys after the swap. Returns the changed keys.
+     */
+    public synchronized Set<String> reload() {
+        List<PropertySource> sources = new ArrayList<>();
+        for (PropertySource source : propertySources) {
+            sources.add(source.reload());
+        }
+        PropertySnapshot reloaded = new PropertySnapshot(sources);
+        Set<String> changed = snapshot.getChangedKeys(reloaded);
+        if (changed.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Map<ConfigHandle<?>, Object> values = new HashMap<>();
+        for (ConfigHandle<?> handle : handles.values()) {
+            values.put(handle, convert(handle.getExpression(), handle.getType(), reloaded));
+        }
+        this.propertySources = List.copyOf(sources);
+        this.snapshot = reloaded;
+        values.forEach(ConfigHandle::set);
+
+        Set<String> changedKeys = Collections.unmodifiableSet(changed);
+        for (Consumer<Set<String>> listener : changeListeners) {
+            listener.accept(changedKeys);
+        }
+        return changedKeys;
+    }
+
+    /**
+     * Call the listener with the changed keys after every reload that changed a value.
+     */
+    public void addChangeListener(Consumer<Set<String>> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Watch the files of the sources and reload whenever one of them is modified, created or deleted.
+     * The watcher runs on a daemon thread. A reload that fails keeps the previous values and is
+     * reported by {@link #getReloadFailure()}. Returns false if the properties are already watched
+     * or no source was read from a file.
+     */
+    public synchronized boolean startWatching() {
+        if (watchService != null) {
+            return false;
+        }
+        Set<Path> files = new HashSet<>();
+        for (PropertySource source : propertySources) {
+            if (source.getLocation() != null) {
+                files.add(source.getLocation().toAbsolutePath().normalize());
+            }
+        }
+        if (files.isEmpty()) {
+            return false;
+        }
+        WatchService service;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+            Set<Path> directories = new HashSet<>();
+            for (Path file : files) {
+                Path directory = file.getParent();
+                if (directory != null && Files.isDirectory(directory) && directories.add(directory)) {
+                    directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                }
+            }
+            watchService = service;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to watch the property files", e);
+        }
+        // The field is cleared by stopWatching, the watcher keeps the service it was started with
+        Thread watcher = new Thread(() -> watch(service, files), "minidi-config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        return true;
+    }
+
+    /**
+     * Stop watching the files.
+     */
+    public synchronized void stopWatching() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+            watchService = null;
+        }
+    }
+
+    private void watch(WatchService service, Set<Path> files) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path directory = (Path) key.watchable();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                        || files.contains(directory.resolve((Path) event.context()));
+                }
+                key.reset();
+                if (changed) {
+                    try {
+                        reload();
+                        reloadFailure = null;
+                    } catch (RuntimeException e) {
+                        reloadFailure = e;
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Get the error of the last reload by the watcher if it failed, or null.
+     */
+    public RuntimeException getReloadFailure() {
+        return reloadFailure;
+    }
+
     /**
      * Get a property as an integer.
      */
@@ -78,13 +415,13 @@ public class ConfigurationProperties {
      * Check if a property exists.
      */
     public boolean hasProperty(String key) {
-        return properties.containsKey(key);
+        return snapshot.get(key) != null;
     }
     
     /**
      * Get all property keys.
      */
-    public java.util.Set<String> getPropertyKeys() {
-        return properties.stringPropertyNames();
+    public Set<String> getPropertyKeys() {
+        return snapshot.getValues().keySet();
     }
 }
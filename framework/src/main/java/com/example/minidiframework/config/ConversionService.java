@@ -0,0 +1,267 @@
+package com.example.minidiframework.config;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts property values to the types of @Value fields. The converter for a target type is
+ * composed once, when the type is first converted to, and cached: an enum converter holds a
+ * lookup table of its constants and a collection converter holds the converter of its elements,
+ * so converting a value only runs the parsing itself.
+ *
+ * <p>Supported are strings, primitives and their wrappers, BigDecimal, BigInteger, {@link Duration},
+ * {@link DataSize}, {@link Path}, enums, and List, Set, Collection and arrays of those, written as
+ * comma-separated values. Converters added with {@link #addConverter} take precedence.
+ */
+public final class ConversionService {
+    private static final Map<Class<?>, Function<String, Object>> BUILT_IN_CONVERTERS = new HashMap<>();
+    private static final Pattern DURATION_PATTERN = Pattern.compile("([+-]?\\d+)\\s*([a-zA-Z]*)");
+
+    static {
+        BUILT_IN_CONVERTERS.put(String.class, value -> value);
+        addBuiltIn(Integer.class, int.class, Integer::valueOf);
+        addBuiltIn(Long.class, long.class, Long::valueOf);
+        addBuiltIn(Boolean.class, boolean.class, Boolean::valueOf);
+        addBuiltIn(Double.class, double.class, Double::valueOf);
+        addBuiltIn(Float.class, float.class, Float::valueOf);
+        addBuiltIn(Short.class, short.class, Short::valueOf);
+        addBuiltIn(Byte.class, byte.class, Byte::valueOf);
+        addBuiltIn(Character.class, char.class, ConversionService::parseCharacter);
+        addBuiltIn(BigDecimal.class, null, BigDecimal::new);
+        addBuiltIn(BigInteger.class, null, BigInteger::new);
+        addBuiltIn(Duration.class, null, ConversionService::parseDuration);
+        addBuiltIn(DataSize.class, null, DataSize::parse);
+        addBuiltIn(Path.class, null, Path::of);
+    }
+
+    private final Map<Class<?>, Function<String, ?>> customConverters = new ConcurrentHashMap<>();
+    private final Map<Type, Function<String, Object>> converters = new ConcurrentHashMap<>();
+    private final Set<Type> unsupportedTypes = ConcurrentHashMap.newKeySet();
+
+    private static void addBuiltIn(Class<?> type, Class<?> primitiveType, Function<String, Object> parser) {
+        Function<String, Object> converter = value -> parser.apply(value.trim());
+        BUILT_IN_CONVERTERS.put(type, converter);
+        if (primitiveType != null) {
+            BUILT_IN_CONVERTERS.put(primitiveType, converter);
+        }
+    }
+
+    /**
+     * Convert values of the given type with a custom converter, also as elements of collections and arrays.
+     */
+    public <T> void addConverter(Class<T> type, Function<String, ? extends T> converter) {
+        customConverters.put(type, converter);
+        converters.clear(); // Composed converters may hold the previous converter of the type
+        unsupportedTypes.clear();
+    }
+
+    /**
+     * Check if values can be converted to the given type. The answer is cached either way.
+     */
+    public boolean canConvert(Type targetType) {
+        if (converters.containsKey(targetType)) {
+            return true;
+        }
+        if (unsupportedTypes.contains(targetType)) {
+            return false;
+        }
+        try {
+            getConverter(targetType);
+            return true;
+        } catch (RuntimeException e) {
+            unsupportedTypes.add(targetType);
+            return false;
+        }
+    }
+
+    /**
+     * Convert a value to the given type, which may be a parameterized List, Set or Collection.
+     */
+    public Object convert(String value, Type targetType) {
+        Function<String, Object> converter = getConverter(targetType);
+        try {
+            return converter.apply(value);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Cannot convert '" + value + "' to " + targetType.getTypeName(), e);
+        }
+    }
+
+    /**
+     * Get the converter for a type, composing it on first use.
+     */
+    public Function<String, Object> getConverter(Type targetType) {
+        Function<String, Object> converter = converters.get(targetType);
+        if (converter == null) {
+            // Not computeIfAbsent: composing a converter looks up the converters of its elements
+            converter = createConverter(targetType);
+            Function<String, Object> existing = converters.putIfAbsent(targetType, converter);
+            if (existing != null) {
+                converter = existing;
+            }
+        }
+        return converter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Function<String, Object> createConverter(Type targetType) {
+        if (targetType instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) targetType;
+            Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+            if (isCollection(rawType)) {
+                return collectionConverter(rawType, getConverter(elementType(parameterizedType.getActualTypeArguments()[0])));
+            }
+            return getConverter(rawType);
+        }
+        if (!(targetType instanceof Class)) {
+            throw new RuntimeException("Unsupported type for value injection: " + targetType.getTypeName());
+        }
+
+        Class<?> type = (Class<?>) targetType;
+        Function<String, ?> custom = customConverters.get(type);
+        if (custom != null) {
+            return (Function<String, Object>) custom;
+        }
+        Function<String, Object> builtIn = BUILT_IN_CONVERTERS.get(type);
+        if (builtIn != null) {
+            return builtIn;
+        }
+        if (type.isEnum()) {
+            return enumConverter((Class<? extends Enum<?>>) type);
+        }
+        if (type.isArray()) {
+            return arrayConverter(type.getComponentType(), getConverter(type.getComponentType()));
+        }
+        if (isCollection(type)) {
+            return collectionConverter(type, getConverter(String.class));
+        }
+        throw new RuntimeException("Unsupported type for value injection: " + type.getName());
+    }
+
+    private static boolean isCollection(Class<?> type) {
+        return type == List.class || type == Set.class || type == Collection.class;
+    }
+
+    private static Type elementType(Type typeArgument) {
+        if (typeArgument instanceof WildcardType) {
+            WildcardType wildcard = (WildcardType) typeArgument;
+            return wildcard.getLowerBounds().length == 0 ? wildcard.getUpperBounds()[0] : Object.class;
+        }
+        return typeArgument;
+    }
+
+    /**
+     * Converter to an unmodifiable List, or an unmodifiable Set that keeps the order of the values.
+     */
+    private static Function<String, Object> collectionConverter(Class<?> collectionType, Function<String, Object> elementConverter) {
+        boolean toSet = collectionType == Set.class;
+        return value -> {
+            List<Object> elements = new ArrayList<>();
+            for (String element : split(value)) {
+                elements.add(elementConverter.apply(element));
+            }
+            return toSet ? Collections.unmodifiableSet(new LinkedHashSet<>(elements)) : List.copyOf(elements);
+        };
+    }
+
+    private static Function<String, Object> arrayConverter(Class<?> componentType, Function<String, Object> elementConverter) {
+        return value -> {
+            List<String> elements = split(value);
+            Object array = Array.newInstance(componentType, elements.size());
+            for (int i = 0; i < elements.size(); i++) {
+                Array.set(array, i, elementConverter.apply(elements.get(i)));
+            }
+            return array;
+        };
+    }
+
+    /**
+     * Converter that looks up constants by name, ignoring case and treating '-' as '_'.
+     */
+    private static Function<String, Object> enumConverter(Class<? extends Enum<?>> enumType) {
+        Map<String, Object> constants = new HashMap<>();
+        for (Enum<?> constant : enumType.getEnumConstants()) {
+            constants.put(constant.name().toUpperCase(), constant);
+        }
+        return value -> {
+            Object constant = constants.get(value.trim().replace('-', '_').toUpperCase());
+            if (constant == null) {
+                throw new IllegalArgumentException("No constant " + value + " in enum " + enumType.getName());
+            }
+            return constant;
+        };
+    }
+
+    /**
+     * Split a comma-separated value into trimmed, non-empty elements.
+     */
+    private static List<String> split(String value) {
+        List<String> elements = new ArrayList<>();
+        for (String element : value.split(",")) {
+            String trimmed = element.trim();
+            if (!trimmed.isEmpty()) {
+                elements.add(trimmed);
+            }
+        }
+        return elements;
+    }
+
+    private static Character parseCharacter(String value) {
+        if (value.length() != 1) {
+            throw new IllegalArgumentException("Not a single character: " + value);
+        }
+        return value.charAt(0);
+    }
+
+    /**
+     * Parse an ISO-8601 duration such as PT30S, or an amount with a unit: ns, us, ms, s, m, h or d.
+     * A plain number is a number of milliseconds.
+     */
+    static Duration parseDuration(String value) {
+        if (value.startsWith("P") || value.startsWith("-P") || value.startsWith("+P")) {
+            return Duration.parse(value);
+        }
+        Matcher matcher = DURATION_PATTERN.matcher(value);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid duration: " + value);
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        switch (matcher.group(2).toLowerCase()) {
+            case "ns":
+                return Duration.ofNanos(amount);
+            case "us":
+                return Duration.of(amount, ChronoUnit.MICROS);
+            case "":
+            case "ms":
+                return Duration.ofMillis(amount);
+            case "s":
+                return Duration.ofSeconds(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            case "h":
+                return Duration.ofHours(amount);
+            case "d":
+                return Duration.ofDays(amount);
+            default:
+                throw new IllegalArgumentException("Unknown duration unit '" + matcher.group(2) + "' in: " + value);
+        }
+    }
+}
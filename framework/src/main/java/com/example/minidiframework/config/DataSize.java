@@ -0,0 +1,100 @@
+package com.example.minidiframework.config;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A size in bytes, such as a buffer or upload limit. Parsed from values like {@code 512B}, {@code 64KB},
+ * {@code 10MB} or {@code 2GB}, where a kilobyte is 1024 bytes; a plain number is a number of bytes.
+ */
+public final class DataSize implements Comparable<DataSize> {
+    private static final Pattern PATTERN = Pattern.compile("([+-]?\\d+)\\s*([a-zA-Z]*)");
+    private static final long KILOBYTE = 1024;
+    private static final long MEGABYTE = KILOBYTE * 1024;
+    private static final long GIGABYTE = MEGABYTE * 1024;
+    private static final long TERABYTE = GIGABYTE * 1024;
+
+    private final long bytes;
+
+    private DataSize(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public static DataSize ofBytes(long bytes) {
+        return new DataSize(bytes);
+    }
+
+    public static DataSize ofKilobytes(long kilobytes) {
+        return new DataSize(Math.multiplyExact(kilobytes, KILOBYTE));
+    }
+
+    public static DataSize ofMegabytes(long megabytes) {
+        return new DataSize(Math.multiplyExact(megabytes, MEGABYTE));
+    }
+
+    public static DataSize ofGigabytes(long gigabytes) {
+        return new DataSize(Math.multiplyExact(gigabytes, GIGABYTE));
+    }
+
+    /**
+     * Parse a size with an optional unit: B, KB, MB, GB or TB, in any case.
+     */
+    public static DataSize parse(String value) {
+        Matcher matcher = PATTERN.matcher(value.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid data size: " + value);
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        switch (matcher.group(2).toUpperCase()) {
+            case "":
+            case "B":
+                return ofBytes(amount);
+            case "KB":
+                return ofKilobytes(amount);
+            case "MB":
+                return ofMegabytes(amount);
+            case "GB":
+                return ofGigabytes(amount);
+            case "TB":
+                return new DataSize(Math.multiplyExact(amount, TERABYTE));
+            default:
+                throw new IllegalArgumentException("Unknown data size unit '" + matcher.group(2) + "' in: " + value);
+        }
+    }
+
+    public long toBytes() {
+        return bytes;
+    }
+
+    public long toKilobytes() {
+        return bytes / KILOBYTE;
+    }
+
+    public long toMegabytes() {
+        return bytes / MEGABYTE;
+    }
+
+    public long toGigabytes() {
+        return bytes / GIGABYTE;
+    }
+
+    @Override
+    public int compareTo(DataSize other) {
+        return Long.compare(bytes, other.bytes);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DataSize && ((DataSize) other).bytes == bytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return bytes + "B";
+    }
+}
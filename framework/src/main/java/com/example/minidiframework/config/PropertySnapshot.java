@@ -0,0 +1,68 @@
+package com.example.minidiframework.config;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The properties of a chain of sources flattened into immutable maps, with the name of the
+ * source each value came from. Keys and values are interned, so equal strings of different
+ * sources and snapshots are shared, and a lookup is a probe of an immutable map: it takes
+ * no lock and allocates nothing.
+ */
+final class PropertySnapshot {
+    private final Map<String, String> values;
+    private final Map<String, String> origins;
+
+    /**
+     * Flatten the sources, the first source taking precedence over the ones after it.
+     */
+    PropertySnapshot(List<PropertySource> sources) {
+        Map<String, String> values = new HashMap<>();
+        Map<String, String> origins = new HashMap<>();
+        for (int i = sources.size() - 1; i >= 0; i--) {
+            PropertySource source = sources.get(i);
+            String origin = source.getName().intern();
+            for (Map.Entry<String, String> property : source.getProperties().entrySet()) {
+                String key = property.getKey().intern();
+                values.put(key, property.getValue().intern());
+                origins.put(key, origin);
+            }
+        }
+        this.values = Map.copyOf(values);
+        this.origins = Map.copyOf(origins);
+    }
+
+    String get(String key) {
+        return values.get(key);
+    }
+
+    String getOrigin(String key) {
+        return origins.get(key);
+    }
+
+    Map<String, String> getValues() {
+        return values;
+    }
+
+    /**
+     * Get the keys whose value differs in the other snapshot, including keys that only one of them has.
+     */
+    Set<String> getChangedKeys(PropertySnapshot other) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> property : values.entrySet()) {
+            if (!Objects.equals(property.getValue(), other.values.get(property.getKey()))) {
+                changed.add(property.getKey());
+            }
+        }
+        for (String key : other.values.keySet()) {
+            if (!values.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+}
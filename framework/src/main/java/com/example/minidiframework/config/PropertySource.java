@@ -0,0 +1,158 @@
+package com.example.minidiframework.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A named set of properties, one layer of the {@link ConfigurationProperties}: a properties file,
+ * the system properties, the environment variables or the command-line arguments. A source read
+ * from a file knows its location, so it can be read again when the file changes.
+ */
+public final class PropertySource {
+    public static final String COMMAND_LINE = "command line";
+    public static final String SYSTEM_PROPERTIES = "system properties";
+    public static final String ENVIRONMENT = "environment";
+
+    private final String name;
+    private final Map<String, String> properties;
+    private final Path location;
+
+    public PropertySource(String name, Map<String, String> properties) {
+        this(name, properties, null);
+    }
+
+    private PropertySource(String name, Map<String, String> properties, Path location) {
+        this.name = name;
+        this.properties = Collections.unmodifiableMap(new HashMap<>(properties));
+        this.location = location;
+    }
+
+    /**
+     * Load a properties file from the classpath. A file that does not exist gives an empty source.
+     * A file in a class directory, rather than in a jar, can be reloaded.
+     */
+    public static PropertySource fromResource(String resource) {
+        URL url = PropertySource.class.getClassLoader().getResource(resource);
+        if (url == null) {
+            return new PropertySource(resource, Collections.emptyMap());
+        }
+        Properties loaded = new Properties();
+        try (InputStream input = url.openStream()) {
+            loaded.load(input);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load properties file: " + resource, e);
+        }
+        Path location = null;
+        if ("file".equals(url.getProtocol())) {
+            try {
+                location = Path.of(url.toURI());
+            } catch (URISyntaxException e) {
+                // Not reloadable
+            }
+        }
+        return new PropertySource(resource, toMap(loaded), location);
+    }
+
+    /**
+     * Load a properties file from the file system. A file that does not exist gives an empty source,
+     * which is filled when the file is created and the source is reloaded.
+     */
+    public static PropertySource fromFile(Path file) {
+        return load(file.toString(), file.toAbsolutePath().normalize());
+    }
+
+    private static PropertySource load(String name, Path file) {
+        Properties loaded = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            loaded.load(input);
+        } catch (NoSuchFileException e) {
+            // Empty until the file is created
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load properties file: " + file, e);
+        }
+        return new PropertySource(name, toMap(loaded), file);
+    }
+
+    /**
+     * Read the file of this source again, or return this source if it was not read from a file.
+     */
+    public PropertySource reload() {
+        return location != null ? load(name, location) : this;
+    }
+
+    public static PropertySource fromSystemProperties() {
+        return new PropertySource(SYSTEM_PROPERTIES, toMap(System.getProperties()));
+    }
+
+    /**
+     * Read the environment variables as properties: DB_HOST is the property db.host.
+     */
+    public static PropertySource fromEnvironment() {
+        Map<String, String> properties = new HashMap<>();
+        for (Map.Entry<String, String> variable : System.getenv().entrySet()) {
+            properties.put(variable.getKey().toLowerCase().replace('_', '.'), variable.getValue());
+        }
+        return new PropertySource(ENVIRONMENT, properties);
+    }
+
+    /**
+     * Read the --key=value arguments of the command line; --key alone sets the property to true.
+     * Other arguments are ignored.
+     */
+    public static PropertySource fromCommandLine(String... args) {
+        Map<String, String> properties = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.length() == 2) {
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                properties.put(arg.substring(2), "true");
+            } else {
+                properties.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return new PropertySource(COMMAND_LINE, properties);
+    }
+
+    private static Map<String, String> toMap(Properties properties) {
+        Map<String, String> map = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            map.put(key, properties.getProperty(key));
+        }
+        return map;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getProperty(String key) {
+        return properties.get(key);
+    }
+
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Get the file this source was read from, or null if it cannot be reloaded.
+     */
+    public Path getLocation() {
+        return location;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertySource[" + name + "]";
+    }
+}
@@ -1,78 +1,647 @@
 package com.example.minidiframework.context;
 
 import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.aop.AopProxyFactory;
+import com.example.minidiframework.aop.AspectProcessor;
+import com.example.minidiframework.config.ConfigurationBinder;
+import com.example.minidiframework.config.ConfigurationProperties;
 import com.example.minidiframework.scanner.ComponentScanner;
 import com.example.minidiframework.injection.DependencyInjector;
+import com.example.minidiframework.injection.InjectionPlan;
+import com.example.minidiframework.startup.BeanInstantiationEvent;
+import com.example.minidiframework.startup.StartupReport;
+import com.example.minidiframework.startup.StartupTimeline;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * The main application context that manages beans and handles dependency injection.
  * This is the central component of the mini framework.
+ * A context may have a parent context: its beans can depend on the beans of the parent, which are
+ * shared by every child. What does not depend on a context, such as the scan results of a package,
+ * the metadata of a component class and the compiled bean factories, is computed once per JVM.
+ * Singletons can be re-created while the context runs with {@link #refresh(Set)}.
  */
-public class ApplicationContext {
-    private final Map<String, Object> beans = new ConcurrentHashMap<>();
-    private final Map<Class<?>, String> typeToBeanName = new ConcurrentHashMap<>();
+public class ApplicationContext implements AutoCloseable {
+    /**
+     * The constructor, bean name, scope and @Lazy setting of each component class.
+     */
+    private static final ClassValue<ComponentMetadata> COMPONENT_METADATA = new ClassValue<>() {
+        @Override
+        protected ComponentMetadata computeValue(Class<?> type) {
+            return new ComponentMetadata(type);
+        }
+    };
+
+    /**
+     * The compiled factories of the constructors of each class.
+     */
+    private static final ClassValue<Map<Constructor<?>, BeanFactory>> BEAN_FACTORIES = new ClassValue<>() {
+        @Override
+        protected Map<Constructor<?>, BeanFactory> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Map<String, Object> earlyBeans = new ConcurrentHashMap<>();
+    private final Map<String, Object> boundProperties = new ConcurrentHashMap<>();
+    private final Map<String, BeanScope> scopes = new HashMap<>();
+    private final Map<Integer, BeanRef<?>> beanRefs = new ConcurrentHashMap<>();
+    private final List<Consumer<Set<String>>> refreshListeners = new CopyOnWriteArrayList<>();
+    private final StartupTimeline startupTimeline = new StartupTimeline();
+    private final ConfigurationProperties configurationProperties;
     private final ComponentScanner componentScanner;
     private final DependencyInjector dependencyInjector;
+    private final String[] basePackages;
+    private final ApplicationContext parent;
+    private BeanDependencyGraph dependencyGraph;
+    private volatile BeanRegistry registry;
+    private LifecycleProcessor lifecycleProcessor;
+    private AopProxyFactory aopProxyFactory;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    /**
+     * Held by refresh and close, so neither runs while the other is half done.
+     */
+    private final Object refreshLock = new Object();
+    private volatile RuntimeException refreshFailure;
+    private ContextInitializer contextInitializer;
+    private boolean restoredFromSnapshot;
+    private boolean watchingConfiguration;
 
-    public ApplicationContext(String basePackage) {
-        this.componentScanner = new ComponentScanner(basePackage);
+    public ApplicationContext(String... basePackages) {
+        this(new ConfigurationProperties(), basePackages);
+    }
+
+    public ApplicationContext(ConfigurationProperties configurationProperties, String... basePackages) {
+        this(null, configurationProperties, basePackages);
+    }
+
+    /**
+     * Create a child context with the configuration properties of its parent.
+     */
+    public ApplicationContext(ApplicationContext parent, String... basePackages) {
+        this(parent, parent.getConfigurationProperties(), basePackages);
+    }
+
+    /**
+     * Create a child context. Its beans are created and injected like those of any context, but a
+     * dependency that no bean of the child satisfies is taken from the parent. Beans of the child hide
+     * beans of the parent with the same name. The parent must be fully initialized, and it is
+     * neither refreshed nor closed with the child.
+     */
+    public ApplicationContext(ApplicationContext parent, ConfigurationProperties configurationProperties,
+                              String... basePackages) {
+        this.parent = parent;
+        this.configurationProperties = configurationProperties;
+        this.basePackages = basePackages.clone();
+        this.componentScanner = new ComponentScanner(basePackages);
+        this.componentScanner.setUseComponentIndex(
+            Boolean.parseBoolean(configurationProperties.getProperty("minidi.index.enabled", "true")));
+        this.componentScanner.setScanMode(ComponentScanner.ScanMode.valueOf(
+            configurationProperties.getProperty("minidi.scan.mode", "bytecode").toUpperCase()));
+        this.componentScanner.setParallelism(
+            Integer.parseInt(configurationProperties.getProperty("minidi.scan.parallelism", "1")));
+        String scanCacheFile = configurationProperties.getProperty("minidi.scan.cache.file");
+        if (scanCacheFile != null && !scanCacheFile.isBlank()) {
+            this.componentScanner.setCacheFile(Paths.get(scanCacheFile));
+        }
+        this.componentScanner.setProperties(configurationProperties);
+        this.componentScanner.setUseSharedResults(
+            Boolean.parseBoolean(configurationProperties.getProperty("minidi.scan.shared-cache", "true")));
         this.dependencyInjector = new DependencyInjector(this);
+        this.scopes.put(Scope.PROTOTYPE, (definition, creator) -> creator.get());
+        this.scopes.put(Scope.THREAD, new ThreadScope());
+        this.scopes.put(Scope.REQUEST, new RequestScope());
+        this.scopes.put(Scope.POOLED, new PooledScope(
+            Integer.parseInt(configurationProperties.getProperty("minidi.scope.pool.size", "16"))));
         initializeContext();
+        if (Boolean.parseBoolean(configurationProperties.getProperty("minidi.config.watch", "false"))) {
+            this.watchingConfiguration = configurationProperties.startWatching();
+        }
     }
 
     /**
      * Initialize the application context by scanning for components and creating beans.
+     * A generated context is used instead if there is one; otherwise a wiring snapshot of an
+     * earlier boot, if configured and still valid, replaces scanning and resolution. Neither is
+     * used by a child context, they do not know the beans of the parent.
      */
     private void initializeContext() {
-        // Scan for components
-        Set<Class<?>> componentClasses = componentScanner.scanForComponents();
-        
-        // Create beans for all discovered components
-        for (Class<?> componentClass : componentClasses) {
-            createBean(componentClass);
+        boolean lazyInit = Boolean.parseBoolean(configurationProperties.getProperty("minidi.context.lazy-init", "false"));
+        if (!lazyInit && parent == null && Boolean.parseBoolean(configurationProperties.getProperty("minidi.aot.enabled", "true"))) {
+            this.contextInitializer = findGeneratedContext();
+            if (contextInitializer != null) {
+                long start = System.nanoTime();
+                if (initializeFromGeneratedContext()) {
+                    indexBeansByType(registry);
+                    startupTimeline.recordPhase(StartupTimeline.GENERATED_CONTEXT, System.nanoTime() - start);
+                    runStartupCallbacks(null);
+                    finishStartup();
+                    return;
+                }
+                this.contextInitializer = null;
+            }
+        }
+
+        String snapshotFile = configurationProperties.getProperty("minidi.context.snapshot.file");
+        Path snapshotPath = parent == null && snapshotFile != null && !snapshotFile.isBlank()
+            ? Paths.get(snapshotFile) : null;
+        Long classpathFingerprint = snapshotPath != null ? computeClasspathFingerprint() : null;
+        if (classpathFingerprint != null) {
+            long start = System.nanoTime();
+            this.restoredFromSnapshot = restoreFromSnapshot(snapshotPath, classpathFingerprint);
+            startupTimeline.recordPhase(StartupTimeline.SNAPSHOT, System.nanoTime() - start);
+        }
+
+        if (!restoredFromSnapshot) {
+            long start = System.nanoTime();
+
+            // Scan for components
+            Set<Class<?>> componentClasses = componentScanner.scanForComponents();
+
+            // Build the dependency graph up front, this reports cycles before anything is created
+            List<BeanDefinition> definitions = new ArrayList<>();
+            for (Class<?> componentClass : componentClasses) {
+                definitions.add(createBeanDefinition(componentClass, lazyInit));
+            }
+            useDependencyGraph(new BeanDependencyGraph(definitions,
+                parent != null ? parent.getDependencyGraph() : null));
+            startupTimeline.recordPhase(StartupTimeline.SCAN, System.nanoTime() - start);
+        }
+
+        bindConfigurationProperties();
+        createAspects();
+
+        int parallelism = Integer.parseInt(configurationProperties.getProperty("minidi.context.parallelism", "1"));
+        if (parallelism > 1) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                long start = System.nanoTime();
+                createBeansInParallel(pool);
+                long injectionStart = System.nanoTime();
+                startupTimeline.recordPhase(StartupTimeline.INSTANTIATION, injectionStart - start);
+                injectDependenciesInParallel(pool);
+                startupTimeline.recordPhase(StartupTimeline.INJECTION, System.nanoTime() - injectionStart);
+                runStartupCallbacks(pool);
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            long start = System.nanoTime();
+
+            // Create singletons in topological order, lazy and scoped beans are created on first use
+            for (String beanName : dependencyGraph.getInstantiationOrder()) {
+                BeanDefinition definition = dependencyGraph.getDefinition(beanName);
+                if (isEager(definition) && !registry.contains(beanName)) {
+                    createBean(definition);
+                }
+            }
+            long injectionStart = System.nanoTime();
+            startupTimeline.recordPhase(StartupTimeline.INSTANTIATION, injectionStart - start);
+
+            // Perform dependency injection
+            dependencyInjector.injectDependencies();
+            startupTimeline.recordPhase(StartupTimeline.INJECTION, System.nanoTime() - injectionStart);
+            runStartupCallbacks(null);
+        }
+
+        indexBeansByType(registry);
+
+        if (classpathFingerprint != null && !restoredFromSnapshot) {
+            saveSnapshot(snapshotPath, classpathFingerprint);
+        }
+        finishStartup();
+    }
+
+    /**
+     * Bind the properties of every @ConfigurationProperties bean before any bean is created, so all
+     * invalid properties are reported together. The bound singletons are kept for their creation.
+     */
+    private void bindConfigurationProperties() {
+        long start = System.nanoTime();
+        ConfigurationBinder binder = null;
+        List<String> errors = new ArrayList<>();
+        for (String beanName : dependencyGraph.getInstantiationOrder()) {
+            BeanDefinition definition = dependencyGraph.getDefinition(beanName);
+            String prefix = COMPONENT_METADATA.get(definition.getBeanClass()).propertiesPrefix;
+            if (prefix == null) {
+                continue;
+            }
+            if (binder == null) {
+                binder = new ConfigurationBinder(configurationProperties);
+            }
+            Object bound = binder.bind(prefix, definition.getBeanClass(), errors);
+            if (bound != null && definition.isSingleton()) {
+                boundProperties.put(beanName, bound);
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new RuntimeException(ConfigurationBinder.formatErrors("Invalid configuration properties", errors));
+        }
+        if (binder != null) {
+            startupTimeline.recordPhase(StartupTimeline.BINDING, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Create the @Aspect singletons and the singletons their constructors need before any other bean,
+     * so every other bean is created with its advice applied. The advice chains are resolved once per
+     * bean class, when its first bean is created. The beans created here are not advised themselves.
+     */
+    private void createAspects() {
+        Set<String> required = new HashSet<>();
+        for (String beanName : dependencyGraph.getInstantiationOrder()) {
+            if (dependencyGraph.getDefinition(beanName).getBeanClass().isAnnotationPresent(Aspect.class)) {
+                addWithConstructorDependencies(beanName, required);
+            }
+        }
+        if (required.isEmpty()) {
+            return;
+        }
+        for (String beanName : dependencyGraph.getInstantiationOrder()) {
+            BeanDefinition definition = dependencyGraph.getDefinition(beanName);
+            if (required.contains(beanName) && definition.isSingleton()) {
+                createBean(definition);
+            }
+        }
+        AspectProcessor aspectProcessor = new AspectProcessor(this);
+        if (aspectProcessor.hasAdvice()) {
+            this.aopProxyFactory = new AopProxyFactory(aspectProcessor);
+        }
+    }
+
+    private void addWithConstructorDependencies(String beanName, Set<String> beanNames) {
+        if (dependencyGraph.isLocal(beanName) && beanNames.add(beanName)) {
+            for (String dependency : dependencyGraph.getConstructorDependencies(beanName)) {
+                addWithConstructorDependencies(dependency, beanNames);
+            }
+        }
+    }
+
+    /**
+     * Run the @PostConstruct methods of the singletons in dependency order, then their @WarmUp methods
+     * unless warm-up is disabled. With an executor, independent beans are handled in parallel.
+     * A generated context makes these calls itself, in the order computed at compile time.
+     */
+    private void runStartupCallbacks(Executor executor) {
+        long start = System.nanoTime();
+        if (contextInitializer != null) {
+            contextInitializer.postConstruct(getBeans());
+        } else {
+            lifecycleProcessor.initialize(getBeans(), executor);
+        }
+        long warmUpStart = System.nanoTime();
+        startupTimeline.recordPhase(StartupTimeline.POST_CONSTRUCT, warmUpStart - start);
+
+        if (Boolean.parseBoolean(configurationProperties.getProperty("minidi.lifecycle.warm-up.enabled", "true"))) {
+            if (contextInitializer != null) {
+                contextInitializer.warmUp(getBeans());
+            } else {
+                lifecycleProcessor.warmUp(getBeans(), executor);
+            }
+            startupTimeline.recordPhase(StartupTimeline.WARM_UP, System.nanoTime() - warmUpStart);
+        }
+    }
+
+    /**
+     * Mark the context as started and print the startup report if it is enabled.
+     */
+    private void finishStartup() {
+        startupTimeline.markReady();
+        if (Boolean.parseBoolean(configurationProperties.getProperty("minidi.startup.report", "false"))) {
+            System.out.print(getStartupReport().format(
+                Integer.parseInt(configurationProperties.getProperty("minidi.startup.report.beans", "10"))));
         }
-        
-        // Perform dependency injection
-        dependencyInjector.injectDependencies();
     }
 
     /**
-     * Create a bean instance for the given component class.
+     * Fingerprint the classpath below the base packages, or return null if the classpath
+     * cannot be read, in which case no snapshot is used.
      */
-    private void createBean(Class<?> componentClass) {
+    private Long computeClasspathFingerprint() {
         try {
-            String beanName = getBeanName(componentClass);
-            
-            // Find the appropriate constructor (prefer @Autowired constructor)
-            Constructor<?> constructor = findAutowiredConstructor(componentClass);
-            if (constructor == null) {
-                constructor = componentClass.getDeclaredConstructor();
-            }
-            
-            constructor.setAccessible(true);
-            Object instance = constructor.newInstance();
-            
-            // Register the bean
-            beans.put(beanName, instance);
-            typeToBeanName.put(componentClass, beanName);
-            
-            // Also register by interface if applicable
-            registerByInterfaces(componentClass, beanName, instance);
-            
+            return WiringSnapshot.classpathFingerprint(Thread.currentThread().getContextClassLoader(), basePackages);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replay the wiring recorded by an earlier boot: the dependency graph and the resolved injection
+     * targets are restored without scanning or resolving. Returns false if there is no usable snapshot.
+     */
+    private boolean restoreFromSnapshot(Path snapshotPath, long classpathFingerprint) {
+        WiringSnapshot snapshot = WiringSnapshot.read(snapshotPath, classpathFingerprint, configurationProperties);
+        if (snapshot == null) {
+            return false;
+        }
+        try {
+            BeanDependencyGraph graph = snapshot.restoreGraph(Thread.currentThread().getContextClassLoader());
+            for (Map.Entry<String, Object[]> entry : snapshot.getInjectionTargets().entrySet()) {
+                dependencyInjector.preloadResolvedTargets(graph.getDefinition(entry.getKey()).getBeanClass(),
+                    entry.getValue());
+            }
+            useDependencyGraph(graph);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // The snapshot no longer matches the classes, boot normally and replace it
+            return false;
+        }
+    }
+
+    /**
+     * Record the wiring of this boot for the next one. The snapshot is only an optimization,
+     * so failing to write it does not fail the context.
+     */
+    private void saveSnapshot(Path snapshotPath, long classpathFingerprint) {
+        try {
+            WiringSnapshot.capture(dependencyGraph, dependencyInjector.getResolvedTargets(), classpathFingerprint,
+                configurationProperties, componentScanner.getConditionProperties()).write(snapshotPath);
+        } catch (IOException e) {
+            // Snapshot is optional
+        }
+    }
+
+    /**
+     * Find the context initializer generated at compile time for the base package. It wires every
+     * component below its package, so it is only used when that package is the single base package.
+     */
+    private ContextInitializer findGeneratedContext() {
+        if (basePackages.length != 1) {
+            return null;
+        }
+        String className = basePackages[0] + "." + ContextInitializer.GENERATED_CLASS_NAME;
+        try {
+            Class<?> generatedClass = Class.forName(className, true, Thread.currentThread().getContextClassLoader());
+            return (ContextInitializer) generatedClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new RuntimeException("Failed to load generated context: " + className, e);
+        }
+    }
+
+    /**
+     * Boot from the generated context: it creates and wires the beans with plain Java code,
+     * so no scanning or field injection is needed. It also calls the lifecycle callbacks in the
+     * dependency order computed at compile time, so the graph only serves lookups and has no edges.
+     * Returns false if the generated context no longer wires the components, they are scanned then.
+     */
+    private boolean initializeFromGeneratedContext() {
+        Map<String, Object> generatedBeans;
+        try {
+            generatedBeans = contextInitializer.initialize(configurationProperties);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to initialize generated context", e);
+        }
+        if (generatedBeans == null) {
+            return false;
+        }
+
+        List<BeanDefinition> definitions = new ArrayList<>(generatedBeans.size());
+        generatedBeans.forEach((name, bean) ->
+            definitions.add(new BeanDefinition(name, bean.getClass(), null, Collections.emptyList())));
+        this.dependencyGraph = new BeanDependencyGraph(definitions);
+        this.registry = new BeanRegistry(dependencyGraph);
+        generatedBeans.forEach(registry::set);
+        return true;
+    }
+
+    /**
+     * Use the dependency graph for this context and give each of its beans a registry id.
+     */
+    private void useDependencyGraph(BeanDependencyGraph dependencyGraph) {
+        this.dependencyGraph = dependencyGraph;
+        this.registry = new BeanRegistry(dependencyGraph);
+        this.lifecycleProcessor = new LifecycleProcessor(dependencyGraph);
+    }
+
+    private static boolean isEager(BeanDefinition definition) {
+        return definition.isSingleton() && !definition.isLazy();
+    }
+
+    /**
+     * Precompute the immutable list of beans for every type in the type index, in the cache of the
+     * given registry. Types matching a lazy bean that does not exist yet are left out and collected
+     * on first lookup.
+     */
+    private void indexBeansByType(BeanRegistry target) {
+        BeanTypeIndex typeIndex = dependencyGraph.getTypeIndex();
+        for (Class<?> type : typeIndex.getTypes()) {
+            List<String> beanNames = typeIndex.getBeanNames(type);
+            if (beanNames.stream().allMatch(target::contains)) {
+                Object[] instances = new Object[beanNames.size()];
+                for (int i = 0; i < instances.length; i++) {
+                    instances[i] = target.get(beanNames.get(i));
+                }
+                target.putBeansOfType(type, List.of(instances));
+            }
+        }
+    }
+
+    private List<Object> collectBeans(List<String> beanNames) {
+        Object[] instances = new Object[beanNames.size()];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = getBean(beanNames.get(i));
+        }
+        return List.of(instances);
+    }
+
+    /**
+     * Create all beans, starting each one as soon as its constructor dependencies exist,
+     * so independent beans are instantiated concurrently.
+     */
+    private void createBeansInParallel(Executor executor) {
+        Map<String, CompletableFuture<Void>> created = new HashMap<>();
+        for (String beanName : dependencyGraph.getInstantiationOrder()) {
+            CompletableFuture<?>[] dependencies = dependencyGraph.getConstructorDependencies(beanName).stream()
+                .map(created::get)
+                .filter(Objects::nonNull) // Beans of the parent already exist
+                .toArray(CompletableFuture<?>[]::new);
+            BeanDefinition definition = dependencyGraph.getDefinition(beanName);
+            if (!isEager(definition) || registry.contains(beanName)) {
+                created.put(beanName, CompletableFuture.completedFuture(null));
+                continue;
+            }
+            created.put(beanName, CompletableFuture.allOf(dependencies)
+                .thenRunAsync(() -> createBean(definition), executor));
+        }
+        await(created.values());
+    }
+
+    /**
+     * Inject the fields of all beans concurrently; every bean exists at this point.
+     */
+    private void injectDependenciesInParallel(Executor executor) {
+        List<CompletableFuture<Void>> injected = new ArrayList<>();
+        for (Map.Entry<String, Object> bean : registry.asMap().entrySet()) {
+            injected.add(CompletableFuture.runAsync(
+                () -> dependencyInjector.injectDependencies(bean.getKey(), bean.getValue()), executor));
+        }
+        await(injected);
+    }
+
+    private static void await(Collection<CompletableFuture<Void>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Describe a component class: its bean name, constructor and autowired field types.
+     * The bean is lazy if it is annotated with @Lazy, or if lazy-init is on and it is not annotated @Lazy(false).
+     * Its scope comes from @Scope and defaults to singleton. A @ConfigurationProperties bean has no
+     * constructor, it is created by binding its properties.
+     */
+    private BeanDefinition createBeanDefinition(Class<?> componentClass, boolean lazyInit) {
+        ComponentMetadata metadata = COMPONENT_METADATA.get(componentClass);
+        if (metadata.constructor == null && metadata.propertiesPrefix == null) {
+            throw new RuntimeException("No usable constructor for class: " + componentClass.getName(),
+                metadata.constructorError);
+        }
+
+        String scopeName = metadata.scopeName;
+        if (!Scope.SINGLETON.equals(scopeName) && !scopes.containsKey(scopeName)) {
+            throw new RuntimeException("Unknown scope '" + scopeName + "' for class: " + componentClass.getName());
+        }
+
+        return new BeanDefinition(metadata.beanName, componentClass, metadata.constructor,
+            InjectionPlan.forClass(componentClass).getAutowiredTypes(),
+            metadata.lazy != null ? metadata.lazy : lazyInit, scopeName);
+    }
+
+    /**
+     * Create and register the bean for the given definition. Its eager constructor dependencies must already exist.
+     */
+    private void createBean(BeanDefinition definition) {
+        // Register the bean, it is found by type through the graph's type index
+        registry.set(definition.getBeanName(), instantiateAndRecord(definition));
+    }
+
+    /**
+     * Instantiate a singleton bean and record the time it took in the startup timeline and in a Flight Recorder event.
+     */
+    private Object instantiateAndRecord(BeanDefinition definition) {
+        return instantiateAndRecord(definition, this::getBeanForInjection);
+    }
+
+    private Object instantiateAndRecord(BeanDefinition definition, BiFunction<String, Class<?>, Object> beanLookup) {
+        BeanInstantiationEvent event = new BeanInstantiationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Object bean = instantiate(definition, beanLookup);
+        startupTimeline.recordInstantiation(definition.getBeanName(), System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.beanName = definition.getBeanName();
+            event.beanClass = definition.getBeanClass();
+            event.commit();
+        }
+        return bean;
+    }
+
+    /**
+     * Create a lazy bean and inject its fields. The lock on the definition makes sure concurrent
+     * first uses create the bean exactly once; a field cycle back to the bean on the creating
+     * thread sees the early, not yet injected instance.
+     */
+    private Object createLazyBean(BeanDefinition definition) {
+        String beanName = definition.getBeanName();
+        synchronized (definition) {
+            Object bean = registry.get(beanName);
+            if (bean == null) {
+                bean = earlyBeans.get(beanName);
+            }
+            if (bean != null) {
+                return bean;
+            }
+
+            bean = instantiateAndRecord(definition);
+            earlyBeans.put(beanName, bean);
+            try {
+                dependencyInjector.injectDependencies(beanName, bean);
+                lifecycleProcessor.initialize(beanName, bean);
+                registry.set(beanName, bean);
+            } finally {
+                earlyBeans.remove(beanName);
+            }
+            return bean;
+        }
+    }
+
+    /**
+     * Create a new instance of a scoped bean, inject its fields and call its @PostConstruct methods.
+     * Scoped beans are not destroyed by the context.
+     */
+    private Object createScopedBean(BeanDefinition definition) {
+        Object bean = instantiate(definition, this::getBeanForInjection);
+        dependencyInjector.injectDependencies(bean);
+        lifecycleProcessor.initialize(definition.getBeanName(), bean);
+        return bean;
+    }
+
+    /**
+     * Create a bean instance for the given definition, passing its constructor dependencies as found by the lookup.
+     * A @ConfigurationProperties bean is bound instead, or taken from the binding at startup. If aspects
+     * advise the class, the bean is created as its proxy subclass or wrapped in a proxy.
+     */
+    private Object instantiate(BeanDefinition definition, BiFunction<String, Class<?>, Object> beanLookup) {
+        Class<?> componentClass = definition.getBeanClass();
+        String prefix = COMPONENT_METADATA.get(componentClass).propertiesPrefix;
+        if (prefix != null) {
+            Object bound = boundProperties.remove(definition.getBeanName());
+            return bound != null ? bound : new ConfigurationBinder(configurationProperties).bind(prefix, componentClass);
+        }
+        try {
+            List<String> dependencies = dependencyGraph.getConstructorDependencies(definition.getBeanName());
+            Class<?>[] parameterTypes = definition.getConstructorDependencyTypes();
+            Object[] arguments = new Object[dependencies.size()];
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = beanLookup.apply(dependencies.get(i), parameterTypes[i]);
+            }
+
+            if (aopProxyFactory == null) {
+                return getBeanFactory(definition.getConstructor()).create(arguments);
+            }
+            return aopProxyFactory.advise(
+                getBeanFactory(aopProxyFactory.getConstructor(definition.getConstructor())).create(arguments));
         } catch (Exception e) {
             throw new RuntimeException("Failed to create bean for class: " + componentClass.getName(), e);
         }
     }
 
+    /**
+     * Get the compiled factory for a constructor, compiling it on first use.
+     */
+    public BeanFactory getBeanFactory(Constructor<?> constructor) {
+        return BEAN_FACTORIES.get(constructor.getDeclaringClass())
+            .computeIfAbsent(constructor, BeanFactoryCompiler::compile);
+    }
+
     /**
      * Find a constructor annotated with @Autowired, or return null if none found.
      */
-    private Constructor<?> findAutowiredConstructor(Class<?> clazz) {
+    private static Constructor<?> findAutowiredConstructor(Class<?> clazz) {
         Constructor<?>[] constructors = clazz.getDeclaredConstructors();
         
         for (Constructor<?> constructor : constructors) {
@@ -91,20 +660,10 @@ public class ApplicationContext {
         return null;
     }
 
-    /**
-     * Register bean by its interfaces.
-     */
-    private void registerByInterfaces(Class<?> componentClass, String beanName, Object instance) {
-        Class<?>[] interfaces = componentClass.getInterfaces();
-        for (Class<?> interfaceClass : interfaces) {
-            typeToBeanName.put(interfaceClass, beanName);
-        }
-    }
-
     /**
      * Get the bean name for a component class.
      */
-    private String getBeanName(Class<?> componentClass) {
+    private static String getBeanName(Class<?> componentClass) {
         // Check for explicit name in annotations
         if (componentClass.isAnnotationPresent(Component.class)) {
             Component component = componentClass.getAnnotation(Component.class);
@@ -133,56 +692,424 @@ public class ApplicationContext {
     }
 
     /**
-     * Get a bean by name.
+     * Get a bean by name. A lazy bean is created on the first call; a scoped bean is
+     * looked up in its scope, so a prototype bean is created on every call.
      */
     public Object getBean(String name) {
-        return beans.get(name);
+        int id = registry != null ? registry.getId(name) : -1;
+        if (id < 0) {
+            return parent != null ? parent.getBean(name) : null;
+        }
+        return getBean(id);
+    }
+
+    /**
+     * Get a bean by its registry id.
+     */
+    Object getBean(int id) {
+        Object bean = registry.get(id);
+        if (bean == null) {
+            BeanDefinition definition = registry.getDefinition(id);
+            if (!definition.isSingleton()) {
+                bean = scopes.get(definition.getScope()).getBean(definition, () -> createScopedBean(definition));
+            } else if (definition.isLazy()) {
+                bean = createLazyBean(definition);
+            }
+        }
+        return bean;
     }
 
     /**
-     * Get a bean by type.
+     * Get the bean to inject into a dependency of the given type. A lazy bean that does not
+     * exist yet is injected as a proxy if the type is an interface, and created right away otherwise.
+     * A prototype bean is created for the injection point. Thread, request and pooled beans are
+     * injected as a proxy that reaches the current instance, so they need an interface type.
+     */
+    public Object getBeanForInjection(String name, Class<?> type) {
+        if (parent != null && !dependencyGraph.isLocal(name)) {
+            return parent.getBeanForInjection(name, type);
+        }
+        Object bean = registry.get(name);
+        if (bean != null) {
+            return bean;
+        }
+
+        BeanDefinition definition = dependencyGraph.getDefinition(name);
+        if (definition != null && !definition.isSingleton() && !Scope.PROTOTYPE.equals(definition.getScope())) {
+            if (!type.isInterface()) {
+                throw new RuntimeException("Bean '" + name + "' with scope '" + definition.getScope()
+                    + "' can only be injected through an interface, not as " + type.getName());
+            }
+            return BeanProxy.forScopedBean(this, name, type);
+        }
+        if (definition != null && definition.isLazy() && type.isInterface()) {
+            return BeanProxy.forLazyBean(this, name, type);
+        }
+        return getBean(name);
+    }
+
+    /**
+     * Get a bean by type. The type may be the bean's class or any of its superclasses or interfaces;
+     * if several beans match, only a bean of exactly that class is returned.
      */
     @SuppressWarnings("unchecked")
     public <T> T getBean(Class<T> type) {
-        String beanName = typeToBeanName.get(type);
+        int id = registry.getId(type);
+        return (T) (id >= 0 ? getBean(id) : getBean(resolveBeanName(type)));
+    }
+
+    /**
+     * Get a handle to the bean of a type that resolves the bean once. Keep it in a field to look
+     * up the bean on a hot path without any map access.
+     *
+     * @see #getBean(Class)
+     */
+    public <T> BeanRef<T> getBeanRef(Class<T> type) {
+        int id = registry.getId(type);
+        if (id < 0) {
+            String beanName = resolveBeanName(type);
+            id = registry.getId(beanName);
+            if (id < 0) {
+                return parent.getBeanRef(beanName, type);
+            }
+        }
+        return createBeanRef(id);
+    }
+
+    /**
+     * Get a handle to a bean by name that resolves the bean once.
+     */
+    public <T> BeanRef<T> getBeanRef(String name, Class<T> type) {
+        int id = registry.getId(name);
+        if (id < 0) {
+            if (parent != null && parent.containsBean(name)) {
+                return parent.getBeanRef(name, type);
+            }
+            throw new RuntimeException("No bean found with name: " + name);
+        }
+        if (!type.isAssignableFrom(registry.getDefinition(id).getBeanClass())) {
+            throw new RuntimeException("Bean '" + name + "' is not of type " + type.getName());
+        }
+        return createBeanRef(id);
+    }
+
+    /**
+     * Create a handle for a bean. Handles that hold their singleton are kept, so a refresh can switch them
+     * to the new instance; the others look up the bean on every call and always see the current one.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> BeanRef<T> createBeanRef(int id) {
+        BeanDefinition definition = registry.getDefinition(id);
+        T instance = definition.isSingleton() ? (T) registry.get(id) : null;
+        if (instance == null) {
+            return new BeanRef<>(this, id, definition.getBeanName(), null);
+        }
+        return (BeanRef<T>) beanRefs.computeIfAbsent(id,
+            key -> new BeanRef<>(this, id, definition.getBeanName(), registry.get(id)));
+    }
+
+    /**
+     * Get the name of the bean of a type, which may be a bean of the parent. Ambiguous types are
+     * not registered in the registry and are reported by the type index.
+     */
+    private String resolveBeanName(Class<?> type) {
+        String beanName = dependencyGraph.resolve(type);
         if (beanName == null) {
             throw new RuntimeException("No bean found for type: " + type.getName());
         }
-        return (T) beans.get(beanName);
+        return beanName;
     }
 
     /**
-     * Get all beans of a specific type.
+     * Get all beans of a specific type in this context, without those of the parent. Lazy beans of
+     * that type are created and scoped beans are looked up in their scope. The returned list is immutable.
      */
     @SuppressWarnings("unchecked")
     public <T> List<T> getBeansOfType(Class<T> type) {
-        List<T> result = new ArrayList<>();
-        for (Object bean : beans.values()) {
-            if (type.isAssignableFrom(bean.getClass())) {
-                result.add((T) bean);
+        BeanRegistry current = registry;
+        List<Object> instances = current.getBeansOfType(type);
+        if (instances == null) {
+            List<String> beanNames = dependencyGraph.getTypeIndex().getBeanNames(type);
+            if (beanNames.isEmpty()) {
+                return Collections.emptyList();
+            }
+            instances = collectBeans(beanNames);
+            if (beanNames.stream().allMatch(name -> dependencyGraph.getDefinition(name).isSingleton())) {
+                current.putBeansOfType(type, instances);
             }
         }
-        return result;
+        return (List<T>) instances;
     }
 
     /**
-     * Check if a bean exists.
+     * Check if a bean exists in this context or its parent. Lazy beans exist even before they are created.
      */
     public boolean containsBean(String name) {
-        return beans.containsKey(name);
+        return registry.getId(name) >= 0 || parent != null && parent.containsBean(name);
     }
 
     /**
-     * Get all bean names.
+     * Get all bean names of this context, including lazy beans that were not created yet.
      */
     public Set<String> getBeanNames() {
-        return beans.keySet();
+        return dependencyGraph.getDefinitionNames();
+    }
+
+    /**
+     * Get the parent context, or null if this is a root context.
+     */
+    public ApplicationContext getParent() {
+        return parent;
     }
 
     /**
-     * Get the internal beans map (for testing purposes).
+     * Get the configuration properties of this context.
      */
-    Map<String, Object> getBeans() {
-        return beans;
+    public ConfigurationProperties getConfigurationProperties() {
+        return configurationProperties;
+    }
+
+    /**
+     * Get the generated context this context was booted from, or null if it scanned for components.
+     */
+    public ContextInitializer getContextInitializer() {
+        return contextInitializer;
+    }
+
+    /**
+     * Re-create the singletons assignable to any of the given types, together with every singleton that
+     * receives one of them in its constructor, directly or transitively. Lazy singletons that were not
+     * created yet stay lazy. The new beans are created, injected and initialized next to the old ones;
+     * their @Value fields are resolved again. Then they replace the old beans in one step: lookups by
+     * name and by type, bean handles and route tables switch to the new instances, while a request that
+     * already runs keeps the beans it started with. Afterwards only the @Autowired fields of other beans
+     * that received a replaced bean are injected again. The old beans are destroyed once the requests
+     * that were running at the swap have ended, on the thread ending the last of them; a failure is then
+     * reported by {@link #getRefreshFailure()}. Refreshes run one at a time and not while the context
+     * closes; child contexts are not refreshed with their parent.
+     *
+     * @return the names of the re-created beans, in instantiation order
+     */
+    public Set<String> refresh(Set<Class<?>> types) {
+        if (contextInitializer != null) {
+            throw new RuntimeException("A context booted from a generated context cannot be refreshed");
+        }
+        synchronized (refreshLock) {
+            if (closed.get()) {
+                throw new RuntimeException("Cannot refresh a closed context");
+            }
+
+            Set<String> affected = new HashSet<>();
+            for (Class<?> type : types) {
+                List<String> beanNames = dependencyGraph.getTypeIndex().getBeanNames(type);
+                if (beanNames.isEmpty()) {
+                    throw new RuntimeException("No bean found for type: " + type.getName());
+                }
+                affected.addAll(beanNames);
+            }
+
+            // The instantiation order lists constructor dependencies first, so one pass finds all dependents
+            List<String> recreate = new ArrayList<>();
+            Set<Class<?>> affectedClasses = new HashSet<>();
+            for (String beanName : dependencyGraph.getInstantiationOrder()) {
+                if (!affected.contains(beanName)
+                    && dependencyGraph.getConstructorDependencies(beanName).stream().noneMatch(affected::contains)) {
+                    continue;
+                }
+                affected.add(beanName);
+                affectedClasses.add(dependencyGraph.getDefinition(beanName).getBeanClass());
+                if (registry.contains(beanName)) {
+                    recreate.add(beanName);
+                }
+            }
+            dependencyInjector.forgetResolvedTargets(affectedClasses);
+
+            Map<String, Object> created = new LinkedHashMap<>();
+            BiFunction<String, Class<?>, Object> beanLookup = (name, type) -> {
+                Object bean = created.get(name);
+                return bean != null ? bean : getBeanForInjection(name, type);
+            };
+            for (String beanName : recreate) {
+                created.put(beanName, instantiateAndRecord(dependencyGraph.getDefinition(beanName), beanLookup));
+            }
+            created.forEach((beanName, bean) -> dependencyInjector.injectRefreshedBean(beanName, bean, beanLookup));
+            lifecycleProcessor.initialize(created, null);
+            if (Boolean.parseBoolean(configurationProperties.getProperty("minidi.lifecycle.warm-up.enabled", "true"))) {
+                lifecycleProcessor.warmUp(created, null);
+            }
+
+            // Swap in the new beans, the registry carries the new lookups by type
+            Map<String, Object> replaced = new LinkedHashMap<>();
+            for (String beanName : created.keySet()) {
+                replaced.put(beanName, registry.get(beanName));
+            }
+            BeanRegistry refreshedRegistry = registry.withInstances(created);
+            indexBeansByType(refreshedRegistry);
+            this.registry = refreshedRegistry;
+            created.forEach((beanName, bean) -> {
+                BeanRef<?> beanRef = beanRefs.get(refreshedRegistry.getId(beanName));
+                if (beanRef != null) {
+                    update(beanRef, bean);
+                }
+            });
+
+            // Point the remaining beans to the new instances
+            Set<String> refreshedNames = Collections.unmodifiableSet(created.keySet());
+            dependencyInjector.forgetSharedCollections();
+            for (Map.Entry<String, Object> bean : refreshedRegistry.asMap().entrySet()) {
+                if (!created.containsKey(bean.getKey())) {
+                    dependencyInjector.reinjectDependencies(bean.getValue(), refreshedNames);
+                }
+            }
+            for (Consumer<Set<String>> listener : refreshListeners) {
+                listener.accept(refreshedNames);
+            }
+
+            long timeoutMillis = Long.parseLong(configurationProperties.getProperty("minidi.lifecycle.shutdown.timeout", "10000"));
+            RequestContext.afterRunningRequests(() -> {
+                try {
+                    lifecycleProcessor.destroy(replaced, timeoutMillis);
+                    refreshFailure = null;
+                } catch (RuntimeException e) {
+                    refreshFailure = e;
+                }
+            });
+            return refreshedNames;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void update(BeanRef<T> beanRef, Object bean) {
+        beanRef.update((T) bean);
+    }
+
+    /**
+     * Get the error of destroying the beans replaced by the last refresh if it failed, or null.
+     */
+    public RuntimeException getRefreshFailure() {
+        return refreshFailure;
+    }
+
+    /**
+     * Register a listener that is called with the names of the re-created beans after each
+     * {@link #refresh(Set)}, once they replaced the old beans and before those are destroyed.
+     */
+    public void addRefreshListener(Consumer<Set<String>> listener) {
+        refreshListeners.add(listener);
+    }
+
+    /**
+     * Close the context: the @PreDestroy methods of the singletons, or close() of AutoCloseable
+     * singletons, are called in reverse dependency order, independent beans in parallel. Each
+     * callback may take at most {@code minidi.lifecycle.shutdown.timeout} milliseconds.
+     * Closing twice has no effect. The beans of the parent are left alone. If this context started
+     * watching the property files, it stops. The thread scope and the pools drop their instances,
+     * also if a destroy callback failed. A refresh that is running is completed first.
+     */
+    @Override
+    public void close() {
+        synchronized (refreshLock) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (watchingConfiguration) {
+                configurationProperties.stopWatching();
+            }
+            try {
+                if (contextInitializer != null) {
+                    contextInitializer.preDestroy(getBeans());
+                } else if (lifecycleProcessor != null) {
+                    lifecycleProcessor.destroy(getBeans(),
+                        Long.parseLong(configurationProperties.getProperty("minidi.lifecycle.shutdown.timeout", "10000")));
+                }
+            } finally {
+                scopes.values().forEach(BeanScope::close);
+            }
+        }
+    }
+
+    /**
+     * Close the context when the JVM shuts down.
+     */
+    public void registerShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "minidi-shutdown"));
+    }
+
+    /**
+     * Check if the context was closed.
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Get the startup timeline with the phase durations and the timing of every singleton bean.
+     * Lazy beans are added when they are created.
+     */
+    public StartupTimeline getStartupTimeline() {
+        return startupTimeline;
+    }
+
+    /**
+     * Get a report of the startup so far, with the slowest beans and the critical path of constructor dependencies.
+     */
+    public StartupReport getStartupReport() {
+        return new StartupReport(startupTimeline, dependencyGraph);
+    }
+
+    /**
+     * Check if this context replayed the wiring snapshot of an earlier boot instead of scanning.
+     */
+    public boolean isRestoredFromSnapshot() {
+        return restoredFromSnapshot;
+    }
+
+    /**
+     * Get the dependency graph of the beans in this context.
+     */
+    public BeanDependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    /**
+     * Get a read-only view of the singletons of this context created so far by name, in instantiation order.
+     */
+    public Map<String, Object> getBeans() {
+        return registry != null ? registry.asMap() : Collections.emptyMap();
+    }
+
+    /**
+     * What a context needs to know about a component class, independent of the context.
+     */
+    private static final class ComponentMetadata {
+        final Constructor<?> constructor;
+        final NoSuchMethodException constructorError;
+        final String beanName;
+        final String scopeName;
+        final Boolean lazy;
+        final String propertiesPrefix;
+
+        ComponentMetadata(Class<?> componentClass) {
+            this.propertiesPrefix = ConfigurationBinder.getPrefix(componentClass);
+
+            // Find the appropriate constructor (prefer @Autowired constructor)
+            Constructor<?> found = propertiesPrefix == null ? findAutowiredConstructor(componentClass) : null;
+            NoSuchMethodException error = null;
+            if (found == null && propertiesPrefix == null) {
+                try {
+                    found = componentClass.getDeclaredConstructor();
+                } catch (NoSuchMethodException e) {
+                    error = e;
+                }
+            }
+            this.constructor = found;
+            this.constructorError = error;
+            this.beanName = getBeanName(componentClass);
+
+            Scope scope = componentClass.getAnnotation(Scope.class);
+            this.scopeName = scope != null ? scope.value() : Scope.SINGLETON;
+            Lazy lazyAnnotation = componentClass.getAnnotation(Lazy.class);
+            this.lazy = lazyAnnotation != null ? lazyAnnotation.value() : null;
+        }
     }
 }
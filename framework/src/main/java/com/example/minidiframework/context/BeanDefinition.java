@@ -0,0 +1,81 @@
+package com.example.minidiframework.context;
+
+import com.example.minidiframework.annotation.Scope;
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+
+/**
+ * Describes how a bean is created: its name, class, the constructor to call
+ * and the types it depends on.
+ */
+public class BeanDefinition {
+    private final String beanName;
+    private final Class<?> beanClass;
+    private final Constructor<?> constructor;
+    private final List<Class<?>> fieldDependencyTypes;
+    private final boolean lazy;
+    private final String scope;
+
+    public BeanDefinition(String beanName, Class<?> beanClass, Constructor<?> constructor,
+                          List<Class<?>> fieldDependencyTypes) {
+        this(beanName, beanClass, constructor, fieldDependencyTypes, false, Scope.SINGLETON);
+    }
+
+    public BeanDefinition(String beanName, Class<?> beanClass, Constructor<?> constructor,
+                          List<Class<?>> fieldDependencyTypes, boolean lazy, String scope) {
+        this.beanName = beanName;
+        this.beanClass = beanClass;
+        this.constructor = constructor;
+        this.fieldDependencyTypes = fieldDependencyTypes;
+        this.lazy = lazy;
+        this.scope = scope;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * Get the constructor used to instantiate the bean, or null for a bean created by generated code.
+     */
+    public Constructor<?> getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * Get the types of the constructor parameters, which must exist before the bean is created.
+     */
+    public Class<?>[] getConstructorDependencyTypes() {
+        return constructor != null ? constructor.getParameterTypes() : new Class<?>[0];
+    }
+
+    /**
+     * Get the types of the @Autowired fields, which are injected after all beans are created.
+     */
+    public List<Class<?>> getFieldDependencyTypes() {
+        return fieldDependencyTypes;
+    }
+
+    /**
+     * Check if the bean is created on first use rather than at startup.
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Get the name of the scope the bean lives in.
+     */
+    public String getScope() {
+        return scope;
+    }
+
+    public boolean isSingleton() {
+        return Scope.SINGLETON.equals(scope);
+    }
+}
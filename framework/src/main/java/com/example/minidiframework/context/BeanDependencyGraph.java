@@ -0,0 +1,213 @@
+package com.example.minidiframework.context;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependency graph between bean definitions.
+ * Constructor parameters are hard edges: the dependency must be created first, so a cycle
+ * of constructor edges can never be satisfied. @Autowired fields are soft edges, they are
+ * injected once every bean exists and may form cycles.
+ * A graph may have the graph of a parent context: dependencies that no local bean satisfies
+ * are resolved against the parent, and such edges name a bean of the parent.
+ */
+public class BeanDependencyGraph {
+    private final Map<String, BeanDefinition> definitions = new LinkedHashMap<>();
+    private final Map<String, List<String>> constructorDependencies = new HashMap<>();
+    private final Map<String, List<String>> fieldDependencies = new HashMap<>();
+    private final List<String> instantiationOrder;
+    private final BeanTypeIndex typeIndex;
+    private final BeanDependencyGraph parent;
+
+    public BeanDependencyGraph(Collection<BeanDefinition> beanDefinitions) {
+        this(beanDefinitions, null);
+    }
+
+    /**
+     * Build the graph of a child context whose dependencies may also be satisfied by the beans of the parent graph.
+     */
+    public BeanDependencyGraph(Collection<BeanDefinition> beanDefinitions, BeanDependencyGraph parent) {
+        this.parent = parent;
+        for (BeanDefinition definition : beanDefinitions) {
+            BeanDefinition existing = definitions.putIfAbsent(definition.getBeanName(), definition);
+            if (existing != null) {
+                throw new RuntimeException("Duplicate bean name '" + definition.getBeanName() + "' for classes "
+                    + existing.getBeanClass().getName() + " and " + definition.getBeanClass().getName());
+            }
+        }
+        this.typeIndex = new BeanTypeIndex(definitions.values());
+
+        for (BeanDefinition definition : definitions.values()) {
+            List<String> constructorEdges = new ArrayList<>();
+            for (Class<?> type : definition.getConstructorDependencyTypes()) {
+                String dependency = resolve(type);
+                if (dependency == null) {
+                    throw new RuntimeException("Unsatisfied dependency of bean '" + definition.getBeanName()
+                        + "': no bean found for constructor parameter of type " + type.getName());
+                }
+                constructorEdges.add(dependency);
+            }
+            constructorDependencies.put(definition.getBeanName(), Collections.unmodifiableList(constructorEdges));
+
+            // Unresolvable fields are reported by the DependencyInjector when they are injected
+            List<String> fieldEdges = new ArrayList<>();
+            for (Class<?> type : definition.getFieldDependencyTypes()) {
+                String dependency = resolve(type);
+                if (dependency != null) {
+                    fieldEdges.add(dependency);
+                }
+            }
+            fieldDependencies.put(definition.getBeanName(), Collections.unmodifiableList(fieldEdges));
+        }
+
+        this.instantiationOrder = Collections.unmodifiableList(sortByConstructorDependencies());
+    }
+
+    /**
+     * Restore a graph that was already resolved and sorted, as recorded by a {@link WiringSnapshot}.
+     */
+    BeanDependencyGraph(List<BeanDefinition> beanDefinitions, BeanTypeIndex typeIndex,
+                        Map<String, List<String>> constructorDependencies,
+                        Map<String, List<String>> fieldDependencies, List<String> instantiationOrder) {
+        for (BeanDefinition definition : beanDefinitions) {
+            definitions.put(definition.getBeanName(), definition);
+        }
+        this.typeIndex = typeIndex;
+        this.parent = null;
+        this.constructorDependencies.putAll(constructorDependencies);
+        this.fieldDependencies.putAll(fieldDependencies);
+        this.instantiationOrder = Collections.unmodifiableList(new ArrayList<>(instantiationOrder));
+    }
+
+    /**
+     * Find the bean that satisfies a dependency of the given type, or null if there is none.
+     * A local bean wins over the beans of the parent graph.
+     *
+     * @see BeanTypeIndex#resolve(Class)
+     */
+    public String resolve(Class<?> type) {
+        String beanName = typeIndex.resolve(type);
+        return beanName == null && parent != null ? parent.resolve(type) : beanName;
+    }
+
+    /**
+     * Get the names of all beans assignable to the given type, the local beans first and then
+     * those of the parent graph that are not hidden by a local bean of the same name.
+     */
+    public List<String> getBeanNames(Class<?> type) {
+        List<String> beanNames = typeIndex.getBeanNames(type);
+        if (parent == null) {
+            return beanNames;
+        }
+        List<String> parentNames = parent.getBeanNames(type);
+        if (parentNames.isEmpty()) {
+            return beanNames;
+        }
+        List<String> allNames = new ArrayList<>(beanNames);
+        for (String beanName : parentNames) {
+            if (!definitions.containsKey(beanName)) {
+                allNames.add(beanName);
+            }
+        }
+        return Collections.unmodifiableList(allNames);
+    }
+
+    /**
+     * Get the graph of the parent context, or null if there is none.
+     */
+    public BeanDependencyGraph getParent() {
+        return parent;
+    }
+
+    /**
+     * Check if a bean is defined in this graph rather than in a parent graph.
+     */
+    public boolean isLocal(String beanName) {
+        return definitions.containsKey(beanName);
+    }
+
+    /**
+     * Get the index of the beans by every type they are assignable to.
+     */
+    public BeanTypeIndex getTypeIndex() {
+        return typeIndex;
+    }
+
+    public BeanDefinition getDefinition(String beanName) {
+        return definitions.get(beanName);
+    }
+
+    public Set<String> getDefinitionNames() {
+        return Collections.unmodifiableSet(definitions.keySet());
+    }
+
+    public Collection<BeanDefinition> getDefinitions() {
+        return Collections.unmodifiableCollection(definitions.values());
+    }
+
+    /**
+     * Get the beans passed to the constructor of a bean, in parameter order.
+     */
+    public List<String> getConstructorDependencies(String beanName) {
+        return constructorDependencies.getOrDefault(beanName, Collections.emptyList());
+    }
+
+    /**
+     * Get the beans injected into the @Autowired fields of a bean.
+     */
+    public List<String> getFieldDependencies(String beanName) {
+        return fieldDependencies.getOrDefault(beanName, Collections.emptyList());
+    }
+
+    /**
+     * Get the bean names in an order where every bean follows its constructor dependencies.
+     */
+    public List<String> getInstantiationOrder() {
+        return instantiationOrder;
+    }
+
+    /**
+     * Depth-first topological sort over the constructor edges that reports the first cycle it finds.
+     */
+    private List<String> sortByConstructorDependencies() {
+        List<String> order = new ArrayList<>(definitions.size());
+        Map<String, Boolean> visited = new HashMap<>(); // false while on the current path
+        List<String> path = new ArrayList<>();
+
+        for (String beanName : definitions.keySet()) {
+            visit(beanName, visited, path, order);
+        }
+        return order;
+    }
+
+    private void visit(String beanName, Map<String, Boolean> visited, List<String> path, List<String> order) {
+        if (!definitions.containsKey(beanName)) {
+            return; // A bean of the parent, it already exists
+        }
+        Boolean state = visited.get(beanName);
+        if (state != null) {
+            if (!state) {
+                List<String> cycle = new ArrayList<>(path.subList(path.indexOf(beanName), path.size()));
+                cycle.add(beanName);
+                throw new RuntimeException("Circular constructor dependency between beans: "
+                    + String.join(" -> ", cycle));
+            }
+            return;
+        }
+
+        visited.put(beanName, Boolean.FALSE);
+        path.add(beanName);
+        for (String dependency : getConstructorDependencies(beanName)) {
+            visit(dependency, visited, path, order);
+        }
+        path.remove(path.size() - 1);
+        visited.put(beanName, Boolean.TRUE);
+        order.add(beanName);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.minidiframework.context;
+
+/**
+ * Creates instances of a bean class. Factories are compiled once per constructor by the
+ * {@link BeanFactoryCompiler}, so creating a bean is a direct call instead of a reflective one.
+ */
+@FunctionalInterface
+public interface BeanFactory {
+
+    /**
+     * Create a new instance, passing the given constructor arguments in parameter order.
+     */
+    Object create(Object... arguments);
+}
@@ -0,0 +1,124 @@
+package com.example.minidiframework.context;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Compiles bean constructors into {@link BeanFactory} instances.
+ * Public constructors with up to two parameters are linked through the LambdaMetafactory into a
+ * Supplier, Function or BiFunction that calls the constructor directly. Every other constructor
+ * is bound to a method handle that spreads the argument array, which still avoids the access
+ * checks and argument copying of Constructor.newInstance.
+ */
+public final class BeanFactoryCompiler {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private BeanFactoryCompiler() {
+    }
+
+    /**
+     * Compile a factory for the given constructor.
+     */
+    public static BeanFactory compile(Constructor<?> constructor) {
+        if (isLinkable(constructor)) {
+            try {
+                return compileLambda(constructor);
+            } catch (Throwable e) {
+                // Fall back to the method handle below
+            }
+        }
+        return compileMethodHandle(constructor);
+    }
+
+    private static BeanFactory compileLambda(Constructor<?> constructor) throws Throwable {
+        MethodHandle implementation = LOOKUP.unreflectConstructor(constructor);
+        MethodType instantiatedType = MethodType.methodType(constructor.getDeclaringClass(),
+            constructor.getParameterTypes());
+
+        switch (constructor.getParameterCount()) {
+            case 0: {
+                Supplier<?> supplier = (Supplier<?>) spin(Supplier.class, "get", implementation, instantiatedType);
+                return arguments -> supplier.get();
+            }
+            case 1: {
+                @SuppressWarnings("unchecked")
+                Function<Object, ?> function =
+                    (Function<Object, ?>) spin(Function.class, "apply", implementation, instantiatedType);
+                return arguments -> function.apply(arguments[0]);
+            }
+            default: {
+                @SuppressWarnings("unchecked")
+                BiFunction<Object, Object, ?> function =
+                    (BiFunction<Object, Object, ?>) spin(BiFunction.class, "apply", implementation, instantiatedType);
+                return arguments -> function.apply(arguments[0], arguments[1]);
+            }
+        }
+    }
+
+    private static Object spin(Class<?> interfaceType, String methodName, MethodHandle implementation,
+                               MethodType instantiatedType) throws Throwable {
+        CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, methodName, MethodType.methodType(interfaceType),
+            instantiatedType.erase(), implementation, instantiatedType);
+        return callSite.getTarget().invoke();
+    }
+
+    private static BeanFactory compileMethodHandle(Constructor<?> constructor) {
+        Class<?> beanClass = constructor.getDeclaringClass();
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.privateLookupIn(beanClass, LOOKUP).unreflectConstructor(constructor);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access constructor of class: " + beanClass.getName(), e);
+        }
+
+        int arity = constructor.getParameterCount();
+        MethodHandle spreader = handle.asFixedArity()
+            .asType(MethodType.genericMethodType(arity))
+            .asSpreader(Object[].class, arity);
+        return arguments -> {
+            try {
+                return (Object) spreader.invokeExact(arguments);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to instantiate class: " + beanClass.getName(), e);
+            }
+        };
+    }
+
+    /**
+     * The generated lambda class lives next to this class, so it can only call public constructors
+     * of classes that this class loader resolves to the same class.
+     */
+    private static boolean isLinkable(Constructor<?> constructor) {
+        if (!Modifier.isPublic(constructor.getModifiers()) || constructor.getParameterCount() > 2
+                || !isVisible(constructor.getDeclaringClass())) {
+            return false;
+        }
+        for (Class<?> parameterType : constructor.getParameterTypes()) {
+            if (parameterType.isPrimitive() || !isVisible(parameterType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false, BeanFactoryCompiler.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.minidiframework.context;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free pool of idle bean instances with a fixed number of slots.
+ * Threads start probing at a slot derived from their id, so concurrent borrowers and
+ * releasers mostly touch different slots. Instances released into a full pool are dropped.
+ * A released instance is reset by its @ResetOnRelease method first; without one, or if the
+ * reset fails, the instance is dropped too, so the next borrower never sees its old state.
+ */
+class BeanPool {
+    private final AtomicReferenceArray<Object> slots;
+    private final Method resetMethod;
+
+    BeanPool(int size, Method resetMethod) {
+        this.slots = new AtomicReferenceArray<>(size);
+        this.resetMethod = resetMethod;
+    }
+
+    /**
+     * Take an idle instance, or return null if the pool is empty.
+     */
+    Object borrow() {
+        int size = slots.length();
+        int start = probeStart(size);
+        for (int i = 0; i < size; i++) {
+            int slot = (start + i) % size;
+            Object bean = slots.get(slot);
+            if (bean != null && slots.compareAndSet(slot, bean, null)) {
+                return bean;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reset an instance and return it to the pool. Returns false if it was dropped instead.
+     */
+    boolean release(Object bean) {
+        if (resetMethod == null) {
+            return false;
+        }
+        try {
+            resetMethod.invoke(bean);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            return false;
+        }
+
+        int size = slots.length();
+        int start = probeStart(size);
+        for (int i = 0; i < size; i++) {
+            int slot = (start + i) % size;
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, bean)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int probeStart(int size) {
+        return (int) (Thread.currentThread().getId() % size);
+    }
+
+    /**
+     * Drop the idle instances.
+     */
+    void clear() {
+        for (int slot = 0; slot < slots.length(); slot++) {
+            slots.set(slot, null);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.minidiframework.context;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Stands in for a bean at an interface injection point and looks the bean up when it is called.
+ * A lazy bean is created on the first call and kept; a scoped bean is looked up on every call,
+ * so each call reaches the instance of the current thread or request.
+ */
+class BeanProxy implements InvocationHandler {
+    private final ApplicationContext applicationContext;
+    private final String beanName;
+    private final boolean keepTarget;
+    private volatile Object target;
+
+    private BeanProxy(ApplicationContext applicationContext, String beanName, boolean keepTarget) {
+        this.applicationContext = applicationContext;
+        this.beanName = beanName;
+        this.keepTarget = keepTarget;
+    }
+
+    /**
+     * Create a proxy implementing the given interface for a lazy bean.
+     */
+    static Object forLazyBean(ApplicationContext applicationContext, String beanName, Class<?> interfaceType) {
+        return create(interfaceType, new BeanProxy(applicationContext, beanName, true));
+    }
+
+    /**
+     * Create a proxy implementing the given interface for a bean of a thread, request or pooled scope.
+     */
+    static Object forScopedBean(ApplicationContext applicationContext, String beanName, Class<?> interfaceType) {
+        return create(interfaceType, new BeanProxy(applicationContext, beanName, false));
+    }
+
+    private static Object create(Class<?> interfaceType, BeanProxy handler) {
+        return Proxy.newProxyInstance(interfaceType.getClassLoader(), new Class<?>[]{interfaceType}, handler);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object bean = target;
+        if (bean == null) {
+            bean = applicationContext.getBean(beanName);
+            if (keepTarget) {
+                target = bean;
+            }
+        }
+        try {
+            return method.invoke(bean, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
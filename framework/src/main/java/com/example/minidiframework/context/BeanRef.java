@@ -0,0 +1,53 @@
+package com.example.minidiframework.context;
+
+/**
+ * Handle to a bean that is resolved once, so it can be kept in a field and used on hot paths.
+ * A singleton that already exists when the handle is created is held directly and returned
+ * with a single field read. Other beans are reached through their registry id, which skips
+ * the name and type lookups: a lazy bean is created on the first call and a scoped bean is
+ * looked up in its scope on every call. When the context refreshes the bean, the handle
+ * switches to the new instance.
+ *
+ * @param <T> the bean type
+ */
+public final class BeanRef<T> implements Provider<T> {
+    private final ApplicationContext applicationContext;
+    private final int id;
+    private final String beanName;
+    private volatile T instance;
+
+    BeanRef(ApplicationContext applicationContext, int id, String beanName, T instance) {
+        this.applicationContext = applicationContext;
+        this.id = id;
+        this.beanName = beanName;
+        this.instance = instance;
+    }
+
+    /**
+     * Get the bean.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get() {
+        T bean = instance;
+        return bean != null ? bean : (T) applicationContext.getBean(id);
+    }
+
+    /**
+     * Switch a handle that holds its singleton to the instance created by a refresh.
+     */
+    void update(T refreshed) {
+        if (instance != null) {
+            instance = refreshed;
+        }
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    @Override
+    public String toString() {
+        return "BeanRef[" + beanName + "]";
+    }
+}
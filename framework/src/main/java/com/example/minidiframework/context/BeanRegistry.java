@@ -0,0 +1,189 @@
+package com.example.minidiframework.context;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Registry that gives every bean definition a dense int id, in instantiation order, and keeps
+ * the singleton instances in an array. The name and type lookups are immutable maps built once,
+ * so a lookup is a single hash probe followed by an array read, and a {@link BeanRef} that
+ * already holds the id skips the hash probe entirely. The beans of each type are cached per
+ * registry, so a registry replacing another one is published together with its own cache.
+ */
+final class BeanRegistry {
+    private final BeanDefinition[] definitions;
+    private final AtomicReferenceArray<Object> instances;
+    private final Map<String, Integer> idsByName;
+    private final Map<Class<?>, Integer> idsByType;
+    private final Map<Class<?>, List<Object>> beansByType = new ConcurrentHashMap<>();
+
+    BeanRegistry(BeanDependencyGraph dependencyGraph) {
+        List<String> beanNames = dependencyGraph.getInstantiationOrder();
+        this.definitions = new BeanDefinition[beanNames.size()];
+        this.instances = new AtomicReferenceArray<>(definitions.length);
+
+        Map<String, Integer> names = new HashMap<>(definitions.length * 2);
+        for (int id = 0; id < definitions.length; id++) {
+            definitions[id] = dependencyGraph.getDefinition(beanNames.get(id));
+            names.put(beanNames.get(id), id);
+        }
+        this.idsByName = names;
+
+        // Only unambiguous types are registered, the others are reported by the type index
+        BeanTypeIndex typeIndex = dependencyGraph.getTypeIndex();
+        Map<Class<?>, Integer> types = new HashMap<>(typeIndex.getTypes().size() * 2);
+        for (Class<?> type : typeIndex.getTypes()) {
+            String beanName = typeIndex.resolveOrNull(type);
+            if (beanName != null) {
+                types.put(type, names.get(beanName));
+            }
+        }
+        this.idsByType = types;
+    }
+
+    private BeanRegistry(BeanRegistry registry, AtomicReferenceArray<Object> instances) {
+        this.definitions = registry.definitions;
+        this.instances = instances;
+        this.idsByName = registry.idsByName;
+        this.idsByType = registry.idsByType;
+    }
+
+    /**
+     * Create a registry with the same ids and instances except for the given replacements.
+     * The lookup maps are shared, only the instance array is copied.
+     */
+    BeanRegistry withInstances(Map<String, Object> replacements) {
+        AtomicReferenceArray<Object> copy = new AtomicReferenceArray<>(definitions.length);
+        for (int id = 0; id < definitions.length; id++) {
+            copy.set(id, instances.get(id));
+        }
+        replacements.forEach((beanName, bean) -> copy.set(getId(beanName), bean));
+        return new BeanRegistry(this, copy);
+    }
+
+    /**
+     * Get the id of a bean, or -1 if there is no such bean.
+     */
+    int getId(String beanName) {
+        Integer id = idsByName.get(beanName);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Get the id of the single bean of a type, or -1 if there is none or the type is ambiguous.
+     */
+    int getId(Class<?> type) {
+        Integer id = idsByType.get(type);
+        return id != null ? id : -1;
+    }
+
+    BeanDefinition getDefinition(int id) {
+        return definitions[id];
+    }
+
+    /**
+     * Get the singleton instance with the given id, or null if it was not created.
+     */
+    Object get(int id) {
+        return instances.get(id);
+    }
+
+    Object get(String beanName) {
+        int id = getId(beanName);
+        return id >= 0 ? instances.get(id) : null;
+    }
+
+    void set(String beanName, Object bean) {
+        instances.set(getId(beanName), bean);
+    }
+
+    boolean contains(String beanName) {
+        return get(beanName) != null;
+    }
+
+    /**
+     * Get the cached beans of a type, or null if they were not cached.
+     */
+    List<Object> getBeansOfType(Class<?> type) {
+        return beansByType.get(type);
+    }
+
+    void putBeansOfType(Class<?> type, List<Object> beans) {
+        beansByType.putIfAbsent(type, beans);
+    }
+
+    /**
+     * Get a read-only view of the created singletons by name, in instantiation order.
+     */
+    Map<String, Object> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public Object get(Object key) {
+                return key instanceof String ? BeanRegistry.this.get((String) key) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public Set<Entry<String, Object>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, Object>> iterator() {
+                        return new InstanceIterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        int size = 0;
+                        for (int id = 0; id < definitions.length; id++) {
+                            if (instances.get(id) != null) {
+                                size++;
+                            }
+                        }
+                        return size;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Iterates the created singletons, skipping ids whose bean does not exist.
+     */
+    private final class InstanceIterator implements Iterator<Map.Entry<String, Object>> {
+        private int nextId = advance(0);
+
+        private int advance(int id) {
+            while (id < definitions.length && instances.get(id) == null) {
+                id++;
+            }
+            return id;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextId < definitions.length;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int id = nextId;
+            nextId = advance(id + 1);
+            return new AbstractMap.SimpleImmutableEntry<>(definitions[id].getBeanName(), instances.get(id));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.minidiframework.context;
+
+import java.util.function.Supplier;
+
+/**
+ * Decides which instance of a non-singleton bean a lookup returns.
+ */
+interface BeanScope {
+
+    /**
+     * Get the instance of the bean for the current scope, creating it with the given creator if needed.
+     */
+    Object getBean(BeanDefinition definition, Supplier<Object> creator);
+
+    /**
+     * Release the instances the scope holds, called when the context is closed.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.minidiframework.context;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index from every type a bean can be looked up by to the names of the beans assignable to it.
+ * Each bean is registered under its class, all superclasses and all directly or indirectly
+ * implemented interfaces, so a lookup by any assignable type is a single map access.
+ */
+public final class BeanTypeIndex {
+    private final Map<Class<?>, List<String>> beanNamesByType;
+    private final Map<String, Class<?>> beanClasses = new HashMap<>();
+
+    public BeanTypeIndex(Collection<BeanDefinition> beanDefinitions) {
+        Map<Class<?>, List<String>> index = new HashMap<>();
+        for (BeanDefinition definition : beanDefinitions) {
+            beanClasses.put(definition.getBeanName(), definition.getBeanClass());
+            for (Class<?> type : getAssignableTypes(definition.getBeanClass())) {
+                index.computeIfAbsent(type, key -> new ArrayList<>()).add(definition.getBeanName());
+            }
+        }
+
+        Map<Class<?>, List<String>> frozen = new HashMap<>(index.size() * 2);
+        index.forEach((type, names) -> frozen.put(type, List.copyOf(names)));
+        this.beanNamesByType = Collections.unmodifiableMap(frozen);
+    }
+
+    /**
+     * Restore an index that was already built, as recorded by a {@link WiringSnapshot}.
+     */
+    BeanTypeIndex(Map<Class<?>, List<String>> beanNamesByType, Map<String, Class<?>> beanClasses) {
+        Map<Class<?>, List<String>> frozen = new HashMap<>(beanNamesByType.size() * 2);
+        beanNamesByType.forEach((type, names) -> frozen.put(type, List.copyOf(names)));
+        this.beanNamesByType = Collections.unmodifiableMap(frozen);
+        this.beanClasses.putAll(beanClasses);
+    }
+
+    /**
+     * Get the class itself, its superclasses and all of its interfaces.
+     */
+    static Set<Class<?>> getAssignableTypes(Class<?> beanClass) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> clazz = beanClass; clazz != null; clazz = clazz.getSuperclass()) {
+            addWithInterfaces(clazz, types);
+        }
+        return types;
+    }
+
+    private static void addWithInterfaces(Class<?> type, Set<Class<?>> types) {
+        if (types.add(type)) {
+            for (Class<?> interfaceClass : type.getInterfaces()) {
+                addWithInterfaces(interfaceClass, types);
+            }
+        }
+    }
+
+    /**
+     * Get the names of all beans assignable to the given type, in registration order.
+     * The returned list is immutable.
+     */
+    public List<String> getBeanNames(Class<?> type) {
+        return beanNamesByType.getOrDefault(type, Collections.emptyList());
+    }
+
+    /**
+     * Get all types that at least one bean is assignable to.
+     */
+    public Set<Class<?>> getTypes() {
+        return beanNamesByType.keySet();
+    }
+
+    /**
+     * Find the single bean that satisfies a dependency of the given type, or null if there is none.
+     * If several beans match, a bean of exactly that type wins; otherwise the match is ambiguous.
+     */
+    public String resolve(Class<?> type) {
+        String beanName = resolveOrNull(type);
+        List<String> candidates = getBeanNames(type);
+        if (beanName == null && candidates.size() > 1) {
+            throw new RuntimeException("Ambiguous dependency of type " + type.getName()
+                + ": expected a single bean but found " + candidates.size() + ": " + String.join(", ", candidates));
+        }
+        return beanName;
+    }
+
+    /**
+     * Find the single bean that satisfies a dependency of the given type like {@link #resolve},
+     * but return null instead of failing if the match is ambiguous.
+     */
+    public String resolveOrNull(Class<?> type) {
+        List<String> candidates = getBeanNames(type);
+        if (candidates.size() <= 1) {
+            return candidates.isEmpty() ? null : candidates.get(0);
+        }
+        for (String candidate : candidates) {
+            if (beanClasses.get(candidate) == type) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.minidiframework.context;
+
+import com.example.minidiframework.config.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Creates and wires the beans of a context without reflection.
+ * The GeneratedContextProcessor writes an implementation named {@value #GENERATED_CLASS_NAME}
+ * into the common package of the components it compiles; an ApplicationContext for that
+ * package boots from it instead of scanning.
+ */
+public interface ContextInitializer {
+    String GENERATED_CLASS_NAME = "GeneratedApplicationContext";
+
+    /**
+     * Create all beans, inject their fields and return them by bean name in creation order.
+     * Returns null if the components can no longer be wired by generated code, the context scans for them then.
+     */
+    Map<String, Object> initialize(ConfigurationProperties properties) throws Exception;
+
+    /**
+     * Call the @PostConstruct methods of the beans returned by initialize, those of a bean's
+     * dependencies first.
+     */
+    default void postConstruct(Map<String, Object> beans) {
+    }
+
+    /**
+     * Call the @WarmUp methods of the beans, in the same order as postConstruct.
+     */
+    default void warmUp(Map<String, Object> beans) {
+    }
+
+    /**
+     * Call the @PreDestroy methods of the beans, or close() of an AutoCloseable bean without one,
+     * a bean before its dependencies. Every bean is handled; failures are thrown together afterwards.
+     */
+    default void preDestroy(Map<String, Object> beans) {
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.minidiframework.context;
+
+import com.example.minidiframework.annotation.PostConstruct;
+import com.example.minidiframework.annotation.PreDestroy;
+import com.example.minidiframework.annotation.WarmUp;
+import com.example.minidiframework.aop.AopProxyFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Runs the lifecycle callbacks of the singleton beans: @PostConstruct methods in dependency order,
+ * @WarmUp methods before the context is ready, and @PreDestroy methods (or close() of an
+ * AutoCloseable bean) in reverse dependency order on shutdown. Dependencies are the constructor and
+ * field dependencies; a field cycle is broken at the edge that closes it. With an executor, a bean's
+ * callback starts as soon as the callbacks it has to wait for are done, so independent beans run in parallel.
+ * The callbacks of a bean behind a JDK proxy are called on the bean itself.
+ */
+final class LifecycleProcessor {
+    private static final ClassValue<LifecycleMethods> LIFECYCLE_METHODS = new ClassValue<>() {
+        @Override
+        protected LifecycleMethods computeValue(Class<?> type) {
+            return new LifecycleMethods(type);
+        }
+    };
+
+    private final List<String> initializationOrder = new ArrayList<>();
+    private final Map<String, List<String>> dependencies = new HashMap<>();
+    private final Map<String, List<String>> dependents = new HashMap<>();
+
+    LifecycleProcessor(BeanDependencyGraph dependencyGraph) {
+        Map<String, Boolean> visited = new HashMap<>(); // false while on the current path
+        for (String beanName : dependencyGraph.getInstantiationOrder()) {
+            visit(beanName, dependencyGraph, visited);
+        }
+        for (String beanName : initializationOrder) {
+            for (String dependency : dependencies.get(beanName)) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(beanName);
+            }
+        }
+    }
+
+    private void visit(String beanName, BeanDependencyGraph dependencyGraph, Map<String, Boolean> visited) {
+        if (visited.containsKey(beanName)) {
+            return;
+        }
+        visited.put(beanName, Boolean.FALSE);
+        List<String> edges = new ArrayList<>();
+        List<String> candidates = new ArrayList<>(dependencyGraph.getConstructorDependencies(beanName));
+        candidates.addAll(dependencyGraph.getFieldDependencies(beanName));
+        for (String dependency : candidates) {
+            if (!dependencyGraph.isLocal(dependency)) {
+                continue; // The parent context initializes and destroys its own beans
+            }
+            visit(dependency, dependencyGraph, visited);
+            if (visited.get(dependency) && !edges.contains(dependency)) {
+                edges.add(dependency);
+            }
+        }
+        visited.put(beanName, Boolean.TRUE);
+        dependencies.put(beanName, edges);
+        initializationOrder.add(beanName);
+    }
+
+    /**
+     * Call the @PostConstruct methods of the given beans after those of their dependencies.
+     * Without an executor the callbacks run one after the other on the calling thread.
+     */
+    void initialize(Map<String, Object> beans, Executor executor) {
+        runInOrder(initializationOrder, dependencies, beans, executor, this::initialize);
+    }
+
+    /**
+     * Call the @PostConstruct methods of a single bean.
+     */
+    void initialize(String beanName, Object bean) {
+        bean = AopProxyFactory.getTarget(bean);
+        for (Method method : LIFECYCLE_METHODS.get(bean.getClass()).postConstructMethods) {
+            invoke(method, bean, beanName, "@PostConstruct");
+        }
+    }
+
+    /**
+     * Call the @WarmUp methods of all beans. Warm-up methods do not depend on each other,
+     * so with an executor every bean is warmed up concurrently.
+     */
+    void warmUp(Map<String, Object> beans, Executor executor) {
+        runInOrder(initializationOrder, Collections.emptyMap(), beans, executor, this::warmUp);
+    }
+
+    private void warmUp(String beanName, Object bean) {
+        bean = AopProxyFactory.getTarget(bean);
+        for (Method method : LIFECYCLE_METHODS.get(bean.getClass()).warmUpMethods) {
+            int iterations = method.getAnnotation(WarmUp.class).iterations();
+            for (int i = 0; i < iterations; i++) {
+                invoke(method, bean, beanName, "@WarmUp");
+            }
+        }
+    }
+
+    /**
+     * Destroy the given beans, each one before the beans it depends on; independent beans are
+     * destroyed in parallel on at most one daemon thread per processor. Each callback may take at
+     * most the timeout from the moment it starts, after that it is abandoned on its thread, the pool
+     * gets a thread in its place and the beans it depends on are destroyed anyway. Every failure and
+     * every callback that timed out is reported in one exception once all beans were handled.
+     */
+    void destroy(Map<String, Object> beans, long timeoutMillis) {
+        List<String> destructionOrder = new ArrayList<>(initializationOrder);
+        Collections.reverse(destructionOrder);
+
+        List<RuntimeException> failures = Collections.synchronizedList(new ArrayList<>());
+        List<String> timedOut = Collections.synchronizedList(new ArrayList<>());
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+            (int) destructionOrder.stream().map(beans::get).filter(LifecycleProcessor::hasDestroyCallback).count()));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "minidi-shutdown");
+                thread.setDaemon(true);
+                return thread;
+            });
+        try {
+            Map<String, CompletableFuture<Void>> destroyed = new LinkedHashMap<>();
+            for (String beanName : destructionOrder) {
+                CompletableFuture<?>[] waitFor = dependents.getOrDefault(beanName, Collections.emptyList()).stream()
+                    .map(destroyed::get)
+                    .toArray(CompletableFuture<?>[]::new);
+                Object bean = beans.get(beanName);
+                destroyed.put(beanName, CompletableFuture.allOf(waitFor).thenCompose(ignored -> {
+                    if (!hasDestroyCallback(bean)) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    CompletableFuture<Void> started = new CompletableFuture<>();
+                    CompletableFuture<Void> callback = CompletableFuture.runAsync(() -> {
+                        started.complete(null);
+                        destroy(beanName, bean);
+                    }, executor);
+                    return started.thenCompose(start -> callback.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS))
+                        .handle((result, e) -> {
+                            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                            if (cause instanceof TimeoutException) {
+                                timedOut.add(beanName);
+                                replaceAbandonedThread(executor);
+                            } else if (cause instanceof RuntimeException) {
+                                failures.add((RuntimeException) cause);
+                            } else if (cause != null) {
+                                failures.add(new RuntimeException("Failed to destroy bean '" + beanName + "'", cause));
+                            }
+                            return null;
+                        });
+                }));
+            }
+            CompletableFuture.allOf(destroyed.values().toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        if (!timedOut.isEmpty()) {
+            failures.add(new RuntimeException("Destroy callbacks timed out after " + timeoutMillis + " ms: "
+                + String.join(", ", timedOut)));
+        }
+        if (!failures.isEmpty()) {
+            RuntimeException error = new RuntimeException("Failed to destroy beans", failures.get(0));
+            failures.subList(1, failures.size()).forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+
+    /**
+     * Let the pool start another thread in place of one that is stuck in an abandoned callback.
+     */
+    private static void replaceAbandonedThread(ThreadPoolExecutor executor) {
+        synchronized (executor) {
+            executor.setMaximumPoolSize(executor.getMaximumPoolSize() + 1);
+            executor.setCorePoolSize(executor.getCorePoolSize() + 1);
+        }
+    }
+
+    private static boolean hasDestroyCallback(Object bean) {
+        if (bean == null) {
+            return false;
+        }
+        LifecycleMethods methods = LIFECYCLE_METHODS.get(AopProxyFactory.getTarget(bean).getClass());
+        return !methods.preDestroyMethods.isEmpty() || bean instanceof AutoCloseable;
+    }
+
+    /**
+     * Call the @PreDestroy methods of a bean, or close() if it is AutoCloseable and has none.
+     */
+    private void destroy(String beanName, Object bean) {
+        bean = AopProxyFactory.getTarget(bean);
+        List<Method> preDestroyMethods = LIFECYCLE_METHODS.get(bean.getClass()).preDestroyMethods;
+        if (!preDestroyMethods.isEmpty()) {
+            for (Method method : preDestroyMethods) {
+                invoke(method, bean, beanName, "@PreDestroy");
+            }
+        } else if (bean instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) bean).close();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to close bean '" + beanName + "'", e);
+            }
+        }
+    }
+
+    private static void runInOrder(List<String> order, Map<String, List<String>> edges, Map<String, Object> beans,
+                                   Executor executor, Callback callback) {
+        if (executor == null) {
+            for (String beanName : order) {
+                Object bean = beans.get(beanName);
+                if (bean != null) {
+                    callback.run(beanName, bean);
+                }
+            }
+            return;
+        }
+
+        Map<String, CompletableFuture<Void>> futures = schedule(order, edges, beans, executor, callback);
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Start the callback of every bean once the callbacks of the beans it waits for are done.
+     */
+    private static Map<String, CompletableFuture<Void>> schedule(List<String> order, Map<String, List<String>> edges,
+                                                                 Map<String, Object> beans, Executor executor,
+                                                                 Callback callback) {
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        for (String beanName : order) {
+            CompletableFuture<?>[] waitFor = edges.getOrDefault(beanName, Collections.emptyList()).stream()
+                .map(futures::get)
+                .toArray(CompletableFuture<?>[]::new);
+            Object bean = beans.get(beanName);
+            Consumer<Void> action = ignored -> {
+                if (bean != null) {
+                    callback.run(beanName, bean);
+                }
+            };
+            futures.put(beanName, CompletableFuture.allOf(waitFor).thenAcceptAsync(action, executor));
+        }
+        return futures;
+    }
+
+    private static void invoke(Method method, Object bean, String beanName, String kind) {
+        try {
+            method.invoke(bean);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException("Failed to invoke " + kind + " method " + method.getName()
+                + " of bean '" + beanName + "'", e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to invoke " + kind + " method " + method.getName()
+                + " of bean '" + beanName + "'", e);
+        }
+    }
+
+    private interface Callback {
+        void run(String beanName, Object bean);
+    }
+
+    /**
+     * The lifecycle methods of a class, superclass methods first.
+     */
+    private static final class LifecycleMethods {
+        final List<Method> postConstructMethods = new ArrayList<>();
+        final List<Method> preDestroyMethods = new ArrayList<>();
+        final List<Method> warmUpMethods = new ArrayList<>();
+
+        LifecycleMethods(Class<?> type) {
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                hierarchy.add(0, clazz);
+            }
+            for (Class<?> clazz : hierarchy) {
+                for (Method method : clazz.getDeclaredMethods()) {
+                    if (method.isAnnotationPresent(PostConstruct.class)) {
+                        postConstructMethods.add(checked(method, "@PostConstruct"));
+                    }
+                    if (method.isAnnotationPresent(PreDestroy.class)) {
+                        preDestroyMethods.add(checked(method, "@PreDestroy"));
+                    }
+                    if (method.isAnnotationPresent(WarmUp.class)) {
+                        warmUpMethods.add(checked(method, "@WarmUp"));
+                    }
+                }
+            }
+        }
+
+        private static Method checked(Method method, String kind) {
+            if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())) {
+                throw new RuntimeException(kind + " method must be an instance method without parameters: "
+                    + method.getDeclaringClass().getName() + "." + method.getName());
+            }
+            method.setAccessible(true);
+            return method;
+        }
+    }
+}
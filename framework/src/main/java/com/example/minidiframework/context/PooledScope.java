@@ -0,0 +1,74 @@
+package com.example.minidiframework.context;
+
+import com.example.minidiframework.annotation.ResetOnRelease;
+import com.example.minidiframework.annotation.Scope;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one instance of each bean per request like the request scope, but takes instances
+ * from a pool and returns them when the request ends instead of creating new ones.
+ * Only beans with a @ResetOnRelease method are recycled.
+ */
+class PooledScope implements BeanScope {
+    private final Map<String, BeanPool> pools = new ConcurrentHashMap<>();
+    private final int defaultPoolSize;
+
+    PooledScope(int defaultPoolSize) {
+        this.defaultPoolSize = defaultPoolSize;
+    }
+
+    @Override
+    public Object getBean(BeanDefinition definition, Supplier<Object> creator) {
+        RequestContext request = RequestScope.currentRequest(definition);
+        Object bean = request.getBean(definition.getBeanName());
+        if (bean != null) {
+            return bean;
+        }
+
+        BeanPool pool = pools.computeIfAbsent(definition.getBeanName(),
+            name -> new BeanPool(getPoolSize(definition), findResetMethod(definition.getBeanClass())));
+        bean = pool.borrow();
+        if (bean == null) {
+            bean = creator.get();
+        }
+        request.putBean(definition.getBeanName(), bean);
+        Object borrowed = bean;
+        request.onClose(() -> pool.release(borrowed));
+        return bean;
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(BeanPool::clear);
+        pools.clear();
+    }
+
+    private int getPoolSize(BeanDefinition definition) {
+        Scope scope = definition.getBeanClass().getAnnotation(Scope.class);
+        return scope != null && scope.poolSize() > 0 ? scope.poolSize() : defaultPoolSize;
+    }
+
+    /**
+     * Find the @ResetOnRelease method of a bean class or its superclasses, or return null if it has none.
+     */
+    private static Method findResetMethod(Class<?> beanClass) {
+        for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(ResetOnRelease.class)) {
+                    if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())) {
+                        throw new RuntimeException("@ResetOnRelease method must be an instance method without parameters: "
+                            + clazz.getName() + "." + method.getName());
+                    }
+                    method.setAccessible(true);
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.minidiframework.context;
+
+import java.util.function.Supplier;
+
+/**
+ * Deferred access to a bean. An @Autowired field of type Provider&lt;T&gt; or Supplier&lt;T&gt; receives a
+ * {@link BeanRef}, so the bean is resolved at wiring time and {@link #get()} does no lookup: a lazy bean
+ * is created on the first call and a prototype bean is created on every call.
+ *
+ * @param <T> the bean type
+ */
+@FunctionalInterface
+public interface Provider<T> extends Supplier<T> {
+    /**
+     * Get the bean.
+     */
+    @Override
+    T get();
+}
@@ -0,0 +1,141 @@
+package com.example.minidiframework.context;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The request bound to the current thread. It holds the request and pooled scoped beans and
+ * runs their release callbacks when it is closed. The WebServer opens one per handled request.
+ * Every request remembers the generation it began in, so an action can wait for the requests
+ * that were running when it was scheduled, for example the destruction of beans a refresh replaced.
+ */
+public final class RequestContext implements AutoCloseable {
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+    private static final AtomicLong GENERATION = new AtomicLong();
+    private static final Set<RequestContext> RUNNING = ConcurrentHashMap.newKeySet();
+    /**
+     * Actions waiting for the requests of earlier generations, guarded by itself.
+     */
+    private static final List<Deferred> DEFERRED = new ArrayList<>();
+
+    private final RequestContext previous;
+    /**
+     * Zero until the request is running, which holds back every deferred action until then.
+     */
+    private volatile long generation;
+    private final Map<String, Object> beans = new HashMap<>();
+    private final List<Runnable> closeCallbacks = new ArrayList<>();
+
+    private RequestContext(RequestContext previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Start a request on the current thread. A request started inside another one is nested
+     * and restores the outer request when it is closed.
+     */
+    public static RequestContext begin() {
+        RequestContext requestContext = new RequestContext(CURRENT.get());
+        RUNNING.add(requestContext);
+        requestContext.generation = GENERATION.get();
+        CURRENT.set(requestContext);
+        return requestContext;
+    }
+
+    /**
+     * Run the action once every request that is running now has ended: at once on this thread if
+     * there is none, else on the thread that ends the last of them. Requests that begin later are
+     * not waited for.
+     */
+    static void afterRunningRequests(Runnable action) {
+        long generation = GENERATION.incrementAndGet();
+        synchronized (DEFERRED) {
+            DEFERRED.add(new Deferred(generation, action));
+        }
+        runDeferred();
+    }
+
+    /**
+     * Run the deferred actions that no running request began before.
+     */
+    private static void runDeferred() {
+        long oldest = Long.MAX_VALUE;
+        for (RequestContext request : RUNNING) {
+            oldest = Math.min(oldest, request.generation);
+        }
+        List<Runnable> due = new ArrayList<>();
+        synchronized (DEFERRED) {
+            for (Iterator<Deferred> iterator = DEFERRED.iterator(); iterator.hasNext(); ) {
+                Deferred deferred = iterator.next();
+                if (deferred.generation <= oldest) {
+                    due.add(deferred.action);
+                    iterator.remove();
+                }
+            }
+        }
+        due.forEach(Runnable::run);
+    }
+
+    /**
+     * Get the request of the current thread, or null if there is none.
+     */
+    public static RequestContext current() {
+        return CURRENT.get();
+    }
+
+    Object getBean(String beanName) {
+        return beans.get(beanName);
+    }
+
+    void putBean(String beanName, Object bean) {
+        beans.put(beanName, bean);
+    }
+
+    /**
+     * Register a callback that runs when the request ends.
+     */
+    void onClose(Runnable callback) {
+        closeCallbacks.add(callback);
+    }
+
+    /**
+     * End the request and release its beans.
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("Request context is not the current one of this thread");
+        }
+        try {
+            for (Runnable callback : closeCallbacks) {
+                callback.run();
+            }
+        } finally {
+            beans.clear();
+            closeCallbacks.clear();
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+            RUNNING.remove(this);
+            runDeferred();
+        }
+    }
+
+    private static final class Deferred {
+        final long generation;
+        final Runnable action;
+
+        Deferred(long generation, Runnable action) {
+            this.generation = generation;
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.minidiframework.context;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps one instance of each bean per request.
+ */
+class RequestScope implements BeanScope {
+
+    @Override
+    public Object getBean(BeanDefinition definition, Supplier<Object> creator) {
+        RequestContext request = currentRequest(definition);
+        Object bean = request.getBean(definition.getBeanName());
+        if (bean == null) {
+            bean = creator.get();
+            request.putBean(definition.getBeanName(), bean);
+        }
+        return bean;
+    }
+
+    static RequestContext currentRequest(BeanDefinition definition) {
+        RequestContext request = RequestContext.current();
+        if (request == null) {
+            throw new RuntimeException("No active request for bean '" + definition.getBeanName()
+                + "' with scope '" + definition.getScope() + "'");
+        }
+        return request;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.minidiframework.context;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one instance of each bean per thread. Closing the scope drops the instances of every
+ * thread and removes the thread-local value of the closing thread, so pooled threads that
+ * outlive the context do not keep its beans.
+ */
+class ThreadScope implements BeanScope {
+    /**
+     * The instances of every thread, keyed by the thread so the entry of a thread that ended is collected.
+     * Guarded by itself.
+     */
+    private final Map<Thread, Map<String, Object>> threadBeanMaps = new WeakHashMap<>();
+    private final ThreadLocal<Map<String, Object>> beans = ThreadLocal.withInitial(() -> {
+        Map<String, Object> threadBeans = new ConcurrentHashMap<>();
+        synchronized (threadBeanMaps) {
+            threadBeanMaps.put(Thread.currentThread(), threadBeans);
+        }
+        return threadBeans;
+    });
+
+    @Override
+    public Object getBean(BeanDefinition definition, Supplier<Object> creator) {
+        Map<String, Object> threadBeans = beans.get();
+        Object bean = threadBeans.get(definition.getBeanName());
+        if (bean == null) {
+            bean = creator.get();
+            threadBeans.put(definition.getBeanName(), bean);
+        }
+        return bean;
+    }
+
+    @Override
+    public void close() {
+        // The maps stay registered, other threads keep using theirs after the close
+        synchronized (threadBeanMaps) {
+            threadBeanMaps.values().forEach(Map::clear);
+        }
+        beans.remove();
+    }
+}
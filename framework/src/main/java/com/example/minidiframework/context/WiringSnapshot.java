@@ -0,0 +1,561 @@
+package com.example.minidiframework.context;
+
+import com.example.minidiframework.config.ConfigurationBinder;
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.config.PropertySource;
+import com.example.minidiframework.injection.InjectionPlan;
+import com.example.minidiframework.injection.InjectionPoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary record of how a context was wired: the bean definitions with their chosen constructors,
+ * the resolved constructor and field dependencies, the type index and the resolved injection targets
+ * including converted property values. A later boot replays it instead of scanning and resolving.
+ * The snapshot carries fingerprints of the classpath and of the configuration properties and is
+ * ignored when either no longer matches, or when it fails its checksum.
+ */
+public final class WiringSnapshot {
+    private static final int MAGIC = 0x4D445753; // "MDWS"
+    private static final int FORMAT_VERSION = 2;
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}:]+)");
+
+    private static final byte BEAN_NAME = 'B';
+    private static final byte NO_BEAN = 'N';
+    private static final byte STRING = 'S';
+    private static final byte INT = 'I';
+    private static final byte LONG = 'J';
+    private static final byte BOOLEAN = 'Z';
+    private static final byte DOUBLE = 'D';
+    private static final byte FLOAT = 'F';
+    private static final byte BEAN_NAMES = 'L';
+
+    private final long classpathFingerprint;
+    private final long propertiesFingerprint;
+    private final List<String> propertyKeys;
+    private final List<BeanEntry> beans;
+    private final Map<String, List<String>> typeIndex;
+
+    private WiringSnapshot(long classpathFingerprint, long propertiesFingerprint, List<String> propertyKeys,
+                           List<BeanEntry> beans, Map<String, List<String>> typeIndex) {
+        this.classpathFingerprint = classpathFingerprint;
+        this.propertiesFingerprint = propertiesFingerprint;
+        this.propertyKeys = propertyKeys;
+        this.beans = beans;
+        this.typeIndex = typeIndex;
+    }
+
+    /**
+     * Record the wiring of a context. Injection targets are recorded for the bean classes that were injected.
+     * The properties the wiring depends on are the keys of the @Value fields and of the conditions
+     * evaluated by the scan, besides the properties of the files and the command line.
+     */
+    static WiringSnapshot capture(BeanDependencyGraph graph, Map<Class<?>, Object[]> injectionTargets,
+                                  long classpathFingerprint, ConfigurationProperties properties,
+                                  Collection<String> conditionProperties) {
+        List<BeanEntry> beans = new ArrayList<>();
+        TreeSet<String> propertyKeys = new TreeSet<>(conditionProperties);
+        for (String beanName : graph.getInstantiationOrder()) {
+            BeanDefinition definition = graph.getDefinition(beanName);
+            for (InjectionPoint injectionPoint : InjectionPlan.forClass(definition.getBeanClass()).getInjectionPoints()) {
+                if (injectionPoint.getPropertyKey() != null) {
+                    addReferencedKeys(injectionPoint.getPropertyKey(), propertyKeys);
+                }
+            }
+            BeanEntry entry = new BeanEntry();
+            entry.name = beanName;
+            entry.className = definition.getBeanClass().getName();
+            entry.lazy = definition.isLazy();
+            entry.scope = definition.getScope();
+            entry.constructorParameterTypes = typeNames(List.of(definition.getConstructorDependencyTypes()));
+            entry.constructorDependencies = graph.getConstructorDependencies(beanName);
+            entry.fieldDependencyTypes = typeNames(definition.getFieldDependencyTypes());
+            entry.fieldDependencies = graph.getFieldDependencies(beanName);
+            entry.injectionTargets = recordable(injectionTargets.get(definition.getBeanClass()));
+            beans.add(entry);
+        }
+
+        Map<String, List<String>> typeIndex = new LinkedHashMap<>();
+        BeanTypeIndex index = graph.getTypeIndex();
+        for (Class<?> type : index.getTypes()) {
+            typeIndex.put(type.getName(), index.getBeanNames(type));
+        }
+        List<String> keys = List.copyOf(propertyKeys);
+        return new WiringSnapshot(classpathFingerprint, propertiesFingerprint(properties, keys), keys, beans, typeIndex);
+    }
+
+    /**
+     * Add the keys an expression reads: the keys of its ${key:default} placeholders, or the expression itself.
+     */
+    private static void addReferencedKeys(String expression, Collection<String> keys) {
+        Matcher matcher = PLACEHOLDER.matcher(expression);
+        boolean placeholder = false;
+        while (matcher.find()) {
+            keys.add(matcher.group(1).trim());
+            placeholder = true;
+        }
+        if (!placeholder) {
+            keys.add(expression);
+        }
+    }
+
+    private static List<String> typeNames(List<Class<?>> types) {
+        List<String> names = new ArrayList<>(types.size());
+        for (Class<?> type : types) {
+            names.add(type.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Rebuild the dependency graph without scanning or resolving. Fails if a recorded class or
+     * constructor no longer exists, in which case the caller boots normally.
+     */
+    BeanDependencyGraph restoreGraph(ClassLoader classLoader) throws ReflectiveOperationException {
+        List<BeanDefinition> definitions = new ArrayList<>(beans.size());
+        Map<String, Class<?>> beanClasses = new HashMap<>();
+        Map<String, List<String>> constructorDependencies = new HashMap<>();
+        Map<String, List<String>> fieldDependencies = new HashMap<>();
+        List<String> instantiationOrder = new ArrayList<>(beans.size());
+
+        for (BeanEntry entry : beans) {
+            Class<?> beanClass = Class.forName(entry.className, false, classLoader);
+            Constructor<?> constructor = ConfigurationBinder.getPrefix(beanClass) != null ? null
+                : beanClass.getDeclaredConstructor(loadTypes(entry.constructorParameterTypes, classLoader));
+            definitions.add(new BeanDefinition(entry.name, beanClass, constructor,
+                List.of(loadTypes(entry.fieldDependencyTypes, classLoader)),
+                entry.lazy, entry.scope));
+            beanClasses.put(entry.name, beanClass);
+            constructorDependencies.put(entry.name, entry.constructorDependencies);
+            fieldDependencies.put(entry.name, entry.fieldDependencies);
+            instantiationOrder.add(entry.name);
+        }
+
+        Map<Class<?>, List<String>> beanNamesByType = new HashMap<>(typeIndex.size() * 2);
+        for (Map.Entry<String, List<String>> entry : typeIndex.entrySet()) {
+            beanNamesByType.put(Class.forName(entry.getKey(), false, classLoader), entry.getValue());
+        }
+
+        return new BeanDependencyGraph(definitions, new BeanTypeIndex(beanNamesByType, beanClasses),
+            constructorDependencies, fieldDependencies, instantiationOrder);
+    }
+
+    private static Class<?>[] loadTypes(List<String> typeNames, ClassLoader classLoader) throws ClassNotFoundException {
+        Class<?>[] types = new Class<?>[typeNames.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = Class.forName(typeNames.get(i), false, classLoader);
+        }
+        return types;
+    }
+
+    /**
+     * Get the recorded injection targets of the bean classes by bean name.
+     */
+    Map<String, Object[]> getInjectionTargets() {
+        Map<String, Object[]> targets = new HashMap<>();
+        for (BeanEntry entry : beans) {
+            if (entry.injectionTargets != null) {
+                targets.put(entry.name, entry.injectionTargets);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Read a snapshot. Returns null if the file is missing, corrupt, written by another format
+     * version or taken with a different classpath or configuration.
+     */
+    static WiringSnapshot read(Path file, long classpathFingerprint, ConfigurationProperties properties) {
+        try (InputStream input = Files.newInputStream(file)) {
+            WiringSnapshot snapshot = read(input);
+            if (snapshot.classpathFingerprint != classpathFingerprint
+                    || snapshot.propertiesFingerprint != propertiesFingerprint(properties, snapshot.propertyKeys)) {
+                return null;
+            }
+            return snapshot;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // Corrupt snapshot, the context boots normally and writes a new one
+            return null;
+        }
+    }
+
+    private static WiringSnapshot read(InputStream input) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(input), new CRC32());
+        DataInputStream data = new DataInputStream(checked);
+        if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported wiring snapshot format");
+        }
+        long classpathFingerprint = data.readLong();
+        long propertiesFingerprint = data.readLong();
+        List<String> propertyKeys = readStrings(data);
+
+        int beanCount = data.readInt();
+        List<BeanEntry> beans = new ArrayList<>(beanCount);
+        for (int i = 0; i < beanCount; i++) {
+            BeanEntry entry = new BeanEntry();
+            entry.name = data.readUTF();
+            entry.className = data.readUTF();
+            entry.lazy = data.readBoolean();
+            entry.scope = data.readUTF();
+            entry.constructorParameterTypes = readStrings(data);
+            entry.constructorDependencies = readStrings(data);
+            entry.fieldDependencyTypes = readStrings(data);
+            entry.fieldDependencies = readStrings(data);
+            int targetCount = data.readInt();
+            if (targetCount >= 0) {
+                entry.injectionTargets = new Object[targetCount];
+                for (int j = 0; j < targetCount; j++) {
+                    entry.injectionTargets[j] = readTarget(data);
+                }
+            }
+            beans.add(entry);
+        }
+
+        int typeCount = data.readInt();
+        Map<String, List<String>> typeIndex = new LinkedHashMap<>();
+        for (int i = 0; i < typeCount; i++) {
+            typeIndex.put(data.readUTF(), readStrings(data));
+        }
+
+        long expectedChecksum = checked.getChecksum().getValue();
+        if (data.readLong() != expectedChecksum) {
+            throw new IOException("Wiring snapshot checksum mismatch");
+        }
+        return new WiringSnapshot(classpathFingerprint, propertiesFingerprint, propertyKeys, beans, typeIndex);
+    }
+
+    private static List<String> readStrings(DataInputStream data) throws IOException {
+        int count = data.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(data.readUTF());
+        }
+        return List.copyOf(values);
+    }
+
+    private static Object readTarget(DataInputStream data) throws IOException {
+        byte tag = data.readByte();
+        switch (tag) {
+            case BEAN_NAME:
+            case STRING:
+                return data.readUTF();
+            case NO_BEAN:
+                return null;
+            case INT:
+                return data.readInt();
+            case LONG:
+                return data.readLong();
+            case BOOLEAN:
+                return data.readBoolean();
+            case DOUBLE:
+                return data.readDouble();
+            case FLOAT:
+                return data.readFloat();
+            case BEAN_NAMES:
+                return readStrings(data);
+            default:
+                throw new IOException("Unknown injection target tag: " + tag);
+        }
+    }
+
+    /**
+     * Write the snapshot, replacing the file atomically where the file system allows it.
+     */
+    void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                write(output);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void write(OutputStream output) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(output), new CRC32());
+        DataOutputStream data = new DataOutputStream(checked);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeLong(classpathFingerprint);
+        data.writeLong(propertiesFingerprint);
+        writeStrings(data, propertyKeys);
+
+        data.writeInt(beans.size());
+        for (BeanEntry entry : beans) {
+            data.writeUTF(entry.name);
+            data.writeUTF(entry.className);
+            data.writeBoolean(entry.lazy);
+            data.writeUTF(entry.scope);
+            writeStrings(data, entry.constructorParameterTypes);
+            writeStrings(data, entry.constructorDependencies);
+            writeStrings(data, entry.fieldDependencyTypes);
+            writeStrings(data, entry.fieldDependencies);
+            if (entry.injectionTargets == null) {
+                data.writeInt(-1);
+            } else {
+                data.writeInt(entry.injectionTargets.length);
+                for (Object target : entry.injectionTargets) {
+                    writeTarget(data, target);
+                }
+            }
+        }
+
+        data.writeInt(typeIndex.size());
+        for (Map.Entry<String, List<String>> entry : typeIndex.entrySet()) {
+            data.writeUTF(entry.getKey());
+            writeStrings(data, entry.getValue());
+        }
+
+        data.flush();
+        data.writeLong(checked.getChecksum().getValue());
+        data.flush();
+    }
+
+    /**
+     * Get the targets if every one of them can be written, else null: a class with @Value fields of
+     * other types, such as durations or enums, resolves its targets again on the next boot.
+     */
+    private static Object[] recordable(Object[] targets) {
+        if (targets == null) {
+            return null;
+        }
+        for (Object target : targets) {
+            if (target instanceof List) {
+                for (Object element : (List<?>) target) {
+                    if (!(element instanceof String)) {
+                        return null;
+                    }
+                }
+            } else if (target != null && !(target instanceof String || target instanceof Integer
+                    || target instanceof Long || target instanceof Boolean || target instanceof Double
+                    || target instanceof Float)) {
+                return null;
+            }
+        }
+        return targets;
+    }
+
+    private static void writeStrings(DataOutputStream data, List<String> values) throws IOException {
+        data.writeInt(values.size());
+        for (String value : values) {
+            data.writeUTF(value);
+        }
+    }
+
+    /**
+     * Bean names of @Autowired fields and @Value property values share the String tag,
+     * the injection plan tells them apart when the targets are replayed. List and Map fields
+     * record the names of all matching beans.
+     */
+    private static void writeTarget(DataOutputStream data, Object target) throws IOException {
+        if (target == null) {
+            data.writeByte(NO_BEAN);
+        } else if (target instanceof String) {
+            data.writeByte(STRING);
+            data.writeUTF((String) target);
+        } else if (target instanceof Integer) {
+            data.writeByte(INT);
+            data.writeInt((Integer) target);
+        } else if (target instanceof Long) {
+            data.writeByte(LONG);
+            data.writeLong((Long) target);
+        } else if (target instanceof Boolean) {
+            data.writeByte(BOOLEAN);
+            data.writeBoolean((Boolean) target);
+        } else if (target instanceof Double) {
+            data.writeByte(DOUBLE);
+            data.writeDouble((Double) target);
+        } else if (target instanceof Float) {
+            data.writeByte(FLOAT);
+            data.writeFloat((Float) target);
+        } else if (target instanceof List) {
+            data.writeByte(BEAN_NAMES);
+            List<String> beanNames = new ArrayList<>();
+            for (Object beanName : (List<?>) target) {
+                beanNames.add((String) beanName);
+            }
+            writeStrings(data, beanNames);
+        } else {
+            throw new IOException("Unsupported injection target: " + target.getClass().getName());
+        }
+    }
+
+    /**
+     * Fingerprint the class files below the base packages by path, size and modification time,
+     * together with the classpath itself. Class files are not read, so this is much cheaper than a scan.
+     */
+    static long classpathFingerprint(ClassLoader classLoader, String... basePackages) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, System.getProperty("java.class.path", ""));
+        for (String basePackage : basePackages) {
+            update(digest, basePackage);
+            Enumeration<URL> resources = classLoader.getResources(basePackage.replace('.', '/'));
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                update(digest, resource.toString());
+                Path root = toPath(resource);
+                if (root == null) {
+                    continue;
+                }
+                if (Files.isDirectory(root)) {
+                    try (Stream<Path> files = Files.walk(root)) {
+                        for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                            updateWithAttributes(digest, file);
+                        }
+                    }
+                } else {
+                    updateWithAttributes(digest, root);
+                }
+            }
+        }
+        return toLong(digest);
+    }
+
+    /**
+     * Get the directory of a file URL or the outermost jar of a jar URL.
+     */
+    private static Path toPath(URL resource) {
+        try {
+            if ("file".equals(resource.getProtocol())) {
+                return Paths.get(resource.toURI());
+            }
+            if ("jar".equals(resource.getProtocol())) {
+                String location = resource.getPath();
+                int separator = location.indexOf("!/");
+                URL jar = new URL(separator >= 0 ? location.substring(0, separator) : location);
+                return "file".equals(jar.getProtocol()) ? Paths.get(jar.toURI()) : null;
+            }
+        } catch (URISyntaxException | IOException | IllegalArgumentException e) {
+            // Unknown location, only its URL is part of the fingerprint
+        }
+        return null;
+    }
+
+    private static void updateWithAttributes(MessageDigest digest, Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        update(digest, file.toString());
+        digest.update(ByteBuffer.allocate(16)
+            .putLong(attributes.size())
+            .putLong(attributes.lastModifiedTime().toMillis())
+            .array());
+    }
+
+    /**
+     * Fingerprint the configuration the wiring depends on: the properties of the files and the command
+     * line, the framework settings and the given keys, each with its effective value and the keys of
+     * the placeholders in it. Other system properties and environment variables, which change from
+     * one start to the next, are left out, so they do not invalidate the snapshot.
+     */
+    static long propertiesFingerprint(ConfigurationProperties properties, Collection<String> propertyKeys) {
+        TreeSet<String> keys = new TreeSet<>(propertyKeys);
+        for (PropertySource source : properties.getPropertySources()) {
+            if (!PropertySource.SYSTEM_PROPERTIES.equals(source.getName())
+                    && !PropertySource.ENVIRONMENT.equals(source.getName())) {
+                keys.addAll(source.getProperties().keySet());
+            }
+        }
+        for (String key : properties.getPropertyKeys()) {
+            if (key.startsWith("minidi.")) {
+                keys.add(key);
+            }
+        }
+
+        MessageDigest digest = newDigest();
+        List<String> pending = new ArrayList<>(keys);
+        for (int i = 0; i < pending.size(); i++) {
+            String key = pending.get(i);
+            String value = properties.getProperty(key);
+            update(digest, key);
+            if (value == null) {
+                digest.update((byte) 1);
+                continue;
+            }
+            update(digest, value);
+            Matcher matcher = PLACEHOLDER.matcher(value);
+            while (matcher.find()) {
+                if (keys.add(matcher.group(1).trim())) {
+                    pending.add(matcher.group(1).trim());
+                }
+            }
+        }
+        return toLong(digest);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static long toLong(MessageDigest digest) {
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    /**
+     * Recorded wiring of a single bean.
+     */
+    private static final class BeanEntry {
+        String name;
+        String className;
+        boolean lazy;
+        String scope;
+        List<String> constructorParameterTypes;
+        List<String> constructorDependencies;
+        List<String> fieldDependencyTypes;
+        List<String> fieldDependencies;
+        Object[] injectionTargets;
+    }
+}
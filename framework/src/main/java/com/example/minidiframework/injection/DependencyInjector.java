@@ -1,143 +1,297 @@
 package com.example.minidiframework.injection;
 
 import com.example.minidiframework.annotation.Autowired;
-import com.example.minidiframework.annotation.Value;
+import com.example.minidiframework.aop.AopProxyFactory;
+import com.example.minidiframework.config.ConfigHandle;
 import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.config.ConversionService;
 import com.example.minidiframework.context.ApplicationContext;
+import com.example.minidiframework.startup.BeanInjectionEvent;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 
 /**
  * Handles dependency injection for @Autowired fields and constructors.
+ * Field injection follows the class's {@link InjectionPlan}; the bean names and converted
+ * property values for a plan are resolved once per context and reused for every instance.
+ * A converted property value is also shared by every field of the same type that reads the same value.
  */
 public class DependencyInjector {
     private final ApplicationContext applicationContext;
     private final ConfigurationProperties configurationProperties;
+    private final ConversionService conversionService;
+    private final Map<Class<?>, Object[]> resolvedTargets = new ConcurrentHashMap<>();
+    private final Map<InjectionPoint, Object> sharedValues = new ConcurrentHashMap<>();
+    private final Map<List<Object>, Object> convertedValues = new ConcurrentHashMap<>();
+    private final BiFunction<String, Class<?>, Object> contextLookup;
 
     public DependencyInjector(ApplicationContext applicationContext) {
         this.applicationContext = applicationContext;
-        this.configurationProperties = new ConfigurationProperties();
+        this.configurationProperties = applicationContext.getConfigurationProperties();
+        this.conversionService = configurationProperties.getConversionService();
+        this.contextLookup = applicationContext::getBeanForInjection;
     }
 
     /**
      * Perform dependency injection on all beans.
      */
     public void injectDependencies() {
-        for (Object bean : applicationContext.getBeans().values()) {
-            injectFields(bean);
+        for (Map.Entry<String, Object> bean : applicationContext.getBeans().entrySet()) {
+            injectDependencies(bean.getKey(), bean.getValue());
         }
     }
 
     /**
-     * Inject dependencies into @Autowired and @Value fields.
+     * Perform dependency injection on a single bean.
      */
-    private void injectFields(Object bean) {
-        Class<?> clazz = bean.getClass();
-        
-        // Inject into all fields in the class hierarchy
-        while (clazz != null && clazz != Object.class) {
-            Field[] fields = clazz.getDeclaredFields();
-            
-            for (Field field : fields) {
-                if (field.isAnnotationPresent(Autowired.class)) {
-                    injectField(bean, field);
-                } else if (field.isAnnotationPresent(Value.class)) {
-                    injectValue(bean, field);
+    public void injectDependencies(Object bean) {
+        injectFields(bean, contextLookup, null);
+    }
+
+    /**
+     * Perform dependency injection on a named bean and record the time it took in the
+     * context's startup timeline and in a Flight Recorder event.
+     */
+    public void injectDependencies(String beanName, Object bean) {
+        BeanInjectionEvent event = new BeanInjectionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        injectFields(bean, contextLookup, null);
+        applicationContext.getStartupTimeline().recordInjection(beanName, System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.beanName = beanName;
+            event.beanClass = bean.getClass();
+            event.commit();
+        }
+    }
+
+    /**
+     * Inject a bean that a refresh of the context created. Its dependencies are looked up with the
+     * given function, so it can be wired to the other new beans before they replace the old ones.
+     */
+    public void injectRefreshedBean(String beanName, Object bean, BiFunction<String, Class<?>, Object> beanLookup) {
+        long start = System.nanoTime();
+        injectFields(bean, beanLookup, null);
+        applicationContext.getStartupTimeline().recordInjection(beanName, System.nanoTime() - start);
+    }
+
+    /**
+     * Inject the new instances of re-created beans into an existing bean again: only the @Autowired
+     * fields that receive one of the given beans, directly, as an Optional or in a List or Map, are set.
+     * Provider and Supplier fields are left alone, their handles switch to the new instances by themselves.
+     */
+    public void reinjectDependencies(Object bean, Set<String> beanNames) {
+        injectFields(bean, contextLookup, beanNames);
+    }
+
+    /**
+     * Forget the injection targets resolved for the given bean classes, so the next instance
+     * resolves them again, including the values of its @Value fields.
+     */
+    public void forgetResolvedTargets(Collection<Class<?>> beanClasses) {
+        beanClasses.forEach(resolvedTargets::remove);
+    }
+
+    /**
+     * Forget the shared lists and maps of beans, which may still hold instances that were replaced.
+     */
+    public void forgetSharedCollections() {
+        sharedValues.keySet().removeIf(injectionPoint -> injectionPoint.getKind() == InjectionPoint.Kind.LIST
+            || injectionPoint.getKind() == InjectionPoint.Kind.MAP);
+    }
+
+    /**
+     * Inject dependencies into @Autowired and @Value fields by running the bean's injection plan.
+     * With a set of refreshed beans only the @Autowired fields that receive one of them are set.
+     * An advised bean is injected through the plan of its own class, behind its proxy.
+     */
+    private void injectFields(Object bean, BiFunction<String, Class<?>, Object> beanLookup, Set<String> refreshed) {
+        bean = AopProxyFactory.getTarget(bean);
+        InjectionPlan plan = InjectionPlan.forClass(AopProxyFactory.getTargetClass(bean.getClass()));
+        if (plan.isEmpty()) {
+            return;
+        }
+
+        List<InjectionPoint> injectionPoints = plan.getInjectionPoints();
+        Object[] targets = resolvedTargets.computeIfAbsent(plan.getBeanClass(), type -> resolveTargets(plan));
+
+        for (int i = 0; i < targets.length; i++) {
+            InjectionPoint injectionPoint = injectionPoints.get(i);
+            if (injectionPoint.isAutowired()) {
+                if (refreshed != null) {
+                    if (!receivesAny(injectionPoint, targets[i], refreshed)) {
+                        continue;
+                    }
+                } else if (injectionPoint.get(bean) != null) {
+                    continue; // Already injected
                 }
+                injectionPoint.set(bean, getAutowiredValue(injectionPoint, targets[i], beanLookup));
+            } else if (refreshed == null) {
+                injectionPoint.set(bean, copyIfArray(targets[i]));
             }
-            
-            clazz = clazz.getSuperclass();
         }
     }
 
     /**
-     * Inject a specific field.
+     * Give every instance its own copy of an array value, the converted values are shared.
      */
-    private void injectField(Object bean, Field field) {
-        try {
-            field.setAccessible(true);
-            
-            // Check if field is already set
-            if (field.get(bean) != null) {
-                return; // Already injected
-            }
-            
-            // Find the appropriate bean to inject
-            Object dependency = findDependency(field.getType());
-            if (dependency != null) {
-                field.set(bean, dependency);
-            } else {
-                throw new RuntimeException("No suitable bean found for field: " + 
-                    field.getName() + " of type: " + field.getType().getName());
-            }
-            
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("Failed to inject field: " + field.getName(), e);
+    private static Object copyIfArray(Object value) {
+        if (value == null || !value.getClass().isArray()) {
+            return value;
+        }
+        int length = Array.getLength(value);
+        Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+        System.arraycopy(value, 0, copy, 0, length);
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean receivesAny(InjectionPoint injectionPoint, Object target, Set<String> beanNames) {
+        switch (injectionPoint.getKind()) {
+            case PROVIDER:
+            case SUPPLIER:
+                return false;
+            case LIST:
+            case MAP:
+                return ((List<String>) target).stream().anyMatch(beanNames::contains);
+            default:
+                return target != null && beanNames.contains((String) target);
         }
     }
 
     /**
-     * Inject a property value into a field.
+     * Get the value for an @Autowired field from its resolved target. Provider and Supplier fields get a
+     * BeanRef that is created once and shared by every instance; lists and maps of beans that all exist
+     * as singletons are shared as well, unless the beans are looked up outside of the context.
      */
-    private void injectValue(Object bean, Field field) {
-        try {
-            field.setAccessible(true);
-            
-            Value valueAnnotation = field.getAnnotation(Value.class);
-            String propertyKey = valueAnnotation.value();
-            String propertyValue = configurationProperties.getProperty(propertyKey);
-            
-            if (propertyValue == null) {
-                throw new RuntimeException("Property not found: " + propertyKey);
+    @SuppressWarnings("unchecked")
+    private Object getAutowiredValue(InjectionPoint injectionPoint, Object target,
+                                     BiFunction<String, Class<?>, Object> beanLookup) {
+        boolean fromContext = beanLookup == contextLookup;
+        Object shared = fromContext ? sharedValues.get(injectionPoint) : null;
+        if (shared != null) {
+            return shared;
+        }
+
+        Class<?> beanType = injectionPoint.getBeanType();
+        switch (injectionPoint.getKind()) {
+            case PROVIDER:
+            case SUPPLIER:
+                return sharedValues.computeIfAbsent(injectionPoint,
+                    point -> applicationContext.getBeanRef(requireBean(point, (String) target), beanType));
+            case OPTIONAL:
+                return target == null ? Optional.empty()
+                    : Optional.of(beanLookup.apply((String) target, beanType));
+            case LIST:
+            case MAP:
+                List<String> beanNames = (List<String>) target;
+                boolean shareable = fromContext;
+                Map<String, Object> beans = new LinkedHashMap<>();
+                for (String beanName : beanNames) {
+                    shareable &= applicationContext.getBeans().containsKey(beanName);
+                    beans.put(beanName, beanLookup.apply(beanName, beanType));
+                }
+                Object value = injectionPoint.getKind() == InjectionPoint.Kind.LIST
+                    ? List.copyOf(beans.values()) : Collections.unmodifiableMap(beans);
+                if (shareable) {
+                    sharedValues.putIfAbsent(injectionPoint, value);
+                }
+                return value;
+            default:
+                return beanLookup.apply(requireBean(injectionPoint, (String) target), beanType);
+        }
+    }
+
+    private static String requireBean(InjectionPoint injectionPoint, String beanName) {
+        if (beanName == null) {
+            throw new RuntimeException("No suitable bean found for field: " +
+                injectionPoint.getField().getName() + " of type: " + injectionPoint.getBeanType().getName());
+        }
+        return beanName;
+    }
+
+    /**
+     * Get the injection targets resolved so far, by bean class.
+     */
+    public Map<Class<?>, Object[]> getResolvedTargets() {
+        return Collections.unmodifiableMap(resolvedTargets);
+    }
+
+    /**
+     * Use injection targets that were resolved by an earlier boot for the given bean class.
+     * They must be in the order of the class's injection plan.
+     */
+    public void preloadResolvedTargets(Class<?> beanClass, Object[] targets) {
+        if (targets.length != InjectionPlan.forClass(beanClass).getInjectionPoints().size()) {
+            throw new RuntimeException("Injection targets do not match the injection plan of class: "
+                + beanClass.getName());
+        }
+        resolvedTargets.put(beanClass, targets);
+    }
+
+    /**
+     * Resolve what every injection point of a plan receives in this context: the name of the
+     * bean for an @Autowired field (null if there is none), the names of all matching beans for a
+     * List or Map field, and the converted value for an @Value field.
+     */
+    private Object[] resolveTargets(InjectionPlan plan) {
+        List<InjectionPoint> injectionPoints = plan.getInjectionPoints();
+        Object[] targets = new Object[injectionPoints.size()];
+        for (int i = 0; i < targets.length; i++) {
+            InjectionPoint injectionPoint = injectionPoints.get(i);
+            InjectionPoint.Kind kind = injectionPoint.getKind();
+            if (kind == InjectionPoint.Kind.LIST || kind == InjectionPoint.Kind.MAP) {
+                targets[i] = applicationContext.getDependencyGraph().getBeanNames(injectionPoint.getBeanType());
+            } else if (injectionPoint.isAutowired()) {
+                targets[i] = applicationContext.getDependencyGraph().resolve(injectionPoint.getBeanType());
+            } else {
+                targets[i] = resolveValue(injectionPoint);
             }
-            
-            // Convert the string value to the field type
-            Object convertedValue = convertValue(propertyValue, field.getType());
-            field.set(bean, convertedValue);
-            
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("Failed to inject value for field: " + field.getName(), e);
         }
+        return targets;
     }
-    
+
     /**
-     * Convert a string value to the target type.
+     * Resolve the property expression of an @Value field and convert it to the field type.
+     * Conversions are memoized by value and type, so equal values are parsed once per context.
+     * A ConfigHandle field gets the handle of the expression, which follows reloads of the properties.
      */
-    private Object convertValue(String value, Class<?> targetType) {
-        if (targetType == String.class) {
-            return value;
-        } else if (targetType == Integer.class || targetType == int.class) {
-            return Integer.parseInt(value);
-        } else if (targetType == Long.class || targetType == long.class) {
-            return Long.parseLong(value);
-        } else if (targetType == Boolean.class || targetType == boolean.class) {
-            return Boolean.parseBoolean(value);
-        } else if (targetType == Double.class || targetType == double.class) {
-            return Double.parseDouble(value);
-        } else if (targetType == Float.class || targetType == float.class) {
-            return Float.parseFloat(value);
-        } else {
-            throw new RuntimeException("Unsupported type for value injection: " + targetType.getName());
+    private Object resolveValue(InjectionPoint injectionPoint) {
+        String expression = injectionPoint.getPropertyKey();
+        if (injectionPoint.getType() == ConfigHandle.class) {
+            Type handleType = injectionPoint.getGenericType();
+            return configurationProperties.getHandle(expression, handleType instanceof ParameterizedType
+                ? ((ParameterizedType) handleType).getActualTypeArguments()[0] : String.class);
+        }
+        String propertyValue = configurationProperties.resolveValue(expression);
+        if (propertyValue == null) {
+            throw new RuntimeException("Property not found: " + expression);
         }
+        Type type = injectionPoint.getGenericType();
+        return convertedValues.computeIfAbsent(List.of(propertyValue, type),
+            key -> conversionService.convert(propertyValue, type));
     }
 
     /**
      * Find a dependency bean by type.
      */
     private Object findDependency(Class<?> type) {
-        try {
-            return applicationContext.getBean(type);
-        } catch (RuntimeException e) {
-            // Try to find by interface
-            for (Object bean : applicationContext.getBeans().values()) {
-                if (type.isAssignableFrom(bean.getClass())) {
-                    return bean;
-                }
-            }
-            return null;
-        }
+        String beanName = applicationContext.getDependencyGraph().resolve(type);
+        return beanName != null ? applicationContext.getBean(beanName) : null;
     }
 
     /**
@@ -176,8 +330,7 @@ public class DependencyInjector {
                 }
             }
             
-            targetConstructor.setAccessible(true);
-            return targetConstructor.newInstance(parameters);
+            return applicationContext.getBeanFactory(targetConstructor).create(parameters);
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to create bean with constructor injection: " + clazz.getName(), e);
@@ -0,0 +1,76 @@
+package com.example.minidiframework.injection;
+
+import com.example.minidiframework.annotation.Autowired;
+import com.example.minidiframework.annotation.Value;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The injection points of a class, computed once per class and shared by every context.
+ * Fields are ordered from the class itself up through its superclasses.
+ */
+public final class InjectionPlan {
+    private static final ClassValue<InjectionPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected InjectionPlan computeValue(Class<?> type) {
+            return new InjectionPlan(type);
+        }
+    };
+
+    private final Class<?> beanClass;
+    private final List<InjectionPoint> injectionPoints;
+    private final List<Class<?>> autowiredTypes;
+
+    private InjectionPlan(Class<?> beanClass) {
+        List<InjectionPoint> points = new ArrayList<>();
+        List<Class<?>> types = new ArrayList<>();
+        for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Autowired.class)) {
+                    InjectionPoint point = new InjectionPoint(field, null);
+                    points.add(point);
+                    // A single bean is a dependency; handles and collections are resolved on their own
+                    InjectionPoint.Kind kind = point.getKind();
+                    if (kind == InjectionPoint.Kind.BEAN || kind == InjectionPoint.Kind.OPTIONAL) {
+                        types.add(point.getBeanType());
+                    }
+                } else if (field.isAnnotationPresent(Value.class)) {
+                    points.add(new InjectionPoint(field, field.getAnnotation(Value.class).value()));
+                }
+            }
+        }
+        this.beanClass = beanClass;
+        this.injectionPoints = Collections.unmodifiableList(points);
+        this.autowiredTypes = Collections.unmodifiableList(types);
+    }
+
+    /**
+     * Get the plan for a class, computing it on first use.
+     */
+    public static InjectionPlan forClass(Class<?> beanClass) {
+        return PLANS.get(beanClass);
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    public List<InjectionPoint> getInjectionPoints() {
+        return injectionPoints;
+    }
+
+    /**
+     * Get the bean types of the @Autowired fields that receive a single bean, directly or as an
+     * Optional, in injection order. Provider, Supplier, List and Map fields are not dependencies.
+     */
+    public List<Class<?>> getAutowiredTypes() {
+        return autowiredTypes;
+    }
+
+    public boolean isEmpty() {
+        return injectionPoints.isEmpty();
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.minidiframework.injection;
+
+import com.example.minidiframework.context.Provider;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A field that receives an @Autowired bean or an @Value property.
+ * Reads and writes go through a VarHandle; final fields, which a VarHandle cannot write,
+ * fall back to the reflective Field.
+ */
+public final class InjectionPoint {
+    /**
+     * How an @Autowired field receives its beans.
+     */
+    public enum Kind {
+        /** The bean of the field's type. */
+        BEAN(null),
+        /** A handle that gets the bean of the type argument, for Provider&lt;T&gt; fields. */
+        PROVIDER(Provider.class),
+        /** A handle that gets the bean of the type argument, for Supplier&lt;T&gt; fields. */
+        SUPPLIER(Supplier.class),
+        /** The bean of the type argument if there is one, for Optional&lt;T&gt; fields. */
+        OPTIONAL(Optional.class),
+        /** All beans of the type argument, for List&lt;T&gt; fields. */
+        LIST(List.class),
+        /** All beans of the second type argument by name, for Map&lt;String, T&gt; fields. */
+        MAP(Map.class);
+
+        private final Class<?> wrapperType;
+
+        Kind(Class<?> wrapperType) {
+            this.wrapperType = wrapperType;
+        }
+
+        /**
+         * Check if the bean type comes from a type argument of the field type.
+         */
+        public boolean isWrapper() {
+            return wrapperType != null;
+        }
+    }
+
+    private final Field field;
+    private final String propertyKey;
+    private final Kind kind;
+    private final Class<?> beanType;
+    private final VarHandle handle;
+
+    InjectionPoint(Field field, String propertyKey) {
+        this.field = field;
+        this.propertyKey = propertyKey;
+        this.kind = propertyKey == null ? kindOf(field.getType()) : Kind.BEAN;
+        this.beanType = kind.isWrapper() ? resolveBeanType(field, kind) : field.getType();
+        this.handle = Modifier.isFinal(field.getModifiers()) ? null : createHandle(field);
+        if (handle == null) {
+            field.setAccessible(true);
+        }
+    }
+
+    private static Kind kindOf(Class<?> fieldType) {
+        for (Kind kind : Kind.values()) {
+            if (kind.wrapperType == fieldType) {
+                return kind;
+            }
+        }
+        return Kind.BEAN;
+    }
+
+    /**
+     * Get the bean class from the type argument of a wrapper field: T of Provider&lt;T&gt;, Optional&lt;T&gt;,
+     * List&lt;T&gt; or Map&lt;String, T&gt;. An upper-bounded wildcard stands for its bound.
+     */
+    private static Class<?> resolveBeanType(Field field, Kind kind) {
+        Type genericType = field.getGenericType();
+        if (genericType instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+            if (kind != Kind.MAP || arguments[0] == String.class) {
+                Class<?> beanType = toClass(arguments[arguments.length - 1]);
+                if (beanType != null) {
+                    return beanType;
+                }
+            }
+        }
+        throw new RuntimeException("Cannot resolve the bean type of field " + field.getName() + " in "
+            + field.getDeclaringClass().getName() + ": declare it as " + field.getType().getSimpleName()
+            + (kind == Kind.MAP ? "<String, T>" : "<T>") + " with a class or interface T");
+    }
+
+    private static Class<?> toClass(Type type) {
+        if (type instanceof WildcardType) {
+            WildcardType wildcard = (WildcardType) type;
+            type = wildcard.getLowerBounds().length == 0 ? wildcard.getUpperBounds()[0] : null;
+        }
+        if (type instanceof ParameterizedType) {
+            type = ((ParameterizedType) type).getRawType();
+        }
+        return type instanceof Class ? (Class<?>) type : null;
+    }
+
+    private static VarHandle createHandle(Field field) {
+        try {
+            return MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                .unreflectVarHandle(field);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access field: " + field.getName(), e);
+        }
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    /**
+     * Get the field type with its type arguments, the target type of an @Value conversion.
+     */
+    public Type getGenericType() {
+        return field.getGenericType();
+    }
+
+    /**
+     * Get how an @Autowired field receives its beans.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Get the class of the injected beans: the field type, or the type argument of a wrapper field.
+     */
+    public Class<?> getBeanType() {
+        return beanType;
+    }
+
+    /**
+     * Check if the field is injected with a bean rather than a property value.
+     */
+    public boolean isAutowired() {
+        return propertyKey == null;
+    }
+
+    /**
+     * Get the property key of an @Value field, or null for an @Autowired field.
+     */
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+
+    /**
+     * Read the current value of the field.
+     */
+    public Object get(Object bean) {
+        if (handle != null) {
+            return handle.get(bean);
+        }
+        try {
+            return field.get(bean);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to read field: " + field.getName(), e);
+        }
+    }
+
+    /**
+     * Write a value into the field.
+     */
+    public void set(Object bean, Object value) {
+        if (handle != null) {
+            handle.set(bean, value);
+            return;
+        }
+        try {
+            field.set(bean, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to inject field: " + field.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.minidiframework.processor;
+
+import com.example.minidiframework.scanner.ComponentConditions;
+import com.example.minidiframework.scanner.ComponentScanner;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Annotation processor that writes the component index at compile time.
+ * The index lists every concrete component class so that the ComponentScanner
+ * can skip classpath scanning at startup. The conditions of a component are
+ * recorded with it, so the scanner evaluates them without reading the class file.
+ * An incremental build compiles only the changed sources, so the entries of the existing index
+ * are kept for the classes that are still components.
+ */
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+    private static final String COMPONENT_ANNOTATION = "com.example.minidiframework.annotation.Component";
+    private static final String CONDITIONAL_ON_PROPERTY = "com.example.minidiframework.annotation.ConditionalOnProperty";
+    private static final String CONDITIONAL_ON_CLASS = "com.example.minidiframework.annotation.ConditionalOnClass";
+    private static final String CONDITIONAL_ON_MISSING_BEAN =
+        "com.example.minidiframework.annotation.ConditionalOnMissingBean";
+
+    private final Map<String, ComponentConditions> components = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            collectComponents(element);
+        }
+
+        if (roundEnv.processingOver()) {
+            boolean indexExists = mergeExistingIndex();
+            if (indexExists || !components.isEmpty()) {
+                writeIndex();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add the classes of the index written by an earlier compilation that were not compiled this
+     * time and are still concrete components. Returns false if there is no earlier index.
+     */
+    private boolean mergeExistingIndex() {
+        List<String> classNames = new ArrayList<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(
+                StandardLocation.CLASS_OUTPUT, "", ComponentScanner.COMPONENT_INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int separator = line.indexOf('\t');
+                    String className = (separator >= 0 ? line.substring(0, separator) : line).trim();
+                    if (!className.isEmpty() && !className.startsWith("#")) {
+                        classNames.add(className);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No earlier index
+            return false;
+        }
+
+        for (String className : classNames) {
+            if (components.containsKey(className)) {
+                continue;
+            }
+            TypeElement type = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+            if (type != null && !type.getModifiers().contains(Modifier.ABSTRACT)
+                    && isComponent(type, new HashSet<>())) {
+                components.put(className, getConditions(type, className));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add the element to the index if it is a component, then visit its nested classes.
+     */
+    private void collectComponents(Element element) {
+        boolean classOrRecord = element.getKind() == ElementKind.CLASS || element.getKind() == ElementKind.RECORD;
+        if (classOrRecord && !element.getModifiers().contains(Modifier.ABSTRACT)
+                && isComponent(element, new HashSet<>())) {
+            TypeElement type = (TypeElement) element;
+            String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+            components.put(className, getConditions(type, className));
+        }
+
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed.getKind().isClass() || enclosed.getKind().isInterface()) {
+                collectComponents(enclosed);
+            }
+        }
+    }
+
+    /**
+     * Check if an element carries @Component directly or through a meta-annotation such as @Service.
+     */
+    static boolean isComponent(Element element, Set<String> visited) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            String annotationName = annotationType.getQualifiedName().toString();
+            if (COMPONENT_ANNOTATION.equals(annotationName)) {
+                return true;
+            }
+            if (!annotationName.startsWith("java.") && visited.add(annotationName)
+                    && isComponent(annotationType, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the conditions declared by the annotations of a component class.
+     */
+    private ComponentConditions getConditions(TypeElement type, String className) {
+        String propertyName = null;
+        String havingValue = "";
+        boolean matchIfMissing = false;
+        List<String> requiredClasses = Collections.emptyList();
+        List<String> missingBeanTypes = Collections.emptyList();
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            String annotationName = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+            if (CONDITIONAL_ON_PROPERTY.equals(annotationName)) {
+                propertyName = (String) getValue(values, "value");
+                havingValue = (String) getValue(values, "havingValue");
+                matchIfMissing = (Boolean) getValue(values, "matchIfMissing");
+            } else if (CONDITIONAL_ON_CLASS.equals(annotationName)) {
+                requiredClasses = new ArrayList<>();
+                for (Object value : (List<?>) getValue(values, "value")) {
+                    requiredClasses.add((String) ((AnnotationValue) value).getValue());
+                }
+            } else if (CONDITIONAL_ON_MISSING_BEAN.equals(annotationName)) {
+                missingBeanTypes = new ArrayList<>();
+                for (Object value : (List<?>) getValue(values, "value")) {
+                    TypeMirror typeMirror = (TypeMirror) ((AnnotationValue) value).getValue();
+                    TypeElement typeElement = (TypeElement) ((DeclaredType) typeMirror).asElement();
+                    missingBeanTypes.add(processingEnv.getElementUtils().getBinaryName(typeElement).toString());
+                }
+                if (missingBeanTypes.isEmpty()) {
+                    missingBeanTypes.add(className);
+                }
+            }
+        }
+        if (propertyName == null && requiredClasses.isEmpty() && missingBeanTypes.isEmpty()) {
+            return ComponentConditions.NONE;
+        }
+        return new ComponentConditions(propertyName, havingValue, matchIfMissing, requiredClasses, missingBeanTypes);
+    }
+
+    private static Object getValue(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Write the collected component class names and their conditions to the index file.
+     */
+    private void writeIndex() {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(
+                StandardLocation.CLASS_OUTPUT, "", ComponentScanner.COMPONENT_INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# Generated by ComponentIndexProcessor, do not edit\n");
+                for (Map.Entry<String, ComponentConditions> component : components.entrySet()) {
+                    writer.write(component.getKey());
+                    String conditions = component.getValue().format();
+                    if (!conditions.isEmpty()) {
+                        writer.write('\t');
+                        writer.write(conditions);
+                    }
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Failed to write component index: " + e.getMessage());
+        }
+    }
+}
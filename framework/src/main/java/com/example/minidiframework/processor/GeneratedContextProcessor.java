@@ -0,0 +1,863 @@
+package com.example.minidiframework.processor;
+
+import com.example.minidiframework.context.ContextInitializer;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor that generates a reflection-free application context at compile time.
+ * The generated GeneratedApplicationContext creates every component with a direct constructor
+ * call, injects fields by direct assignment or setter call, converts @Value properties with the
+ * conversion service of the properties and registers the routes of REST controllers with method
+ * references. It also calls the lifecycle methods directly, in the dependency order the
+ * LifecycleProcessor would use.
+ * It is placed in the common package of all components. If any component needs something the
+ * generated code cannot do without reflection, for example a private field without a setter,
+ * nothing is generated and the context falls back to scanning at runtime.
+ * The components and the package of the generated context are recorded, so an incremental build,
+ * which compiles only the changed sources, still wires the components of earlier builds. A context
+ * generated earlier that can no longer be generated is replaced by one that makes the context scan.
+ */
+@SupportedAnnotationTypes("*")
+public class GeneratedContextProcessor extends AbstractProcessor {
+    private static final String ANNOTATION_PACKAGE = "com.example.minidiframework.annotation.";
+    private static final String AUTOWIRED = ANNOTATION_PACKAGE + "Autowired";
+    /**
+     * Field types the DependencyInjector resolves by their type argument, these are wired at runtime.
+     */
+    private static final Set<String> WRAPPER_TYPES = Set.of("com.example.minidiframework.context.Provider",
+        "java.util.function.Supplier", "java.util.Optional", "java.util.List", "java.util.Map");
+    private static final String VALUE = ANNOTATION_PACKAGE + "Value";
+    private static final String LAZY = ANNOTATION_PACKAGE + "Lazy";
+    private static final String SCOPE = ANNOTATION_PACKAGE + "Scope";
+    private static final String CONFIGURATION_PROPERTIES = ANNOTATION_PACKAGE + "ConfigurationProperties";
+    private static final String POST_CONSTRUCT = ANNOTATION_PACKAGE + "PostConstruct";
+    private static final String WARM_UP = ANNOTATION_PACKAGE + "WarmUp";
+    private static final String PRE_DESTROY = ANNOTATION_PACKAGE + "PreDestroy";
+    /**
+     * Aspects are applied by proxies created at runtime, so a tree with an aspect is wired at runtime.
+     */
+    private static final String ASPECT = ANNOTATION_PACKAGE + "Aspect";
+    /**
+     * Conditions depend on the runtime properties and classpath, so conditional components are wired at runtime.
+     */
+    private static final List<String> CONDITIONAL_ANNOTATIONS = List.of(ANNOTATION_PACKAGE + "ConditionalOnProperty",
+        ANNOTATION_PACKAGE + "ConditionalOnClass", ANNOTATION_PACKAGE + "ConditionalOnMissingBean");
+    private static final List<String> NAMED_ANNOTATIONS = List.of(
+        ANNOTATION_PACKAGE + "Component", ANNOTATION_PACKAGE + "Service", ANNOTATION_PACKAGE + "Repository");
+    private static final String REST_CONTROLLER = "com.example.minidiframework.web.annotation.RestController";
+    private static final String REQUEST_MAPPING = "com.example.minidiframework.web.annotation.RequestMapping";
+    private static final String HTTP_REQUEST = "com.example.minidiframework.web.HttpRequest";
+    /**
+     * Location of the record of the components of the last compilation and the package of the
+     * context generated for them, if any.
+     */
+    static final String GENERATED_CONTEXT_LOCATION = "META-INF/minidi.generated-context";
+
+    private final Set<String> components = new TreeSet<>();
+    private String previousPackage;
+    private boolean previousRecord;
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (generated || roundEnv.processingOver()) {
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            collectComponents(element);
+        }
+        readPreviousContext();
+
+        // Generate in the first round, so the generated source is compiled with the components
+        if (!components.isEmpty() || previousRecord) {
+            generated = true;
+            generateContext();
+        }
+        return false;
+    }
+
+    /**
+     * Add the components of an earlier compilation that still exist and are still concrete
+     * components, the classes that were not changed are not compiled again.
+     */
+    private void readPreviousContext() {
+        List<String> lines = new ArrayList<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                GENERATED_CONTEXT_LOCATION);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank() && !line.startsWith("#")) {
+                        lines.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // Nothing was compiled before
+            return;
+        }
+        previousRecord = true;
+        for (String line : lines) {
+            if (line.startsWith("package ")) {
+                previousPackage = line.substring("package ".length());
+                continue;
+            }
+            TypeElement type = processingEnv.getElementUtils().getTypeElement(line);
+            if (type != null && !type.getModifiers().contains(Modifier.ABSTRACT)
+                    && ComponentIndexProcessor.isComponent(type, new HashSet<>())) {
+                components.add(line);
+            }
+        }
+    }
+
+    private void collectComponents(Element element) {
+        boolean classOrRecord = element.getKind() == ElementKind.CLASS || element.getKind() == ElementKind.RECORD;
+        if (classOrRecord && !element.getModifiers().contains(Modifier.ABSTRACT)
+                && ComponentIndexProcessor.isComponent(element, new HashSet<>())) {
+            components.add(((TypeElement) element).getQualifiedName().toString());
+        }
+
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed.getKind().isClass() || enclosed.getKind().isInterface()) {
+                collectComponents(enclosed);
+            }
+        }
+    }
+
+    private void generateContext() {
+        List<TypeElement> types = new ArrayList<>();
+        for (String component : components) {
+            types.add(processingEnv.getElementUtils().getTypeElement(component));
+        }
+
+        String packageName = types.isEmpty() ? "" : commonPackage(types);
+        if (packageName.isEmpty()) {
+            note(types.isEmpty() ? "there are no components" : "components have no common package");
+            replacePreviousContext(types);
+            return;
+        }
+
+        String source;
+        try {
+            source = new ContextSource(packageName, types).write();
+        } catch (UnsupportedWiringException e) {
+            note(e.getMessage());
+            replacePreviousContext(types);
+            return;
+        }
+
+        try {
+            writeSource(packageName, source, types);
+            if (previousPackage != null && !previousPackage.equals(packageName)) {
+                writeSource(previousPackage, scanningContextSource(previousPackage), types);
+            }
+            writeRecord(packageName, types);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Failed to write generated context: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the context generated by an earlier compilation, which does not know the current
+     * components, by one that makes the context scan for them.
+     */
+    private void replacePreviousContext(List<TypeElement> types) {
+        try {
+            if (previousPackage != null) {
+                writeSource(previousPackage, scanningContextSource(previousPackage), types);
+            }
+            writeRecord(previousPackage, types);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Failed to write generated context: " + e.getMessage());
+        }
+    }
+
+    private void writeSource(String packageName, String source, List<TypeElement> types) throws IOException {
+        String className = packageName + "." + ContextInitializer.GENERATED_CLASS_NAME;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(className, types.toArray(new Element[0]));
+        try (Writer writer = file.openWriter()) {
+            writer.write(source);
+        }
+    }
+
+    /**
+     * Record the components and the package of the generated context, which is null if none was generated.
+     */
+    private void writeRecord(String packageName, List<TypeElement> types) throws IOException {
+        FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+            GENERATED_CONTEXT_LOCATION, types.toArray(new Element[0]));
+        try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+            writer.write("# Generated by GeneratedContextProcessor, do not edit\n");
+            if (packageName != null) {
+                writer.write("package " + packageName + "\n");
+            }
+            for (String component : components) {
+                writer.write(component + "\n");
+            }
+        }
+    }
+
+    private static String scanningContextSource(String packageName) {
+        return "package " + packageName + ";\n\n"
+            + "import com.example.minidiframework.config.ConfigurationProperties;\n"
+            + "import com.example.minidiframework.context.ContextInitializer;\n\n"
+            + "import java.util.Map;\n\n"
+            + "/**\n"
+            + " * Replaces the context generated by an earlier build, the components are scanned for at runtime.\n"
+            + " * Generated by GeneratedContextProcessor, do not edit.\n"
+            + " */\n"
+            + "public final class " + ContextInitializer.GENERATED_CLASS_NAME + " implements ContextInitializer {\n\n"
+            + "    @Override\n"
+            + "    public Map<String, Object> initialize(ConfigurationProperties properties) {\n"
+            + "        return null;\n"
+            + "    }\n"
+            + "}\n";
+    }
+
+    private void note(String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+            "Not generating " + ContextInitializer.GENERATED_CLASS_NAME + ": " + reason);
+    }
+
+    private String commonPackage(List<TypeElement> types) {
+        String common = null;
+        for (TypeElement type : types) {
+            String packageName = packageOf(type);
+            if (common == null) {
+                common = packageName;
+            }
+            while (!packageName.equals(common) && !packageName.startsWith(common + ".")) {
+                int dot = common.lastIndexOf('.');
+                common = dot > 0 ? common.substring(0, dot) : "";
+                if (common.isEmpty()) {
+                    return common;
+                }
+            }
+        }
+        return common;
+    }
+
+    private String packageOf(Element element) {
+        return processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+    }
+
+    /**
+     * Source of the generated context for one set of components.
+     */
+    private final class ContextSource {
+        private final String packageName;
+        private final List<TypeElement> types;
+        private final Map<TypeElement, Bean> beans = new LinkedHashMap<>();
+        private final List<Bean> creationOrder = new ArrayList<>();
+        private int converters;
+
+        ContextSource(String packageName, List<TypeElement> types) {
+            this.packageName = packageName;
+            this.types = types;
+        }
+
+        String write() {
+            Set<String> names = new HashSet<>();
+            for (TypeElement type : types) {
+                Bean bean = new Bean(type, getBeanName(type), "bean" + beans.size());
+                checkSupported(type);
+                if (!names.add(bean.name)) {
+                    throw new UnsupportedWiringException("duplicate bean name '" + bean.name + "'");
+                }
+                beans.put(type, bean);
+            }
+            for (Bean bean : beans.values()) {
+                bean.constructor = selectConstructor(bean.type);
+                for (VariableElement parameter : bean.constructor.getParameters()) {
+                    bean.constructorDependencies.add(resolve(parameter.asType(), bean, parameter));
+                }
+            }
+
+            Map<Bean, Boolean> visited = new HashMap<>();
+            for (Bean bean : beans.values()) {
+                sort(bean, visited);
+            }
+
+            StringBuilder body = new StringBuilder();
+            List<String> routes = new ArrayList<>();
+            for (Bean bean : beans.values()) {
+                collectRoutes(bean, routes);
+            }
+            writeInitialize(body);
+            if (!routes.isEmpty()) {
+                writeRegisterRoutes(body, routes);
+            }
+
+            List<Bean> lifecycleOrder = new ArrayList<>();
+            Set<Bean> ordered = new HashSet<>();
+            for (Bean bean : creationOrder) {
+                sortForLifecycle(bean, ordered, lifecycleOrder);
+            }
+            writeCallbacks(body, "postConstruct", POST_CONSTRUCT, lifecycleOrder);
+            writeCallbacks(body, "warmUp", WARM_UP, lifecycleOrder);
+            List<Bean> destroyOrder = new ArrayList<>(lifecycleOrder);
+            Collections.reverse(destroyOrder);
+            boolean withDestroy = writePreDestroy(body, destroyOrder);
+
+            StringBuilder source = new StringBuilder();
+            writeHeader(source, !routes.isEmpty(), withDestroy);
+            source.append(body);
+            source.append("    private static String property(ConfigurationProperties properties, String key) {\n")
+                .append("        String value = properties.resolveValue(key);\n")
+                .append("        if (value == null) {\n")
+                .append("            throw new RuntimeException(\"Property not found: \" + key);\n")
+                .append("        }\n")
+                .append("        return value;\n")
+                .append("    }\n\n")
+                .append("    private static Object convert(Function<String, Object> converter, String value, String type) {\n")
+                .append("        try {\n")
+                .append("            return converter.apply(value);\n")
+                .append("        } catch (RuntimeException e) {\n")
+                .append("            throw new RuntimeException(\"Cannot convert '\" + value + \"' to \" + type, e);\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append("}\n");
+            return source.toString();
+        }
+
+        private void checkSupported(TypeElement type) {
+            if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+                throw new UnsupportedWiringException(type + " is an inner class");
+            }
+            if (!isAccessible(type)) {
+                throw new UnsupportedWiringException(type + " is not accessible from package " + packageName);
+            }
+            AnnotationMirror lazy = findAnnotation(type, LAZY);
+            if (lazy != null && Boolean.TRUE.equals(getAnnotationValue(lazy, "value"))) {
+                throw new UnsupportedWiringException(type + " is lazy");
+            }
+            AnnotationMirror scope = findAnnotation(type, SCOPE);
+            if (scope != null && !"singleton".equals(getAnnotationValue(scope, "value"))) {
+                throw new UnsupportedWiringException(type + " is not a singleton");
+            }
+            if (findAnnotation(type, CONFIGURATION_PROPERTIES) != null) {
+                throw new UnsupportedWiringException(type + " binds configuration properties");
+            }
+            if (findAnnotation(type, ASPECT) != null) {
+                throw new UnsupportedWiringException(type + " is an aspect");
+            }
+            for (String conditional : CONDITIONAL_ANNOTATIONS) {
+                if (findAnnotation(type, conditional) != null) {
+                    throw new UnsupportedWiringException(type + " is conditional");
+                }
+            }
+        }
+
+        /**
+         * Same choice as at runtime: the @Autowired constructor, else the first one with parameters,
+         * else the no-arg constructor.
+         */
+        private ExecutableElement selectConstructor(TypeElement type) {
+            List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+            ExecutableElement selected = null;
+            for (ExecutableElement constructor : constructors) {
+                if (findAnnotation(constructor, AUTOWIRED) != null) {
+                    selected = constructor;
+                    break;
+                }
+            }
+            for (ExecutableElement constructor : constructors) {
+                if (selected == null && !constructor.getParameters().isEmpty()) {
+                    selected = constructor;
+                }
+            }
+            for (ExecutableElement constructor : constructors) {
+                if (selected == null && constructor.getParameters().isEmpty()) {
+                    selected = constructor;
+                }
+            }
+            if (selected == null) {
+                throw new UnsupportedWiringException(type + " has no usable constructor");
+            }
+            if (!isAccessible(selected)) {
+                throw new UnsupportedWiringException("constructor of " + type + " is not accessible");
+            }
+            return selected;
+        }
+
+        /**
+         * Same resolution as the BeanTypeIndex: the only assignable bean, or the bean of exactly that type.
+         */
+        private Bean resolve(TypeMirror type, Bean owner, Element injectionPoint) {
+            TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+            List<Bean> candidates = new ArrayList<>();
+            for (Bean bean : beans.values()) {
+                TypeMirror beanType = processingEnv.getTypeUtils().erasure(bean.type.asType());
+                if (processingEnv.getTypeUtils().isSameType(beanType, erasure)) {
+                    return bean;
+                }
+                if (processingEnv.getTypeUtils().isAssignable(beanType, erasure)) {
+                    candidates.add(bean);
+                }
+            }
+            if (candidates.size() != 1) {
+                throw new UnsupportedWiringException((candidates.isEmpty() ? "no bean" : "ambiguous beans")
+                    + " for " + injectionPoint.getSimpleName() + " of " + owner.type);
+            }
+            return candidates.get(0);
+        }
+
+        private void sort(Bean bean, Map<Bean, Boolean> visited) {
+            Boolean state = visited.get(bean);
+            if (state != null) {
+                if (!state) {
+                    throw new UnsupportedWiringException("circular constructor dependency at " + bean.type);
+                }
+                return;
+            }
+            visited.put(bean, Boolean.FALSE);
+            for (Bean dependency : bean.constructorDependencies) {
+                sort(dependency, visited);
+            }
+            visited.put(bean, Boolean.TRUE);
+            creationOrder.add(bean);
+        }
+
+        /**
+         * Same order as the LifecycleProcessor: a bean after its constructor and field dependencies,
+         * a cycle of field dependencies is broken at the edge that closes it.
+         */
+        private void sortForLifecycle(Bean bean, Set<Bean> visited, List<Bean> order) {
+            if (!visited.add(bean)) {
+                return;
+            }
+            for (Bean dependency : bean.constructorDependencies) {
+                sortForLifecycle(dependency, visited, order);
+            }
+            for (Bean dependency : bean.fieldDependencies) {
+                sortForLifecycle(dependency, visited, order);
+            }
+            order.add(bean);
+        }
+
+        private void writeHeader(StringBuilder source, boolean withRoutes, boolean withDestroy) {
+            source.append("package ").append(packageName).append(";\n\n")
+                .append("import com.example.minidiframework.config.ConfigurationProperties;\n");
+            if (withRoutes) {
+                source.append("import com.example.minidiframework.context.ApplicationContext;\n");
+            }
+            source.append("import com.example.minidiframework.context.ContextInitializer;\n");
+            if (withRoutes) {
+                source.append("import com.example.minidiframework.web.RouteRegistrar;\n")
+                    .append("import com.example.minidiframework.web.WebServer;\n");
+            }
+            source.append("\n");
+            if (withDestroy) {
+                source.append("import java.util.ArrayList;\n");
+            }
+            source.append("import java.util.LinkedHashMap;\n");
+            if (withDestroy) {
+                source.append("import java.util.List;\n");
+            }
+            source.append("import java.util.Map;\n")
+                .append("import java.util.function.Function;\n\n")
+                .append("/**\n")
+                .append(" * Creates and wires the components of package ").append(packageName).append(" without reflection.\n")
+                .append(" * Generated by GeneratedContextProcessor, do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(ContextInitializer.GENERATED_CLASS_NAME)
+                .append(" implements ContextInitializer").append(withRoutes ? ", RouteRegistrar" : "").append(" {\n\n");
+        }
+
+        private void writeInitialize(StringBuilder source) {
+            source.append("    @Override\n")
+                .append("    public Map<String, Object> initialize(ConfigurationProperties properties) throws Exception {\n")
+                .append("        Map<String, Object> beans = new LinkedHashMap<>();\n");
+            for (Bean bean : creationOrder) {
+                source.append("        ").append(bean.type.getQualifiedName()).append(' ').append(bean.variable)
+                    .append(" = new ").append(bean.type.getQualifiedName()).append('(');
+                for (int i = 0; i < bean.constructorDependencies.size(); i++) {
+                    source.append(i > 0 ? ", " : "").append(bean.constructorDependencies.get(i).variable);
+                }
+                source.append(");\n")
+                    .append("        beans.put(\"").append(bean.name).append("\", ").append(bean.variable).append(");\n");
+            }
+            for (Bean bean : creationOrder) {
+                writeFieldInjection(source, bean);
+            }
+            source.append("        return beans;\n")
+                .append("    }\n\n");
+        }
+
+        /**
+         * Inject the @Autowired and @Value fields of the class and its superclasses, in the order of the InjectionPlan.
+         */
+        private void writeFieldInjection(StringBuilder source, Bean bean) {
+            for (TypeElement type = bean.type; type != null; type = superclassOf(type)) {
+                for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                    String value;
+                    if (findAnnotation(field, AUTOWIRED) != null) {
+                        String fieldType = processingEnv.getTypeUtils().erasure(field.asType()).toString();
+                        if (WRAPPER_TYPES.contains(fieldType)) {
+                            throw new UnsupportedWiringException(field.getSimpleName() + " of " + bean.type
+                                + " is injected as " + fieldType);
+                        }
+                        Bean dependency = resolve(field.asType(), bean, field);
+                        bean.fieldDependencies.add(dependency);
+                        value = dependency.variable;
+                    } else {
+                        AnnotationMirror annotation = findAnnotation(field, VALUE);
+                        if (annotation == null) {
+                            continue;
+                        }
+                        value = convert(source, field, "property(properties, \"" + escape((String) getAnnotationValue(annotation, "value")) + "\")");
+                    }
+                    source.append("        ").append(assign(bean, field, value)).append(";\n");
+                }
+            }
+        }
+
+        private String assign(Bean bean, VariableElement field, String value) {
+            if (field.getModifiers().contains(Modifier.FINAL) || field.getModifiers().contains(Modifier.STATIC)) {
+                throw new UnsupportedWiringException(field.getSimpleName() + " of " + bean.type + " is final or static");
+            }
+            if (isAccessible(field)) {
+                return bean.variable + "." + field.getSimpleName() + " = " + value;
+            }
+
+            String name = field.getSimpleName().toString();
+            String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            for (TypeElement type = bean.type; type != null; type = superclassOf(type)) {
+                for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                    if (method.getSimpleName().contentEquals(setterName) && method.getParameters().size() == 1
+                            && !method.getModifiers().contains(Modifier.STATIC) && isAccessible(method)
+                            && processingEnv.getTypeUtils().isAssignable(field.asType(), method.getParameters().get(0).asType())) {
+                        return bean.variable + "." + setterName + "(" + value + ")";
+                    }
+                }
+            }
+            throw new UnsupportedWiringException(name + " of " + bean.type + " is not accessible and has no setter");
+        }
+
+        /**
+         * Same conversions as the DependencyInjector: the value goes through the converter of the
+         * conversion service of the properties for the field type, so it is trimmed and converters
+         * added to the service apply. The converter is looked up once, before the field is assigned.
+         * Types with type arguments are wired at runtime.
+         */
+        private String convert(StringBuilder source, VariableElement field, String expression) {
+            TypeMirror type = field.asType();
+            TypeMirror elementType = type;
+            while (elementType.getKind() == TypeKind.ARRAY) {
+                elementType = ((ArrayType) elementType).getComponentType();
+            }
+            boolean supported = elementType.getKind().isPrimitive()
+                || elementType.getKind() == TypeKind.DECLARED
+                    && ((DeclaredType) elementType).getTypeArguments().isEmpty()
+                    && isAccessible(((DeclaredType) elementType).asElement());
+            if (!supported) {
+                throw new UnsupportedWiringException("unsupported @Value type " + type + " of " + field.getSimpleName());
+            }
+
+            String typeName = type.toString();
+            String converter = "converter" + converters++;
+            source.append("        Function<String, Object> ").append(converter)
+                .append(" = properties.getConversionService().getConverter(").append(typeName).append(".class);\n");
+            return "(" + typeName + ") convert(" + converter + ", " + expression + ", \"" + typeName + "\")";
+        }
+
+        /**
+         * Write the method calling the @PostConstruct or @WarmUp methods of the beans in the given order,
+         * unless no bean has one.
+         */
+        private void writeCallbacks(StringBuilder source, String methodName, String annotation, List<Bean> order) {
+            StringBuilder body = new StringBuilder();
+            for (Bean bean : order) {
+                List<ExecutableElement> methods = lifecycleMethods(bean, annotation);
+                if (methods.isEmpty()) {
+                    continue;
+                }
+                writeLookup(body, bean);
+                for (ExecutableElement method : methods) {
+                    String call = bean.variable + "." + method.getSimpleName() + "();";
+                    body.append("        try {\n");
+                    if (annotation.equals(WARM_UP)) {
+                        body.append("            for (int i = 0; i < ")
+                            .append(getAnnotationValue(findAnnotation(method, WARM_UP), "iterations")).append("; i++) {\n")
+                            .append("                ").append(call).append('\n')
+                            .append("            }\n");
+                    } else {
+                        body.append("            ").append(call).append('\n');
+                    }
+                    body.append("        } catch (Exception e) {\n")
+                        .append("            throw new RuntimeException(\"").append(escape(failure(annotation, method, bean))).append("\", e);\n")
+                        .append("        }\n");
+                }
+            }
+            if (body.length() > 0) {
+                source.append("    @Override\n")
+                    .append("    public void ").append(methodName).append("(Map<String, Object> beans) {\n")
+                    .append(body)
+                    .append("    }\n\n");
+            }
+        }
+
+        /**
+         * Write the method calling the @PreDestroy methods of the beans in the given order, or close()
+         * of an AutoCloseable bean without one. Like the LifecycleProcessor, a failure does not stop the
+         * other beans from being destroyed. Returns false if no bean has anything to call.
+         */
+        private boolean writePreDestroy(StringBuilder source, List<Bean> order) {
+            TypeMirror autoCloseable = processingEnv.getElementUtils().getTypeElement("java.lang.AutoCloseable").asType();
+            StringBuilder body = new StringBuilder();
+            for (Bean bean : order) {
+                List<ExecutableElement> methods = lifecycleMethods(bean, PRE_DESTROY);
+                boolean close = methods.isEmpty() && processingEnv.getTypeUtils().isAssignable(bean.type.asType(), autoCloseable);
+                if (methods.isEmpty() && !close) {
+                    continue;
+                }
+                writeLookup(body, bean);
+                if (close) {
+                    writeDestroyCall(body, bean.variable + ".close();", "Failed to close bean '" + bean.name + "'");
+                }
+                for (ExecutableElement method : methods) {
+                    writeDestroyCall(body, bean.variable + "." + method.getSimpleName() + "();", failure(PRE_DESTROY, method, bean));
+                }
+            }
+            if (body.length() == 0) {
+                return false;
+            }
+            source.append("    @Override\n")
+                .append("    public void preDestroy(Map<String, Object> beans) {\n")
+                .append("        List<RuntimeException> failures = new ArrayList<>();\n")
+                .append(body)
+                .append("        if (!failures.isEmpty()) {\n")
+                .append("            RuntimeException error = new RuntimeException(\"Failed to destroy beans\", failures.get(0));\n")
+                .append("            failures.subList(1, failures.size()).forEach(error::addSuppressed);\n")
+                .append("            throw error;\n")
+                .append("        }\n")
+                .append("    }\n\n");
+            return true;
+        }
+
+        private void writeDestroyCall(StringBuilder source, String call, String message) {
+            source.append("        try {\n")
+                .append("            ").append(call).append('\n')
+                .append("        } catch (Throwable e) {\n")
+                .append("            failures.add(new RuntimeException(\"").append(escape(message)).append("\", e));\n")
+                .append("        }\n");
+        }
+
+        private void writeLookup(StringBuilder source, Bean bean) {
+            source.append("        ").append(bean.type.getQualifiedName()).append(' ').append(bean.variable)
+                .append(" = (").append(bean.type.getQualifiedName()).append(") beans.get(\"").append(bean.name).append("\");\n");
+        }
+
+        /**
+         * The lifecycle methods of the bean with the given annotation, superclass methods first like at runtime.
+         */
+        private List<ExecutableElement> lifecycleMethods(Bean bean, String annotation) {
+            List<TypeElement> hierarchy = new ArrayList<>();
+            for (TypeElement type = bean.type; type != null; type = superclassOf(type)) {
+                hierarchy.add(0, type);
+            }
+            List<ExecutableElement> methods = new ArrayList<>();
+            for (TypeElement type : hierarchy) {
+                for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                    if (findAnnotation(method, annotation) == null) {
+                        continue;
+                    }
+                    if (!method.getParameters().isEmpty() || method.getModifiers().contains(Modifier.STATIC)
+                            || !isAccessible(method)) {
+                        throw new UnsupportedWiringException("lifecycle method " + method.getSimpleName() + " of " + type
+                            + " cannot be called directly");
+                    }
+                    methods.add(method);
+                }
+            }
+            return methods;
+        }
+
+        private String failure(String annotation, ExecutableElement method, Bean bean) {
+            return "Failed to invoke @" + annotation.substring(ANNOTATION_PACKAGE.length()) + " method "
+                + method.getSimpleName() + " of bean '" + bean.name + "'";
+        }
+
+        private void collectRoutes(Bean bean, List<String> routes) {
+            AnnotationMirror controller = findAnnotation(bean.type, REST_CONTROLLER);
+            if (controller == null) {
+                return;
+            }
+            String basePath = (String) getAnnotationValue(controller, "value");
+            for (ExecutableElement method : ElementFilter.methodsIn(bean.type.getEnclosedElements())) {
+                AnnotationMirror mapping = findAnnotation(method, REQUEST_MAPPING);
+                if (mapping == null) {
+                    continue;
+                }
+                if (method.getModifiers().contains(Modifier.STATIC) || !isAccessible(method)
+                        || method.getParameters().size() != 1
+                        || !processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType()).toString().equals(HTTP_REQUEST)) {
+                    throw new UnsupportedWiringException("route " + method.getSimpleName() + " of " + bean.type
+                        + " cannot be called directly");
+                }
+
+                String call = bean.variable + "." + method.getSimpleName() + "(request)";
+                String handler = method.getReturnType().getKind() == TypeKind.VOID
+                    ? "request -> {\n            " + call + ";\n            return null;\n        }"
+                    : "request -> " + call;
+                routes.add("        webServer.addRoute(\"" + escape((String) getAnnotationValue(mapping, "method")) + "\", \""
+                    + escape(basePath + getAnnotationValue(mapping, "value")) + "\", " + handler + ");\n");
+            }
+        }
+
+        private void writeRegisterRoutes(StringBuilder source, List<String> routes) {
+            source.append("    @Override\n")
+                .append("    public void registerRoutes(ApplicationContext applicationContext, WebServer webServer) {\n");
+            for (Bean bean : creationOrder) {
+                if (findAnnotation(bean.type, REST_CONTROLLER) != null) {
+                    source.append("        ").append(bean.type.getQualifiedName()).append(' ').append(bean.variable)
+                        .append(" = (").append(bean.type.getQualifiedName()).append(") applicationContext.getBean(\"")
+                        .append(bean.name).append("\");\n");
+                }
+            }
+            for (String route : routes) {
+                source.append(route);
+            }
+            source.append("    }\n\n");
+        }
+
+        /**
+         * Same naming as the ApplicationContext: the value of @Component, @Service or @Repository,
+         * else the simple class name with a lowercase first letter.
+         */
+        private String getBeanName(TypeElement type) {
+            for (String annotationName : NAMED_ANNOTATIONS) {
+                AnnotationMirror annotation = findAnnotation(type, annotationName);
+                if (annotation != null) {
+                    String value = (String) getAnnotationValue(annotation, "value");
+                    if (!value.isEmpty()) {
+                        return value;
+                    }
+                }
+            }
+            String className = type.getSimpleName().toString();
+            return Character.toLowerCase(className.charAt(0)) + className.substring(1);
+        }
+
+        /**
+         * Check if the element and all of its enclosing classes can be referenced from the generated package.
+         */
+        private boolean isAccessible(Element element) {
+            for (Element current = element; current.getKind() != ElementKind.PACKAGE; current = current.getEnclosingElement()) {
+                Set<Modifier> modifiers = current.getModifiers();
+                if (modifiers.contains(Modifier.PRIVATE)
+                        || !modifiers.contains(Modifier.PUBLIC) && !packageOf(current).equals(packageName)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private TypeElement superclassOf(TypeElement type) {
+            TypeMirror superclass = type.getSuperclass();
+            if (superclass.getKind() != TypeKind.DECLARED) {
+                return null;
+            }
+            TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+            return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+        }
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object getAnnotationValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * A component in the generated context.
+     */
+    private static final class Bean {
+        final TypeElement type;
+        final String name;
+        final String variable;
+        final List<Bean> constructorDependencies = new ArrayList<>();
+        final List<Bean> fieldDependencies = new ArrayList<>();
+        ExecutableElement constructor;
+
+        Bean(TypeElement type, String name, String variable) {
+            this.type = type;
+            this.name = name;
+            this.variable = variable;
+        }
+    }
+
+    /**
+     * Thrown when a component cannot be wired by generated code.
+     */
+    private static final class UnsupportedWiringException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedWiringException(String message) {
+            super(message);
+        }
+    }
+}
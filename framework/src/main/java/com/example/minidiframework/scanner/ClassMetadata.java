@@ -0,0 +1,90 @@
+package com.example.minidiframework.scanner;
+
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class information read straight from a class file, without loading the class.
+ */
+public class ClassMetadata {
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    private final String className;
+    private final int accessFlags;
+    private final String superClassName;
+    private final List<String> interfaceNames;
+    private final Set<String> annotationTypes;
+    private final Map<String, Map<String, Object>> annotationValues;
+
+    public ClassMetadata(String className, int accessFlags, String superClassName,
+                         List<String> interfaceNames, Set<String> annotationTypes) {
+        this(className, accessFlags, superClassName, interfaceNames, annotationTypes, Collections.emptyMap());
+    }
+
+    public ClassMetadata(String className, int accessFlags, String superClassName, List<String> interfaceNames,
+                         Set<String> annotationTypes, Map<String, Map<String, Object>> annotationValues) {
+        this.className = className;
+        this.accessFlags = accessFlags;
+        this.superClassName = superClassName;
+        this.interfaceNames = interfaceNames;
+        this.annotationTypes = annotationTypes;
+        this.annotationValues = annotationValues;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    /**
+     * Get the binary name of the superclass, or null for java.lang.Object and interfaces without one.
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    /**
+     * Get the binary names of the runtime-visible annotations declared directly on the class.
+     */
+    public Set<String> getAnnotationTypes() {
+        return annotationTypes;
+    }
+
+    /**
+     * Get the explicitly set elements of an annotation declared directly on the class, by element name.
+     * Strings, primitives and enum constant names are returned as they are, class literals as binary
+     * class names and arrays as lists; nested annotations are left out. Defaults are not included.
+     */
+    public Map<String, Object> getAnnotationValues(String annotationType) {
+        return annotationValues.getOrDefault(annotationType, Collections.emptyMap());
+    }
+
+    public boolean isInterface() {
+        return Modifier.isInterface(accessFlags);
+    }
+
+    public boolean isAbstract() {
+        return Modifier.isAbstract(accessFlags);
+    }
+
+    public boolean isAnnotation() {
+        return (accessFlags & ACC_ANNOTATION) != 0;
+    }
+
+    /**
+     * Check if the class can be instantiated, i.e. it is neither an interface nor abstract.
+     */
+    public boolean isConcrete() {
+        return !isInterface() && !isAbstract();
+    }
+}
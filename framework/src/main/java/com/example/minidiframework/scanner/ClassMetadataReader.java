@@ -0,0 +1,303 @@
+package com.example.minidiframework.scanner;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads class metadata from the class file format (JVMS chapter 4).
+ * Only the constant pool, the class header and the RuntimeVisibleAnnotations
+ * attribute, including the element values of the class annotations, are decoded;
+ * fields and methods are skipped.
+ */
+public final class ClassMetadataReader {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private final ByteBuffer buffer;
+    private final int[] constantOffsets;
+    private final String[] utf8Cache;
+
+    private ClassMetadataReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        int constantCount = buffer.getShort(8) & 0xFFFF;
+        this.constantOffsets = new int[constantCount];
+        this.utf8Cache = new String[constantCount];
+        buffer.position(10);
+        readConstantPool(constantCount);
+    }
+
+    /**
+     * Read the metadata of a class file.
+     */
+    public static ClassMetadata read(byte[] classFile) {
+        return read(ByteBuffer.wrap(classFile));
+    }
+
+    /**
+     * Read the metadata of a class file held in a buffer. The buffer position is not modified.
+     */
+    public static ClassMetadata read(ByteBuffer classFile) {
+        return new ClassMetadataReader(classFile.slice()).readClass();
+    }
+
+    /**
+     * Record the offset of every constant pool entry so that entries can be decoded on demand.
+     */
+    private void readConstantPool(int constantCount) {
+        for (int i = 1; i < constantCount; i++) {
+            constantOffsets[i] = buffer.position();
+            int tag = buffer.get() & 0xFF;
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    skip(buffer.getShort() & 0xFFFF);
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    skip(2);
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    skip(3);
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    skip(4);
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    skip(8);
+                    i++; // 8-byte constants take two slots
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag + " at entry " + i);
+            }
+        }
+    }
+
+    private ClassMetadata readClass() {
+        int accessFlags = buffer.getShort() & 0xFFFF;
+        String className = readClassName(buffer.getShort() & 0xFFFF);
+        int superIndex = buffer.getShort() & 0xFFFF;
+        String superClassName = superIndex == 0 ? null : readClassName(superIndex);
+
+        int interfaceCount = buffer.getShort() & 0xFFFF;
+        List<String> interfaceNames = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaceNames.add(readClassName(buffer.getShort() & 0xFFFF));
+        }
+
+        skipMembers(); // fields
+        skipMembers(); // methods
+
+        Set<String> annotationTypes = Collections.emptySet();
+        Map<String, Map<String, Object>> annotationValues = new HashMap<>();
+        int attributeCount = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < attributeCount; i++) {
+            String attributeName = readUtf8(buffer.getShort() & 0xFFFF);
+            int length = buffer.getInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName)) {
+                annotationTypes = readAnnotations(annotationValues);
+            } else {
+                skip(length);
+            }
+        }
+
+        return new ClassMetadata(className, accessFlags, superClassName,
+            Collections.unmodifiableList(interfaceNames), Collections.unmodifiableSet(annotationTypes),
+            annotationValues.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(annotationValues));
+    }
+
+    private void skipMembers() {
+        int memberCount = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < memberCount; i++) {
+            skip(6); // access flags, name index, descriptor index
+            int attributeCount = buffer.getShort() & 0xFFFF;
+            for (int j = 0; j < attributeCount; j++) {
+                skip(2);
+                skip(buffer.getInt());
+            }
+        }
+    }
+
+    /**
+     * Read the class annotations, collecting the element values of those that set any.
+     */
+    private Set<String> readAnnotations(Map<String, Map<String, Object>> annotationValues) {
+        int annotationCount = buffer.getShort() & 0xFFFF;
+        Set<String> annotationTypes = new LinkedHashSet<>();
+        for (int i = 0; i < annotationCount; i++) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            String typeName = readAnnotation(values);
+            annotationTypes.add(typeName);
+            if (!values.isEmpty()) {
+                annotationValues.put(typeName, Collections.unmodifiableMap(values));
+            }
+        }
+        return annotationTypes;
+    }
+
+    /**
+     * Read an annotation structure and return its type name. Its element values are added to
+     * the given map, or skipped if it is null.
+     */
+    private String readAnnotation(Map<String, Object> values) {
+        String typeName = descriptorToClassName(readUtf8(buffer.getShort() & 0xFFFF));
+        int pairCount = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < pairCount; i++) {
+            int nameIndex = buffer.getShort() & 0xFFFF;
+            Object value = readElementValue(values != null);
+            if (values != null && value != null) {
+                values.put(readUtf8(nameIndex), value);
+            }
+        }
+        return typeName;
+    }
+
+    /**
+     * Read an element value, or only skip it if it is not needed. Nested annotations are always skipped.
+     */
+    private Object readElementValue(boolean needed) {
+        int tag = buffer.get() & 0xFF;
+        switch (tag) {
+            case 'e':
+                skip(2); // enum type
+                int constantIndex = buffer.getShort() & 0xFFFF;
+                return needed ? readUtf8(constantIndex) : null;
+            case '@':
+                readAnnotation(null);
+                return null;
+            case '[':
+                int valueCount = buffer.getShort() & 0xFFFF;
+                List<Object> elements = needed ? new ArrayList<>(valueCount) : null;
+                for (int i = 0; i < valueCount; i++) {
+                    Object element = readElementValue(needed);
+                    if (elements != null && element != null) {
+                        elements.add(element);
+                    }
+                }
+                return elements != null ? Collections.unmodifiableList(elements) : null;
+            default:
+                // Constant values and class literals hold a single constant pool index
+                int index = buffer.getShort() & 0xFFFF;
+                return needed ? readConstantValue(tag, index) : null;
+        }
+    }
+
+    private Object readConstantValue(int tag, int index) {
+        int offset = constantOffsets[index] + 1;
+        switch (tag) {
+            case 's':
+                return readUtf8(index);
+            case 'c':
+                return descriptorToClassName(readUtf8(index));
+            case 'Z':
+                return buffer.getInt(offset) != 0;
+            case 'B':
+                return (byte) buffer.getInt(offset);
+            case 'C':
+                return (char) buffer.getInt(offset);
+            case 'S':
+                return (short) buffer.getInt(offset);
+            case 'I':
+                return buffer.getInt(offset);
+            case 'J':
+                return buffer.getLong(offset);
+            case 'F':
+                return buffer.getFloat(offset);
+            case 'D':
+                return buffer.getDouble(offset);
+            default:
+                throw new IllegalArgumentException("Unknown element value tag " + (char) tag);
+        }
+    }
+
+    private String readClassName(int classIndex) {
+        int nameIndex = buffer.getShort(constantOffsets[classIndex] + 1) & 0xFFFF;
+        return readUtf8(nameIndex).replace('/', '.');
+    }
+
+    /**
+     * Decode a CONSTANT_Utf8 entry (modified UTF-8).
+     */
+    private String readUtf8(int index) {
+        String cached = utf8Cache[index];
+        if (cached != null) {
+            return cached;
+        }
+
+        int offset = constantOffsets[index] + 1;
+        int length = buffer.getShort(offset) & 0xFFFF;
+        int position = offset + 2;
+        int end = position + length;
+        char[] chars = new char[length];
+        int count = 0;
+
+        while (position < end) {
+            int b = buffer.get(position++) & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (buffer.get(position++) & 0x3F));
+            } else {
+                int b2 = buffer.get(position++) & 0x3F;
+                int b3 = buffer.get(position++) & 0x3F;
+                chars[count++] = (char) (((b & 0x0F) << 12) | (b2 << 6) | b3);
+            }
+        }
+
+        String value = new String(chars, 0, count);
+        utf8Cache[index] = value;
+        return value;
+    }
+
+    private void skip(int bytes) {
+        buffer.position(buffer.position() + bytes);
+    }
+
+    /**
+     * Convert a field descriptor such as "Lcom/example/Foo;" to a binary class name.
+     */
+    static String descriptorToClassName(String descriptor) {
+        if (descriptor.length() > 2 && descriptor.charAt(0) == 'L') {
+            return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+        }
+        return descriptor;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.minidiframework.scanner;
+
+import com.example.minidiframework.annotation.ConditionalOnClass;
+import com.example.minidiframework.annotation.ConditionalOnMissingBean;
+import com.example.minidiframework.annotation.ConditionalOnProperty;
+import com.example.minidiframework.config.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The conditions under which a component is registered, as declared by the @ConditionalOnProperty,
+ * @ConditionalOnClass and @ConditionalOnMissingBean annotations of its class. They are read from the
+ * class file or from the component index, so they are evaluated without loading the class.
+ * In the index they follow the class name as tab-separated entries:
+ * {@code onProperty:<matchIfMissing>:<name>=<havingValue>}, {@code onClass:<class name>} and
+ * {@code onMissingBean:<class name>}.
+ */
+public final class ComponentConditions {
+    public static final ComponentConditions NONE =
+        new ComponentConditions(null, "", false, Collections.emptyList(), Collections.emptyList());
+
+    private static final String ON_PROPERTY = "onProperty:";
+    private static final String ON_CLASS = "onClass:";
+    private static final String ON_MISSING_BEAN = "onMissingBean:";
+
+    private final String propertyName;
+    private final String havingValue;
+    private final boolean matchIfMissing;
+    private final List<String> requiredClasses;
+    private final List<String> missingBeanTypes;
+
+    /**
+     * @param propertyName the property that must be set, or null if there is no property condition
+     * @param requiredClasses the classes that must be on the classpath
+     * @param missingBeanTypes the types no other component may have, empty if there is no such condition
+     */
+    public ComponentConditions(String propertyName, String havingValue, boolean matchIfMissing,
+                               List<String> requiredClasses, List<String> missingBeanTypes) {
+        this.propertyName = propertyName;
+        this.havingValue = havingValue;
+        this.matchIfMissing = matchIfMissing;
+        this.requiredClasses = List.copyOf(requiredClasses);
+        this.missingBeanTypes = List.copyOf(missingBeanTypes);
+    }
+
+    /**
+     * Read the conditions of a class from its class file metadata.
+     */
+    public static ComponentConditions fromMetadata(ClassMetadata metadata) {
+        Map<String, Object> onProperty = metadata.getAnnotationValues(ConditionalOnProperty.class.getName());
+        boolean hasOnProperty = metadata.getAnnotationTypes().contains(ConditionalOnProperty.class.getName());
+        boolean hasOnClass = metadata.getAnnotationTypes().contains(ConditionalOnClass.class.getName());
+        boolean hasOnMissingBean = metadata.getAnnotationTypes().contains(ConditionalOnMissingBean.class.getName());
+        if (!hasOnProperty && !hasOnClass && !hasOnMissingBean) {
+            return NONE;
+        }
+
+        List<String> requiredClasses = hasOnClass
+            ? toStrings(metadata.getAnnotationValues(ConditionalOnClass.class.getName()).get("value"))
+            : Collections.emptyList();
+        List<String> missingBeanTypes = Collections.emptyList();
+        if (hasOnMissingBean) {
+            missingBeanTypes = toStrings(metadata.getAnnotationValues(ConditionalOnMissingBean.class.getName()).get("value"));
+            if (missingBeanTypes.isEmpty()) {
+                missingBeanTypes = List.of(metadata.getClassName());
+            }
+        }
+        return new ComponentConditions(hasOnProperty ? (String) onProperty.get("value") : null,
+            (String) onProperty.getOrDefault("havingValue", ""),
+            (Boolean) onProperty.getOrDefault("matchIfMissing", Boolean.FALSE),
+            requiredClasses, missingBeanTypes);
+    }
+
+    /**
+     * A single element of an array-valued annotation element may be stored without the array.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> toStrings(Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        return value instanceof List ? (List<String>) value : List.of((String) value);
+    }
+
+    /**
+     * Parse the condition entries of a component index line, without the class name.
+     */
+    public static ComponentConditions parse(String entries) {
+        if (entries == null || entries.isBlank()) {
+            return NONE;
+        }
+        String propertyName = null;
+        String havingValue = "";
+        boolean matchIfMissing = false;
+        List<String> requiredClasses = new ArrayList<>();
+        List<String> missingBeanTypes = new ArrayList<>();
+        for (String entry : entries.split("\t")) {
+            entry = entry.trim();
+            if (entry.startsWith(ON_PROPERTY)) {
+                String[] parts = entry.substring(ON_PROPERTY.length()).split(":", 2);
+                matchIfMissing = Boolean.parseBoolean(parts[0]);
+                int separator = parts[1].indexOf('=');
+                propertyName = separator >= 0 ? parts[1].substring(0, separator) : parts[1];
+                havingValue = separator >= 0 ? parts[1].substring(separator + 1) : "";
+            } else if (entry.startsWith(ON_CLASS)) {
+                requiredClasses.add(entry.substring(ON_CLASS.length()));
+            } else if (entry.startsWith(ON_MISSING_BEAN)) {
+                missingBeanTypes.add(entry.substring(ON_MISSING_BEAN.length()));
+            } else if (!entry.isEmpty()) {
+                throw new IllegalArgumentException("Unknown component condition: " + entry);
+            }
+        }
+        return new ComponentConditions(propertyName, havingValue, matchIfMissing, requiredClasses, missingBeanTypes);
+    }
+
+    /**
+     * Format the conditions as component index entries, or return an empty string if there are none.
+     */
+    public String format() {
+        List<String> entries = new ArrayList<>();
+        if (propertyName != null) {
+            entries.add(ON_PROPERTY + matchIfMissing + ":" + propertyName + "=" + havingValue);
+        }
+        requiredClasses.forEach(className -> entries.add(ON_CLASS + className));
+        missingBeanTypes.forEach(className -> entries.add(ON_MISSING_BEAN + className));
+        return String.join("\t", entries);
+    }
+
+    public boolean isEmpty() {
+        return propertyName == null && requiredClasses.isEmpty() && missingBeanTypes.isEmpty();
+    }
+
+    /**
+     * Check the property condition against the given properties, which may be null if there are none.
+     */
+    public boolean matchesProperty(ConfigurationProperties properties) {
+        if (propertyName == null) {
+            return true;
+        }
+        String value = properties != null ? properties.getProperty(propertyName) : null;
+        if (value == null) {
+            return matchIfMissing;
+        }
+        return havingValue.isEmpty() ? !"false".equalsIgnoreCase(value.trim()) : havingValue.equalsIgnoreCase(value.trim());
+    }
+
+    /**
+     * Get the property of the @ConditionalOnProperty condition, or null if there is none.
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    public List<String> getRequiredClasses() {
+        return requiredClasses;
+    }
+
+    /**
+     * Get the types no other component may be assignable to, or an empty list if the component
+     * is not conditional on a missing bean.
+     */
+    public List<String> getMissingBeanTypes() {
+        return missingBeanTypes;
+    }
+
+    @Override
+    public String toString() {
+        return isEmpty() ? "unconditional" : format().replace('\t', ' ');
+    }
+}
@@ -1,53 +1,487 @@
 package com.example.minidiframework.scanner;
 
 import com.example.minidiframework.annotation.Component;
-import com.example.minidiframework.annotation.Service;
-import com.example.minidiframework.annotation.Repository;
-import com.example.minidiframework.annotation.Configuration;
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.startup.ComponentScanEvent;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Scans the classpath for classes annotated with framework annotations.
+ * The conditions of a component (@ConditionalOnProperty, @ConditionalOnClass and
+ * @ConditionalOnMissingBean) are read from its class file or from the component index and
+ * evaluated before any class is loaded, so a component that is switched off costs no class loading.
  */
 public class ComponentScanner {
-    private final String basePackage;
+    /**
+     * Location of the component index written by the ComponentIndexProcessor.
+     */
+    public static final String COMPONENT_INDEX_LOCATION = "META-INF/minidi.components";
+
+    private static final String COMPONENT_ANNOTATION = Component.class.getName();
+
+    /**
+     * How class files are inspected during a directory scan.
+     */
+    public enum ScanMode {
+        /** Read annotations from the class file bytes and load only matching classes. */
+        BYTECODE,
+        /** Load every class and inspect its annotations through reflection. */
+        REFLECTION
+    }
+
+    /**
+     * Component class names and their conditions found by earlier scans, per class loader and scan configuration.
+     * Class names rather than classes are kept, so the cache does not keep a class loader alive.
+     */
+    private static final Map<ClassLoader, Map<String, Map<String, ComponentConditions>>> SHARED_RESULTS =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final List<String> basePackages;
+    private final Map<String, Boolean> componentAnnotationCache = new ConcurrentHashMap<>();
+    private boolean useComponentIndex = true;
+    private ScanMode scanMode = ScanMode.BYTECODE;
+    private int parallelism = 1;
+    private boolean useSharedResults;
+    private ClassLoader classLoader;
+    private Path cacheFile;
+    private ScanCache scanCache;
+    private ConfigurationProperties properties;
+    private final Set<String> conditionProperties = ConcurrentHashMap.newKeySet();
+
+    public ComponentScanner(String... basePackages) {
+        this.basePackages = normalizePackages(basePackages);
+        this.classLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    /**
+     * Drop base packages that are nested in another base package, they are scanned anyway.
+     */
+    private static List<String> normalizePackages(String[] basePackages) {
+        List<String> result = new ArrayList<>();
+        for (String candidate : basePackages) {
+            boolean nested = false;
+            for (String other : basePackages) {
+                if (!other.equals(candidate) && candidate.startsWith(other + ".")) {
+                    nested = true;
+                    break;
+                }
+            }
+            if (!nested && !result.contains(candidate)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Enable or disable reading the build-time component index.
+     */
+    public void setUseComponentIndex(boolean useComponentIndex) {
+        this.useComponentIndex = useComponentIndex;
+    }
+
+    /**
+     * Set how class files are inspected when the package directory is scanned.
+     */
+    public void setScanMode(ScanMode scanMode) {
+        this.scanMode = scanMode;
+    }
+
+    /**
+     * Set the number of threads used to scan directories and jars.
+     * A value of 1 scans on the calling thread.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Scan parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Set the class loader used to find packages and load component classes.
+     * Defaults to the context class loader of the thread that created the scanner.
+     */
+    public void setClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Enable or disable sharing scan results with every other scanner in the JVM that uses the same
+     * class loader, base packages and settings. The first scan does the work; later scans only look
+     * up the component classes it found.
+     */
+    public void setUseSharedResults(boolean useSharedResults) {
+        this.useSharedResults = useSharedResults;
+    }
 
-    public ComponentScanner(String basePackage) {
-        this.basePackage = basePackage;
+    /**
+     * Forget the shared scan results, so the next scan of every package reads the classpath again.
+     */
+    public static void clearSharedResults() {
+        SHARED_RESULTS.clear();
+    }
+
+    /**
+     * Set the properties that @ConditionalOnProperty conditions are evaluated against.
+     * Without properties, every property counts as missing.
+     */
+    public void setProperties(ConfigurationProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Set the file of the persistent scan cache, or null to disable it.
+     */
+    public void setCacheFile(Path cacheFile) {
+        this.cacheFile = cacheFile;
+        this.scanCache = null;
+    }
+
+    /**
+     * Get the scan cache used by the last scan, or null if caching is disabled.
+     */
+    public ScanCache getScanCache() {
+        return scanCache;
     }
 
     /**
-     * Scan for all component classes in the base package.
+     * Get the properties the @ConditionalOnProperty conditions of the scanned candidates read.
+     */
+    public Set<String> getConditionProperties() {
+        return Collections.unmodifiableSet(conditionProperties);
+    }
+
+    /**
+     * Scan for all component classes in the base packages.
+     * A package directory or jar is covered by the component index of its classpath root when
+     * there is one, the other package locations are scanned. Every scan is recorded as a Flight Recorder event.
      */
     public Set<Class<?>> scanForComponents() {
+        ComponentScanEvent event = new ComponentScanEvent();
+        event.begin();
+        Map<String, ComponentConditions> candidates = useSharedResults ? scanShared(event) : scan(event);
         Set<Class<?>> components = new HashSet<>();
-        
+        for (String className : evaluateConditions(candidates)) {
+            addComponent(className, components);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.basePackages = String.join(",", basePackages);
+            event.componentCount = components.size();
+            event.commit();
+        }
+        return components;
+    }
+
+    /**
+     * Find the candidates through the shared results, scanning only if no other scanner did already.
+     * Conditions are kept with the candidates and evaluated by every scanner against its own properties.
+     */
+    private Map<String, ComponentConditions> scanShared(ComponentScanEvent event) {
+        String key = String.join(",", basePackages) + "|" + useComponentIndex + "|" + scanMode;
+        Map<String, Map<String, ComponentConditions>> results;
+        synchronized (SHARED_RESULTS) {
+            results = SHARED_RESULTS.computeIfAbsent(getClassLoader(), loader -> new ConcurrentHashMap<>());
+        }
+
+        Map<String, ComponentConditions> shared = results.get(key);
+        if (shared != null) {
+            event.scanMode = "shared";
+            return shared;
+        }
+
+        Map<String, ComponentConditions> candidates = Map.copyOf(scan(event));
+        results.putIfAbsent(key, candidates);
+        return candidates;
+    }
+
+    /**
+     * Find the component classes of the base packages with their conditions, without loading them
+     * unless the scan mode is reflection.
+     */
+    private Map<String, ComponentConditions> scan(ComponentScanEvent event) {
+        Map<String, ComponentConditions> components = new HashMap<>();
+        Map<String, Map<String, ComponentConditions>> indexes =
+            useComponentIndex ? readComponentIndexes() : Collections.emptyMap();
+        boolean scanned = false;
+
+        if (parallelism > 1) {
+            components = new ConcurrentHashMap<>();
+        }
+        if (cacheFile != null && scanCache == null) {
+            scanCache = ScanCache.load(cacheFile);
+        }
+
+        // Archives are opened once, shared by every base package located in them and closed after the scan
+        Map<String, JarArchive> archives = new HashMap<>();
         try {
-            String packagePath = basePackage.replace('.', '/');
-            URL resource = Thread.currentThread().getContextClassLoader().getResource(packagePath);
-            
-            if (resource == null) {
-                throw new RuntimeException("Package not found: " + basePackage);
-            }
-            
-            File packageDir = new File(resource.getFile());
-            scanDirectory(packageDir, basePackage, components);
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to scan for components", e);
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (String basePackage : basePackages) {
+                try {
+                    String packagePath = basePackage.replace('.', '/');
+                    Enumeration<URL> resources = getClassLoader().getResources(packagePath);
+                    boolean indexed = addIndexedCandidates(indexes, basePackage, components);
+
+                    if (!resources.hasMoreElements() && !indexed) {
+                        throw new RuntimeException("Package not found: " + basePackage);
+                    }
+
+                    // Only the package locations in a classpath root without an index are scanned
+                    while (resources.hasMoreElements()) {
+                        URL resource = resources.nextElement();
+                        if (!indexes.containsKey(getClasspathRoot(resource, packagePath))) {
+                            scanResource(resource, basePackage, archives, components, tasks);
+                            scanned = true;
+                        }
+                    }
+
+                } catch (Exception e) {
+                    throw new RuntimeException("Failed to scan for components", e);
+                }
+            }
+
+            event.scanMode = scanned || indexes.isEmpty() ? scanMode.name().toLowerCase() : "index";
+
+            if (!tasks.isEmpty()) {
+                runInParallel(tasks);
+            }
+        } finally {
+            for (JarArchive archive : archives.values()) {
+                archive.close();
+            }
+        }
+
+        if (scanCache != null) {
+            try {
+                scanCache.save();
+            } catch (IOException e) {
+                // The scan cache is optional, the next start simply scans again
+            }
         }
         
         return components;
     }
 
+    /**
+     * Run the subtree and archive tasks on a fork-join pool bounded by the configured parallelism.
+     */
+    private void runInParallel(List<ForkJoinTask<?>> tasks) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to scan for components", e);
+        } finally {
+            pool.shutdown();
+            awaitTermination(pool);
+        }
+    }
+
+    /**
+     * Wait until the tasks still running after a failure are done, they may read the archives that are closed next.
+     */
+    private static void awaitTermination(ForkJoinPool pool) {
+        boolean interrupted = false;
+        while (!pool.isTerminated()) {
+            try {
+                pool.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Read the component indexes on the classpath, keyed by the classpath root that contains them.
+     * An index only lists the classes of its own root, so it is not used for other roots.
+     * Each line holds a class name, optionally followed by the tab-separated conditions of the class;
+     * only the entries that belong to the base packages are kept.
+     */
+    private Map<String, Map<String, ComponentConditions>> readComponentIndexes() {
+        Map<String, Map<String, ComponentConditions>> indexes = new HashMap<>();
+
+        try {
+            Enumeration<URL> indexUrls = getClassLoader().getResources(COMPONENT_INDEX_LOCATION);
+
+            while (indexUrls.hasMoreElements()) {
+                URL index = indexUrls.nextElement();
+                Map<String, ComponentConditions> classNames = new HashMap<>();
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int separator = line.indexOf('\t');
+                        String className = (separator >= 0 ? line.substring(0, separator) : line).trim();
+                        if (isInBasePackages(className)) {
+                            classNames.put(className,
+                                separator >= 0 ? ComponentConditions.parse(line.substring(separator + 1)) : ComponentConditions.NONE);
+                        }
+                    }
+                }
+                indexes.putIfAbsent(getClasspathRoot(index, COMPONENT_INDEX_LOCATION), classNames);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read component index", e);
+        }
+
+        return indexes;
+    }
+
+    /**
+     * Get the classpath root of a resource, the location of the resource without its path, such as
+     * file:/app/classes/ or jar:file:/app.jar!/.
+     */
+    private static String getClasspathRoot(URL resource, String path) {
+        String location = resource.toString();
+        if (location.endsWith("/")) {
+            location = location.substring(0, location.length() - 1);
+        }
+        return location.endsWith(path) ? location.substring(0, location.length() - path.length()) : location;
+    }
+
+    /**
+     * Add the indexed classes of a base package. Returns true if any index lists one.
+     */
+    private static boolean addIndexedCandidates(Map<String, Map<String, ComponentConditions>> indexes,
+                                                String basePackage, Map<String, ComponentConditions> components) {
+        boolean found = false;
+        for (Map<String, ComponentConditions> index : indexes.values()) {
+            for (Map.Entry<String, ComponentConditions> entry : index.entrySet()) {
+                if (entry.getKey().startsWith(basePackage + ".")) {
+                    components.put(entry.getKey(), entry.getValue());
+                    found = true;
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean isInBasePackages(String className) {
+        for (String basePackage : basePackages) {
+            if (className.startsWith(basePackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scan a package location, which is either a directory or a (possibly nested) jar.
+     * In parallel mode the work is added to the task list instead of being done right away.
+     */
+    private void scanResource(URL resource, String basePackage, Map<String, JarArchive> archives,
+                              Map<String, ComponentConditions> components, List<ForkJoinTask<?>> tasks)
+            throws IOException, URISyntaxException {
+        switch (resource.getProtocol()) {
+            case "file":
+                File directory = Paths.get(resource.toURI()).toFile();
+                if (parallelism > 1) {
+                    tasks.add(new DirectoryScanTask(directory, basePackage, components));
+                } else {
+                    scanDirectory(directory, basePackage, components);
+                }
+                break;
+            case "jar":
+                scanJar(resource, basePackage, archives, components, tasks);
+                break;
+            default:
+                throw new RuntimeException("Unsupported classpath location: " + resource);
+        }
+    }
+
+    /**
+     * Scan a jar URL such as jar:file:/app.jar!/com/example or a nested location such as
+     * jar:file:/app.jar!/BOOT-INF/lib/lib.jar!/com/example or jar:file:/app.jar!/BOOT-INF/classes!/com/example.
+     */
+    private void scanJar(URL resource, String basePackage, Map<String, JarArchive> archives,
+                         Map<String, ComponentConditions> components, List<ForkJoinTask<?>> tasks)
+            throws IOException, URISyntaxException {
+        String[] segments = resource.getPath().split("!/");
+        String archiveKey = segments[0];
+        JarArchive archive = archives.get(archiveKey);
+        if (archive == null) {
+            archive = JarArchive.open(Paths.get(new URI(segments[0])));
+            archives.put(archiveKey, archive);
+        }
+
+        // Intermediate segments are nested jars or directories inside the current archive
+        String prefix = "";
+        for (int i = 1; i < segments.length - 1; i++) {
+            String segment = segments[i];
+            if (segment.endsWith(".jar") || segment.endsWith(".zip")) {
+                archiveKey = archiveKey + "!/" + prefix + segment;
+                JarArchive nested = archives.get(archiveKey);
+                if (nested == null) {
+                    nested = archive.openNested(prefix + segment);
+                    archives.put(archiveKey, nested);
+                }
+                archive = nested;
+                prefix = "";
+            } else {
+                prefix = prefix + segment + "/";
+            }
+        }
+
+        String packagePrefix = prefix + basePackage.replace('.', '/') + "/";
+        List<JarArchive.Entry> classEntries = new ArrayList<>();
+        for (JarArchive.Entry entry : archive.getEntries()) {
+            String entryName = entry.getName();
+            if (entryName.startsWith(packagePrefix) && entryName.endsWith(".class")) {
+                classEntries.add(entry);
+            }
+        }
+
+        if (parallelism > 1) {
+            tasks.add(new ArchiveScanTask(archive, classEntries, 0, classEntries.size(), prefix.length(), components));
+        } else {
+            for (JarArchive.Entry entry : classEntries) {
+                processArchiveEntry(archive, entry, prefix.length(), components);
+            }
+        }
+    }
+
     /**
      * Recursively scan a directory for component classes.
      */
-    private void scanDirectory(File directory, String packageName, Set<Class<?>> components) {
+    private void scanDirectory(File directory, String packageName, Map<String, ComponentConditions> components) {
         if (!directory.exists() || !directory.isDirectory()) {
             return;
         }
@@ -64,34 +498,387 @@ public class ComponentScanner {
                 scanDirectory(file, subPackage, components);
             } else if (file.getName().endsWith(".class")) {
                 // Process class files
-                String className = packageName + "." + file.getName().substring(0, file.getName().length() - 6);
-                processClass(className, components);
+                processDirectoryFile(file, packageName, components);
             }
         }
     }
 
     /**
-     * Process a class and add it to components if it's annotated.
+     * Process a class file found in a package directory.
+     */
+    private void processDirectoryFile(File file, String packageName, Map<String, ComponentConditions> components) {
+        String className = packageName + "." + file.getName().substring(0, file.getName().length() - 6);
+        Supplier<ComponentConditions> inspector = scanMode == ScanMode.BYTECODE
+            ? () -> inspectClassFile(file, className)
+            : () -> inspectClassName(className);
+
+        if (scanCache != null) {
+            processCachedCandidate(file.getPath(), file.length(), file.lastModified(), className, inspector, components);
+        } else {
+            addCandidate(className, inspector.get(), components);
+        }
+    }
+
+    /**
+     * Process a class file entry of an archive.
+     */
+    private void processArchiveEntry(JarArchive archive, JarArchive.Entry entry, int prefixLength,
+                                     Map<String, ComponentConditions> components) {
+        String entryName = entry.getName();
+        String className = entryName.substring(prefixLength, entryName.length() - 6).replace('/', '.');
+        Supplier<ComponentConditions> inspector = scanMode == ScanMode.BYTECODE
+            ? () -> inspectArchiveEntry(archive, entry, className)
+            : () -> inspectClassName(className);
+
+        if (scanCache != null) {
+            String location = archive.getName() + "!/" + entry.getStoredName();
+            processCachedCandidate(location, entry.getSize(), entry.getCrc(), className, inspector, components);
+        } else {
+            addCandidate(className, inspector.get(), components);
+        }
+    }
+
+    /**
+     * Use the cached verdict for a class file if its fingerprint is unchanged, otherwise inspect it
+     * and record the new verdict together with the conditions of the component.
+     */
+    private void processCachedCandidate(String location, long size, long stamp, String className,
+                                        Supplier<ComponentConditions> inspector,
+                                        Map<String, ComponentConditions> components) {
+        Boolean component = scanCache.lookup(location, size, stamp);
+        if (component == null) {
+            ComponentConditions conditions = inspector.get();
+            scanCache.record(location, size, stamp, conditions);
+            addCandidate(className, conditions, components);
+        } else if (component) {
+            addCandidate(className, scanCache.getConditions(location), components);
+        }
+    }
+
+    private static void addCandidate(String className, ComponentConditions conditions,
+                                     Map<String, ComponentConditions> components) {
+        if (conditions != null) {
+            components.put(className, conditions);
+        }
+    }
+
+    /**
+     * Read a class file and return the conditions of the component it describes, or null if it is no component.
+     */
+    private ComponentConditions inspectClassFile(File file, String className) {
+        try {
+            return inspectClassBytes(ByteBuffer.wrap(Files.readAllBytes(file.toPath())), className);
+        } catch (IOException e) {
+            return inspectClassName(className);
+        }
+    }
+
+    private ComponentConditions inspectArchiveEntry(JarArchive archive, JarArchive.Entry entry, String className) {
+        try {
+            return inspectClassBytes(archive.read(entry), className);
+        } catch (IOException e) {
+            return inspectClassName(className);
+        }
+    }
+
+    /**
+     * Inspect class file bytes without loading the class.
      */
-    private void processClass(String className, Set<Class<?>> components) {
+    private ComponentConditions inspectClassBytes(ByteBuffer classFile, String className) {
+        ClassMetadata metadata;
         try {
-            Class<?> clazz = Class.forName(className);
-            
-            // Check if the class is annotated with any of our component annotations
-            if (clazz.isAnnotationPresent(Component.class) ||
-                clazz.isAnnotationPresent(Service.class) ||
-                clazz.isAnnotationPresent(Repository.class) ||
-                clazz.isAnnotationPresent(Configuration.class)) {
-                
-                // Skip abstract classes and interfaces
-                if (!clazz.isInterface() && !java.lang.reflect.Modifier.isAbstract(clazz.getModifiers())) {
-                    components.add(clazz);
+            metadata = ClassMetadataReader.read(classFile);
+        } catch (RuntimeException e) {
+            // Fall back to loading the class if the class file cannot be parsed
+            return inspectClassName(className);
+        }
+        return isComponentCandidate(metadata) ? ComponentConditions.fromMetadata(metadata) : null;
+    }
+
+    /**
+     * Load a class and return the conditions of the component it is, or null if it is no component.
+     */
+    private ComponentConditions inspectClassName(String className) {
+        return isComponentClassName(className) ? readConditions(className) : null;
+    }
+
+    /**
+     * Read the conditions of a class from its class file, it has none if the class file cannot be read.
+     */
+    private ComponentConditions readConditions(String className) {
+        ClassMetadata metadata = readClassMetadata(className);
+        return metadata != null ? ComponentConditions.fromMetadata(metadata) : ComponentConditions.NONE;
+    }
+
+    /**
+     * Keep the candidates whose conditions hold. Property and class conditions are checked first.
+     * A candidate conditional on a missing bean is then kept only if no other remaining candidate,
+     * apart from those conditional on a missing bean, is assignable to one of its types.
+     * Assignability is decided from the class files of the candidates and their supertypes.
+     */
+    private Set<String> evaluateConditions(Map<String, ComponentConditions> candidates) {
+        Set<String> active = new HashSet<>();
+        List<String> defaults = new ArrayList<>();
+        for (Map.Entry<String, ComponentConditions> candidate : candidates.entrySet()) {
+            ComponentConditions conditions = candidate.getValue();
+            if (conditions.getPropertyName() != null) {
+                conditionProperties.add(conditions.getPropertyName());
+            }
+            if (conditions.isEmpty()) {
+                active.add(candidate.getKey());
+            } else if (conditions.matchesProperty(properties)
+                    && conditions.getRequiredClasses().stream().allMatch(this::isClassPresent)) {
+                if (conditions.getMissingBeanTypes().isEmpty()) {
+                    active.add(candidate.getKey());
+                } else {
+                    defaults.add(candidate.getKey());
                 }
             }
+        }
+        if (defaults.isEmpty()) {
+            return active;
+        }
+
+        Map<String, Set<String>> supertypes = new HashMap<>();
+        Set<String> result = new HashSet<>(active);
+        for (String candidate : defaults) {
+            boolean missing = true;
+            for (String other : active) {
+                Set<String> otherTypes = supertypes.computeIfAbsent(other, this::getSupertypes);
+                if (candidates.get(candidate).getMissingBeanTypes().stream().anyMatch(otherTypes::contains)) {
+                    missing = false;
+                    break;
+                }
+            }
+            if (missing) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check if a class is on the classpath, looking up its class file instead of loading it.
+     */
+    private boolean isClassPresent(String className) {
+        return getClassLoader().getResource(className.replace('.', '/') + ".class") != null;
+    }
+
+    /**
+     * Get the class itself, its superclasses and all of its interfaces, read from their class files.
+     */
+    private Set<String> getSupertypes(String className) {
+        Set<String> types = new HashSet<>();
+        List<String> pending = new ArrayList<>(List.of(className));
+        while (!pending.isEmpty()) {
+            String type = pending.remove(pending.size() - 1);
+            if (!types.add(type) || "java.lang.Object".equals(type)) {
+                continue;
+            }
+            ClassMetadata metadata = readClassMetadata(type);
+            if (metadata != null) {
+                if (metadata.getSuperClassName() != null) {
+                    pending.add(metadata.getSuperClassName());
+                }
+                pending.addAll(metadata.getInterfaceNames());
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Check if class metadata describes a concrete class annotated with a component annotation.
+     */
+    private boolean isComponentCandidate(ClassMetadata metadata) {
+        if (!metadata.isConcrete()) {
+            return false;
+        }
+        for (String annotationType : metadata.getAnnotationTypes()) {
+            if (isComponentAnnotation(annotationType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if an annotation type is @Component or is meta-annotated with it,
+     * reading the annotation's class file instead of loading it.
+     */
+    private boolean isComponentAnnotation(String annotationType) {
+        Boolean cached = componentAnnotationCache.get(annotationType);
+        return cached != null ? cached : isComponentAnnotation(annotationType, new HashSet<>());
+    }
+
+    private boolean isComponentAnnotation(String annotationType, Set<String> resolving) {
+        if (COMPONENT_ANNOTATION.equals(annotationType)) {
+            return true;
+        }
+        if (annotationType.startsWith("java.")) {
+            return false;
+        }
+
+        Boolean cached = componentAnnotationCache.get(annotationType);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Guard against annotation cycles while the meta-annotations are resolved
+        if (!resolving.add(annotationType)) {
+            return false;
+        }
+        boolean result = false;
+        ClassMetadata metadata = readClassMetadata(annotationType);
+        if (metadata != null && metadata.isAnnotation()) {
+            for (String metaAnnotationType : metadata.getAnnotationTypes()) {
+                if (isComponentAnnotation(metaAnnotationType, resolving)) {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        resolving.remove(annotationType);
+        componentAnnotationCache.put(annotationType, result);
+        return result;
+    }
+
+    /**
+     * Read the metadata of a class from the class loader, or return null if it is not available.
+     */
+    private ClassMetadata readClassMetadata(String className) {
+        String resourceName = className.replace('.', '/') + ".class";
+        try (InputStream input = getClassLoader().getResourceAsStream(resourceName)) {
+            return input != null ? ClassMetadataReader.read(input.readAllBytes()) : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Load a class and check if it's a concrete class annotated as a component.
+     */
+    private boolean isComponentClassName(String className) {
+        Class<?> clazz = loadClass(className);
+        if (clazz == null) {
+            return false;
+        }
+
+        // Skip abstract classes and interfaces
+        return isComponentClass(clazz)
+            && !clazz.isInterface() && !java.lang.reflect.Modifier.isAbstract(clazz.getModifiers());
+    }
+
+    /**
+     * Load a component class and add it to the result.
+     */
+    private void addComponent(String className, Set<Class<?>> components) {
+        Class<?> clazz = loadClass(className);
+        if (clazz != null) {
+            components.add(clazz);
+        }
+    }
+
+    /**
+     * Check if a loaded class carries @Component directly or through a meta-annotation.
+     */
+    private boolean isComponentClass(Class<?> clazz) {
+        for (Annotation annotation : clazz.getAnnotations()) {
+            if (isComponentAnnotation(annotation.annotationType().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Load a class without initializing it, or return null if it cannot be loaded.
+     */
+    private Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, false, getClassLoader());
         } catch (ClassNotFoundException e) {
             // Ignore classes that can't be loaded
         } catch (NoClassDefFoundError e) {
             // Ignore classes with missing dependencies
         }
+        return null;
+    }
+
+    private ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * Scans a package directory, forking a subtask for every subdirectory.
+     */
+    private final class DirectoryScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final File directory;
+        private final String packageName;
+        private final Map<String, ComponentConditions> components;
+
+        DirectoryScanTask(File directory, String packageName, Map<String, ComponentConditions> components) {
+            this.directory = directory;
+            this.packageName = packageName;
+            this.components = components;
+        }
+
+        @Override
+        protected void compute() {
+            File[] files = directory.listFiles();
+            if (files == null) {
+                return;
+            }
+
+            List<DirectoryScanTask> subtasks = new ArrayList<>();
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    subtasks.add(new DirectoryScanTask(file, packageName + "." + file.getName(), components));
+                } else if (file.getName().endsWith(".class")) {
+                    processDirectoryFile(file, packageName, components);
+                }
+            }
+            invokeAll(subtasks);
+        }
+    }
+
+    /**
+     * Scans a range of archive entries, splitting it in halves until it is small enough.
+     */
+    private final class ArchiveScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int BATCH_SIZE = 64;
+
+        private final JarArchive archive;
+        private final List<JarArchive.Entry> entries;
+        private final int from;
+        private final int to;
+        private final int prefixLength;
+        private final Map<String, ComponentConditions> components;
+
+        ArchiveScanTask(JarArchive archive, List<JarArchive.Entry> entries, int from, int to,
+                        int prefixLength, Map<String, ComponentConditions> components) {
+            this.archive = archive;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.prefixLength = prefixLength;
+            this.components = components;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    processArchiveEntry(archive, entries.get(i), prefixLength, components);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ArchiveScanTask(archive, entries, from, middle, prefixLength, components),
+                new ArchiveScanTask(archive, entries, middle, to, prefixLength, components));
+        }
     }
 }
@@ -0,0 +1,353 @@
+package com.example.minidiframework.scanner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only view of a jar file backed by a memory-mapped buffer.
+ * The central directory is parsed straight from the mapping and entry data is only
+ * touched when an entry is read. Stored entries are returned as slices without copying.
+ * Nested jars, such as BOOT-INF/lib/*.jar in a fat jar, are opened as views of the outer archive.
+ * Closing an archive only stops it from reading entries. The mapping is released when it is
+ * garbage collected, so buffers read earlier and nested archives stay valid.
+ */
+public class JarArchive implements Closeable {
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    private static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
+    private static final String VERSIONS_PREFIX = "META-INF/versions/";
+
+    private final String name;
+    private final ByteBuffer data;
+    private final Map<String, Entry> entries;
+    private final boolean multiRelease;
+    private volatile boolean closed;
+
+    private JarArchive(String name, ByteBuffer data) throws IOException {
+        this.name = name;
+        this.data = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        Map<String, Entry> rawEntries = readCentralDirectory();
+        this.multiRelease = isMultiRelease(rawEntries);
+        this.entries = Collections.unmodifiableMap(
+            multiRelease ? resolveVersionedEntries(rawEntries) : rawEntries);
+    }
+
+    /**
+     * Open a jar file by memory-mapping it.
+     */
+    public static JarArchive open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new JarArchive(path.toString(), mapped);
+        }
+    }
+
+    /**
+     * Open a jar stored inside this archive. Stored nested jars share the outer mapping;
+     * compressed ones are inflated once.
+     */
+    public JarArchive openNested(String entryName) throws IOException {
+        Entry entry = entries.get(entryName);
+        if (entry == null) {
+            throw new IOException("Nested archive not found: " + entryName + " in " + name);
+        }
+        return new JarArchive(name + "!/" + entryName, read(entry));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isMultiRelease() {
+        return multiRelease;
+    }
+
+    /**
+     * Get all entries. For multi-release jars, versioned entries for the running Java
+     * version replace the base entries they override.
+     */
+    public Collection<Entry> getEntries() {
+        return entries.values();
+    }
+
+    public Entry getEntry(String entryName) {
+        return entries.get(entryName);
+    }
+
+    /**
+     * Read the uncompressed content of an entry.
+     */
+    public ByteBuffer read(Entry entry) throws IOException {
+        if (closed) {
+            throw new IOException("Archive is closed: " + name);
+        }
+        int localHeader = entry.localHeaderOffset;
+        if (data.getInt(localHeader) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Invalid local header for " + entry.storedName + " in " + name);
+        }
+        int nameLength = data.getShort(localHeader + 26) & 0xFFFF;
+        int extraLength = data.getShort(localHeader + 28) & 0xFFFF;
+        int start = localHeader + LOCAL_HEADER_SIZE + nameLength + extraLength;
+        ByteBuffer compressed = data.slice(start, (int) entry.compressedSize);
+
+        if (entry.method == METHOD_STORED) {
+            return compressed.order(ByteOrder.BIG_ENDIAN);
+        }
+        if (entry.method != METHOD_DEFLATED) {
+            throw new IOException("Unsupported compression method " + entry.method + " for " + entry.storedName);
+        }
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] content = new byte[(int) entry.size];
+            int read = 0;
+            while (read < content.length && !inflater.finished()) {
+                int count = inflater.inflate(content, read, content.length - read);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += count;
+            }
+            if (read != content.length) {
+                throw new IOException("Truncated entry " + entry.storedName + " in " + name);
+            }
+            return ByteBuffer.wrap(content);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt entry " + entry.storedName + " in " + name, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Locate the end of central directory record and parse every central directory header.
+     */
+    private Map<String, Entry> readCentralDirectory() throws IOException {
+        int end = findEndRecord();
+        long entryCount = data.getShort(end + 10) & 0xFFFF;
+        long directorySize = data.getInt(end + 12) & 0xFFFFFFFFL;
+        long directoryOffset = data.getInt(end + 16) & 0xFFFFFFFFL;
+        int directoryEnd = end;
+
+        int locator = end - ZIP64_LOCATOR_SIZE;
+        if (locator >= 0 && data.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+            int zip64End = (int) data.getLong(locator + 8);
+            if (zip64End >= 0 && zip64End < locator && data.getInt(zip64End) == ZIP64_END_SIGNATURE) {
+                entryCount = data.getLong(zip64End + 32);
+                directorySize = data.getLong(zip64End + 40);
+                directoryOffset = data.getLong(zip64End + 48);
+                directoryEnd = zip64End;
+            }
+        }
+
+        // Offsets are relative to the start of the zip data, which may follow a prepended launcher script
+        long base = directoryEnd - directorySize - directoryOffset;
+        if (base < 0) {
+            throw new IOException("Invalid central directory in " + name);
+        }
+
+        Map<String, Entry> result = new LinkedHashMap<>();
+        int position = (int) (base + directoryOffset);
+        for (long i = 0; i < entryCount; i++) {
+            if (data.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new IOException("Invalid central directory header in " + name);
+            }
+            int method = data.getShort(position + 10) & 0xFFFF;
+            long crc = data.getInt(position + 16) & 0xFFFFFFFFL;
+            long compressedSize = data.getInt(position + 20) & 0xFFFFFFFFL;
+            long size = data.getInt(position + 24) & 0xFFFFFFFFL;
+            int nameLength = data.getShort(position + 28) & 0xFFFF;
+            int extraLength = data.getShort(position + 30) & 0xFFFF;
+            int commentLength = data.getShort(position + 32) & 0xFFFF;
+            long localHeaderOffset = data.getInt(position + 42) & 0xFFFFFFFFL;
+            String entryName = readName(position + CENTRAL_HEADER_SIZE, nameLength);
+
+            int extra = position + CENTRAL_HEADER_SIZE + nameLength;
+            int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                int id = data.getShort(extra) & 0xFFFF;
+                int length = data.getShort(extra + 2) & 0xFFFF;
+                if (id == ZIP64_EXTRA_ID) {
+                    int field = extra + 4;
+                    if (size == 0xFFFFFFFFL) {
+                        size = data.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == 0xFFFFFFFFL) {
+                        compressedSize = data.getLong(field);
+                        field += 8;
+                    }
+                    if (localHeaderOffset == 0xFFFFFFFFL) {
+                        localHeaderOffset = data.getLong(field);
+                    }
+                }
+                extra += 4 + length;
+            }
+
+            result.put(entryName, new Entry(entryName, entryName, method, crc, compressedSize, size,
+                (int) (base + localHeaderOffset)));
+            position = extraEnd + commentLength;
+        }
+        return result;
+    }
+
+    private int findEndRecord() throws IOException {
+        int limit = data.limit();
+        int lowest = Math.max(0, limit - END_SIZE - MAX_COMMENT_SIZE);
+        for (int position = limit - END_SIZE; position >= lowest; position--) {
+            if (data.getInt(position) == END_SIGNATURE) {
+                return position;
+            }
+        }
+        throw new IOException("Not a zip archive: " + name);
+    }
+
+    private String readName(int offset, int length) {
+        byte[] bytes = new byte[length];
+        data.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean isMultiRelease(Map<String, Entry> rawEntries) throws IOException {
+        Entry manifest = rawEntries.get(MANIFEST_NAME);
+        if (manifest == null) {
+            return false;
+        }
+        ByteBuffer content = read(manifest);
+        byte[] bytes = new byte[content.remaining()];
+        content.get(bytes);
+        for (String line : new String(bytes, StandardCharsets.UTF_8).split("\r?\n")) {
+            if (line.regionMatches(true, 0, "Multi-Release:", 0, 14)) {
+                return Boolean.parseBoolean(line.substring(14).trim());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Overlay META-INF/versions/N/ entries for every N up to the running feature version.
+     */
+    private static Map<String, Entry> resolveVersionedEntries(Map<String, Entry> rawEntries) {
+        int runtimeVersion = Runtime.version().feature();
+        Map<String, Entry> resolved = new LinkedHashMap<>();
+        Map<String, Integer> resolvedVersions = new LinkedHashMap<>();
+
+        for (Entry entry : rawEntries.values()) {
+            if (!entry.storedName.startsWith(VERSIONS_PREFIX)) {
+                resolved.putIfAbsent(entry.storedName, entry);
+                continue;
+            }
+
+            int versionEnd = entry.storedName.indexOf('/', VERSIONS_PREFIX.length());
+            if (versionEnd < 0) {
+                continue;
+            }
+            int version;
+            try {
+                version = Integer.parseInt(entry.storedName.substring(VERSIONS_PREFIX.length(), versionEnd));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            String baseName = entry.storedName.substring(versionEnd + 1);
+            if (version > runtimeVersion || baseName.isEmpty()) {
+                continue;
+            }
+
+            Integer current = resolvedVersions.get(baseName);
+            if (current == null || version > current) {
+                resolvedVersions.put(baseName, version);
+                resolved.put(baseName, entry.withName(baseName));
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Close the archive, reading an entry fails afterwards.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * A single entry of the archive.
+     */
+    public static final class Entry {
+        private final String name;
+        private final String storedName;
+        private final int method;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final int localHeaderOffset;
+
+        Entry(String name, String storedName, int method, long crc, long compressedSize,
+              long size, int localHeaderOffset) {
+            this.name = name;
+            this.storedName = storedName;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        /**
+         * Get the entry name. For versioned entries of a multi-release jar this is the base name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the name as stored in the archive.
+         */
+        public String getStoredName() {
+            return storedName;
+        }
+
+        public long getCrc() {
+            return crc;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public boolean isDirectory() {
+            return storedName.endsWith("/");
+        }
+
+        Entry withName(String newName) {
+            return new Entry(newName, storedName, method, crc, compressedSize, size, localHeaderOffset);
+        }
+    }
+}
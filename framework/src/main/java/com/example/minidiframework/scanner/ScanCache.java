@@ -0,0 +1,213 @@
+package com.example.minidiframework.scanner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * On-disk cache of component verdicts keyed by class file location. The conditions of a
+ * component are kept with its verdict, so its class file is not read on a hit.
+ * Every entry records a fingerprint of the class file (size plus modification time for
+ * files, size plus CRC for jar entries), so only changed class files are inspected again.
+ * A cache written by another format version, or one that fails its checksum, is discarded and rebuilt.
+ */
+public class ScanCache {
+    private static final int MAGIC = 0x4D445343; // "MDSC"
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private volatile boolean modified;
+
+    private ScanCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Load the cache from a file. A missing, stale or corrupt file yields an empty cache.
+     */
+    public static ScanCache load(Path file) {
+        ScanCache cache = new ScanCache(file);
+        try (InputStream input = Files.newInputStream(file)) {
+            cache.read(input);
+        } catch (NoSuchFileException e) {
+            cache.modified = true;
+        } catch (IOException | RuntimeException e) {
+            // Stale or corrupt cache, start over
+            cache.entries.clear();
+            cache.modified = true;
+        }
+        return cache;
+    }
+
+    private void read(InputStream input) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(input), new CRC32());
+        DataInputStream data = new DataInputStream(checked);
+        if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported scan cache format");
+        }
+
+        int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            String location = data.readUTF();
+            long size = data.readLong();
+            long stamp = data.readLong();
+            ComponentConditions conditions = data.readBoolean() ? ComponentConditions.parse(data.readUTF()) : null;
+            entries.put(location, new Entry(size, stamp, conditions));
+        }
+
+        long expectedChecksum = checked.getChecksum().getValue();
+        if (data.readLong() != expectedChecksum) {
+            throw new IOException("Scan cache checksum mismatch");
+        }
+    }
+
+    /**
+     * Look up the verdict for a class file. Returns null if the class file is unknown
+     * or its fingerprint changed.
+     */
+    public Boolean lookup(String location, long size, long stamp) {
+        seen.add(location);
+        Entry entry = entries.get(location);
+        if (entry != null && entry.size == size && entry.stamp == stamp) {
+            hits.incrementAndGet();
+            return entry.conditions != null;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Get the cached conditions of the component a class file describes, or null if it is no
+     * cached component.
+     */
+    public ComponentConditions getConditions(String location) {
+        Entry entry = entries.get(location);
+        return entry != null ? entry.conditions : null;
+    }
+
+    /**
+     * Record the verdict for a class file that was inspected: the conditions of the component
+     * it describes, or null if it is no component.
+     */
+    public void record(String location, long size, long stamp, ComponentConditions conditions) {
+        seen.add(location);
+        entries.put(location, new Entry(size, stamp, conditions));
+        modified = true;
+    }
+
+    /**
+     * Write the cache back if anything changed. Entries that were not seen since the
+     * last save belong to deleted class files and are dropped.
+     */
+    public void save() throws IOException {
+        if (entries.keySet().retainAll(seen)) {
+            modified = true;
+        }
+        if (!modified) {
+            return;
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                write(output);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        modified = false;
+        seen.clear();
+    }
+
+    private void write(OutputStream output) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(output), new CRC32());
+        DataOutputStream data = new DataOutputStream(checked);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+
+        Map<String, Entry> snapshot = Map.copyOf(entries);
+        data.writeInt(snapshot.size());
+        for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+            data.writeUTF(entry.getKey());
+            data.writeLong(entry.getValue().size);
+            data.writeLong(entry.getValue().stamp);
+            ComponentConditions conditions = entry.getValue().conditions;
+            data.writeBoolean(conditions != null);
+            if (conditions != null) {
+                data.writeUTF(conditions.format());
+            }
+        }
+
+        data.flush();
+        data.writeLong(checked.getChecksum().getValue());
+        data.flush();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of lookups answered from the cache.
+     */
+    public int getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of lookups for unknown or changed class files.
+     */
+    public int getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Cached verdict with the fingerprint it was computed for. The conditions are null for a class
+     * that is no component.
+     */
+    private static final class Entry {
+        final long size;
+        final long stamp;
+        final ComponentConditions conditions;
+
+        Entry(long size, long stamp, ComponentConditions conditions) {
+            this.size = size;
+            this.stamp = stamp;
+            this.conditions = conditions;
+        }
+    }
+}
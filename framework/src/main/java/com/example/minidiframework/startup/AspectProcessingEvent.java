@@ -0,0 +1,22 @@
+package com.example.minidiframework.startup;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for collecting the advice of all aspect beans.
+ */
+@Name("minidi.AspectProcessing")
+@Label("Aspect Processing")
+@Category({"MiniDI", "Startup"})
+@Description("Collection of the @Before and @After advice of all aspect beans")
+public final class AspectProcessingEvent extends Event {
+    @Label("Aspects")
+    public int aspectCount;
+
+    @Label("Advice")
+    public int adviceCount;
+}
@@ -0,0 +1,22 @@
+package com.example.minidiframework.startup;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for the field injection of a bean.
+ */
+@Name("minidi.BeanInjection")
+@Label("Bean Injection")
+@Category({"MiniDI", "Startup"})
+@Description("Injection of the @Autowired and @Value fields of a bean")
+public final class BeanInjectionEvent extends Event {
+    @Label("Bean Name")
+    public String beanName;
+
+    @Label("Bean Class")
+    public Class<?> beanClass;
+}
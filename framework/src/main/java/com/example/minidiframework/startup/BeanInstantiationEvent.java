@@ -0,0 +1,22 @@
+package com.example.minidiframework.startup;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for the construction of a singleton bean.
+ */
+@Name("minidi.BeanInstantiation")
+@Label("Bean Instantiation")
+@Category({"MiniDI", "Startup"})
+@Description("Construction of a singleton bean, excluding field injection")
+public final class BeanInstantiationEvent extends Event {
+    @Label("Bean Name")
+    public String beanName;
+
+    @Label("Bean Class")
+    public Class<?> beanClass;
+}
@@ -0,0 +1,53 @@
+package com.example.minidiframework.startup;
+
+/**
+ * Time spent creating a single bean, split into construction and field injection.
+ */
+public final class BeanTiming {
+    private final String beanName;
+    private final long instantiationNanos;
+    private final long injectionNanos;
+
+    public BeanTiming(String beanName, long instantiationNanos, long injectionNanos) {
+        this.beanName = beanName;
+        this.instantiationNanos = instantiationNanos;
+        this.injectionNanos = injectionNanos;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    /**
+     * Get the time spent in the constructor, including looking up its arguments.
+     */
+    public long getInstantiationNanos() {
+        return instantiationNanos;
+    }
+
+    /**
+     * Get the time spent injecting the @Autowired and @Value fields.
+     */
+    public long getInjectionNanos() {
+        return injectionNanos;
+    }
+
+    public long getTotalNanos() {
+        return instantiationNanos + injectionNanos;
+    }
+
+    BeanTiming withInstantiation(long nanos) {
+        return new BeanTiming(beanName, instantiationNanos + nanos, injectionNanos);
+    }
+
+    BeanTiming withInjection(long nanos) {
+        return new BeanTiming(beanName, instantiationNanos, injectionNanos + nanos);
+    }
+
+    @Override
+    public String toString() {
+        return beanName + " " + StartupReport.formatMillis(getTotalNanos())
+            + " (instantiation " + StartupReport.formatMillis(instantiationNanos)
+            + ", injection " + StartupReport.formatMillis(injectionNanos) + ")";
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.minidiframework.startup;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one component scan over the base packages.
+ */
+@Name("minidi.ComponentScan")
+@Label("Component Scan")
+@Category({"MiniDI", "Startup"})
+@Description("Scan of the base packages for component classes")
+public final class ComponentScanEvent extends Event {
+    @Label("Base Packages")
+    public String basePackages;
+
+    @Label("Scan Mode")
+    public String scanMode;
+
+    @Label("Components")
+    public int componentCount;
+}
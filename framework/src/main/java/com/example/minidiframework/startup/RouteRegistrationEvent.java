@@ -0,0 +1,23 @@
+package com.example.minidiframework.startup;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for registering the REST routes of a web server.
+ */
+@Name("minidi.RouteRegistration")
+@Label("Route Registration")
+@Category({"MiniDI", "Startup"})
+@Description("Registration of the REST routes of all controllers")
+public final class RouteRegistrationEvent extends Event {
+    @Label("Routes")
+    public int routeCount;
+
+    @Label("Generated")
+    @Description("Whether the routes were registered by a generated context")
+    public boolean generated;
+}
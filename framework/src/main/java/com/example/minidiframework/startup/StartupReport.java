@@ -0,0 +1,111 @@
+package com.example.minidiframework.startup;
+
+import com.example.minidiframework.context.BeanDependencyGraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Summary of a startup timeline: the phases, the slowest beans and the critical path.
+ * The critical path is the chain of constructor dependencies with the largest total
+ * instantiation time; it bounds how fast the beans can be created even in parallel.
+ */
+public final class StartupReport {
+    private final StartupTimeline timeline;
+    private final List<String> criticalPath;
+    private final long criticalPathNanos;
+
+    public StartupReport(StartupTimeline timeline, BeanDependencyGraph dependencyGraph) {
+        this.timeline = timeline;
+
+        // Longest path over the constructor edges, weighted by instantiation time
+        Map<String, Long> finish = new HashMap<>();
+        Map<String, String> predecessor = new HashMap<>();
+        String last = null;
+        for (String beanName : dependencyGraph.getInstantiationOrder()) {
+            long start = 0;
+            String slowestDependency = null;
+            for (String dependency : dependencyGraph.getConstructorDependencies(beanName)) {
+                if (!dependencyGraph.isLocal(dependency)) {
+                    continue; // A bean of the parent context existed before this context started
+                }
+                long dependencyFinish = finish.getOrDefault(dependency, 0L);
+                if (slowestDependency == null || dependencyFinish > start) {
+                    start = dependencyFinish;
+                    slowestDependency = dependency;
+                }
+            }
+            if (slowestDependency != null) {
+                predecessor.put(beanName, slowestDependency);
+            }
+            BeanTiming timing = timeline.getBeanTiming(beanName);
+            long end = start + (timing != null ? timing.getInstantiationNanos() : 0);
+            finish.put(beanName, end);
+            if (last == null || end > finish.get(last)) {
+                last = beanName;
+            }
+        }
+
+        List<String> path = new ArrayList<>();
+        for (String beanName = last; beanName != null; beanName = predecessor.get(beanName)) {
+            path.add(beanName);
+        }
+        Collections.reverse(path);
+        this.criticalPath = Collections.unmodifiableList(path);
+        this.criticalPathNanos = last != null ? finish.get(last) : 0;
+    }
+
+    /**
+     * Get the given number of slowest beans, slowest first.
+     */
+    public List<BeanTiming> getSlowestBeans(int limit) {
+        List<BeanTiming> timings = timeline.getBeanTimings();
+        return timings.subList(0, Math.min(limit, timings.size()));
+    }
+
+    /**
+     * Get the bean names on the critical path, starting with a bean without constructor dependencies.
+     */
+    public List<String> getCriticalPath() {
+        return criticalPath;
+    }
+
+    /**
+     * Get the total instantiation time of the beans on the critical path.
+     */
+    public long getCriticalPathNanos() {
+        return criticalPathNanos;
+    }
+
+    /**
+     * Format the report with the given number of slowest beans.
+     */
+    public String format(int slowestBeans) {
+        StringBuilder report = new StringBuilder();
+        report.append("Context started in ").append(formatMillis(timeline.getStartupNanos())).append('\n');
+        report.append("Phases:\n");
+        for (Map.Entry<String, Long> phase : timeline.getPhases().entrySet()) {
+            report.append(String.format(Locale.ROOT, "  %-20s %s%n", phase.getKey(), formatMillis(phase.getValue())));
+        }
+        report.append("Slowest beans:\n");
+        for (BeanTiming timing : getSlowestBeans(slowestBeans)) {
+            report.append("  ").append(timing).append('\n');
+        }
+        report.append("Critical path (").append(formatMillis(criticalPathNanos)).append("): ")
+            .append(String.join(" -> ", criticalPath)).append('\n');
+        return report.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format(10);
+    }
+
+    static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f ms", nanos / 1_000_000.0);
+    }
+}
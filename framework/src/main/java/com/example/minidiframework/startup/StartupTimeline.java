@@ -0,0 +1,89 @@
+package com.example.minidiframework.startup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records where the startup of a context goes: the duration of each phase and the
+ * construction and injection time of each bean. Recording is thread-safe, so beans
+ * created in parallel and lazy beans created later are recorded as well.
+ */
+public final class StartupTimeline {
+    public static final String SCAN = "scan";
+    public static final String SNAPSHOT = "snapshot";
+    public static final String GENERATED_CONTEXT = "generated context";
+    public static final String BINDING = "binding";
+    public static final String INSTANTIATION = "instantiation";
+    public static final String INJECTION = "injection";
+    public static final String POST_CONSTRUCT = "post construct";
+    public static final String WARM_UP = "warm-up";
+    public static final String ASPECTS = "aspects";
+    public static final String ROUTES = "routes";
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final Map<String, BeanTiming> beanTimings = new ConcurrentHashMap<>();
+    private volatile long readyNanos;
+
+    /**
+     * Add the duration of a startup phase. A phase that runs several times is summed up.
+     */
+    public void recordPhase(String phase, long nanos) {
+        synchronized (phases) {
+            phases.merge(phase, nanos, Long::sum);
+        }
+    }
+
+    public void recordInstantiation(String beanName, long nanos) {
+        beanTimings.merge(beanName, new BeanTiming(beanName, nanos, 0),
+            (existing, added) -> existing.withInstantiation(nanos));
+    }
+
+    public void recordInjection(String beanName, long nanos) {
+        beanTimings.merge(beanName, new BeanTiming(beanName, 0, nanos),
+            (existing, added) -> existing.withInjection(nanos));
+    }
+
+    /**
+     * Mark the context as initialized.
+     */
+    public void markReady() {
+        readyNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Get the time from the creation of the context until it was initialized, or 0 if it is not yet.
+     */
+    public long getStartupNanos() {
+        return readyNanos;
+    }
+
+    /**
+     * Get the duration of each phase, in the order the phases first ran.
+     */
+    public Map<String, Long> getPhases() {
+        synchronized (phases) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+        }
+    }
+
+    /**
+     * Get the timing of a bean, or null if it was not created yet.
+     */
+    public BeanTiming getBeanTiming(String beanName) {
+        return beanTimings.get(beanName);
+    }
+
+    /**
+     * Get the timings of all created beans, slowest first.
+     */
+    public List<BeanTiming> getBeanTimings() {
+        List<BeanTiming> timings = new ArrayList<>(beanTimings.values());
+        timings.sort((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+        return Collections.unmodifiableList(timings);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.minidiframework.web;
+
+/**
+ * Handles the requests of a single route.
+ */
+@FunctionalInterface
+public interface RouteHandler {
+    /**
+     * Handle a request. The result is sent as is if it is an HttpResponse, otherwise as the body of a 200 response.
+     */
+    Object handle(HttpRequest request) throws Exception;
+}
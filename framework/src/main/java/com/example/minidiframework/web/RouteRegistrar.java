@@ -0,0 +1,11 @@
+package com.example.minidiframework.web;
+
+import com.example.minidiframework.context.ApplicationContext;
+
+/**
+ * Registers the routes of a context with a WebServer without reflection.
+ * Implemented by the generated application context when its components include REST controllers.
+ */
+public interface RouteRegistrar {
+    void registerRoutes(ApplicationContext applicationContext, WebServer webServer);
+}
@@ -1,72 +1,177 @@
 package com.example.minidiframework.web;
 
-import com.example.minidiframework.annotation.RequestMapping;
-import com.example.minidiframework.annotation.RestController;
+import com.example.minidiframework.aop.AopProxyFactory;
 import com.example.minidiframework.context.ApplicationContext;
+import com.example.minidiframework.context.RequestContext;
+import com.example.minidiframework.startup.RouteRegistrationEvent;
+import com.example.minidiframework.startup.StartupTimeline;
+import com.example.minidiframework.web.annotation.RequestMapping;
+import com.example.minidiframework.web.annotation.RestController;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Simple web server that handles HTTP requests and routes them to controllers.
+ * When the context refreshes a controller, the route table is rebuilt and swapped in as a whole:
+ * each request looks up its handler in the table that was current when it arrived.
  */
 public class WebServer {
+    /**
+     * The routes declared by each controller class, found once and shared by every server in the JVM.
+     */
+    private static final ClassValue<List<Route>> CONTROLLER_ROUTES = new ClassValue<>() {
+        @Override
+        protected List<Route> computeValue(Class<?> type) {
+            String basePath = type.getAnnotation(RestController.class).value();
+            List<Route> routes = new ArrayList<>();
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(RequestMapping.class)) {
+                    RequestMapping mapping = method.getAnnotation(RequestMapping.class);
+                    method.setAccessible(true);
+                    routes.add(new Route(mapping.method(), basePath + mapping.value(), method));
+                }
+            }
+            return List.copyOf(routes);
+        }
+    };
+
     private final ApplicationContext applicationContext;
-    private final Map<String, Method> routeHandlers = new HashMap<>();
-    private final Map<String, Object> controllerInstances = new HashMap<>();
+    private volatile Map<String, RouteHandler> routeHandlers = new HashMap<>();
 
     public WebServer(ApplicationContext applicationContext) {
         this.applicationContext = applicationContext;
         initializeRoutes();
+        applicationContext.addRefreshListener(this::refreshRoutes);
     }
 
     /**
      * Initialize routes by scanning for @RestController and @RequestMapping annotations.
+     * A context booted from generated code registers its routes directly. The time it takes is
+     * recorded in the context's startup timeline and in a Flight Recorder event.
      */
     private void initializeRoutes() {
-        for (Object bean : applicationContext.getBeans().values()) {
-            if (bean.getClass().isAnnotationPresent(RestController.class)) {
-                processController(bean);
+        RouteRegistrationEvent event = new RouteRegistrationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean generated = applicationContext.getContextInitializer() instanceof RouteRegistrar;
+        if (generated) {
+            ((RouteRegistrar) applicationContext.getContextInitializer()).registerRoutes(applicationContext, this);
+        } else {
+            for (Object bean : applicationContext.getBeans().values()) {
+                if (isController(bean)) {
+                    processController(bean, routeHandlers);
+                }
             }
         }
+        applicationContext.getStartupTimeline().recordPhase(StartupTimeline.ROUTES, System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.routeCount = routeHandlers.size();
+            event.generated = generated;
+            event.commit();
+        }
     }
 
     /**
-     * Process a controller and register its routes.
+     * Route the refreshed controllers to their new instances. The routes are registered in a copy
+     * of the route table, which then replaces the current one.
      */
-    private void processController(Object controller) {
-        RestController restController = controller.getClass().getAnnotation(RestController.class);
-        String basePath = restController.value();
-
-        for (Method method : controller.getClass().getDeclaredMethods()) {
-            if (method.isAnnotationPresent(RequestMapping.class)) {
-                RequestMapping mapping = method.getAnnotation(RequestMapping.class);
-                String path = basePath + mapping.value();
-                String httpMethod = mapping.method().toUpperCase();
-                String routeKey = httpMethod + ":" + path;
-
-                routeHandlers.put(routeKey, method);
-                controllerInstances.put(routeKey, controller);
+    private synchronized void refreshRoutes(Set<String> refreshedBeans) {
+        Map<String, RouteHandler> routes = new HashMap<>(routeHandlers);
+        boolean changed = false;
+        for (String beanName : refreshedBeans) {
+            Object bean = applicationContext.getBean(beanName);
+            if (bean != null && isController(bean)) {
+                processController(bean, routes);
+                changed = true;
             }
         }
+        if (changed) {
+            routeHandlers = routes;
+        }
+    }
+
+    /**
+     * Check if a bean is a controller. The annotations of an advised bean are on the class behind its proxy.
+     */
+    private static boolean isController(Object bean) {
+        return getControllerClass(bean).isAnnotationPresent(RestController.class);
+    }
+
+    private static Class<?> getControllerClass(Object bean) {
+        return AopProxyFactory.getTargetClass(AopProxyFactory.getTarget(bean).getClass());
     }
 
     /**
-     * Handle an HTTP request.
+     * Process a controller and register its routes in the given route table. The routes are called on
+     * the bean, so the advice of an advised controller runs. Behind a JDK proxy, a route is called through
+     * the interface method it implements, or on the target if no interface declares it.
+     */
+    private static void processController(Object controller, Map<String, RouteHandler> routes) {
+        Object target = AopProxyFactory.getTarget(controller);
+        for (Route route : CONTROLLER_ROUTES.get(getControllerClass(controller))) {
+            Method method = route.method;
+            Object receiver = controller;
+            if (target != controller) {
+                Method interfaceMethod = findInterfaceMethod(controller.getClass(), method);
+                if (interfaceMethod != null) {
+                    method = interfaceMethod;
+                } else {
+                    receiver = target;
+                }
+            }
+            Method handlerMethod = method;
+            Object handlerReceiver = receiver;
+            routes.put(routeKey(route.httpMethod, route.path),
+                request -> handlerMethod.invoke(handlerReceiver, request));
+        }
+    }
+
+    private static Method findInterfaceMethod(Class<?> proxyClass, Method method) {
+        for (Class<?> type : proxyClass.getInterfaces()) {
+            try {
+                Method interfaceMethod = type.getMethod(method.getName(), method.getParameterTypes());
+                interfaceMethod.setAccessible(true);
+                return interfaceMethod;
+            } catch (NoSuchMethodException e) {
+                // Declared by another interface
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Register the handler for an HTTP method and path. Like a refresh, it replaces the route table
+     * with a copy, so requests being handled never see a table that is being changed.
+     */
+    public synchronized void addRoute(String httpMethod, String path, RouteHandler handler) {
+        Map<String, RouteHandler> routes = new HashMap<>(routeHandlers);
+        routes.put(routeKey(httpMethod, path), handler);
+        routeHandlers = routes;
+    }
+
+    private static String routeKey(String httpMethod, String path) {
+        return httpMethod.toUpperCase() + ":" + path;
+    }
+
+    /**
+     * Handle an HTTP request. Request and pooled scoped beans live until the request is handled.
      */
     public HttpResponse handleRequest(HttpRequest request) {
+        RequestContext requestContext = RequestContext.begin();
         try {
-            String routeKey = request.getMethod().toUpperCase() + ":" + request.getPath();
-            Method handler = routeHandlers.get(routeKey);
+            RouteHandler handler = routeHandlers.get(routeKey(request.getMethod(), request.getPath()));
 
             if (handler == null) {
                 return HttpResponse.notFound();
             }
 
-            Object controller = controllerInstances.get(routeKey);
-            handler.setAccessible(true);
-            Object result = handler.invoke(controller, request);
+            Object result = handler.handle(request);
 
             if (result instanceof HttpResponse) {
                 return (HttpResponse) result;
@@ -77,6 +182,8 @@ public class WebServer {
         } catch (Exception e) {
             e.printStackTrace();
             return HttpResponse.serverError("Internal Server Error: " + e.getMessage());
+        } finally {
+            requestContext.close();
         }
     }
 
@@ -90,4 +197,19 @@ public class WebServer {
             System.out.println("  " + route);
         }
     }
+
+    /**
+     * A request mapping of a controller class.
+     */
+    private static final class Route {
+        final String httpMethod;
+        final String path;
+        final Method method;
+
+        Route(String httpMethod, String path, Method method) {
+            this.httpMethod = httpMethod;
+            this.path = path;
+            this.method = method;
+        }
+    }
 }
@@ -0,0 +1,372 @@
+package com.example.minidiframework;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.processor.ComponentIndexProcessor;
+import com.example.minidiframework.scanner.ClassMetadata;
+import com.example.minidiframework.scanner.ClassMetadataReader;
+import com.example.minidiframework.scanner.ComponentConditions;
+import com.example.minidiframework.scanner.ComponentScanner;
+import com.example.minidiframework.scanner.JarArchive;
+import com.example.minidiframework.scanner.ScanCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ComponentScanner.
+ */
+public class ComponentScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testComponentIndexCoversOnlyItsClasspathRoot() throws Exception {
+        Path classes = compileJarSamples();
+        Path sources = tempDir.resolve("src/jarsample");
+        Files.writeString(sources.resolve("ExtraService.java"),
+            "package jarsample;\n" +
+            "@com.example.minidiframework.annotation.Service\n" +
+            "public class ExtraService {}\n");
+        compile(sources.resolve("ExtraService.java").toString());
+        Path jar = tempDir.resolve("extra.jar");
+        writeJar(jar, Map.of("jarsample/ExtraService.class",
+            Files.readAllBytes(classes.resolve("jarsample/ExtraService.class"))), false);
+        Files.delete(classes.resolve("jarsample/ExtraService.class"));
+
+        // The index of the classes directory lists the helper, the jar has no index and is scanned
+        Path index = classes.resolve(ComponentScanner.COMPONENT_INDEX_LOCATION);
+        Files.createDirectories(index.getParent());
+        Files.writeString(index, "# test index\njarsample.Helper\n");
+
+        assertEquals(Set.of("jarsample.Helper", "jarsample.ExtraService"), scanWithClassLoaderRoots(true, classes, jar));
+
+        // Without the index, the full scan finds every component in the package
+        assertEquals(Set.of("jarsample.JarService", "jarsample.ExtraService"),
+            scanWithClassLoaderRoots(false, classes, jar));
+    }
+
+    @Test
+    public void testComponentIndexProcessor() throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("src/sample"));
+        Files.writeString(sources.resolve("SampleService.java"),
+            "package sample;\n" +
+            "@com.example.minidiframework.annotation.Service\n" +
+            "public class SampleService {\n" +
+            "    @com.example.minidiframework.annotation.Component\n" +
+            "    public static class Nested {}\n" +
+            "}\n");
+        Files.writeString(sources.resolve("AbstractService.java"),
+            "package sample;\n" +
+            "@com.example.minidiframework.annotation.Service\n" +
+            "public abstract class AbstractService {}\n");
+        Path output = compile("-processor", ComponentIndexProcessor.class.getName(),
+            sources.resolve("SampleService.java").toString(),
+            sources.resolve("AbstractService.java").toString());
+
+        List<String> lines = Files.readAllLines(output.resolve(ComponentScanner.COMPONENT_INDEX_LOCATION));
+        assertTrue(lines.contains("sample.SampleService"));
+        assertTrue(lines.contains("sample.SampleService$Nested"));
+        assertFalse(lines.contains("sample.AbstractService"));
+
+        // An incremental compilation keeps the components of the earlier one
+        Files.writeString(sources.resolve("LateService.java"),
+            "package sample;\n" +
+            "@com.example.minidiframework.annotation.Service\n" +
+            "public class LateService {}\n");
+        compile("-processor", ComponentIndexProcessor.class.getName(), sources.resolve("LateService.java").toString());
+
+        lines = Files.readAllLines(output.resolve(ComponentScanner.COMPONENT_INDEX_LOCATION));
+        assertTrue(lines.contains("sample.SampleService"));
+        assertTrue(lines.contains("sample.SampleService$Nested"));
+        assertTrue(lines.contains("sample.LateService"));
+        assertFalse(lines.contains("sample.AbstractService"));
+    }
+
+    @Test
+    public void testBytecodeScanDetectsMetaAnnotations() {
+        ComponentScanner scanner = new ComponentScanner("com.example.minidiframework");
+        scanner.setUseComponentIndex(false);
+        scanner.setScanMode(ComponentScanner.ScanMode.BYTECODE);
+        Set<Class<?>> components = scanner.scanForComponents();
+
+        assertTrue(components.contains(IndexedComponent.class));
+        assertTrue(components.contains(MetaAnnotatedService.class));
+        assertTrue(components.contains(SampleAspect.class));
+        assertFalse(components.contains(AbstractComponent.class));
+
+        // Classes that are not components must not be loaded and initialized by the scan
+        assertFalse(nonComponentInitialized);
+    }
+
+    @Test
+    public void testParallelScanMatchesSequentialScan() {
+        ComponentScanner sequential = new ComponentScanner("com.example.minidiframework");
+        sequential.setUseComponentIndex(false);
+
+        ComponentScanner parallel = new ComponentScanner("com.example.minidiframework");
+        parallel.setUseComponentIndex(false);
+        parallel.setParallelism(4);
+
+        Set<Class<?>> components = parallel.scanForComponents();
+        assertEquals(sequential.scanForComponents(), components);
+        assertTrue(components.contains(MetaAnnotatedService.class));
+    }
+
+    @Test
+    public void testScanCache() throws Exception {
+        Path cacheFile = tempDir.resolve("scan.cache");
+
+        ComponentScanner first = new ComponentScanner("com.example.minidiframework");
+        first.setUseComponentIndex(false);
+        first.setCacheFile(cacheFile);
+        Set<Class<?>> components = first.scanForComponents();
+        assertTrue(Files.exists(cacheFile));
+        assertEquals(0, first.getScanCache().getHitCount());
+
+        // A restart answers every unchanged class file from the cache
+        ComponentScanner second = new ComponentScanner("com.example.minidiframework");
+        second.setUseComponentIndex(false);
+        second.setCacheFile(cacheFile);
+        assertEquals(components, second.scanForComponents());
+        assertEquals(0, second.getScanCache().getMissCount());
+        assertEquals(first.getScanCache().size(), second.getScanCache().getHitCount());
+    }
+
+    @Test
+    public void testScanCacheKeepsComponentConditions() throws Exception {
+        Path cacheFile = tempDir.resolve("conditions.cache");
+        ComponentConditions conditions = new ComponentConditions("feature.enabled", "true", false,
+            List.of("java.util.Optional"), List.of());
+        ScanCache cache = ScanCache.load(cacheFile);
+        cache.record("Conditional.class", 10, 20, conditions);
+        cache.record("Plain.class", 10, 20, null);
+        cache.save();
+
+        ScanCache reloaded = ScanCache.load(cacheFile);
+        assertEquals(Boolean.TRUE, reloaded.lookup("Conditional.class", 10, 20));
+        assertEquals(conditions.format(), reloaded.getConditions("Conditional.class").format());
+        assertEquals(Boolean.FALSE, reloaded.lookup("Plain.class", 10, 20));
+        assertNull(reloaded.getConditions("Plain.class"));
+    }
+
+    @Test
+    public void testCorruptScanCacheIsRebuilt() throws Exception {
+        Path cacheFile = tempDir.resolve("scan.cache");
+        Files.write(cacheFile, new byte[]{0x4D, 0x44, 0x53, 0x43, 0, 0, 0, 1, 0, 0, 0, 7, 42});
+
+        ComponentScanner scanner = new ComponentScanner("com.example.minidiframework");
+        scanner.setUseComponentIndex(false);
+        scanner.setCacheFile(cacheFile);
+        Set<Class<?>> components = scanner.scanForComponents();
+        assertTrue(components.contains(MetaAnnotatedService.class));
+        assertEquals(0, scanner.getScanCache().getHitCount());
+
+        ScanCache reloaded = ScanCache.load(cacheFile);
+        assertEquals(scanner.getScanCache().size(), reloaded.size());
+        assertTrue(reloaded.size() > 0);
+    }
+
+    @Test
+    public void testClassMetadataReader() throws Exception {
+        String resource = "/" + MetaAnnotatedService.class.getName().replace('.', '/') + ".class";
+        byte[] classFile;
+        try (var input = getClass().getResourceAsStream(resource)) {
+            classFile = input.readAllBytes();
+        }
+
+        ClassMetadata metadata = ClassMetadataReader.read(classFile);
+        assertEquals(MetaAnnotatedService.class.getName(), metadata.getClassName());
+        assertEquals(Object.class.getName(), metadata.getSuperClassName());
+        assertEquals(List.of(Runnable.class.getName()), metadata.getInterfaceNames());
+        assertEquals(Set.of(Service.class.getName()), metadata.getAnnotationTypes());
+        assertTrue(metadata.isConcrete());
+    }
+
+    @Test
+    public void testJarScan() throws Exception {
+        Path classes = compileJarSamples();
+        Path jar = tempDir.resolve("sample.jar");
+        writeJar(jar, Map.of(
+            "jarsample/JarService.class", Files.readAllBytes(classes.resolve("jarsample/JarService.class")),
+            "jarsample/Helper.class", Files.readAllBytes(classes.resolve("jarsample/Helper.class"))), false);
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, original)) {
+            thread.setContextClassLoader(loader);
+            ComponentScanner scanner = new ComponentScanner("jarsample");
+            scanner.setUseComponentIndex(false);
+            Set<Class<?>> components = scanner.scanForComponents();
+
+            assertEquals(1, components.size());
+            assertEquals("jarsample.JarService", components.iterator().next().getName());
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    public void testNestedMultiReleaseArchive() throws Exception {
+        Path classes = compileJarSamples();
+        byte[] service = Files.readAllBytes(classes.resolve("jarsample/JarService.class"));
+        byte[] helper = Files.readAllBytes(classes.resolve("jarsample/Helper.class"));
+
+        Path inner = tempDir.resolve("inner.jar");
+        writeJar(inner, Map.of(
+            "jarsample/Helper.class", helper,
+            "META-INF/versions/9/jarsample/Helper.class", service), true);
+        Path outer = tempDir.resolve("outer.jar");
+        writeJar(outer, Map.of("BOOT-INF/lib/inner.jar", Files.readAllBytes(inner)), false);
+
+        JarArchive outerArchive = JarArchive.open(outer);
+        JarArchive archive = outerArchive.openNested("BOOT-INF/lib/inner.jar");
+        assertTrue(archive.isMultiRelease());
+
+        // The versioned entry overrides the base entry on Java 9 and later
+        JarArchive.Entry entry = archive.getEntry("jarsample/Helper.class");
+        assertEquals("META-INF/versions/9/jarsample/Helper.class", entry.getStoredName());
+        assertEquals("jarsample.JarService", ClassMetadataReader.read(archive.read(entry)).getClassName());
+
+        archive.close();
+        outerArchive.close();
+        assertThrows(IOException.class, () -> archive.read(entry));
+    }
+
+    private Path compileJarSamples() throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("src/jarsample"));
+        Files.writeString(sources.resolve("JarService.java"),
+            "package jarsample;\n" +
+            "@com.example.minidiframework.annotation.Service\n" +
+            "public class JarService {}\n");
+        Files.writeString(sources.resolve("Helper.java"),
+            "package jarsample;\n" +
+            "public class Helper {}\n");
+        return compile(sources.resolve("JarService.java").toString(), sources.resolve("Helper.java").toString());
+    }
+
+    private Path compile(String... arguments) throws Exception {
+        Path output = Files.createDirectories(tempDir.resolve("classes"));
+        List<String> options = new ArrayList<>(List.of(
+            "-classpath", System.getProperty("java.class.path") + File.pathSeparator + output,
+            "-d", output.toString()));
+        options.addAll(List.of(arguments));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, options.toArray(new String[0])));
+        return output;
+    }
+
+    /**
+     * Write a jar with directory entries. Stored entries are written uncompressed.
+     */
+    private void writeJar(Path jar, Map<String, byte[]> entries, boolean multiRelease) throws Exception {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (multiRelease) {
+            manifest.getMainAttributes().put(Attributes.Name.MULTI_RELEASE, "true");
+        }
+
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            Set<String> directories = new TreeSet<>();
+            for (String name : entries.keySet()) {
+                for (int i = name.indexOf('/'); i > 0; i = name.indexOf('/', i + 1)) {
+                    directories.add(name.substring(0, i + 1));
+                }
+            }
+            for (String directory : directories) {
+                output.putNextEntry(new JarEntry(directory));
+                output.closeEntry();
+            }
+
+            for (Map.Entry<String, byte[]> entry : new TreeMap<>(entries).entrySet()) {
+                JarEntry jarEntry = new JarEntry(entry.getKey());
+                if (entry.getKey().endsWith(".jar")) {
+                    CRC32 crc = new CRC32();
+                    crc.update(entry.getValue());
+                    jarEntry.setMethod(JarEntry.STORED);
+                    jarEntry.setSize(entry.getValue().length);
+                    jarEntry.setCrc(crc.getValue());
+                }
+                output.putNextEntry(jarEntry);
+                output.write(entry.getValue());
+                output.closeEntry();
+            }
+        }
+    }
+
+    private Set<String> scanWithClassLoaderRoots(boolean useIndex, Path... roots) throws Exception {
+        URL[] urls = new URL[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            urls[i] = roots[i].toUri().toURL();
+        }
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(urls, original)) {
+            thread.setContextClassLoader(loader);
+            ComponentScanner scanner = new ComponentScanner("jarsample");
+            scanner.setUseComponentIndex(useIndex);
+            Set<String> classNames = new TreeSet<>();
+            for (Class<?> component : scanner.scanForComponents()) {
+                classNames.add(component.getName());
+            }
+            return classNames;
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    // Test classes for the scanner
+    @Component
+    public static class IndexedComponent {
+    }
+
+    @Component
+    public static class UnindexedComponent {
+    }
+
+    @Service
+    public static class MetaAnnotatedService implements Runnable {
+        @Override
+        public void run() {
+        }
+    }
+
+    @Aspect
+    public static class SampleAspect {
+    }
+
+    @Component
+    public abstract static class AbstractComponent {
+    }
+
+    static boolean nonComponentInitialized;
+
+    public static class NonComponent {
+        static {
+            nonComponentInitialized = true;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.minidiframework.advice;
+
+import com.example.minidiframework.annotation.After;
+import com.example.minidiframework.annotation.Aspect;
+import com.example.minidiframework.annotation.Autowired;
+import com.example.minidiframework.annotation.Before;
+import com.example.minidiframework.annotation.Component;
+import com.example.minidiframework.annotation.ConditionalOnProperty;
+import com.example.minidiframework.annotation.PostConstruct;
+import com.example.minidiframework.annotation.Service;
+import com.example.minidiframework.annotation.Value;
+import com.example.minidiframework.aop.AopProxy;
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.config.PropertySource;
+import com.example.minidiframework.context.ApplicationContext;
+import com.example.minidiframework.web.HttpRequest;
+import com.example.minidiframework.web.WebServer;
+import com.example.minidiframework.web.annotation.RequestMapping;
+import com.example.minidiframework.web.annotation.RestController;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for applying aspects through subclass and JDK proxies.
+ */
+public class AopProxyTest {
+    private static final String BASE_PACKAGE = "com.example.minidiframework.advice";
+
+    private static ApplicationContext createContext(String... args) {
+        return new ApplicationContext(new ConfigurationProperties(List.of(PropertySource.fromCommandLine(args))),
+            BASE_PACKAGE);
+    }
+
+    @Test
+    public void testSubclassProxyRunsAdviceInOrder() {
+        ApplicationContext context = createContext("--advice.enabled=true");
+        OrderService orderService = context.getBean(OrderService.class);
+        List<String> calls = context.getBean(AuditLog.class).entries;
+
+        assertTrue(orderService instanceof AopProxy);
+        assertSame(OrderService.class, orderService.getClass().getSuperclass());
+        assertNotNull(orderService.inventory);
+        assertTrue(orderService.initialized);
+        calls.clear();
+
+        assertEquals("placed book", orderService.placeOrder("book"));
+        assertEquals(List.of("audit placeOrder", "before placeOrder [book]", "after placeOrder"), calls);
+    }
+
+    @Test
+    public void testUnadvisedMethodsAreNotOverridden() throws Exception {
+        ApplicationContext context = createContext("--advice.enabled=true");
+        OrderService orderService = context.getBean(OrderService.class);
+        List<String> calls = context.getBean(AuditLog.class).entries;
+        calls.clear();
+
+        assertEquals("orders", orderService.describe());
+        assertTrue(calls.isEmpty());
+        assertNotNull(orderService.getClass().getDeclaredMethod("placeOrder", String.class));
+        assertThrows(NoSuchMethodException.class, () -> orderService.getClass().getDeclaredMethod("describe"));
+    }
+
+    @Test
+    public void testAfterAdviceRunsWhenMethodThrows() {
+        ApplicationContext context = createContext("--advice.enabled=true");
+        OrderService orderService = context.getBean(OrderService.class);
+        List<String> calls = context.getBean(AuditLog.class).entries;
+        calls.clear();
+
+        assertThrows(IllegalStateException.class, orderService::placeOrderWithoutStock);
+        assertEquals(List.of("audit placeOrderWithoutStock", "before placeOrderWithoutStock []",
+            "after placeOrderWithoutStock"), calls);
+    }
+
+    @Test
+    public void testFinalClassIsProxiedThroughItsInterface() {
+        ApplicationContext context = createContext("--advice.enabled=true", "--advice.rate=7");
+        Checkout checkout = context.getBean(Checkout.class);
+        List<String> calls = context.getBean(AuditLog.class).entries;
+        calls.clear();
+
+        assertTrue(Proxy.isProxyClass(checkout.calculator.getClass()));
+        assertSame(context.getBean(Calculator.class), checkout.calculator);
+        assertSame(context.getBean(OrderService.class), checkout.orderService);
+        assertEquals(21, checkout.calculator.price(3));
+        assertEquals(List.of("before price [3]"), calls);
+    }
+
+    @Test
+    public void testParallelContextAppliesAdvice() {
+        ApplicationContext context = createContext("--advice.enabled=true", "--minidi.context.parallelism=4");
+        List<String> calls = context.getBean(AuditLog.class).entries;
+        calls.clear();
+
+        context.getBean(Checkout.class).checkout("pen");
+        assertEquals(List.of("audit placeOrder", "before placeOrder [pen]", "after placeOrder", "before price [1]"),
+            calls);
+    }
+
+    @Test
+    public void testAdvisedControllersKeepTheirRoutes() {
+        ApplicationContext context = createContext("--advice.enabled=true");
+        WebServer webServer = new WebServer(context);
+        List<String> calls = context.getBean(AuditLog.class).entries;
+        calls.clear();
+
+        assertTrue(context.getBean(GreetingController.class) instanceof AopProxy);
+        assertEquals("hello", webServer.handleRequest(new HttpRequest("GET", "/greeting/hello")).getBody());
+        assertTrue(Proxy.isProxyClass(context.getBean(Pinger.class).getClass()));
+        assertEquals("pong", webServer.handleRequest(new HttpRequest("GET", "/ping")).getBody());
+        assertEquals(List.of("before hello", "before ping"), calls);
+    }
+
+    @Test
+    public void testBeansAreNotProxiedWithoutAspects() {
+        ApplicationContext context = createContext("--advice.enabled=false");
+
+        assertSame(OrderService.class, context.getBean(OrderService.class).getClass());
+        assertSame(PriceCalculator.class, context.getBean(Calculator.class).getClass());
+    }
+
+    @Component
+    public static class AuditLog {
+        final List<String> entries = new CopyOnWriteArrayList<>();
+    }
+
+    @Component
+    public static class InventoryRepository {
+        boolean inStock(String item) {
+            return !item.isEmpty();
+        }
+    }
+
+    @Service
+    public static class OrderService {
+        @Autowired
+        InventoryRepository inventory;
+        boolean initialized;
+
+        @PostConstruct
+        void initialize() {
+            initialized = true;
+        }
+
+        public String placeOrder(String item) {
+            return inventory.inStock(item) ? "placed " + item : "out of stock";
+        }
+
+        public void placeOrderWithoutStock() {
+            throw new IllegalStateException("No stock");
+        }
+
+        public String describe() {
+            return "orders";
+        }
+    }
+
+    public interface Calculator {
+        int price(int quantity);
+    }
+
+    @Component
+    public static final class PriceCalculator implements Calculator {
+        @Value("${advice.rate:10}")
+        private int rate;
+
+        @Override
+        public int price(int quantity) {
+            return quantity * rate;
+        }
+    }
+
+    @Component
+    public static class Checkout {
+        final OrderService orderService;
+        final Calculator calculator;
+
+        public Checkout(OrderService orderService, Calculator calculator) {
+            this.orderService = orderService;
+            this.calculator = calculator;
+        }
+
+        public int checkout(String item) {
+            orderService.placeOrder(item);
+            return calculator.price(1);
+        }
+    }
+
+    @RestController("/greeting")
+    public static class GreetingController {
+        @RequestMapping("/hello")
+        public String hello(HttpRequest request) {
+            return "hello";
+        }
+    }
+
+    public interface Pinger {
+        String ping(HttpRequest request);
+    }
+
+    @RestController
+    public static final class PingController implements Pinger {
+        @Override
+        @RequestMapping("/ping")
+        public String ping(HttpRequest request) {
+            return "pong";
+        }
+    }
+
+    @ConditionalOnProperty("advice.enabled")
+    @Aspect(order = 1)
+    public static class TracingAspect {
+        private final AuditLog auditLog;
+
+        public TracingAspect(AuditLog auditLog) {
+            this.auditLog = auditLog;
+        }
+
+        @Before("com.example.minidiframework.advice.*OrderService.place*")
+        public void beforeOrder(Object target, Method method, Object[] args) {
+            auditLog.entries.add("before " + method.getName() + " " + List.of(args));
+        }
+
+        @After("com.example.minidiframework.advice.*OrderService.place*")
+        public void afterOrder(Object target, Method method, Object[] args) {
+            auditLog.entries.add("after " + method.getName());
+        }
+
+        @Before("com.example.minidiframework.advice.*Controller.*")
+        public void beforeRoute(Object target, Method method, Object[] args) {
+            auditLog.entries.add("before " + method.getName());
+        }
+
+        @Before("com.example.minidiframework.advice.*Calculator.price")
+        public void beforePrice(Object target, Method method, Object[] args) {
+            auditLog.entries.add("before " + method.getName() + " " + List.of(args));
+        }
+    }
+
+    @ConditionalOnProperty("advice.enabled")
+    @Aspect(order = 0)
+    public static class AuditAspect {
+        @Autowired
+        private AuditLog auditLog;
+
+        @Before("com.example.minidiframework.advice.*OrderService.place*")
+        public void audit(Object target, Method method, Object[] args) {
+            auditLog.entries.add("audit " + method.getName());
+        }
+    }
+}
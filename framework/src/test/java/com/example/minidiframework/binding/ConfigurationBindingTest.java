@@ -0,0 +1,119 @@
+package com.example.minidiframework.binding;
+
+import com.example.minidiframework.annotation.ConfigurationProperties;
+import com.example.minidiframework.config.ConfigurationBinder;
+import com.example.minidiframework.context.ApplicationContext;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for binding @ConfigurationProperties records and classes.
+ */
+public class ConfigurationBindingTest {
+    private static final String BASE_PACKAGE = "com.example.minidiframework.binding";
+
+    @Test
+    public void testRecordBinding() {
+        ApplicationContext context = new ApplicationContext(
+            new com.example.minidiframework.config.ConfigurationProperties("binding-context.properties"), BASE_PACKAGE);
+        ServerProperties server = context.getBean(ServerProperties.class);
+
+        assertEquals("example.org", server.host());
+        assertEquals(8443, server.port());
+        assertEquals(Duration.ofSeconds(2), server.timeout());
+        assertEquals(50, server.maxConnections());
+        assertEquals(List.of("www.example.org", "api.example.org"), server.aliases());
+        assertEquals(List.of(new Endpoint("/users", Method.GET), new Endpoint("/orders", Method.POST)),
+            server.endpoints());
+        assertEquals(Map.of("users", 100, "orders", 20), server.limits());
+        assertEquals(new Tls(true, List.of("TLSv1.3")), server.tls());
+        assertSame(server, context.getBean("serverProperties"));
+
+        assertThrows(UnsupportedOperationException.class, () -> server.endpoints().add(new Endpoint("/", Method.GET)));
+        assertThrows(UnsupportedOperationException.class, () -> server.limits().put("other", 1));
+    }
+
+    @Test
+    public void testClassBindingKeepsDefaults() {
+        ApplicationContext context = new ApplicationContext(
+            new com.example.minidiframework.config.ConfigurationProperties("binding-context.properties"), BASE_PACKAGE);
+        MailProperties mail = context.getBean(MailProperties.class);
+
+        assertEquals("example.org", mail.getHost());
+        assertEquals(25, mail.getPort());
+        assertEquals(List.of("ops@example.org", "dev@example.org"), mail.getRecipients());
+    }
+
+    @Test
+    public void testErrorsAreReportedTogether() {
+        com.example.minidiframework.config.ConfigurationProperties invalid =
+            new com.example.minidiframework.config.ConfigurationProperties("binding-invalid.properties");
+
+        List<String> errors = new ArrayList<>();
+        assertNull(new ConfigurationBinder(invalid).bind("binding.server", ServerProperties.class, errors));
+        assertEquals(4, errors.size(), errors.toString());
+        assertTrue(errors.get(0).startsWith("binding.server.port: "));
+        assertTrue(errors.get(1).startsWith("binding.server.timeout: "));
+        assertEquals("binding.server.maxConnections: required property is not set", errors.get(2));
+        assertTrue(errors.get(3).startsWith("binding.server.endpoints[0].method: "));
+
+        RuntimeException failure = assertThrows(RuntimeException.class,
+            () -> new ApplicationContext(invalid, BASE_PACKAGE));
+        assertTrue(failure.getMessage().startsWith("Invalid configuration properties:"), failure.getMessage());
+        assertTrue(failure.getMessage().contains("binding.server.port"));
+        assertTrue(failure.getMessage().contains("binding.server.endpoints[0].method"));
+    }
+
+    @Test
+    public void testRecordValidation() {
+        com.example.minidiframework.config.ConfigurationProperties properties =
+            new com.example.minidiframework.config.ConfigurationProperties("binding-context.properties");
+
+        RuntimeException failure = assertThrows(RuntimeException.class,
+            () -> new ConfigurationBinder(properties).bind("binding.server.endpoints[0]", Limit.class));
+        assertTrue(failure.getMessage().contains("required property is not set"), failure.getMessage());
+    }
+
+    public enum Method {
+        GET, POST
+    }
+
+    public record Endpoint(String path, Method method) {
+    }
+
+    public record Tls(boolean enabled, List<String> protocols) {
+    }
+
+    public record Limit(int value) {
+    }
+
+    @ConfigurationProperties("binding.server")
+    public record ServerProperties(String host, int port, Duration timeout, int maxConnections, List<String> aliases,
+                                   List<Endpoint> endpoints, Map<String, Integer> limits, Tls tls) {
+    }
+
+    @ConfigurationProperties("binding.mail")
+    public static class MailProperties {
+        private String host;
+        private int port = 25;
+        private final List<String> recipients = List.of();
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public List<String> getRecipients() {
+            return recipients;
+        }
+    }
+}
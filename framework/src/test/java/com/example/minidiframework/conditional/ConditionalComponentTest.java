@@ -0,0 +1,134 @@
+package com.example.minidiframework.conditional;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.context.ApplicationContext;
+import com.example.minidiframework.scanner.ClassMetadata;
+import com.example.minidiframework.scanner.ClassMetadataReader;
+import com.example.minidiframework.scanner.ComponentConditions;
+import com.example.minidiframework.scanner.ComponentScanner;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for @ConditionalOnProperty, @ConditionalOnClass and @ConditionalOnMissingBean.
+ */
+public class ConditionalComponentTest {
+    private static final String BASE_PACKAGE = "com.example.minidiframework.conditional";
+
+    @Test
+    public void testConditionsDecideRegistration() {
+        ApplicationContext context = new ApplicationContext(
+            new ConfigurationProperties("conditional-context.properties"), BASE_PACKAGE);
+
+        assertTrue(context.containsBean("featureService"));
+        assertTrue(context.containsBean("defaultOnService"));
+        assertFalse(context.containsBean("slowMode"));
+        assertTrue(context.containsBean("stringAdapter"));
+        assertFalse(context.containsBean("missingLibraryAdapter"));
+        assertSame(context.getBean(CustomGreeter.class), context.getBean(Greeter.class));
+        assertFalse(context.containsBean("defaultGreeter"));
+        assertTrue(context.containsBean("defaultClock"));
+    }
+
+    @Test
+    public void testContextsEvaluateConditionsAgainstTheirProperties() {
+        ApplicationContext disabled = new ApplicationContext(
+            new ConfigurationProperties("conditional-disabled.properties"), BASE_PACKAGE);
+
+        assertFalse(disabled.containsBean("featureService"));
+        assertTrue(disabled.containsBean("slowMode"));
+        assertTrue(disabled.containsBean("defaultOnService"));
+    }
+
+    @Test
+    public void testDisabledComponentsAreNotLoaded() {
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+        ClassLoader parent = Thread.currentThread().getContextClassLoader();
+        ComponentScanner scanner = new ComponentScanner(BASE_PACKAGE);
+        scanner.setClassLoader(new ClassLoader(parent) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                loaded.add(name);
+                return super.loadClass(name, resolve);
+            }
+        });
+        scanner.setProperties(new ConfigurationProperties("conditional-context.properties"));
+
+        Set<Class<?>> components = scanner.scanForComponents();
+
+        assertTrue(components.contains(FeatureService.class));
+        assertFalse(components.contains(SlowMode.class));
+        assertFalse(loaded.contains(SlowMode.class.getName()));
+        assertFalse(loaded.contains(MissingLibraryAdapter.class.getName()));
+        assertFalse(loaded.contains(DefaultGreeter.class.getName()));
+    }
+
+    @Test
+    public void testConditionsFromClassMetadata() throws IOException {
+        ComponentConditions conditions = ComponentConditions.fromMetadata(readMetadata(SlowMode.class));
+        assertEquals("onProperty:false:conditional.mode=slow", conditions.format());
+        assertEquals(conditions.format(), ComponentConditions.parse(conditions.format()).format());
+
+        ComponentConditions missingBean = ComponentConditions.fromMetadata(readMetadata(DefaultClock.class));
+        assertEquals(List.of(DefaultClock.class.getName()), missingBean.getMissingBeanTypes());
+        assertEquals(List.of("com.example.missing.Library", "java.lang.Runnable"),
+            ComponentConditions.fromMetadata(readMetadata(MissingLibraryAdapter.class)).getRequiredClasses());
+        assertTrue(ComponentConditions.fromMetadata(readMetadata(CustomGreeter.class)).isEmpty());
+    }
+
+    private static ClassMetadata readMetadata(Class<?> type) throws IOException {
+        try (InputStream input = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class")) {
+            return ClassMetadataReader.read(input.readAllBytes());
+        }
+    }
+
+    public interface Greeter {
+    }
+
+    @Component
+    @ConditionalOnProperty("conditional.feature")
+    public static class FeatureService {
+    }
+
+    @Component
+    @ConditionalOnProperty(value = "conditional.other", matchIfMissing = true)
+    public static class DefaultOnService {
+    }
+
+    @Component
+    @ConditionalOnProperty(value = "conditional.mode", havingValue = "slow")
+    public static class SlowMode {
+    }
+
+    @Component
+    @ConditionalOnClass("java.lang.String")
+    public static class StringAdapter {
+    }
+
+    @Component
+    @ConditionalOnClass({"com.example.missing.Library", "java.lang.Runnable"})
+    public static class MissingLibraryAdapter {
+    }
+
+    @Component
+    @ConditionalOnMissingBean(Greeter.class)
+    public static class DefaultGreeter implements Greeter {
+    }
+
+    @Component
+    public static class CustomGreeter implements Greeter {
+    }
+
+    @Component
+    @ConditionalOnMissingBean
+    public static class DefaultClock {
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.minidiframework.context;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.config.ConfigurationProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BeanDependencyGraph and dependency-ordered bean creation.
+ */
+public class BeanDependencyGraphTest {
+
+    @Test
+    public void testInstantiationOrderFollowsConstructorDependencies() throws Exception {
+        BeanDependencyGraph graph = new BeanDependencyGraph(List.of(
+            definition("top", Top.class, Middle.class, Bottom.class),
+            definition("middle", Middle.class, Bottom.class),
+            definition("bottom", Bottom.class)));
+
+        assertEquals(List.of("bottom", "middle", "top"), graph.getInstantiationOrder());
+        assertEquals(List.of("middle", "bottom"), graph.getConstructorDependencies("top"));
+    }
+
+    @Test
+    public void testConstructorCycleIsReported() throws Exception {
+        RuntimeException error = assertThrows(RuntimeException.class, () -> new BeanDependencyGraph(List.of(
+            definition("first", First.class, Second.class),
+            definition("second", Second.class, Third.class),
+            definition("third", Third.class, First.class))));
+
+        assertEquals("Circular constructor dependency between beans: first -> second -> third -> first",
+            error.getMessage());
+    }
+
+    @Test
+    public void testUnsatisfiedConstructorDependencyIsReported() throws Exception {
+        RuntimeException error = assertThrows(RuntimeException.class, () -> new BeanDependencyGraph(List.of(
+            definition("middle", Middle.class, Bottom.class))));
+
+        assertTrue(error.getMessage().contains("no bean found for constructor parameter of type "
+            + Bottom.class.getName()));
+    }
+
+    @Test
+    public void testParallelInstantiation() {
+        ApplicationContext context = new ApplicationContext(
+            new ConfigurationProperties("parallel-context.properties"), "com.example.minidiframework.context");
+
+        // Both slow beans must have been constructed at the same time
+        assertTrue(SlowCache.overlapped);
+        assertTrue(SlowPool.overlapped);
+
+        WarmedUpService service = context.getBean(WarmedUpService.class);
+        assertSame(context.getBean(SlowCache.class), service.cache);
+        assertSame(context.getBean(SlowPool.class), service.pool);
+        assertSame(context.getBean(SlowPool.class), service.fieldPool);
+    }
+
+    private static BeanDefinition definition(String name, Class<?> beanClass, Class<?>... parameterTypes)
+            throws NoSuchMethodException {
+        return new BeanDefinition(name, beanClass, beanClass.getDeclaredConstructor(parameterTypes),
+            Collections.emptyList());
+    }
+
+    // Test classes for the graph (not components, so the context below does not pick them up)
+    public static class Bottom {
+    }
+
+    public static class Middle {
+        public Middle(Bottom bottom) {
+        }
+    }
+
+    public static class Top {
+        public Top(Middle middle, Bottom bottom) {
+        }
+    }
+
+    public static class First {
+        public First(Second second) {
+        }
+    }
+
+    public static class Second {
+        public Second(Third third) {
+        }
+    }
+
+    public static class Third {
+        public Third(First first) {
+        }
+    }
+
+    // Test components for parallel instantiation
+    static final CountDownLatch slowBeansStarted = new CountDownLatch(2);
+
+    static boolean awaitOtherSlowBean() {
+        slowBeansStarted.countDown();
+        try {
+            return slowBeansStarted.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Component
+    public static class SlowCache {
+        static boolean overlapped;
+
+        public SlowCache() {
+            overlapped = awaitOtherSlowBean();
+        }
+    }
+
+    @Component
+    public static class SlowPool {
+        static boolean overlapped;
+
+        public SlowPool() {
+            overlapped = awaitOtherSlowBean();
+        }
+    }
+
+    @Service
+    public static class WarmedUpService {
+        final SlowCache cache;
+        final SlowPool pool;
+
+        @Autowired
+        SlowPool fieldPool;
+
+        @Autowired
+        public WarmedUpService(SlowCache cache, SlowPool pool) {
+            this.cache = cache;
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.minidiframework.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BeanFactoryCompiler.
+ */
+public class BeanFactoryCompilerTest {
+
+    @Test
+    public void testNoArgConstructor() throws Exception {
+        BeanFactory factory = BeanFactoryCompiler.compile(Engine.class.getConstructor());
+
+        Object first = factory.create();
+        Object second = factory.create();
+        assertTrue(first instanceof Engine);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testConstructorArgumentsArePassedInOrder() throws Exception {
+        Engine engine = new Engine();
+        Wheels wheels = new Wheels();
+
+        Car car = (Car) BeanFactoryCompiler.compile(Car.class.getConstructor(Engine.class, Wheels.class))
+            .create(engine, wheels);
+        assertSame(engine, car.engine);
+        assertSame(wheels, car.wheels);
+
+        Garage garage = (Garage) BeanFactoryCompiler.compile(
+                Garage.class.getConstructor(Car.class, Engine.class, Wheels.class, String.class, int.class))
+            .create(car, engine, wheels, "north", 3);
+        assertSame(car, garage.car);
+        assertEquals("north", garage.name);
+        assertEquals(3, garage.capacity);
+    }
+
+    @Test
+    public void testPrivateConstructor() throws Exception {
+        BeanFactory factory = BeanFactoryCompiler.compile(Hidden.class.getDeclaredConstructor(Engine.class));
+
+        Engine engine = new Engine();
+        assertSame(engine, ((Hidden) factory.create(engine)).engine);
+    }
+
+    @Test
+    public void testConstructorExceptionsPropagate() throws Exception {
+        RuntimeException unchecked = assertThrows(IllegalStateException.class,
+            () -> BeanFactoryCompiler.compile(Broken.class.getConstructor()).create());
+        assertEquals("broken", unchecked.getMessage());
+
+        RuntimeException checked = assertThrows(RuntimeException.class,
+            () -> BeanFactoryCompiler.compile(Unreadable.class.getDeclaredConstructor()).create());
+        assertTrue(checked.getCause() instanceof IOException);
+    }
+
+    // Test classes for the factories
+    public static class Engine {
+    }
+
+    public static class Wheels {
+    }
+
+    public static class Car {
+        final Engine engine;
+        final Wheels wheels;
+
+        public Car(Engine engine, Wheels wheels) {
+            this.engine = engine;
+            this.wheels = wheels;
+        }
+    }
+
+    public static class Garage {
+        final Car car;
+        final String name;
+        final int capacity;
+
+        public Garage(Car car, Engine engine, Wheels wheels, String name, int capacity) {
+            this.car = car;
+            this.name = name;
+            this.capacity = capacity;
+        }
+    }
+
+    static class Hidden {
+        final Engine engine;
+
+        private Hidden(Engine engine) {
+            this.engine = engine;
+        }
+    }
+
+    public static class Broken {
+        public Broken() {
+            throw new IllegalStateException("broken");
+        }
+    }
+
+    static class Unreadable {
+        Unreadable() throws IOException {
+            throw new IOException("unreadable");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.minidiframework.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BeanTypeIndex.
+ */
+public class BeanTypeIndexTest {
+
+    @Test
+    public void testBeansAreIndexedByAllSupertypes() throws Exception {
+        BeanTypeIndex index = new BeanTypeIndex(List.of(
+            definition("fileStore", FileStore.class),
+            definition("auditLog", AuditLog.class)));
+
+        assertEquals(List.of("fileStore"), index.getBeanNames(FileStore.class));
+        assertEquals(List.of("fileStore"), index.getBeanNames(AbstractStore.class));
+        assertEquals(List.of("fileStore"), index.getBeanNames(Store.class));
+        assertEquals(List.of("fileStore", "auditLog"), index.getBeanNames(Named.class));
+        assertEquals(List.of("fileStore", "auditLog"), index.getBeanNames(Object.class));
+        assertEquals("fileStore", index.resolve(Store.class));
+        assertTrue(index.getBeanNames(Runnable.class).isEmpty());
+        assertNull(index.resolve(Runnable.class));
+        assertThrows(UnsupportedOperationException.class, () -> index.getBeanNames(Named.class).add("other"));
+    }
+
+    @Test
+    public void testAmbiguousMatchIsReported() throws Exception {
+        BeanTypeIndex index = new BeanTypeIndex(List.of(
+            definition("fileStore", FileStore.class),
+            definition("auditLog", AuditLog.class)));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> index.resolve(Named.class));
+        assertEquals("Ambiguous dependency of type " + Named.class.getName()
+            + ": expected a single bean but found 2: fileStore, auditLog", error.getMessage());
+        assertNull(index.resolveOrNull(Named.class));
+    }
+
+    @Test
+    public void testExactTypeWinsOverSubclass() throws Exception {
+        BeanTypeIndex index = new BeanTypeIndex(List.of(
+            definition("fileStore", FileStore.class),
+            definition("cachedFileStore", CachedFileStore.class)));
+
+        assertEquals("fileStore", index.resolve(FileStore.class));
+        assertEquals("cachedFileStore", index.resolve(CachedFileStore.class));
+        assertThrows(RuntimeException.class, () -> index.resolve(Store.class));
+        assertEquals("fileStore", index.resolveOrNull(FileStore.class));
+        assertNull(index.resolveOrNull(Store.class));
+    }
+
+    private static BeanDefinition definition(String name, Class<?> beanClass) throws NoSuchMethodException {
+        return new BeanDefinition(name, beanClass, beanClass.getDeclaredConstructor(), Collections.emptyList());
+    }
+
+    // Test classes for the index (not components)
+    public interface Named {
+    }
+
+    public interface Store extends Named {
+    }
+
+    public abstract static class AbstractStore implements Store {
+    }
+
+    public static class FileStore extends AbstractStore {
+    }
+
+    public static class CachedFileStore extends FileStore {
+    }
+
+    public static class AuditLog implements Named {
+    }
+}
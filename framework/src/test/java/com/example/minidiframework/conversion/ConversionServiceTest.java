@@ -0,0 +1,156 @@
+package com.example.minidiframework.conversion;
+
+import com.example.minidiframework.annotation.Component;
+import com.example.minidiframework.annotation.Scope;
+import com.example.minidiframework.annotation.Value;
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.config.ConversionService;
+import com.example.minidiframework.config.DataSize;
+import com.example.minidiframework.context.ApplicationContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the conversion of @Value properties and placeholder resolution.
+ */
+public class ConversionServiceTest {
+
+    @Test
+    public void testBuiltInConversions() {
+        ConversionService conversionService = new ConversionService();
+
+        assertEquals(Duration.ofSeconds(30), conversionService.convert("30s", Duration.class));
+        assertEquals(Duration.ofMillis(500), conversionService.convert("PT0.5S", Duration.class));
+        assertEquals(Duration.ofMillis(250), conversionService.convert("250", Duration.class));
+        assertEquals(Duration.ofDays(2), conversionService.convert("2d", Duration.class));
+        assertEquals(DataSize.ofMegabytes(10), conversionService.convert("10mb", DataSize.class));
+        assertEquals(1024L, ((DataSize) conversionService.convert("1KB", DataSize.class)).toBytes());
+        assertEquals(Mode.READ_ONLY, conversionService.convert("read-only", Mode.class));
+        assertEquals(Path.of("/tmp/data"), conversionService.convert("/tmp/data", Path.class));
+        assertEquals(42, conversionService.convert(" 42 ", int.class));
+        assertArrayEquals(new int[] {1, 2, 3}, (int[]) conversionService.convert("1, 2,3", int[].class));
+    }
+
+    @Test
+    public void testConvertersAreComposedOnce() {
+        ConversionService conversionService = new ConversionService();
+
+        Function<String, Object> converter = conversionService.getConverter(Mode.class);
+        assertSame(converter, conversionService.getConverter(Mode.class));
+        assertEquals(Mode.READ_WRITE, converter.apply("READ_WRITE"));
+
+        RuntimeException invalid = assertThrows(RuntimeException.class,
+            () -> conversionService.convert("sideways", Mode.class));
+        assertTrue(invalid.getMessage().contains("sideways"));
+        RuntimeException unsupported = assertThrows(RuntimeException.class,
+            () -> conversionService.convert("x", Thread.class));
+        assertEquals("Unsupported type for value injection: java.lang.Thread", unsupported.getMessage());
+    }
+
+    @Test
+    public void testPlaceholders() {
+        ConfigurationProperties properties = new ConfigurationProperties("conversion-context.properties");
+
+        assertEquals("http://localhost:9000/", properties.resolveValue("conversion.url"));
+        assertEquals("localhost", properties.resolveValue("${conversion.host}"));
+        assertEquals("fallback", properties.resolveValue("${conversion.missing:fallback}"));
+        assertEquals("localhost", properties.resolveValue("${conversion.missing:${conversion.host}}"));
+        assertNull(properties.resolveValue("conversion.missing"));
+        assertThrows(RuntimeException.class, () -> properties.resolveValue("${conversion.missing}"));
+        RuntimeException cycle = assertThrows(RuntimeException.class,
+            () -> properties.resolveValue("conversion.cycle.a"));
+        assertTrue(cycle.getMessage().startsWith("Circular placeholder reference"));
+    }
+
+    @Test
+    public void testValueFieldsAreConvertedOncePerContext() {
+        ConfigurationProperties properties = new ConfigurationProperties("conversion-context.properties");
+        properties.getConversionService().addConverter(Money.class, Money::parse);
+        ApplicationContext context = new ApplicationContext(properties, "com.example.minidiframework.conversion");
+
+        Settings first = context.getBean(Settings.class);
+        Settings second = context.getBean(Settings.class);
+        assertNotSame(first, second);
+
+        assertEquals(Duration.ofSeconds(30), first.timeout);
+        assertEquals(Duration.ofMillis(500), first.retryDelay);
+        assertEquals(Duration.ofSeconds(5), first.idleTimeout);
+        assertEquals(DataSize.ofKilobytes(64), first.buffer);
+        assertEquals(Mode.READ_ONLY, first.mode);
+        assertEquals(List.of(8080, 8081, 8082), first.ports);
+        assertEquals(Set.of("a", "b"), first.tags);
+        assertArrayEquals(new double[] {1.5, 2.5}, first.weights);
+        assertEquals(Path.of("/var/lib/app"), first.home);
+        assertEquals("http://localhost:9000/", first.url);
+        assertEquals("EUR", first.money.currency);
+        assertEquals(12, first.money.amount);
+
+        // Converted values are shared, arrays are copied for every instance
+        assertSame(first.ports, second.ports);
+        assertSame(first.money, second.money);
+        assertNotSame(first.weights, second.weights);
+    }
+
+    public enum Mode {
+        READ_ONLY, READ_WRITE
+    }
+
+    public static final class Money {
+        final String currency;
+        final int amount;
+
+        private Money(String currency, int amount) {
+            this.currency = currency;
+            this.amount = amount;
+        }
+
+        static Money parse(String value) {
+            String[] parts = value.trim().split(" ");
+            return new Money(parts[0], Integer.parseInt(parts[1]));
+        }
+    }
+
+    @Component
+    @Scope(Scope.PROTOTYPE)
+    public static class Settings {
+        @Value("conversion.timeout")
+        Duration timeout;
+
+        @Value("${conversion.retry.delay}")
+        Duration retryDelay;
+
+        @Value("${conversion.idle-timeout:5s}")
+        Duration idleTimeout;
+
+        @Value("conversion.buffer")
+        DataSize buffer;
+
+        @Value("conversion.mode")
+        Mode mode;
+
+        @Value("conversion.ports")
+        List<Integer> ports;
+
+        @Value("conversion.tags")
+        Set<String> tags;
+
+        @Value("conversion.weights")
+        double[] weights;
+
+        @Value("conversion.home")
+        Path home;
+
+        @Value("conversion.url")
+        String url;
+
+        @Value("conversion.money")
+        Money money;
+    }
+}
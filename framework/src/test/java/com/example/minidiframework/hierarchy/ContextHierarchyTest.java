@@ -0,0 +1,94 @@
+package com.example.minidiframework.hierarchy;
+
+import com.example.minidiframework.context.ApplicationContext;
+import com.example.minidiframework.hierarchy.shared.SharedServices.Catalog;
+import com.example.minidiframework.hierarchy.shared.SharedServices.CorePlugin;
+import com.example.minidiframework.hierarchy.tenant.TenantServices.TenantPlugin;
+import com.example.minidiframework.hierarchy.tenant.TenantServices.TenantService;
+import com.example.minidiframework.scanner.ComponentScanner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for parent and child contexts and the scan results shared by every context.
+ */
+public class ContextHierarchyTest {
+    private static final String SHARED_PACKAGE = "com.example.minidiframework.hierarchy.shared";
+    private static final String TENANT_PACKAGE = "com.example.minidiframework.hierarchy.tenant";
+
+    @BeforeEach
+    public void resetCounters() {
+        Catalog.instances.set(0);
+    }
+
+    @Test
+    public void testChildrenShareParentBeans() {
+        ApplicationContext parent = new ApplicationContext(SHARED_PACKAGE);
+        ApplicationContext first = new ApplicationContext(parent, TENANT_PACKAGE);
+        ApplicationContext second = new ApplicationContext(parent, TENANT_PACKAGE);
+
+        Catalog catalog = parent.getBean(Catalog.class);
+        TenantService firstService = first.getBean(TenantService.class);
+        TenantService secondService = second.getBean(TenantService.class);
+        assertNotSame(firstService, secondService);
+        assertSame(catalog, firstService.catalog);
+        assertSame(catalog, firstService.injectedCatalog);
+        assertSame(catalog, secondService.catalog);
+        assertEquals(1, Catalog.instances.get());
+        assertSame(parent, first.getParent());
+    }
+
+    @Test
+    public void testLookupFallsBackToParent() {
+        ApplicationContext parent = new ApplicationContext(SHARED_PACKAGE);
+        ApplicationContext child = new ApplicationContext(parent, TENANT_PACKAGE);
+
+        assertSame(parent.getBean(Catalog.class), child.getBean(Catalog.class));
+        assertSame(parent.getBean("catalog"), child.getBean("catalog"));
+        assertSame(parent.getBean(Catalog.class), child.getBeanRef(Catalog.class).get());
+        assertTrue(child.containsBean("catalog"));
+        assertFalse(parent.containsBean("tenantService"));
+        assertNull(parent.getBean("tenantService"));
+        assertEquals(Set.of("tenantService", "tenantPlugin"), child.getBeanNames());
+    }
+
+    @Test
+    public void testCollectionsListChildBeansFirst() {
+        ApplicationContext parent = new ApplicationContext(SHARED_PACKAGE);
+        ApplicationContext child = new ApplicationContext(parent, TENANT_PACKAGE);
+
+        assertEquals(List.of(child.getBean(TenantPlugin.class), parent.getBean(CorePlugin.class)),
+            child.getBean(TenantService.class).plugins);
+    }
+
+    @Test
+    public void testClosingChildKeepsParentBeans() {
+        ApplicationContext parent = new ApplicationContext(SHARED_PACKAGE);
+        ApplicationContext child = new ApplicationContext(parent, TENANT_PACKAGE);
+
+        child.close();
+        assertTrue(child.isClosed());
+        assertFalse(parent.getBean(Catalog.class).destroyed);
+
+        parent.close();
+        assertTrue(parent.getBean(Catalog.class).destroyed);
+    }
+
+    @Test
+    public void testSharedScanResults() {
+        ComponentScanner.clearSharedResults();
+        ComponentScanner first = new ComponentScanner(TENANT_PACKAGE);
+        first.setUseSharedResults(true);
+        ComponentScanner second = new ComponentScanner(TENANT_PACKAGE);
+        second.setUseSharedResults(true);
+
+        Set<Class<?>> expected = Set.of(TenantService.class, TenantPlugin.class);
+        assertEquals(expected, first.scanForComponents());
+        assertEquals(expected, second.scanForComponents());
+    }
+}
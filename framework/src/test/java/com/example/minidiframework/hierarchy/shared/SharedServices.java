@@ -0,0 +1,33 @@
+package com.example.minidiframework.hierarchy.shared;
+
+import com.example.minidiframework.annotation.Component;
+import com.example.minidiframework.annotation.PreDestroy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test components of a parent context that are shared by its child contexts.
+ */
+public class SharedServices {
+    public interface Plugin {
+    }
+
+    @Component
+    public static class Catalog {
+        public static final AtomicInteger instances = new AtomicInteger();
+        public volatile boolean destroyed;
+
+        public Catalog() {
+            instances.incrementAndGet();
+        }
+
+        @PreDestroy
+        void destroy() {
+            destroyed = true;
+        }
+    }
+
+    @Component
+    public static class CorePlugin implements Plugin {
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.minidiframework.hierarchy.tenant;
+
+import com.example.minidiframework.annotation.Autowired;
+import com.example.minidiframework.annotation.Component;
+import com.example.minidiframework.hierarchy.shared.SharedServices.Catalog;
+import com.example.minidiframework.hierarchy.shared.SharedServices.Plugin;
+
+import java.util.List;
+
+/**
+ * Test components of a child context that depend on the beans of its parent.
+ */
+public class TenantServices {
+    @Component
+    public static class TenantService {
+        public final Catalog catalog;
+
+        @Autowired
+        public Catalog injectedCatalog;
+
+        @Autowired
+        public List<Plugin> plugins;
+
+        @Autowired
+        public TenantService(Catalog catalog) {
+            this.catalog = catalog;
+        }
+    }
+
+    @Component
+    public static class TenantPlugin implements Plugin {
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.minidiframework.injection;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.context.ApplicationContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the InjectionPlan and plan-based field injection.
+ */
+public class InjectionPlanTest {
+
+    @Test
+    public void testPlanIsComputedOncePerClass() {
+        InjectionPlan plan = InjectionPlan.forClass(SessionCache.class);
+        assertSame(plan, InjectionPlan.forClass(SessionCache.class));
+
+        List<String> fields = plan.getInjectionPoints().stream()
+            .map(injectionPoint -> injectionPoint.getField().getName())
+            .collect(Collectors.toList());
+        assertEquals(List.of("name", "store", "size", "clock"), fields);
+        assertEquals(List.of(Store.class, Clock.class), plan.getAutowiredTypes());
+        assertEquals("cache.size", plan.getInjectionPoints().get(2).getPropertyKey());
+        assertTrue(InjectionPlan.forClass(Clock.class).isEmpty());
+    }
+
+    @Test
+    public void testPlanIsSharedAcrossContexts() {
+        ConfigurationProperties properties = new ConfigurationProperties("injection-context.properties");
+        ApplicationContext first = new ApplicationContext(properties, "com.example.minidiframework.injection");
+        ApplicationContext second = new ApplicationContext(properties, "com.example.minidiframework.injection");
+
+        SessionCache firstCache = first.getBean(SessionCache.class);
+        SessionCache secondCache = second.getBean(SessionCache.class);
+        assertSame(first.getBean(Store.class), firstCache.store);
+        assertSame(second.getBean(Store.class), secondCache.store);
+        assertNotSame(firstCache.store, secondCache.store);
+        assertSame(first.getBean(Clock.class), firstCache.getClock());
+        assertEquals("sessions", secondCache.name);
+        assertEquals(128, secondCache.getSize());
+    }
+
+    // Test components
+    @Component
+    public static class Clock {
+    }
+
+    @Component
+    public static class Store {
+    }
+
+    public abstract static class AbstractCache {
+        @Value("cache.size")
+        private int size;
+
+        @Autowired
+        private Clock clock;
+
+        public int getSize() {
+            return size;
+        }
+
+        public Clock getClock() {
+            return clock;
+        }
+    }
+
+    @Component
+    public static class SessionCache extends AbstractCache {
+        @Value("cache.name")
+        String name;
+
+        @Autowired
+        final Store store = null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.minidiframework.invalidscope;
+
+import com.example.minidiframework.annotation.Autowired;
+import com.example.minidiframework.annotation.Component;
+import com.example.minidiframework.annotation.Scope;
+
+/**
+ * Test component that injects a request scoped bean by its class, which cannot be proxied.
+ */
+@Component
+public class RequestCounterHolder {
+    @Autowired
+    RequestCounter counter;
+
+    @Component
+    @Scope(Scope.REQUEST)
+    public static class RequestCounter {
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.minidiframework.lazy;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.context.ApplicationContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for @Lazy beans and the lazy-init mode.
+ */
+public class LazyBeanTest {
+
+    @BeforeEach
+    public void resetCounters() {
+        PdfReportGenerator.instances.set(0);
+        AuditTrail.instances.set(0);
+        StartupProbe.instances.set(0);
+        Formatter.instances.set(0);
+    }
+
+    @Test
+    public void testLazyBeanIsCreatedOnFirstUse() {
+        ApplicationContext context = new ApplicationContext("com.example.minidiframework.lazy");
+        assertEquals(0, PdfReportGenerator.instances.get());
+        assertEquals(0, AuditTrail.instances.get());
+        assertEquals(1, Formatter.instances.get());
+        assertTrue(context.containsBean("auditTrail"));
+        assertFalse(context.getBeans().containsKey("auditTrail"));
+
+        AuditTrail auditTrail = context.getBean(AuditTrail.class);
+        assertSame(auditTrail, context.getBean("auditTrail"));
+        assertEquals(1, AuditTrail.instances.get());
+        assertSame(context.getBean(Formatter.class), auditTrail.formatter);
+    }
+
+    @Test
+    public void testInterfaceInjectionPointReceivesProxy() {
+        ApplicationContext context = new ApplicationContext("com.example.minidiframework.lazy");
+
+        AdminService adminService = context.getBean(AdminService.class);
+        assertTrue(Proxy.isProxyClass(adminService.reports.getClass()));
+        assertEquals(0, PdfReportGenerator.instances.get());
+
+        assertEquals("pdf: formatted", adminService.reports.generate());
+        assertEquals("pdf: formatted", adminService.reports.generate());
+        assertEquals(1, PdfReportGenerator.instances.get());
+        assertEquals(List.of(context.getBean(PdfReportGenerator.class)), context.getBeansOfType(ReportGenerator.class));
+    }
+
+    @Test
+    public void testConcurrentFirstUseCreatesOneInstance() throws Exception {
+        ApplicationContext context = new ApplicationContext("com.example.minidiframework.lazy");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<AuditTrail>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return context.getBean(AuditTrail.class);
+                }));
+            }
+            start.countDown();
+
+            AuditTrail first = results.get(0).get();
+            for (Future<AuditTrail> result : results) {
+                assertSame(first, result.get());
+            }
+            assertEquals(1, AuditTrail.instances.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLazyInitMode() {
+        ApplicationContext context = new ApplicationContext(
+            new ConfigurationProperties("lazy-context.properties"), "com.example.minidiframework.lazy");
+        assertEquals(1, StartupProbe.instances.get());
+        assertEquals(0, Formatter.instances.get());
+        assertEquals(List.of("startupProbe"), new ArrayList<>(context.getBeans().keySet()));
+
+        assertEquals("pdf: formatted", context.getBean(AdminService.class).reports.generate());
+        assertEquals(1, Formatter.instances.get());
+    }
+
+    // Test components
+    public interface ReportGenerator {
+        String generate();
+    }
+
+    @Component
+    @Lazy
+    public static class PdfReportGenerator implements ReportGenerator {
+        static final AtomicInteger instances = new AtomicInteger();
+
+        @Autowired
+        private Formatter formatter;
+
+        public PdfReportGenerator() {
+            instances.incrementAndGet();
+        }
+
+        @Override
+        public String generate() {
+            return "pdf: " + formatter.format();
+        }
+    }
+
+    @Component
+    public static class Formatter {
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public Formatter() {
+            instances.incrementAndGet();
+        }
+
+        public String format() {
+            return "formatted";
+        }
+    }
+
+    @Service
+    public static class AdminService {
+        @Autowired
+        ReportGenerator reports;
+    }
+
+    @Component
+    @Lazy
+    public static class AuditTrail {
+        static final AtomicInteger instances = new AtomicInteger();
+        final Formatter formatter;
+
+        @Autowired
+        public AuditTrail(Formatter formatter) throws InterruptedException {
+            instances.incrementAndGet();
+            Thread.sleep(50); // Widen the window for concurrent first use
+            this.formatter = formatter;
+        }
+    }
+
+    @Component
+    @Lazy(false)
+    public static class StartupProbe {
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public StartupProbe() {
+            instances.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.minidiframework.lifecycle;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.context.ApplicationContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the @PostConstruct, @WarmUp and @PreDestroy lifecycle callbacks.
+ */
+public class LifecycleTest {
+    private static final String BASE_PACKAGE = "com.example.minidiframework.lifecycle";
+
+    static final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void reset() {
+        events.clear();
+        QueryCache.warmUpCalls.set(0);
+        ShutdownHook.delayMillis = 0;
+        UserRepository.closeError = null;
+    }
+
+    @Test
+    public void testInitCallbacksRunInDependencyOrder() {
+        new ApplicationContext(BASE_PACKAGE);
+
+        assertInitOrder(initEvents());
+        assertEquals(500, QueryCache.warmUpCalls.get());
+    }
+
+    @Test
+    public void testParallelInitCallbacksKeepDependencyOrder() {
+        new ApplicationContext(new ConfigurationProperties("lifecycle-context.properties"), BASE_PACKAGE);
+
+        assertInitOrder(initEvents());
+        assertEquals(0, QueryCache.warmUpCalls.get());
+    }
+
+    @Test
+    public void testWarmUpRunsBeforeContextIsReady() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+
+        assertTrue(events.indexOf("init queryCache") < events.indexOf("warm-up queryCache"));
+        assertTrue(context.getStartupTimeline().getPhases().containsKey("warm-up"));
+    }
+
+    @Test
+    public void testLazyBeanIsInitializedOnFirstUse() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        assertFalse(events.contains("init reportExporter"));
+
+        context.getBean(ReportExporter.class);
+        assertTrue(events.contains("init reportExporter"));
+    }
+
+    @Test
+    public void testCloseDestroysInReverseDependencyOrder() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        events.clear();
+
+        context.close();
+        assertTrue(context.isClosed());
+        assertEquals(List.of("destroy userService", "close userRepository", "destroy database"),
+            events.stream().filter(event -> !event.contains("shutdownHook")).collect(Collectors.toList()));
+
+        context.close();
+        assertEquals(4, events.size());
+    }
+
+    @Test
+    public void testSlowDestroyCallbackTimesOut() {
+        ApplicationContext context = new ApplicationContext(
+            new ConfigurationProperties("lifecycle-timeout.properties"), BASE_PACKAGE);
+        ShutdownHook.delayMillis = 5_000;
+
+        RuntimeException error = assertThrows(RuntimeException.class, context::close);
+        assertEquals("Destroy callbacks timed out after 200 ms: shutdownHook",
+            error.getCause().getMessage());
+        assertTrue(events.contains("destroy userService"));
+    }
+
+    @Test
+    public void testErrorInDestroyCallbackIsReportedAsFailure() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        UserRepository.closeError = new NoClassDefFoundError("com/example/Driver");
+
+        Session session = context.getBean(Session.class);
+
+        RuntimeException error = assertThrows(RuntimeException.class, context::close);
+        assertEquals("Failed to destroy bean 'userRepository'", error.getCause().getMessage());
+        assertSame(UserRepository.closeError, error.getCause().getCause());
+        assertTrue(events.contains("destroy database"));
+
+        // The scopes were closed anyway
+        assertNotSame(session, context.getBean(Session.class));
+    }
+
+    private static void assertInitOrder(List<String> initEvents) {
+        assertEquals(4, initEvents.size());
+        assertTrue(initEvents.indexOf("init database") < initEvents.indexOf("init userRepository"));
+        assertTrue(initEvents.indexOf("init userRepository") < initEvents.indexOf("init userService"));
+        assertTrue(initEvents.indexOf("init queryCache") < initEvents.indexOf("init userService"));
+    }
+
+    private static List<String> initEvents() {
+        List<String> initEvents = new ArrayList<>();
+        for (String event : events) {
+            if (event.startsWith("init ")) {
+                initEvents.add(event);
+            }
+        }
+        return initEvents;
+    }
+
+    // Test components
+    @Component
+    public static class Database {
+        @PostConstruct
+        void connect() {
+            events.add("init database");
+        }
+
+        @PreDestroy
+        void disconnect() {
+            events.add("destroy database");
+        }
+    }
+
+    @Component
+    public static class QueryCache {
+        static final AtomicInteger warmUpCalls = new AtomicInteger();
+
+        @PostConstruct
+        void load() {
+            events.add("init queryCache");
+        }
+
+        @WarmUp(iterations = 500)
+        void lookup() {
+            if (warmUpCalls.incrementAndGet() == 1) {
+                events.add("warm-up queryCache");
+            }
+        }
+    }
+
+    @Repository
+    public static class UserRepository implements AutoCloseable {
+        static volatile Error closeError;
+
+        public UserRepository(Database database) {
+        }
+
+        @PostConstruct
+        void prepareStatements() {
+            events.add("init userRepository");
+        }
+
+        @Override
+        public void close() {
+            if (closeError != null) {
+                throw closeError;
+            }
+            events.add("close userRepository");
+        }
+    }
+
+    @Service
+    public static class UserService {
+        @Autowired
+        UserRepository repository;
+
+        @Autowired
+        QueryCache cache;
+
+        @PostConstruct
+        void start() {
+            assertNotNull(repository);
+            events.add("init userService");
+        }
+
+        @PreDestroy
+        void stop() {
+            events.add("destroy userService");
+        }
+    }
+
+    @Component
+    public static class ShutdownHook {
+        static volatile long delayMillis;
+
+        @PreDestroy
+        void flush() throws InterruptedException {
+            Thread.sleep(delayMillis);
+            events.add("destroy shutdownHook");
+        }
+    }
+
+    @Lazy
+    @Component
+    public static class ReportExporter {
+        @PostConstruct
+        void init() {
+            events.add("init reportExporter");
+        }
+    }
+    @Component
+    @Scope(Scope.THREAD)
+    public static class Session {
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.minidiframework.processor;
+
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.context.ApplicationContext;
+import com.example.minidiframework.context.ContextInitializer;
+import com.example.minidiframework.web.HttpRequest;
+import com.example.minidiframework.web.WebServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the GeneratedContextProcessor.
+ */
+public class GeneratedContextProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testContextBootsFromGeneratedCode() throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("src"));
+        write(sources, "aotsample/Clock.java",
+            "package aotsample;\n" +
+            "public interface Clock { long now(); }\n");
+        write(sources, "aotsample/SystemClock.java",
+            "package aotsample;\n" +
+            "@com.example.minidiframework.annotation.Component\n" +
+            "public class SystemClock implements Clock { public long now() { return 7; } }\n");
+        write(sources, "aotsample/InventoryRepository.java",
+            "package aotsample;\n" +
+            "@com.example.minidiframework.annotation.Repository(\"inventory\")\n" +
+            "class InventoryRepository { String find() { return \"widgets\"; } }\n");
+        write(sources, "aotsample/InventoryService.java",
+            "package aotsample;\n" +
+            "import com.example.minidiframework.annotation.*;\n" +
+            "@Service\n" +
+            "public class InventoryService {\n" +
+            "    private final InventoryRepository repository;\n" +
+            "    @Autowired private Clock clock;\n" +
+            "    @Value(\"inventory.limit\") int limit;\n" +
+            "    @Autowired\n" +
+            "    public InventoryService(InventoryRepository repository) { this.repository = repository; }\n" +
+            "    public void setClock(Clock clock) { this.clock = clock; }\n" +
+            "    public String describe() { return repository.find() + \"/\" + limit + \"/\" + clock.now(); }\n" +
+            "}\n");
+        write(sources, "aotsample/web/InventoryController.java",
+            "package aotsample.web;\n" +
+            "import com.example.minidiframework.annotation.Autowired;\n" +
+            "import com.example.minidiframework.web.HttpRequest;\n" +
+            "import com.example.minidiframework.web.annotation.*;\n" +
+            "@RestController(\"/inventory\")\n" +
+            "public class InventoryController {\n" +
+            "    @Autowired public aotsample.InventoryService service;\n" +
+            "    @RequestMapping(value = \"/describe\", method = \"GET\")\n" +
+            "    public String describe(HttpRequest request) { return service.describe(); }\n" +
+            "}\n");
+        Path output = compile(sources);
+
+        String generated = Files.readString(output.resolve("aotsample/GeneratedApplicationContext.java"));
+        assertFalse(generated.contains("java.lang.reflect"));
+        assertTrue(generated.contains("new aotsample.InventoryService(bean"));
+        assertTrue(generated.contains(".setClock(bean"));
+        assertTrue(generated.contains("getConversionService().getConverter(int.class)"));
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, original)) {
+            thread.setContextClassLoader(loader);
+            ApplicationContext context = new ApplicationContext(
+                new ConfigurationProperties("aot-context.properties"), "aotsample");
+
+            ContextInitializer initializer = context.getContextInitializer();
+            assertNotNull(initializer);
+            assertEquals("aotsample.GeneratedApplicationContext", initializer.getClass().getName());
+            assertEquals(List.of("inventory", "inventoryService", "systemClock", "inventoryController"),
+                new ArrayList<>(initializer.initialize(context.getConfigurationProperties()).keySet()));
+            assertTrue(context.containsBean("inventory"));
+            assertSame(context.getBean("systemClock"), context.getBean(loader.loadClass("aotsample.Clock")));
+
+            WebServer webServer = new WebServer(context);
+            assertEquals("widgets/42/7", webServer.handleRequest(new HttpRequest("GET", "/inventory/describe")).getBody());
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGeneratedContextRunsLifecycleCallbacksInDependencyOrder() throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("src"));
+        write(sources, "aotlifecycle/Events.java",
+            "package aotlifecycle;\n" +
+            "public class Events { public static final java.util.List<String> LOG =\n" +
+            "    java.util.Collections.synchronizedList(new java.util.ArrayList<>()); }\n");
+        write(sources, "aotlifecycle/Db.java",
+            "package aotlifecycle;\n" +
+            "import com.example.minidiframework.annotation.*;\n" +
+            "@Component\n" +
+            "public class Db {\n" +
+            "    @PostConstruct public void open() { Events.LOG.add(\"open db\"); }\n" +
+            "    @PreDestroy public void close() { Events.LOG.add(\"close db\"); }\n" +
+            "}\n");
+        write(sources, "aotlifecycle/Svc.java",
+            "package aotlifecycle;\n" +
+            "import com.example.minidiframework.annotation.*;\n" +
+            "@Service\n" +
+            "public class Svc {\n" +
+            "    public Svc(Db db) {}\n" +
+            "    @PostConstruct public void start() { Events.LOG.add(\"start svc\"); }\n" +
+            "    @PreDestroy public void stop() throws InterruptedException {\n" +
+            "        Thread.sleep(100);\n" +
+            "        Events.LOG.add(\"stop svc\");\n" +
+            "    }\n" +
+            "}\n");
+        write(sources, "aotlifecycle/Audit.java",
+            "package aotlifecycle;\n" +
+            "import com.example.minidiframework.annotation.*;\n" +
+            "@Component\n" +
+            "public class Audit {\n" +
+            "    @Autowired public Svc svc;\n" +
+            "    @PostConstruct public void start() { Events.LOG.add(\"start audit\"); }\n" +
+            "    @WarmUp(iterations = 2) public void warm() { Events.LOG.add(\"warm audit\"); }\n" +
+            "    @PreDestroy public void stop() throws InterruptedException {\n" +
+            "        Thread.sleep(100);\n" +
+            "        Events.LOG.add(\"stop audit\");\n" +
+            "    }\n" +
+            "}\n");
+        Path output = compile(sources);
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, original)) {
+            thread.setContextClassLoader(loader);
+            ApplicationContext context = new ApplicationContext(
+                new ConfigurationProperties("aot-context.properties"), "aotlifecycle");
+            assertNotNull(context.getContextInitializer());
+            context.close();
+
+            List<String> log = (List<String>) loader.loadClass("aotlifecycle.Events").getField("LOG").get(null);
+            assertEquals(List.of("open db", "start svc", "start audit", "warm audit", "warm audit",
+                "stop audit", "stop svc", "close db"), log);
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    public void testNothingIsGeneratedForPrivateFieldWithoutSetter() throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("src"));
+        write(sources, "aotbroken/Repository.java",
+            "package aotbroken;\n" +
+            "@com.example.minidiframework.annotation.Repository\n" +
+            "public class Repository {}\n");
+        write(sources, "aotbroken/Service.java",
+            "package aotbroken;\n" +
+            "@com.example.minidiframework.annotation.Service\n" +
+            "public class Service {\n" +
+            "    @com.example.minidiframework.annotation.Autowired private Repository repository;\n" +
+            "}\n");
+        Path output = compile(sources);
+
+        assertTrue(Files.exists(output.resolve("aotbroken/Service.class")));
+        assertFalse(Files.exists(output.resolve("aotbroken/GeneratedApplicationContext.java")));
+    }
+
+    @Test
+    public void testIncrementalCompilationKeepsEarlierComponents() throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("src"));
+        write(sources, "aotincremental/Greeter.java",
+            "package aotincremental;\n" +
+            "@com.example.minidiframework.annotation.Component\n" +
+            "public class Greeter { public String greet() { return \"hello\"; } }\n");
+        Path output = compile(sources);
+
+        // Only the changed source is compiled again
+        Path service = write(sources, "aotincremental/GreetingService.java",
+            "package aotincremental;\n" +
+            "@com.example.minidiframework.annotation.Service\n" +
+            "public class GreetingService { @com.example.minidiframework.annotation.Autowired public Greeter greeter; }\n");
+        compileFiles(service);
+
+        String generated = Files.readString(output.resolve("aotincremental/GeneratedApplicationContext.java"));
+        assertTrue(generated.contains("new aotincremental.Greeter()"));
+        assertTrue(generated.contains("new aotincremental.GreetingService()"));
+
+        // A component that generated code cannot wire replaces the generated context by one that scans
+        Path broken = write(sources, "aotincremental/AuditService.java",
+            "package aotincremental;\n" +
+            "@com.example.minidiframework.annotation.Service\n" +
+            "public class AuditService { @com.example.minidiframework.annotation.Autowired private Greeter greeter; }\n");
+        compileFiles(broken);
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, original)) {
+            thread.setContextClassLoader(loader);
+            ApplicationContext context = new ApplicationContext(
+                new ConfigurationProperties("aot-context.properties"), "aotincremental");
+
+            assertNull(context.getContextInitializer());
+            assertTrue(context.containsBean("greeter"));
+            assertTrue(context.containsBean("greetingService"));
+            assertTrue(context.containsBean("auditService"));
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    private static Path write(Path sources, String file, String content) throws Exception {
+        Path path = sources.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+        return path;
+    }
+
+    private Path compile(Path sources) throws Exception {
+        try (var files = Files.walk(sources)) {
+            return compileFiles(files.filter(file -> file.toString().endsWith(".java")).toArray(Path[]::new));
+        }
+    }
+
+    /**
+     * Compile the given sources with the classes compiled before on the classpath, like an incremental build.
+     */
+    private Path compileFiles(Path... sources) throws Exception {
+        Path output = Files.createDirectories(tempDir.resolve("classes"));
+        List<String> options = new ArrayList<>(List.of(
+            "-classpath", System.getProperty("java.class.path") + File.pathSeparator + output,
+            "-d", output.toString(), "-processor", GeneratedContextProcessor.class.getName()));
+        for (Path source : sources) {
+            options.add(source.toString());
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, options.toArray(new String[0])));
+        return output;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.minidiframework.provider;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.context.ApplicationContext;
+import com.example.minidiframework.context.BeanRef;
+import com.example.minidiframework.context.Provider;
+import com.example.minidiframework.injection.InjectionPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Provider, Supplier, Optional, List and Map injection points.
+ */
+public class ProviderInjectionTest {
+    private static final String BASE_PACKAGE = "com.example.minidiframework.provider";
+
+    @BeforeEach
+    public void resetCounters() {
+        AuditLog.instances.set(0);
+        Session.instances.set(0);
+    }
+
+    @Test
+    public void testProviderDefersLazyBean() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        Checkout checkout = context.getBean(Checkout.class);
+
+        assertTrue(checkout.auditLog instanceof BeanRef);
+        assertEquals(0, AuditLog.instances.get());
+        assertSame(checkout.auditLog.get(), checkout.auditLog.get());
+        assertEquals(1, AuditLog.instances.get());
+        assertSame(context.getBean(AuditLog.class), checkout.auditLog.get());
+    }
+
+    @Test
+    public void testSupplierCreatesPrototypePerCall() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        Checkout checkout = context.getBean(Checkout.class);
+
+        assertEquals(0, Session.instances.get());
+        assertNotSame(checkout.sessions.get(), checkout.sessions.get());
+        assertEquals(2, Session.instances.get());
+    }
+
+    @Test
+    public void testOptionalInjection() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        Checkout checkout = context.getBean(Checkout.class);
+
+        assertEquals(Optional.empty(), checkout.fraudCheck);
+        assertEquals(Optional.of(context.getBean(CardGateway.class)), checkout.cardGateway);
+    }
+
+    @Test
+    public void testCollectionsOfAllMatchingBeans() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        Checkout checkout = context.getBean(Checkout.class);
+
+        assertEquals(Set.of(context.getBean(CardGateway.class), context.getBean(WalletGateway.class)),
+            Set.copyOf(checkout.gateways));
+        assertEquals(Map.of("cardGateway", context.getBean(CardGateway.class),
+            "walletGateway", context.getBean(WalletGateway.class)), checkout.gatewaysByName);
+        assertThrows(UnsupportedOperationException.class, () -> checkout.gatewaysByName.clear());
+
+        // Resolved once, the same handles and collections are shared by every instance
+        Receipt first = context.getBean(Receipt.class);
+        Receipt second = context.getBean(Receipt.class);
+        assertNotSame(first, second);
+        assertSame(first.gateways, second.gateways);
+        assertSame(first.auditLog, second.auditLog);
+    }
+
+    @Test
+    public void testUnresolvableTypeArgumentIsReported() {
+        RuntimeException error = assertThrows(RuntimeException.class, () -> InjectionPlan.forClass(RawHolder.class));
+        assertTrue(error.getMessage().startsWith("Cannot resolve the bean type of field provider"));
+    }
+
+    // Test components
+    public interface PaymentGateway {
+    }
+
+    public interface FraudCheck {
+    }
+
+    @Component
+    public static class CardGateway implements PaymentGateway {
+    }
+
+    @Component
+    public static class WalletGateway implements PaymentGateway {
+    }
+
+    @Lazy
+    @Component
+    public static class AuditLog {
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public AuditLog() {
+            instances.incrementAndGet();
+        }
+    }
+
+    @Scope(Scope.PROTOTYPE)
+    @Component
+    public static class Session {
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public Session() {
+            instances.incrementAndGet();
+        }
+    }
+
+    @Service
+    public static class Checkout {
+        @Autowired
+        Provider<AuditLog> auditLog;
+
+        @Autowired
+        Supplier<Session> sessions;
+
+        @Autowired
+        Optional<FraudCheck> fraudCheck;
+
+        @Autowired
+        Optional<CardGateway> cardGateway;
+
+        @Autowired
+        List<? extends PaymentGateway> gateways;
+
+        @Autowired
+        Map<String, PaymentGateway> gatewaysByName;
+    }
+
+    @Scope(Scope.PROTOTYPE)
+    @Component
+    public static class Receipt {
+        @Autowired
+        List<PaymentGateway> gateways;
+
+        @Autowired
+        Provider<AuditLog> auditLog;
+    }
+
+    // Not a component, its plan cannot be built
+    public static class RawHolder {
+        @SuppressWarnings("rawtypes")
+        @Autowired
+        Provider provider;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.minidiframework.refresh;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.context.ApplicationContext;
+import com.example.minidiframework.context.BeanRef;
+import com.example.minidiframework.context.Provider;
+import com.example.minidiframework.web.HttpRequest;
+import com.example.minidiframework.web.HttpResponse;
+import com.example.minidiframework.web.WebServer;
+import com.example.minidiframework.web.annotation.RequestMapping;
+import com.example.minidiframework.web.annotation.RestController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for refreshing beans of a running context.
+ */
+public class ContextRefreshTest {
+    private static final String BASE_PACKAGE = "com.example.minidiframework.refresh";
+
+    @BeforeEach
+    public void resetCounters() {
+        PriceSource.instances.set(0);
+        PriceController.instances.set(0);
+        PriceController.entered = null;
+        PriceController.release = null;
+    }
+
+    @Test
+    public void testRefreshRecreatesConstructorDependents() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        PriceSource oldSource = context.getBean(PriceSource.class);
+        PriceService oldService = context.getBean(PriceService.class);
+        Ledger ledger = context.getBean(Ledger.class);
+
+        Set<String> refreshed = context.refresh(Set.of(PriceSource.class));
+
+        assertEquals(List.of("priceSource", "priceService"), List.copyOf(refreshed));
+        PriceSource newSource = context.getBean(PriceSource.class);
+        assertNotSame(oldSource, newSource);
+        assertEquals(2, newSource.version);
+        assertSame(newSource, context.getBean(PriceService.class).source);
+        assertNotSame(oldService, context.getBean(PriceService.class));
+        assertSame(ledger, context.getBean(Ledger.class));
+        assertTrue(oldSource.destroyed);
+        assertFalse(newSource.destroyed);
+    }
+
+    @Test
+    public void testRefreshReinjectsAffectedFields() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        Checkout checkout = context.getBean(Checkout.class);
+        Ledger ledger = checkout.ledger;
+
+        context.refresh(Set.of(PriceSource.class));
+
+        assertSame(checkout, context.getBean(Checkout.class));
+        assertSame(context.getBean(PriceService.class), checkout.priceService);
+        assertSame(context.getBean(PriceSource.class), checkout.sources.get(0));
+        assertSame(context.getBean(PriceSource.class), checkout.source.get());
+        assertSame(ledger, checkout.ledger);
+    }
+
+    @Test
+    public void testBeanRefFollowsRefresh() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        BeanRef<PriceSource> source = context.getBeanRef(PriceSource.class);
+        assertEquals(1, source.get().version);
+
+        context.refresh(Set.of(PriceSource.class));
+        assertEquals(2, source.get().version);
+        assertSame(context.getBean(PriceSource.class), source.get());
+    }
+
+    @Test
+    public void testInFlightRequestKeepsOldController() throws Exception {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        WebServer webServer = new WebServer(context);
+        assertEquals("v1", webServer.handleRequest(new HttpRequest("GET", "/prices/version")).getBody());
+        PriceController oldController = context.getBean(PriceController.class);
+
+        PriceController.entered = new CountDownLatch(1);
+        PriceController.release = new CountDownLatch(1);
+        CompletableFuture<HttpResponse> inFlight = CompletableFuture.supplyAsync(
+            () -> webServer.handleRequest(new HttpRequest("GET", "/prices/version")));
+        assertTrue(PriceController.entered.await(5, TimeUnit.SECONDS));
+
+        context.refresh(Set.of(PriceController.class));
+        PriceController.entered = null;
+        assertEquals("v2", webServer.handleRequest(new HttpRequest("GET", "/prices/version")).getBody());
+        assertFalse(oldController.destroyed);
+
+        // The old controller is destroyed when the request that still uses it ends
+        PriceController.release.countDown();
+        assertEquals("v1", inFlight.get(5, TimeUnit.SECONDS).getBody());
+        assertTrue(oldController.destroyed);
+        assertNull(context.getRefreshFailure());
+    }
+
+    @Test
+    public void testRefreshUnknownType() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        RuntimeException error = assertThrows(RuntimeException.class, () -> context.refresh(Set.of(String.class)));
+        assertEquals("No bean found for type: java.lang.String", error.getMessage());
+    }
+
+    @Component
+    public static class PriceSource {
+        static final AtomicInteger instances = new AtomicInteger();
+        final int version = instances.incrementAndGet();
+        volatile boolean destroyed;
+
+        @PreDestroy
+        void destroy() {
+            destroyed = true;
+        }
+    }
+
+    @Component
+    public static class PriceService {
+        final PriceSource source;
+
+        public PriceService(PriceSource source) {
+            this.source = source;
+        }
+    }
+
+    @Component
+    public static class Ledger {
+    }
+
+    @Component
+    public static class Checkout {
+        @Autowired
+        PriceService priceService;
+
+        @Autowired
+        List<PriceSource> sources;
+
+        @Autowired
+        Provider<PriceSource> source;
+
+        @Autowired
+        Ledger ledger;
+    }
+
+    @RestController("/prices")
+    public static class PriceController {
+        static final AtomicInteger instances = new AtomicInteger();
+        static volatile CountDownLatch entered;
+        static volatile CountDownLatch release;
+        final int version = instances.incrementAndGet();
+        volatile boolean destroyed;
+
+        @PreDestroy
+        void destroy() {
+            destroyed = true;
+        }
+
+        @RequestMapping("/version")
+        public String version(HttpRequest request) throws InterruptedException {
+            CountDownLatch latch = entered;
+            if (latch != null) {
+                latch.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return "v" + version;
+        }
+    }
+}
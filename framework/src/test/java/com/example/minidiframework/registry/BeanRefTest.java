@@ -0,0 +1,106 @@
+package com.example.minidiframework.registry;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.context.ApplicationContext;
+import com.example.minidiframework.context.BeanRef;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the bean registry and BeanRef handles.
+ */
+public class BeanRefTest {
+    private static final String BASE_PACKAGE = "com.example.minidiframework.registry";
+
+    @Test
+    public void testSingletonRefReturnsSameInstance() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+
+        BeanRef<Clock> clock = context.getBeanRef(Clock.class);
+        assertEquals("systemClock", clock.getBeanName());
+        assertSame(context.getBean(SystemClock.class), clock.get());
+        assertSame(clock.get(), clock.get());
+        assertSame(clock.get(), context.getBeanRef("systemClock", SystemClock.class).get());
+    }
+
+    @Test
+    public void testLazyRefCreatesBeanOnFirstGet() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        int created = ExpensiveIndex.instances.get();
+
+        BeanRef<ExpensiveIndex> index = context.getBeanRef(ExpensiveIndex.class);
+        assertEquals(created, ExpensiveIndex.instances.get());
+        assertSame(index.get(), index.get());
+        assertEquals(created + 1, ExpensiveIndex.instances.get());
+        assertSame(context.getBean(ExpensiveIndex.class), index.get());
+    }
+
+    @Test
+    public void testPrototypeRefCreatesInstancePerGet() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+
+        BeanRef<Command> command = context.getBeanRef(Command.class);
+        assertNotSame(command.get(), command.get());
+        assertSame(context.getBean(SystemClock.class), command.get().clock);
+    }
+
+    @Test
+    public void testInvalidRefsAreReported() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> context.getBeanRef(Runnable.class));
+        assertEquals("No bean found for type: java.lang.Runnable", error.getMessage());
+        error = assertThrows(RuntimeException.class, () -> context.getBeanRef("systemClock", Command.class));
+        assertEquals("Bean 'systemClock' is not of type " + Command.class.getName(), error.getMessage());
+        error = assertThrows(RuntimeException.class, () -> context.getBeanRef(Object.class));
+        assertTrue(error.getMessage().startsWith("Ambiguous dependency of type java.lang.Object"));
+    }
+
+    @Test
+    public void testBeansViewIsReadOnlyAndOrdered() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+
+        Map<String, Object> beans = context.getBeans();
+        assertEquals(List.of("systemClock"), List.copyOf(beans.keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> beans.put("other", new Object()));
+
+        context.getBean(ExpensiveIndex.class);
+        assertTrue(beans.containsKey("expensiveIndex"));
+        assertEquals(2, beans.size());
+    }
+
+    // Test components
+    public interface Clock {
+        long now();
+    }
+
+    @Component
+    public static class SystemClock implements Clock {
+        @Override
+        public long now() {
+            return System.currentTimeMillis();
+        }
+    }
+
+    @Lazy
+    @Component
+    public static class ExpensiveIndex {
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public ExpensiveIndex() {
+            instances.incrementAndGet();
+        }
+    }
+
+    @Scope(Scope.PROTOTYPE)
+    @Component
+    public static class Command {
+        @Autowired
+        SystemClock clock;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.minidiframework.reload;
+
+import com.example.minidiframework.annotation.Component;
+import com.example.minidiframework.annotation.Value;
+import com.example.minidiframework.config.ConfigHandle;
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.config.PropertySource;
+import com.example.minidiframework.context.ApplicationContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for reloading configuration properties and ConfigHandle values.
+ */
+public class ConfigReloadTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReloadSwapsValuesAndHandles() throws IOException {
+        Path file = write("reload.timeout=5s\nreload.name=first\n");
+        ConfigurationProperties properties = new ConfigurationProperties(List.of(PropertySource.fromFile(file)));
+        ConfigHandle<Duration> timeout = properties.getHandle("reload.timeout", Duration.class);
+        ConfigHandle<String> greeting = properties.getHandle("hello ${reload.name}", String.class);
+        List<Set<String>> changes = new CopyOnWriteArrayList<>();
+        properties.addChangeListener(changes::add);
+
+        assertSame(timeout, properties.getHandle("reload.timeout", Duration.class));
+        assertEquals(Duration.ofSeconds(5), timeout.get());
+        assertTrue(properties.reload().isEmpty());
+
+        write("reload.timeout=10s\nreload.name=second\nreload.added=true\n");
+        Set<String> changed = properties.reload();
+
+        assertEquals(Set.of("reload.timeout", "reload.name", "reload.added"), changed);
+        assertEquals(List.of(changed), changes);
+        assertEquals(Duration.ofSeconds(10), timeout.get());
+        assertEquals("hello second", greeting.get());
+        assertEquals("second", properties.getProperty("reload.name"));
+    }
+
+    @Test
+    public void testFailedReloadKeepsPreviousValues() throws IOException {
+        Path file = write("reload.timeout=5s\nreload.name=first\n");
+        ConfigurationProperties properties = new ConfigurationProperties(List.of(PropertySource.fromFile(file)));
+        ConfigHandle<Duration> timeout = properties.getHandle("reload.timeout", Duration.class);
+
+        write("reload.timeout=soon\nreload.name=second\n");
+        assertThrows(RuntimeException.class, properties::reload);
+
+        assertEquals(Duration.ofSeconds(5), timeout.get());
+        assertEquals("first", properties.getProperty("reload.name"));
+    }
+
+    @Test
+    public void testConfigHandleFieldsFollowReloads() throws IOException {
+        Path file = write("reload.timeout=5s\nreload.limits=1,2\nminidi.aot.enabled=false\n");
+        ConfigurationProperties properties = new ConfigurationProperties(List.of(PropertySource.fromFile(file)));
+        ApplicationContext context = new ApplicationContext(properties, "com.example.minidiframework.reload");
+        ClientSettings settings = context.getBean(ClientSettings.class);
+
+        assertEquals(Duration.ofSeconds(5), settings.timeout.get());
+        assertEquals(List.of(1, 2), settings.limits.get());
+
+        write("reload.timeout=1m\nreload.limits=3\nminidi.aot.enabled=false\n");
+        properties.reload();
+
+        assertEquals(Duration.ofMinutes(1), settings.timeout.get());
+        assertEquals(List.of(3), settings.limits.get());
+        assertEquals(Duration.ofSeconds(5), settings.initialTimeout);
+    }
+
+    @Test
+    public void testWatcherReloadsChangedFiles() throws Exception {
+        Path file = write("reload.timeout=5s\nminidi.config.watch=true\n");
+        ConfigurationProperties properties = new ConfigurationProperties(List.of(PropertySource.fromFile(file)));
+        ApplicationContext context = new ApplicationContext(properties, "com.example.minidiframework.reload");
+        ClientSettings settings = context.getBean(ClientSettings.class);
+        try {
+            assertFalse(properties.startWatching());
+            write("reload.timeout=30s\nminidi.config.watch=true\n");
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+            while (!settings.timeout.get().equals(Duration.ofSeconds(30)) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(Duration.ofSeconds(30), settings.timeout.get());
+            assertNull(properties.getReloadFailure());
+        } finally {
+            context.close();
+        }
+        assertTrue(properties.startWatching());
+        properties.stopWatching();
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(directory.resolve("reload.properties"), content);
+    }
+
+    @Component
+    public static class ClientSettings {
+        @Value("reload.timeout")
+        ConfigHandle<Duration> timeout;
+
+        @Value("${reload.limits:0}")
+        ConfigHandle<List<Integer>> limits;
+
+        @Value("reload.timeout")
+        Duration initialTimeout;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.minidiframework.scope;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.context.ApplicationContext;
+import com.example.minidiframework.context.RequestContext;
+import com.example.minidiframework.web.HttpRequest;
+import com.example.minidiframework.web.WebServer;
+import com.example.minidiframework.web.annotation.RequestMapping;
+import com.example.minidiframework.web.annotation.RestController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for prototype, thread, request and pooled bean scopes.
+ */
+public class ScopeTest {
+    private ApplicationContext context;
+
+    @BeforeEach
+    public void createContext() {
+        RequestTrace.instances.set(0);
+        JsonParser.instances.set(0);
+        TemplateRenderer.instances.set(0);
+        context = new ApplicationContext(
+            new ConfigurationProperties("scope-context.properties"), "com.example.minidiframework.scope");
+    }
+
+    @Test
+    public void testPrototypeScope() {
+        Order first = context.getBean(Order.class);
+        Order second = context.getBean(Order.class);
+        assertNotSame(first, second);
+        assertSame(context.getBean(Checkout.class), first.checkout);
+
+        Checkout checkout = context.getBean(Checkout.class);
+        assertNotNull(checkout.order);
+        assertNotSame(checkout.order, first);
+        assertFalse(context.getBeans().containsKey("order"));
+    }
+
+    @Test
+    public void testThreadScope() throws Exception {
+        DateFormatter mine = context.getBean(DateFormatter.class);
+        assertSame(mine, context.getBean(DateFormatter.class));
+
+        DateFormatter other = CompletableFuture.supplyAsync(() -> context.getBean(DateFormatter.class)).get();
+        assertNotSame(mine, other);
+    }
+
+    @Test
+    public void testClosingContextDropsThreadScopedBeans() throws Exception {
+        DateFormatter mine = context.getBean(DateFormatter.class);
+        DateFormatter other = CompletableFuture.supplyAsync(() -> context.getBean(DateFormatter.class)).get();
+        context.close();
+
+        // The instances of every thread were dropped, a later lookup creates new ones
+        assertNotSame(mine, context.getBean(DateFormatter.class));
+        assertNotSame(other, CompletableFuture.supplyAsync(() -> context.getBean(DateFormatter.class)).get());
+    }
+
+    @Test
+    public void testClosingContextDropsBeansOfThreadsRegisteringConcurrently() throws Exception {
+        CountDownLatch lookedUp = new CountDownLatch(2);
+        CountDownLatch closed = new CountDownLatch(1);
+        NumberFormatter[][] instances = new NumberFormatter[2][2];
+        Thread[] threads = new Thread[2];
+        NumberFormatter.creating = new CyclicBarrier(2);
+        try {
+            for (int i = 0; i < threads.length; i++) {
+                NumberFormatter[] mine = instances[i];
+                threads[i] = new Thread(() -> {
+                    try {
+                        mine[0] = context.getBean(NumberFormatter.class);
+                        lookedUp.countDown();
+                        closed.await();
+                        mine[1] = context.getBean(NumberFormatter.class);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads[i].start();
+            }
+            assertTrue(lookedUp.await(5, TimeUnit.SECONDS));
+            NumberFormatter.creating = null;
+            context.close();
+            closed.countDown();
+            for (Thread thread : threads) {
+                thread.join(5000);
+            }
+        } finally {
+            NumberFormatter.creating = null;
+        }
+
+        // Both threads registered an empty map at the same time, the close still dropped the instances of both
+        for (NumberFormatter[] mine : instances) {
+            assertNotNull(mine[0]);
+            assertNotNull(mine[1]);
+            assertNotSame(mine[0], mine[1]);
+        }
+    }
+
+    @Test
+    public void testRequestScopeThroughWebServer() {
+        WebServer webServer = new WebServer(context);
+
+        assertEquals("trace-1/trace-1", webServer.handleRequest(new HttpRequest("GET", "/trace")).getBody());
+        assertEquals("trace-2/trace-2", webServer.handleRequest(new HttpRequest("GET", "/trace")).getBody());
+        assertEquals(2, RequestTrace.instances.get());
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> context.getBean(RequestTrace.class));
+        assertEquals("No active request for bean 'requestTrace' with scope 'request'", error.getMessage());
+    }
+
+    @Test
+    public void testPooledScopeRecyclesInstances() throws Exception {
+        JsonParser first;
+        try (RequestContext request = RequestContext.begin()) {
+            first = context.getBean(JsonParser.class);
+            assertSame(first, context.getBean(JsonParser.class));
+            first.input = "{}";
+        }
+        try (RequestContext request = RequestContext.begin()) {
+            assertSame(first, context.getBean(JsonParser.class));
+            assertNull(first.input);
+        }
+        assertEquals(1, JsonParser.instances.get());
+
+        // A request running concurrently cannot get the borrowed instance
+        CountDownLatch borrowed = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        CompletableFuture<JsonParser> concurrent = CompletableFuture.supplyAsync(() -> {
+            try (RequestContext request = RequestContext.begin()) {
+                JsonParser parser = context.getBean(JsonParser.class);
+                borrowed.countDown();
+                done.await(5, TimeUnit.SECONDS);
+                return parser;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(borrowed.await(5, TimeUnit.SECONDS));
+        try (RequestContext request = RequestContext.begin()) {
+            assertNotSame(concurrent.getNow(null), context.getBean(JsonParser.class));
+        } finally {
+            done.countDown();
+        }
+        concurrent.get();
+        assertEquals(2, JsonParser.instances.get());
+    }
+
+    @Test
+    public void testPooledBeanWithoutResetIsNotRecycled() {
+        TemplateRenderer first;
+        try (RequestContext request = RequestContext.begin()) {
+            first = context.getBean(TemplateRenderer.class);
+        }
+        try (RequestContext request = RequestContext.begin()) {
+            assertNotSame(first, context.getBean(TemplateRenderer.class));
+        }
+        assertEquals(2, TemplateRenderer.instances.get());
+    }
+
+    @Test
+    public void testScopedBeanRequiresInterfaceInjectionPoint() {
+        RuntimeException error = assertThrows(RuntimeException.class,
+            () -> new ApplicationContext("com.example.minidiframework.invalidscope"));
+        assertTrue(error.getMessage().contains("can only be injected through an interface"));
+    }
+
+    // Test components
+    @Component
+    @Scope(Scope.PROTOTYPE)
+    public static class Order {
+        final Checkout checkout;
+
+        @Autowired
+        public Order(Checkout checkout) {
+            this.checkout = checkout;
+        }
+    }
+
+    @Component
+    public static class Checkout {
+        @Autowired
+        Order order;
+    }
+
+    @Component
+    @Scope(Scope.THREAD)
+    public static class DateFormatter {
+    }
+
+    @Component
+    @Scope(Scope.THREAD)
+    public static class NumberFormatter {
+        /**
+         * When set, every instance waits here, so the threads creating one have all registered with the scope.
+         */
+        static volatile CyclicBarrier creating;
+
+        public NumberFormatter() throws Exception {
+            CyclicBarrier barrier = creating;
+            if (barrier != null) {
+                barrier.await(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    public interface Trace {
+        String id();
+    }
+
+    @Component
+    @Scope(Scope.REQUEST)
+    public static class RequestTrace implements Trace {
+        static final AtomicInteger instances = new AtomicInteger();
+        private final String id = "trace-" + instances.incrementAndGet();
+
+        @Override
+        public String id() {
+            return id;
+        }
+    }
+
+    @RestController("/trace")
+    public static class TraceController {
+        @Autowired
+        Trace trace;
+
+        @RequestMapping(value = "", method = "GET")
+        public String trace(HttpRequest request) {
+            return trace.id() + "/" + trace.id();
+        }
+    }
+
+    @Component
+    @Scope(value = Scope.POOLED, poolSize = 1)
+    public static class JsonParser {
+        static final AtomicInteger instances = new AtomicInteger();
+
+        String input;
+
+        public JsonParser() {
+            instances.incrementAndGet();
+        }
+
+        @ResetOnRelease
+        void reset() {
+            input = null;
+        }
+    }
+
+    @Component
+    @Scope(Scope.POOLED)
+    public static class TemplateRenderer {
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public TemplateRenderer() {
+            instances.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.minidiframework.snapshot;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.context.ApplicationContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the wiring snapshot that replaces scanning on later boots.
+ */
+public class WiringSnapshotTest {
+    private static final String BASE_PACKAGE = "com.example.minidiframework.snapshot";
+    private static final Path SNAPSHOT_FILE = Paths.get("target/snapshot-context.bin");
+
+    @BeforeEach
+    public void deleteSnapshot() throws Exception {
+        Files.deleteIfExists(SNAPSHOT_FILE);
+    }
+
+    @Test
+    public void testSecondBootReplaysSnapshot() {
+        ApplicationContext first = boot("snapshot-context.properties");
+        assertFalse(first.isRestoredFromSnapshot());
+        assertTrue(Files.exists(SNAPSHOT_FILE));
+
+        ApplicationContext second = boot("snapshot-context.properties");
+        assertTrue(second.isRestoredFromSnapshot());
+        assertEquals(first.getBeanNames(), second.getBeanNames());
+
+        GreetingController controller = second.getBean(GreetingController.class);
+        assertSame(second.getBean(Greeter.class), controller.greeter);
+        assertSame(second.getBean(GreetingFormatter.class), controller.formatter);
+        assertEquals("Hello Ada, Hello Ada", controller.greet("Ada"));
+    }
+
+    @Test
+    public void testChangedPropertiesInvalidateSnapshot() {
+        boot("snapshot-context.properties");
+
+        ApplicationContext changed = boot("snapshot-context-changed.properties");
+        assertFalse(changed.isRestoredFromSnapshot());
+        assertEquals("Hi Ada, Hi Ada", changed.getBean(GreetingController.class).greet("Ada"));
+
+        // The snapshot was replaced by one for the changed properties
+        assertTrue(boot("snapshot-context-changed.properties").isRestoredFromSnapshot());
+    }
+
+    @Test
+    public void testCorruptSnapshotIsIgnored() throws Exception {
+        boot("snapshot-context.properties");
+        byte[] content = Files.readAllBytes(SNAPSHOT_FILE);
+        content[content.length / 2] ^= 0x5A;
+        Files.write(SNAPSHOT_FILE, content);
+
+        ApplicationContext context = boot("snapshot-context.properties");
+        assertFalse(context.isRestoredFromSnapshot());
+        assertEquals("Hello Ada, Hello Ada", context.getBean(GreetingController.class).greet("Ada"));
+    }
+
+    @Test
+    public void testDefaultPropertiesIgnoreUnrelatedSystemProperties() {
+        System.setProperty("minidi.context.snapshot.file", SNAPSHOT_FILE.toString());
+        System.setProperty("greeting.prefix", "Hello");
+        System.setProperty("greeting.repeat", "1");
+        try {
+            assertFalse(new ApplicationContext(BASE_PACKAGE).isRestoredFromSnapshot());
+            assertTrue(new ApplicationContext(BASE_PACKAGE).isRestoredFromSnapshot());
+
+            System.setProperty("snapshot.unrelated", "changed");
+            assertTrue(new ApplicationContext(BASE_PACKAGE).isRestoredFromSnapshot());
+
+            System.setProperty("greeting.prefix", "Hi");
+            ApplicationContext changed = new ApplicationContext(BASE_PACKAGE);
+            assertFalse(changed.isRestoredFromSnapshot());
+            assertEquals("Hi Ada", changed.getBean(GreetingController.class).greet("Ada"));
+        } finally {
+            System.clearProperty("minidi.context.snapshot.file");
+            System.clearProperty("greeting.prefix");
+            System.clearProperty("greeting.repeat");
+            System.clearProperty("snapshot.unrelated");
+        }
+    }
+
+    private static ApplicationContext boot(String propertiesFile) {
+        return new ApplicationContext(new ConfigurationProperties(propertiesFile), BASE_PACKAGE);
+    }
+
+    // Test components
+    public interface Greeter {
+        String greet(String name);
+    }
+
+    @Component
+    public static class GreetingFormatter {
+        @Value("greeting.repeat")
+        int repeat;
+
+        String format(String greeting) {
+            return String.join(", ", Collections.nCopies(repeat, greeting));
+        }
+    }
+
+    @Service
+    public static class PrefixGreeter implements Greeter {
+        @Value("greeting.prefix")
+        private String prefix;
+
+        @Override
+        public String greet(String name) {
+            return prefix + " " + name;
+        }
+    }
+
+    @Component
+    public static class GreetingController {
+        final Greeter greeter;
+
+        @Autowired
+        GreetingFormatter formatter;
+
+        @Autowired
+        public GreetingController(Greeter greeter) {
+            this.greeter = greeter;
+        }
+
+        String greet(String name) {
+            return formatter.format(greeter.greet(name));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.minidiframework.sources;
+
+import com.example.minidiframework.config.ConfigurationProperties;
+import com.example.minidiframework.config.PropertySource;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for layered property sources.
+ */
+public class PropertySourcesTest {
+
+    @Test
+    public void testFirstSourceTakesPrecedence() {
+        ConfigurationProperties properties = new ConfigurationProperties(List.of(
+            PropertySource.fromCommandLine("--sources.name=cli", "--sources.verbose", "positional"),
+            new PropertySource("overrides", Map.of("sources.name", "override", "sources.port", "2000")),
+            PropertySource.fromResource("sources-base.properties")));
+
+        assertEquals("cli", properties.getProperty("sources.name"));
+        assertEquals(PropertySource.COMMAND_LINE, properties.getPropertySource("sources.name"));
+        assertEquals("true", properties.getProperty("sources.verbose"));
+        assertEquals(2000, properties.getIntProperty("sources.port"));
+        assertEquals("overrides", properties.getPropertySource("sources.port"));
+        assertEquals("file", properties.getProperty("sources.only-in-file"));
+        assertEquals("sources-base.properties", properties.getPropertySource("sources.only-in-file"));
+        assertNull(properties.getPropertySource("sources.missing"));
+        assertFalse(properties.hasProperty("positional"));
+    }
+
+    @Test
+    public void testDefaultChainWithProfile() {
+        System.setProperty("sources.system", "from-system");
+        try {
+            ConfigurationProperties properties = ConfigurationProperties.fromCommandLine(
+                "--minidi.profiles.active=dev", "--app.version=2.0.0");
+
+            assertEquals("8081", properties.getProperty("server.port"));
+            assertEquals("application-dev.properties", properties.getPropertySource("server.port"));
+            assertEquals("Mini Framework Demo", properties.getProperty("app.name"));
+            assertEquals(ConfigurationProperties.DEFAULT_PROPERTIES_FILE, properties.getPropertySource("app.name"));
+            assertEquals("2.0.0", properties.getProperty("app.version"));
+            assertEquals("from-system", properties.getProperty("sources.system"));
+            assertEquals(PropertySource.SYSTEM_PROPERTIES, properties.getPropertySource("sources.system"));
+            assertEquals(5, properties.getPropertySources().size());
+
+            ConfigurationProperties withoutProfile = new ConfigurationProperties();
+            assertEquals("8080", withoutProfile.getProperty("server.port"));
+        } finally {
+            System.clearProperty("sources.system");
+        }
+    }
+
+    @Test
+    public void testEnvironmentVariablesAsProperties() {
+        Map.Entry<String, String> variable = System.getenv().entrySet().iterator().next();
+        PropertySource environment = PropertySource.fromEnvironment();
+
+        assertEquals(variable.getValue(),
+            environment.getProperty(variable.getKey().toLowerCase().replace('_', '.')));
+    }
+
+    @Test
+    public void testSnapshotIsImmutableAndInterned() {
+        ConfigurationProperties first = new ConfigurationProperties("sources-base.properties");
+        ConfigurationProperties second = new ConfigurationProperties("sources-base.properties");
+
+        assertSame(first.getProperty("sources.name"), second.getProperty("sources.name"));
+        assertThrows(UnsupportedOperationException.class, () -> first.getPropertyKeys().add("sources.other"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.minidiframework.startup;
+
+import com.example.minidiframework.annotation.*;
+import com.example.minidiframework.context.ApplicationContext;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the startup timeline, the startup report and the Flight Recorder events.
+ */
+public class StartupTimelineTest {
+    private static final String BASE_PACKAGE = "com.example.minidiframework.startup";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testBeanTimingsAreRecorded() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        StartupTimeline timeline = context.getStartupTimeline();
+
+        BeanTiming repository = timeline.getBeanTiming("slowRepository");
+        assertTrue(repository.getInstantiationNanos() >= TimeUnit.MILLISECONDS.toNanos(SlowRepository.DELAY_MILLIS));
+        assertEquals("slowRepository", timeline.getBeanTimings().get(0).getBeanName());
+        assertEquals(context.getBeanNames().size(), timeline.getBeanTimings().size());
+        assertTrue(timeline.getStartupNanos() >= repository.getTotalNanos());
+        assertTrue(timeline.getPhases().keySet().containsAll(List.of(
+            StartupTimeline.SCAN, StartupTimeline.INSTANTIATION, StartupTimeline.INJECTION)));
+    }
+
+    @Test
+    public void testCriticalPathFollowsSlowestConstructorChain() {
+        ApplicationContext context = new ApplicationContext(BASE_PACKAGE);
+        StartupReport report = context.getStartupReport();
+
+        assertEquals(List.of("slowRepository", "reportService", "reportController"), report.getCriticalPath());
+        assertTrue(report.getCriticalPathNanos() >= TimeUnit.MILLISECONDS.toNanos(SlowRepository.DELAY_MILLIS));
+        assertEquals("slowRepository", report.getSlowestBeans(1).get(0).getBeanName());
+        assertTrue(report.format(2).contains("Critical path ("));
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        Path recordingFile = tempDir.resolve("startup.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ComponentScanEvent.class);
+            recording.enable(BeanInstantiationEvent.class);
+            recording.enable(BeanInjectionEvent.class);
+            recording.start();
+            new ApplicationContext(BASE_PACKAGE);
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        List<String> instantiated = events.stream()
+            .filter(event -> event.getEventType().getName().equals("minidi.BeanInstantiation"))
+            .map(event -> event.getString("beanName"))
+            .collect(Collectors.toList());
+        assertTrue(instantiated.containsAll(List.of("slowRepository", "reportService", "reportController", "fastCache")));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("minidi.ComponentScan")
+            && event.getInt("componentCount") == 4));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("minidi.BeanInjection")
+            && "reportController".equals(event.getString("beanName"))));
+    }
+
+    // Test components
+    @Repository
+    public static class SlowRepository {
+        static final long DELAY_MILLIS = 30;
+
+        public SlowRepository() throws InterruptedException {
+            Thread.sleep(DELAY_MILLIS);
+        }
+    }
+
+    @Component
+    public static class FastCache {
+    }
+
+    @Service
+    public static class ReportService {
+        public ReportService(SlowRepository repository) {
+        }
+    }
+
+    @Component
+    public static class ReportController {
+        @Autowired
+        FastCache cache;
+
+        @Autowired
+        public ReportController(FastCache cache, ReportService reportService) {
+        }
+    }
+}